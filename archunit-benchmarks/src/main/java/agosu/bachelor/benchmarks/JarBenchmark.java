@@ -0,0 +1,108 @@
+package agosu.bachelor.benchmarks;
+
+import agosu.bachelor.archunit.CustomArchitectures.FunctionalArchitecture;
+import com.google.common.base.Preconditions;
+import com.tngtech.archunit.core.domain.JavaClass;
+import com.tngtech.archunit.core.domain.JavaClasses;
+import com.tngtech.archunit.core.importer.ClassFileImporter;
+import com.tngtech.archunit.lang.ArchRule;
+import com.tngtech.archunit.lang.EvaluationResult;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.file.Paths;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.jar.JarFile;
+
+import static agosu.bachelor.archunit.CustomArchitectures.functionalArchitecture;
+import static agosu.bachelor.archunit.CustomPredicates.isInsideThisSystem;
+import static agosu.bachelor.archunit.CustomPredicates.isOutsideThisSystem;
+
+/**
+ * Benchmarks the evaluation of real libraries on the classpath. Every direct subpackage of the root package of a
+ * library is defined as an FPackage.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JarBenchmark {
+
+    public enum Library {
+        GUAVA(Preconditions.class, "com.google.common"),
+        ARCHUNIT(ArchRule.class, "com.tngtech.archunit"),
+        LOGBACK(ch.qos.logback.classic.Logger.class, "ch.qos.logback.classic"),
+        JUNIT(org.junit.Test.class, "org.junit");
+
+        private final Class<?> member;
+        private final String root;
+
+        Library(Class<?> member, String root) {
+            this.member = member;
+            this.root = root;
+        }
+    }
+
+    @Param({"GUAVA", "ARCHUNIT", "LOGBACK", "JUNIT"})
+    public Library library;
+
+    private JarFile jar;
+    private JavaClasses classes;
+    private FunctionalArchitecture architecture;
+
+    @Setup(Level.Trial)
+    public void importJar() throws IOException, URISyntaxException {
+        jar = new JarFile(Paths.get(library.member.getProtectionDomain().getCodeSource().getLocation().toURI()).toFile());
+        classes = importClasses();
+        architecture = architectureOf(library.root, classes);
+    }
+
+    @TearDown(Level.Trial)
+    public void close() throws IOException {
+        jar.close();
+    }
+
+    @Benchmark
+    public JavaClasses importClasses() {
+        return new ClassFileImporter().importJar(jar);
+    }
+
+    @Benchmark
+    public EvaluationResult evaluate() {
+        return architecture.evaluate(classes);
+    }
+
+    @Benchmark
+    public EvaluationResult evaluateInSinglePass() {
+        return architecture.evaluatedInSinglePass().evaluate(classes);
+    }
+
+    @Benchmark
+    public EvaluationResult evaluateInParallel() {
+        return architecture.inParallel().evaluate(classes);
+    }
+
+    private static FunctionalArchitecture architectureOf(String root, JavaClasses classes) {
+        Set<String> fPackages = new TreeSet<>();
+        for (JavaClass clazz : classes) {
+            String packageName = clazz.getPackageName();
+            if (packageName.startsWith(root + ".")) {
+                int end = packageName.indexOf('.', root.length() + 1);
+                fPackages.add(end < 0 ? packageName : packageName.substring(0, end));
+            }
+        }
+        FunctionalArchitecture result = functionalArchitecture()
+                .systemRoot(root)
+                .ignoreDependency(isInsideThisSystem(root), isOutsideThisSystem(root));
+        for (String fPackage : fPackages) {
+            result = result.fPackage(fPackage.substring(root.length() + 1)).definedBy(fPackage + "..");
+        }
+        return result;
+    }
+
+}
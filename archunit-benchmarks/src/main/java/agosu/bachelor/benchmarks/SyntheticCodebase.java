@@ -0,0 +1,223 @@
+package agosu.bachelor.benchmarks;
+
+import agosu.bachelor.archunit.CustomArchitectures.FunctionalArchitecture;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static agosu.bachelor.archunit.CustomArchitectures.functionalArchitecture;
+import static agosu.bachelor.archunit.CustomPredicates.isInsideThisSystem;
+import static agosu.bachelor.archunit.CustomPredicates.isOutsideThisSystem;
+import static com.google.common.base.Preconditions.checkArgument;
+import static org.objectweb.asm.Opcodes.*;
+
+/**
+ * Generates the bytecode of a synthetic system shaped like the systems the functional architecture is written for:
+ * FPackages in two groups below {@link #SYSTEM_ROOT}, every FPackage with a chain of subpackages.
+ * <p>
+ * Every class depends on {@code edgesPerClass} other classes, by field types, method parameters and method calls.
+ * Dependencies only lead to earlier classes of the same FPackage or to classes of FPackages declared before, so the
+ * FPackages are free of cycles, unless cycles between pairs of FPackages are injected on purpose. The same parameters
+ * and seed always generate the same classes.
+ */
+public final class SyntheticCodebase {
+
+    public static final String SYSTEM_ROOT = "synthetic";
+    private static final String[] GROUPS = {"domain", "infrastructure"};
+    private static final double SAME_FPACKAGE_SHARE = 0.7;
+
+    private final int packageDepth;
+    private final int fPackageCount;
+    private final int classCount;
+    private final int edgesPerClass;
+    private final int injectedCycles;
+    private final long seed;
+
+    /**
+     * @param packageDepth the number of package levels of every FPackage, i.e. 1 for FPackages without subpackages
+     * @param injectedCycles the number of pairs of FPackages depending on each other
+     */
+    public SyntheticCodebase(int packageDepth, int fPackageCount, int classCount, int edgesPerClass, int injectedCycles, long seed) {
+        checkArgument(packageDepth > 0, "FPackages must have at least 1 package level");
+        checkArgument(fPackageCount > 0, "At least 1 FPackage must be generated");
+        checkArgument(classCount >= fPackageCount, "Every FPackage needs at least 1 class");
+        checkArgument(edgesPerClass >= 0, "The number of edges per class must not be negative");
+        checkArgument(injectedCycles >= 0 && (injectedCycles == 0 || fPackageCount > 1),
+                "Cycles can only be injected between at least 2 FPackages");
+        this.packageDepth = packageDepth;
+        this.fPackageCount = fPackageCount;
+        this.classCount = classCount;
+        this.edgesPerClass = edgesPerClass;
+        this.injectedCycles = injectedCycles;
+        this.seed = seed;
+    }
+
+    /**
+     * Writes the class files of the system below the given directory, laid out like a compiler output directory.
+     */
+    public void writeTo(Path directory) throws IOException {
+        List<List<Integer>> dependencies = dependencies();
+        for (int clazz = 0; clazz < classCount; clazz++) {
+            Path file = directory.resolve(internalNameOf(clazz) + ".class");
+            Files.createDirectories(file.getParent());
+            Files.write(file, classFile(clazz, dependencies.get(clazz)));
+        }
+    }
+
+    /**
+     * @return an architecture defining the generated FPackages and groups, where every FPackage may only access the
+     * FPackages declared before it
+     */
+    public FunctionalArchitecture architecture() {
+        FunctionalArchitecture result = functionalArchitecture()
+                .systemRoot(SYSTEM_ROOT)
+                .ignoreDependency(isInsideThisSystem(SYSTEM_ROOT), isOutsideThisSystem(SYSTEM_ROOT));
+        for (int fPackage = 0; fPackage < fPackageCount; fPackage++) {
+            result = result.fPackage(fPackageName(fPackage)).definedBy(fPackagePackage(fPackage) + "..");
+        }
+        for (String group : GROUPS) {
+            result = result.group(SYSTEM_ROOT + "." + group);
+        }
+        result = result.whereFPackage(fPackageName(0)).mayNotAccessAnyFPackage();
+        for (int fPackage = 1; fPackage < fPackageCount; fPackage++) {
+            String[] allowed = new String[fPackage];
+            for (int i = 0; i < fPackage; i++) {
+                allowed[i] = fPackageName(i);
+            }
+            result = result.whereFPackage(fPackageName(fPackage)).mayOnlyAccessFPackages(allowed);
+        }
+        return result;
+    }
+
+    public int getClassCount() {
+        return classCount;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d classes in %d FPackages of depth %d, %d edges per class, %d injected cycles",
+                classCount, fPackageCount, packageDepth, edgesPerClass, injectedCycles);
+    }
+
+    private List<List<Integer>> dependencies() {
+        Random random = new Random(seed);
+        List<List<Integer>> result = new ArrayList<>();
+        for (int clazz = 0; clazz < classCount; clazz++) {
+            List<Integer> targets = new ArrayList<>();
+            int fPackage = fPackageOf(clazz);
+            int earlierInFPackage = clazz / fPackageCount;
+            for (int edge = 0; edge < edgesPerClass; edge++) {
+                boolean sameFPackage = fPackage == 0 || random.nextDouble() < SAME_FPACKAGE_SHARE;
+                if (sameFPackage && earlierInFPackage > 0) {
+                    targets.add(classOf(fPackage, random.nextInt(earlierInFPackage)));
+                } else if (fPackage > 0) {
+                    int target = random.nextInt(fPackage);
+                    targets.add(classOf(target, random.nextInt(classesIn(target))));
+                }
+            }
+            result.add(targets);
+        }
+        for (int cycle = 0; cycle < injectedCycles; cycle++) {
+            int lower = random.nextInt(fPackageCount - 1);
+            int upper = lower + 1 + random.nextInt(fPackageCount - lower - 1);
+            int from = classOf(lower, random.nextInt(classesIn(upper)));
+            int to = classOf(upper, random.nextInt(classesIn(upper)));
+            result.get(from).add(to);
+            result.get(to).add(from);
+        }
+        return result;
+    }
+
+    private byte[] classFile(int clazz, List<Integer> targets) {
+        ClassWriter writer = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+        String internalName = internalNameOf(clazz);
+        writer.visit(V1_8, ACC_PUBLIC | ACC_SUPER, internalName, null, "java/lang/Object", null);
+        writer.visitSource(simpleNameOf(clazz) + ".java", null);
+
+        MethodVisitor constructor = writer.visitMethod(ACC_PUBLIC, "<init>", "()V", null, null);
+        constructor.visitCode();
+        constructor.visitVarInsn(ALOAD, 0);
+        constructor.visitMethodInsn(INVOKESPECIAL, "java/lang/Object", "<init>", "()V", false);
+        constructor.visitInsn(RETURN);
+        constructor.visitMaxs(0, 0);
+        constructor.visitEnd();
+
+        MethodVisitor touch = writer.visitMethod(ACC_PUBLIC | ACC_STATIC, "touch", "()V", null, null);
+        touch.visitCode();
+        touch.visitInsn(RETURN);
+        touch.visitMaxs(0, 0);
+        touch.visitEnd();
+
+        MethodVisitor calls = writer.visitMethod(ACC_PUBLIC | ACC_STATIC, "callAll", "()V", null, null);
+        calls.visitCode();
+        for (int edge = 0; edge < targets.size(); edge++) {
+            String target = internalNameOf(targets.get(edge));
+            switch (edge % 3) {
+                case 0:
+                    writer.visitField(ACC_PRIVATE, "field" + edge, "L" + target + ";", null, null).visitEnd();
+                    break;
+                case 1:
+                    MethodVisitor parameter = writer.visitMethod(ACC_PUBLIC, "use" + edge, "(L" + target + ";)V", null, null);
+                    parameter.visitCode();
+                    parameter.visitInsn(RETURN);
+                    parameter.visitMaxs(0, 0);
+                    parameter.visitEnd();
+                    break;
+                default:
+                    Label line = new Label();
+                    calls.visitLabel(line);
+                    calls.visitLineNumber(edge + 1, line);
+                    calls.visitMethodInsn(INVOKESTATIC, target, "touch", "()V", false);
+                    break;
+            }
+        }
+        calls.visitInsn(RETURN);
+        calls.visitMaxs(0, 0);
+        calls.visitEnd();
+
+        writer.visitEnd();
+        return writer.toByteArray();
+    }
+
+    // classes are dealt to the FPackages in turns, and within an FPackage to its package levels in turns
+    private int fPackageOf(int clazz) {
+        return clazz % fPackageCount;
+    }
+
+    private int classOf(int fPackage, int indexInFPackage) {
+        return indexInFPackage * fPackageCount + fPackage;
+    }
+
+    private int classesIn(int fPackage) {
+        return (classCount - fPackage + fPackageCount - 1) / fPackageCount;
+    }
+
+    private String internalNameOf(int clazz) {
+        int indexInFPackage = clazz / fPackageCount;
+        StringBuilder result = new StringBuilder(fPackagePackage(fPackageOf(clazz)).replace('.', '/'));
+        for (int level = 1; level <= indexInFPackage % packageDepth; level++) {
+            result.append("/s").append(level);
+        }
+        return result.append('/').append(simpleNameOf(clazz)).toString();
+    }
+
+    private static String simpleNameOf(int clazz) {
+        return "C" + clazz;
+    }
+
+    private static String fPackageName(int fPackage) {
+        return "f" + fPackage;
+    }
+
+    private static String fPackagePackage(int fPackage) {
+        return SYSTEM_ROOT + "." + GROUPS[fPackage % GROUPS.length] + "." + fPackageName(fPackage);
+    }
+
+}
@@ -0,0 +1,138 @@
+package agosu.bachelor.benchmarks;
+
+import agosu.bachelor.archunit.CustomArchitectures.FunctionalArchitecture;
+import agosu.bachelor.archunit.CycleGranularity;
+import agosu.bachelor.archunit.DependencyGraph;
+import com.tngtech.archunit.core.domain.JavaClasses;
+import com.tngtech.archunit.core.importer.ClassFileImporter;
+import com.tngtech.archunit.lang.EvaluationResult;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import static agosu.bachelor.archunit.CustomConditions.notAccessClassesInAncestorPackages;
+import static agosu.bachelor.archunit.CustomConditions.notAccessClassesInSubpackages;
+import static agosu.bachelor.archunit.CustomConditions.notBeLayers;
+import static agosu.bachelor.archunit.CustomPredicates.areDirectRootChildrenOf;
+import static agosu.bachelor.archunit.CustomTransformers.packages;
+import static agosu.bachelor.benchmarks.SyntheticCodebase.SYSTEM_ROOT;
+import static com.tngtech.archunit.lang.syntax.ArchRuleDefinition.all;
+import static com.tngtech.archunit.lang.syntax.ArchRuleDefinition.classes;
+import static com.tngtech.archunit.library.dependencies.SlicesRuleDefinition.slices;
+
+/**
+ * Benchmarks the evaluation of a {@link SyntheticCodebase}, as a whole in every evaluation mode and check by check.
+ * The individual checks are the rules {@link FunctionalArchitecture#evaluate} runs, defined the same way.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SyntheticCodebaseBenchmark {
+
+    @Param({"1000", "10000"})
+    public int classCount;
+
+    @Param({"20"})
+    public int fPackageCount;
+
+    @Param({"3"})
+    public int packageDepth;
+
+    @Param({"5"})
+    public int edgesPerClass;
+
+    @Param({"0", "5"})
+    public int injectedCycles;
+
+    private Path directory;
+    private JavaClasses classes;
+    private DependencyGraph graph;
+    private FunctionalArchitecture architecture;
+
+    @Setup(Level.Trial)
+    public void generate() throws IOException {
+        SyntheticCodebase codebase = new SyntheticCodebase(packageDepth, fPackageCount, classCount, edgesPerClass, injectedCycles, 42);
+        directory = Files.createTempDirectory("synthetic-codebase");
+        codebase.writeTo(directory);
+        classes = new ClassFileImporter().importPath(directory);
+        graph = DependencyGraph.of(classes);
+        architecture = codebase.architecture();
+    }
+
+    @TearDown(Level.Trial)
+    public void delete() throws IOException {
+        Benchmarks.deleteRecursively(directory);
+    }
+
+    @Benchmark
+    public JavaClasses importClasses() {
+        return new ClassFileImporter().importPath(directory);
+    }
+
+    @Benchmark
+    public EvaluationResult evaluate() {
+        return architecture.evaluate(classes);
+    }
+
+    @Benchmark
+    public EvaluationResult evaluateInSinglePass() {
+        return architecture.evaluatedInSinglePass().evaluate(classes);
+    }
+
+    @Benchmark
+    public EvaluationResult evaluateInParallel() {
+        return architecture.inParallel().evaluate(classes);
+    }
+
+    @Benchmark
+    public EvaluationResult evaluateWithoutFPackageChecks() {
+        return architecture.whereFPackagesOff().evaluate(classes);
+    }
+
+    @Benchmark
+    public DependencyGraph buildDependencyGraph() {
+        return DependencyGraph.of(classes);
+    }
+
+    @Benchmark
+    public EvaluationResult checkLayers() {
+        return all(packages).that(areDirectRootChildrenOf(SYSTEM_ROOT)).should(notBeLayers).evaluate(classes);
+    }
+
+    @Benchmark
+    public EvaluationResult checkDependencyDirectionUp() {
+        return classes().should(notAccessClassesInSubpackages()).evaluate(classes);
+    }
+
+    @Benchmark
+    public EvaluationResult checkDependencyDirectionDown() {
+        return classes().should(notAccessClassesInAncestorPackages()).evaluate(classes);
+    }
+
+    @Benchmark
+    public EvaluationResult checkCyclesBetweenSlices() {
+        return slices().matching("(" + SYSTEM_ROOT + ".*).(*)..").should().beFreeOfCycles().evaluate(classes);
+    }
+
+    @Benchmark
+    public EvaluationResult detectCyclesBetweenSlices() {
+        return architecture.whereCyclesDetectedBetween(CycleGranularity.SLICE).evaluateCycles(graph);
+    }
+
+    @Benchmark
+    public EvaluationResult detectCyclesBetweenPackages() {
+        return architecture.whereCyclesDetectedBetween(CycleGranularity.PACKAGE).evaluateCycles(graph);
+    }
+
+    @Benchmark
+    public EvaluationResult detectCyclesBetweenFPackages() {
+        return architecture.whereCyclesDetectedBetween(CycleGranularity.FPACKAGE).evaluateCycles(graph);
+    }
+
+}
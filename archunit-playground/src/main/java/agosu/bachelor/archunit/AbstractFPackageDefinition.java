@@ -16,6 +16,7 @@ public abstract class AbstractFPackageDefinition {
 
     private final String name;
     protected String thePackage;
+    protected String[] packageIdentifiers;
     protected DescribedPredicate<JavaClass> containsPredicate;
     protected DescribedPredicate<JavaClass> excludeSubpackagePredicate;
 
@@ -33,6 +34,7 @@ public abstract class AbstractFPackageDefinition {
     public CustomArchitectures.FunctionalArchitecture definedBy(String... packageIdentifiers) {
         String oneAndOnly = Arrays.stream(packageIdentifiers).findFirst().get();
         String excludeSubPackageIdentifier = getPackageExcludingSubpackages(oneAndOnly);
+        this.packageIdentifiers = packageIdentifiers.clone();
         return definedBy(
                 oneAndOnly,
                 resideInAnyPackage(packageIdentifiers),
@@ -60,4 +62,11 @@ public abstract class AbstractFPackageDefinition {
         return this.thePackage;
     }
 
+    /**
+     * @return the package identifiers this FPackage was defined by, or {@code null} if it was defined by predicates
+     */
+    String[] getPackageIdentifiers() {
+        return this.packageIdentifiers;
+    }
+
 }
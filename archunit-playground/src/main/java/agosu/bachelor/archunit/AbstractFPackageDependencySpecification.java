@@ -4,9 +4,12 @@ import com.tngtech.archunit.PublicAPI;
 import com.tngtech.archunit.core.domain.Dependency;
 import com.tngtech.archunit.lang.ArchRule;
 
+import java.util.ArrayList;
 import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Set;
 
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.tngtech.archunit.PublicAPI.Usage.ACCESS;
 
 public abstract class AbstractFPackageDependencySpecification {
@@ -25,6 +28,12 @@ public abstract class AbstractFPackageDependencySpecification {
 
     public abstract CustomArchitectures.FunctionalArchitecture restrictFPackages(FPackageDependencyConstraint constraint, String[] fPackageNames, String descriptionTemplate);
 
+    public abstract CustomArchitectures.FunctionalArchitecture restrictTransitiveAccess(FPackageDependencyConstraint constraint, String[] fPackageNames, String descriptionTemplate);
+
+    public abstract CustomArchitectures.FunctionalArchitecture restrictDependencyKinds(String fPackageName, int forbiddenKinds, String description);
+
+    public abstract CustomArchitectures.FunctionalArchitecture restrictCoupling(CouplingMetric metric, double bound);
+
     /**
      * Forbids any {@link Dependency dependency} from another FPackage to this FPackage.
      * @return a {@link CustomArchitectures.FunctionalArchitecture} to be used as an {@link ArchRule} or further restricted through a fluent API.
@@ -63,6 +72,81 @@ public abstract class AbstractFPackageDependencySpecification {
         return restrictFPackages(FPackageDependencyConstraint.TARGET, fPackageNames, "may only access FPackages ['%s']");
     }
 
+    /**
+     * Forbids any chain of {@link Dependency dependencies} from this FPackage to the specified FPackages, be it direct or
+     * through other FPackages. Unlike the other restrictions, it is added to the restrictions of this FPackage.
+     * @param fPackageNames the names of other FPackages that this FPackage may not reach
+     * @return a {@link CustomArchitectures.FunctionalArchitecture} to be used as an {@link ArchRule} or further restricted through a fluent API.
+     */
+    @PublicAPI(usage = ACCESS)
+    public CustomArchitectures.FunctionalArchitecture mayNotTransitivelyAccessFPackages(String... fPackageNames) {
+        return restrictTransitiveAccess(FPackageDependencyConstraint.TARGET, fPackageNames, "may not transitively access FPackages ['%s']");
+    }
+
+    /**
+     * Restricts this FPackage to only be reached by the specified FPackages, by a chain of {@link Dependency dependencies}
+     * that is direct or goes through other FPackages. Unlike the other restrictions, it is added to the restrictions of
+     * this FPackage.
+     * @param fPackageNames the names of other FPackages that may reach this FPackage
+     * @return a {@link CustomArchitectures.FunctionalArchitecture} to be used as an {@link ArchRule} or further restricted through a fluent API.
+     */
+    @PublicAPI(usage = ACCESS)
+    public CustomArchitectures.FunctionalArchitecture mayOnlyBeTransitivelyAccessedByFPackages(String... fPackageNames) {
+        return restrictTransitiveAccess(FPackageDependencyConstraint.ORIGIN, fPackageNames, "may only be transitively accessed by FPackages ['%s']");
+    }
+
+    /**
+     * Forbids the {@link Dependency dependencies} of the given kinds from this FPackage to the specified FPackage, e.g.
+     * calling the methods of its services. Unlike the other restrictions, it is added to the restrictions of this FPackage.
+     * @param fPackageName the name of another FPackage
+     * @param kinds the kinds of dependencies this FPackage may not have on the other FPackage
+     * @return a {@link CustomArchitectures.FunctionalArchitecture} to be used as an {@link ArchRule} or further restricted through a fluent API.
+     */
+    @PublicAPI(usage = ACCESS)
+    public CustomArchitectures.FunctionalArchitecture mayNotAccessFPackageBy(String fPackageName, DependencyKind... kinds) {
+        checkArgument(kinds.length > 0, "At least 1 dependency kind must be provided.");
+        return restrictDependencyKinds(fPackageName, flagsOf(kinds), String.format("may not access FPackage '%s' by %s", fPackageName, describe(kinds)));
+    }
+
+    /**
+     * Restricts the {@link Dependency dependencies} from this FPackage to the specified FPackage to the given kinds, e.g.
+     * implementing its interfaces. Unlike the other restrictions, it is added to the restrictions of this FPackage.
+     * @param fPackageName the name of another FPackage
+     * @param kinds the only kinds of dependencies this FPackage may have on the other FPackage
+     * @return a {@link CustomArchitectures.FunctionalArchitecture} to be used as an {@link ArchRule} or further restricted through a fluent API.
+     */
+    @PublicAPI(usage = ACCESS)
+    public CustomArchitectures.FunctionalArchitecture mayAccessFPackageOnlyBy(String fPackageName, DependencyKind... kinds) {
+        checkArgument(kinds.length > 0, "At least 1 dependency kind must be provided.");
+        return restrictDependencyKinds(fPackageName, ~flagsOf(kinds), String.format("may access FPackage '%s' only by %s", fPackageName, describe(kinds)));
+    }
+
+    private static int flagsOf(DependencyKind[] kinds) {
+        int result = 0;
+        for (DependencyKind kind : kinds) {
+            result |= kind.flag();
+        }
+        return result;
+    }
+
+    private static String describe(DependencyKind[] kinds) {
+        List<String> descriptions = new ArrayList<>();
+        for (DependencyKind kind : kinds) {
+            descriptions.add(kind.describe());
+        }
+        return "[" + String.join(", ", descriptions) + "]";
+    }
+
+    /**
+     * Requires the {@link CouplingMetrics coupling metric} of this FPackage to stay below the bound, e.g. its instability
+     * below 0.3. Like the transitive restrictions, it is added to the restrictions of this FPackage.
+     * @return a {@link CustomArchitectures.FunctionalArchitecture} to be used as an {@link ArchRule} or further restricted through a fluent API.
+     */
+    @PublicAPI(usage = ACCESS)
+    public CustomArchitectures.FunctionalArchitecture shouldHaveCouplingBelow(CouplingMetric metric, double bound) {
+        return restrictCoupling(metric, bound);
+    }
+
     @Override
     public String toString() {
         return String.format("where FPackage '%s' %s", fPackageName, descriptionSuffix);
@@ -0,0 +1,281 @@
+package agosu.bachelor.archunit;
+
+import com.tngtech.archunit.PublicAPI;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.tngtech.archunit.PublicAPI.Usage.ACCESS;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * The dependencies between the units of a functional architecture (FPackages, groups, packages or slices), aggregated
+ * from the {@link DependencyGraph} of an evaluation. Every edge is weighted by the number of class edges it aggregates
+ * and counts how many of them violate the FPackage dependency specifications or the dependency direction.
+ * <p>
+ * The graph keeps the edges as int arrays and is written straight to a writer, edge by edge, in any of the
+ * {@link GraphFormat formats}.
+ */
+public final class ArchitectureGraph {
+
+    private static final int NONE = -1;
+
+    private final CycleGranularity granularity;
+    private final List<String> units;
+    private final int[] origins;
+    private final int[] targets;
+    private final int[] weights;
+    private final int[] violations;
+
+    private ArchitectureGraph(CycleGranularity granularity, List<String> units, int[] origins, int[] targets,
+                              int[] weights, int[] violations) {
+        this.granularity = granularity;
+        this.units = units;
+        this.origins = origins;
+        this.targets = targets;
+        this.weights = weights;
+        this.violations = violations;
+    }
+
+    /**
+     * @param unitOfClass the unit of every class, by class id, or {@code null} for classes in no unit
+     * @param violatingTargets the targets of the violating dependencies, by the name of their origin
+     */
+    static ArchitectureGraph of(DependencyGraph graph, String[] unitOfClass, Map<String, Set<String>> violatingTargets,
+                                CycleGranularity granularity) {
+        List<String> units = new ArrayList<>(new TreeSet<>(nonNull(unitOfClass)));
+        Map<String, Integer> unitIds = new HashMap<>();
+        for (String unit : units) {
+            unitIds.put(unit, unitIds.size());
+        }
+
+        Map<Long, int[]> edges = new HashMap<>();
+        for (int clazz = 0; clazz < graph.getClassCount(); clazz++) {
+            int origin = unitOfClass[clazz] == null ? NONE : unitIds.get(unitOfClass[clazz]);
+            if (origin == NONE || graph.getFirstEdge(clazz) == graph.getEdgeEnd(clazz)) {
+                continue;
+            }
+            Set<String> violating = violatingTargets.get(graph.getClassName(clazz));
+            for (int edge = graph.getFirstEdge(clazz); edge < graph.getEdgeEnd(clazz); edge++) {
+                int targetClass = graph.getEdgeTarget(edge);
+                int target = unitOfClass[targetClass] == null ? NONE : unitIds.get(unitOfClass[targetClass]);
+                if (target == NONE || target == origin) {
+                    continue;
+                }
+                int[] counts = edges.computeIfAbsent(((long) origin << 32) | target, key -> new int[2]);
+                counts[0]++;
+                if (violating != null && violating.contains(graph.getClassName(targetClass))) {
+                    counts[1]++;
+                }
+            }
+        }
+
+        long[] keys = new long[edges.size()];
+        int i = 0;
+        for (long key : edges.keySet()) {
+            keys[i++] = key;
+        }
+        Arrays.sort(keys);
+        int[] origins = new int[keys.length];
+        int[] targets = new int[keys.length];
+        int[] weights = new int[keys.length];
+        int[] violations = new int[keys.length];
+        for (i = 0; i < keys.length; i++) {
+            origins[i] = (int) (keys[i] >>> 32);
+            targets[i] = (int) keys[i];
+            weights[i] = edges.get(keys[i])[0];
+            violations[i] = edges.get(keys[i])[1];
+        }
+        return new ArchitectureGraph(granularity, Collections.unmodifiableList(units), origins, targets, weights, violations);
+    }
+
+    private static List<String> nonNull(String[] values) {
+        List<String> result = new ArrayList<>();
+        for (String value : values) {
+            if (value != null) {
+                result.add(value);
+            }
+        }
+        return result;
+    }
+
+    @PublicAPI(usage = ACCESS)
+    public CycleGranularity getGranularity() {
+        return granularity;
+    }
+
+    /**
+     * @return the names of the units, in their natural order
+     */
+    @PublicAPI(usage = ACCESS)
+    public List<String> getUnits() {
+        return units;
+    }
+
+    @PublicAPI(usage = ACCESS)
+    public int getEdgeCount() {
+        return origins.length;
+    }
+
+    /**
+     * @return the number of class edges from the origin unit to the target unit, or 0 if there are none
+     */
+    @PublicAPI(usage = ACCESS)
+    public int getWeight(String origin, String target) {
+        int edge = edgeOf(origin, target);
+        return edge == NONE ? 0 : weights[edge];
+    }
+
+    /**
+     * @return the number of violating class edges from the origin unit to the target unit, or 0 if there are none
+     */
+    @PublicAPI(usage = ACCESS)
+    public int getViolations(String origin, String target) {
+        int edge = edgeOf(origin, target);
+        return edge == NONE ? 0 : violations[edge];
+    }
+
+    // the edges are ordered by their origin, then by their target
+    int getEdgeOrigin(int edge) {
+        return origins[edge];
+    }
+
+    int getEdgeTarget(int edge) {
+        return targets[edge];
+    }
+
+    int getEdgeWeight(int edge) {
+        return weights[edge];
+    }
+
+    int getEdgeViolations(int edge) {
+        return violations[edge];
+    }
+
+    private int edgeOf(String origin, String target) {
+        int originId = Collections.binarySearch(units, origin);
+        int targetId = Collections.binarySearch(units, target);
+        if (originId < 0 || targetId < 0) {
+            return NONE;
+        }
+        for (int edge = 0; edge < origins.length; edge++) {
+            if (origins[edge] == originId && targets[edge] == targetId) {
+                return edge;
+            }
+        }
+        return NONE;
+    }
+
+    /**
+     * Creates the file, or replaces it if it exists.
+     */
+    @PublicAPI(usage = ACCESS)
+    public void write(GraphFormat format, Path file) {
+        checkNotNull(file, "Supplied file must not be null");
+        try (Writer writer = Files.newBufferedWriter(file, UTF_8)) {
+            write(format, writer);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Writes the graph to the writer, which is flushed but not closed.
+     */
+    @PublicAPI(usage = ACCESS)
+    public void write(GraphFormat format, Writer writer) {
+        checkNotNull(format, "Supplied format must not be null");
+        checkNotNull(writer, "Supplied writer must not be null");
+        Writer out = writer instanceof BufferedWriter ? writer : new BufferedWriter(writer);
+        try {
+            switch (format) {
+                case DOT:
+                    writeDot(out);
+                    break;
+                case GRAPHML:
+                    writeGraphMl(out);
+                    break;
+                default:
+                    writeJson(out);
+                    break;
+            }
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // violating edges are drawn red, labelled with the number of violating class edges
+    private void writeDot(Writer out) throws IOException {
+        out.write("digraph \"" + granularity + "\" {\n");
+        for (String unit : units) {
+            out.write("    " + dotId(unit) + ";\n");
+        }
+        for (int edge = 0; edge < origins.length; edge++) {
+            out.write("    " + dotId(units.get(origins[edge])) + " -> " + dotId(units.get(targets[edge])));
+            if (violations[edge] > 0) {
+                out.write(String.format(" [label=\"%d (%d violating)\", weight=%d, color=\"red\", penwidth=2];\n",
+                        weights[edge], violations[edge], weights[edge]));
+            } else {
+                out.write(String.format(" [label=\"%d\", weight=%d];\n", weights[edge], weights[edge]));
+            }
+        }
+        out.write("}\n");
+    }
+
+    private static String dotId(String unit) {
+        return "\"" + unit.replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
+    }
+
+    private void writeGraphMl(Writer out) throws IOException {
+        out.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+        out.write("<graphml xmlns=\"http://graphml.graphdrawing.org/xmlns\">\n");
+        out.write("    <key id=\"weight\" for=\"edge\" attr.name=\"weight\" attr.type=\"int\"/>\n");
+        out.write("    <key id=\"violations\" for=\"edge\" attr.name=\"violations\" attr.type=\"int\"/>\n");
+        out.write("    <graph id=\"" + xml(granularity.toString()) + "\" edgedefault=\"directed\">\n");
+        for (String unit : units) {
+            out.write("        <node id=\"" + xml(unit) + "\"/>\n");
+        }
+        for (int edge = 0; edge < origins.length; edge++) {
+            out.write("        <edge source=\"" + xml(units.get(origins[edge])) + "\" target=\"" + xml(units.get(targets[edge])) + "\">\n");
+            out.write("            <data key=\"weight\">" + weights[edge] + "</data>\n");
+            out.write("            <data key=\"violations\">" + violations[edge] + "</data>\n");
+            out.write("        </edge>\n");
+        }
+        out.write("    </graph>\n");
+        out.write("</graphml>\n");
+    }
+
+    static String xml(String value) {
+        return value.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;").replace("\"", "&quot;");
+    }
+
+    private void writeJson(Writer out) throws IOException {
+        out.write("{\"granularity\":");
+        JsonLinesViolationSink.writeString(granularity.name(), out);
+        out.write(",\"nodes\":[");
+        for (int unit = 0; unit < units.size(); unit++) {
+            out.write(unit == 0 ? "\n" : ",\n");
+            out.write("{\"id\":");
+            JsonLinesViolationSink.writeString(units.get(unit), out);
+            out.write("}");
+        }
+        out.write("],\"edges\":[");
+        for (int edge = 0; edge < origins.length; edge++) {
+            out.write(edge == 0 ? "\n" : ",\n");
+            out.write("{\"source\":");
+            JsonLinesViolationSink.writeString(units.get(origins[edge]), out);
+            out.write(",\"target\":");
+            JsonLinesViolationSink.writeString(units.get(targets[edge]), out);
+            out.write(",\"weight\":" + weights[edge] + ",\"violations\":" + violations[edge] + "}");
+        }
+        out.write("]}\n");
+    }
+
+}
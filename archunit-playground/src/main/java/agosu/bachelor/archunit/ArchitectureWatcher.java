@@ -0,0 +1,228 @@
+package agosu.bachelor.archunit;
+
+import com.tngtech.archunit.PublicAPI;
+import com.tngtech.archunit.lang.ConditionEvent;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+import static com.tngtech.archunit.PublicAPI.Usage.ACCESS;
+import static java.nio.file.StandardWatchEventKinds.*;
+
+/**
+ * Watches class directories, e.g. {@code target/classes}, and evaluates a functional architecture again whenever class
+ * files change, see {@link CustomArchitectures.FunctionalArchitecture#watch(Listener, Path...)}.
+ * <p>
+ * The facts of all classes are kept in memory, like {@link CustomArchitectures.FunctionalArchitecture#evaluateIncrementally(Path, Path...)}
+ * keeps them in its cache: only the changed class files and the classes depending on them are imported and checked
+ * again. Empty FPackages, layers and cycles are evaluated on the facts of all classes, without importing any of them,
+ * and the cycle detector runs in linear time of the class dependencies. The listener is told the violations that
+ * appeared and disappeared.
+ * <p>
+ * The changes a compiler writes in one go are collected until no change is seen for {@value #QUIET_MILLIS}
+ * milliseconds, then evaluated together on the watching thread.
+ */
+public final class ArchitectureWatcher implements Closeable {
+
+    /**
+     * Told the changes of the violations on the watching thread.
+     */
+    public interface Listener {
+
+        /**
+         * @param newViolations the violations that were not reported by the last evaluation
+         * @param fixedViolations the violations of the last evaluation that are not reported any more
+         */
+        void changed(Set<String> newViolations, Set<String> fixedViolations);
+
+        /**
+         * Called if class files could not be evaluated, e.g. while they are still being written. They are evaluated
+         * again with the next change.
+         */
+        default void failed(Exception exception) {
+        }
+    }
+
+    static final long QUIET_MILLIS = 20;
+
+    private final IncrementalEvaluation evaluation;
+    private final EvaluationCache cache;
+    private final List<Path> roots;
+    private final Listener listener;
+    private final WatchService watchService;
+    private final Map<WatchKey, Path> directories = new HashMap<>();
+    private final Map<String, IncrementalEvaluation.ClassFile> classFiles;
+    private final Thread thread;
+    private volatile Set<String> violations = Collections.emptySet();
+    private boolean evaluated = false;
+
+    private ArchitectureWatcher(IncrementalEvaluation evaluation, List<Path> roots, Listener listener) throws IOException {
+        this.evaluation = evaluation;
+        this.cache = evaluation.emptyCache();
+        this.roots = roots;
+        this.listener = listener;
+        this.watchService = FileSystems.getDefault().newWatchService();
+        this.classFiles = IncrementalEvaluation.classFilesIn(roots);
+        this.thread = new Thread(this::watch, "architecture-watcher");
+        this.thread.setDaemon(true);
+    }
+
+    /**
+     * Evaluates all classes in the directories, tells the listener all violations as new ones and starts watching.
+     */
+    static ArchitectureWatcher start(IncrementalEvaluation evaluation, List<Path> classDirectories, Listener listener) throws IOException {
+        List<Path> roots = new ArrayList<>();
+        for (Path directory : classDirectories) {
+            roots.add(directory.toAbsolutePath().normalize());
+        }
+        ArchitectureWatcher watcher = new ArchitectureWatcher(evaluation, roots, listener);
+        try {
+            for (Path root : roots) {
+                watcher.register(root);
+            }
+            watcher.evaluate();
+        } catch (IOException | RuntimeException e) {
+            watcher.watchService.close();
+            throw e;
+        }
+        watcher.thread.start();
+        return watcher;
+    }
+
+    /**
+     * @return the violations reported by the last evaluation
+     */
+    @PublicAPI(usage = ACCESS)
+    public Set<String> getViolations() {
+        return violations;
+    }
+
+    /**
+     * Stops watching and waits for an evaluation in progress to finish.
+     */
+    @Override
+    @PublicAPI(usage = ACCESS)
+    public void close() throws IOException {
+        watchService.close();
+        if (Thread.currentThread() != thread) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void register(Path directory) throws IOException {
+        try (DirectoryStream<Path> children = Files.newDirectoryStream(directory)) {
+            directories.put(directory.register(watchService, ENTRY_CREATE, ENTRY_MODIFY, ENTRY_DELETE), directory);
+            for (Path child : children) {
+                if (Files.isDirectory(child, LinkOption.NOFOLLOW_LINKS)) {
+                    register(child);
+                }
+            }
+        }
+    }
+
+    private void watch() {
+        try {
+            while (true) {
+                Set<Path> changed = new LinkedHashSet<>();
+                boolean overflow = collect(watchService.take(), changed);
+                WatchKey key;
+                while ((key = watchService.poll(QUIET_MILLIS, TimeUnit.MILLISECONDS)) != null) {
+                    overflow |= collect(key, changed);
+                }
+                try {
+                    update(changed, overflow);
+                    evaluate();
+                } catch (IOException | RuntimeException e) {
+                    listener.failed(e);
+                }
+            }
+        } catch (ClosedWatchServiceException | InterruptedException e) {
+            // closed
+        }
+    }
+
+    private boolean collect(WatchKey key, Set<Path> changed) {
+        Path directory = directories.get(key);
+        boolean overflow = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == OVERFLOW) {
+                overflow = true;
+            } else if (directory != null) {
+                changed.add(directory.resolve((Path) event.context()));
+            }
+        }
+        if (!key.reset()) {
+            directories.remove(key);
+        }
+        return overflow;
+    }
+
+    private void update(Set<Path> changed, boolean overflow) throws IOException {
+        if (overflow) {
+            for (Path root : roots) {
+                register(root);
+            }
+            classFiles.clear();
+            classFiles.putAll(IncrementalEvaluation.classFilesIn(roots));
+            return;
+        }
+        for (Path path : changed) {
+            if (Files.isDirectory(path, LinkOption.NOFOLLOW_LINKS)) {
+                if (directories.containsValue(path)) {
+                    continue;
+                }
+                register(path);
+                for (Path file : IncrementalEvaluation.classFilesBelow(path)) {
+                    read(file);
+                }
+            } else if (IncrementalEvaluation.isClassFile(path)) {
+                read(path);
+            } else {
+                // a deleted class file, or a deleted directory with all class files below it
+                String removed = path.toString();
+                classFiles.keySet().removeIf(key -> key.equals(removed) || key.startsWith(removed + path.getFileSystem().getSeparator()));
+            }
+        }
+    }
+
+    private void read(Path file) throws IOException {
+        for (Path root : roots) {
+            if (file.startsWith(root)) {
+                try {
+                    IncrementalEvaluation.ClassFile classFile = new IncrementalEvaluation.ClassFile(root, file);
+                    classFiles.put(classFile.getKey(), classFile);
+                } catch (NoSuchFileException e) {
+                    classFiles.remove(file.toString());
+                }
+                return;
+            }
+        }
+    }
+
+    private void evaluate() {
+        if (!evaluation.update(cache, classFiles) && evaluated) {
+            return;
+        }
+        evaluated = true;
+        Set<String> current = new LinkedHashSet<>();
+        for (ConditionEvent event : evaluation.evaluate(cache).getViolating()) {
+            current.addAll(event.getDescriptionLines());
+        }
+        Set<String> newViolations = new LinkedHashSet<>(current);
+        newViolations.removeAll(violations);
+        Set<String> fixedViolations = new LinkedHashSet<>(violations);
+        fixedViolations.removeAll(current);
+        violations = Collections.unmodifiableSet(current);
+        if (!newViolations.isEmpty() || !fixedViolations.isEmpty()) {
+            listener.changed(Collections.unmodifiableSet(newViolations), Collections.unmodifiableSet(fixedViolations));
+        }
+    }
+
+}
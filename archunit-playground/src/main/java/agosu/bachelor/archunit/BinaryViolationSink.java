@@ -0,0 +1,156 @@
+package agosu.bachelor.archunit;
+
+import com.tngtech.archunit.PublicAPI;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.tngtech.archunit.PublicAPI.Usage.ACCESS;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Writes the violations to a compact binary log, which {@link #read(Path, Consumer)} streams back.
+ * <p>
+ * Every record holds the check, the dependency kind and the line as small ints, the class and FPackage names as
+ * references into a table of the names written so far, and the message. A name is written out only the first time
+ * it occurs, so a log of many violations between the same classes stays small.
+ */
+public final class BinaryViolationSink implements ViolationSink {
+
+    private static final int MAGIC = 0x46505654;
+    private static final int FORMAT_VERSION = 1;
+    private static final int NULL_NAME = 0;
+
+    private final DataOutputStream out;
+    private final Map<String, Integer> names = new HashMap<>();
+
+    /**
+     * Creates the file, or replaces it if it exists.
+     */
+    public BinaryViolationSink(Path file) {
+        checkNotNull(file, "Supplied file must not be null");
+        try {
+            this.out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)));
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void accept(Violation violation) {
+        try {
+            out.writeByte(violation.getCheck().ordinal());
+            out.writeByte(violation.getDependencyKind() != null ? violation.getDependencyKind().ordinal() + 1 : 0);
+            writeVarInt(violation.getLineNumber());
+            writeName(violation.getOrigin());
+            writeName(violation.getTarget());
+            writeName(violation.getOriginFPackage());
+            writeName(violation.getTargetFPackage());
+            byte[] message = violation.getMessage().getBytes(UTF_8);
+            writeVarInt(message.length);
+            out.write(message);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // a known name is written as its position in the table plus 1, a new one as the next position followed by the name
+    private void writeName(String name) throws IOException {
+        if (name == null) {
+            writeVarInt(NULL_NAME);
+            return;
+        }
+        Integer known = names.get(name);
+        if (known != null) {
+            writeVarInt(known);
+            return;
+        }
+        int reference = names.size() + 1;
+        names.put(name, reference);
+        writeVarInt(reference);
+        out.writeUTF(name);
+    }
+
+    private void writeVarInt(int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    @Override
+    public void close() {
+        try {
+            out.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Streams the violations of a log to the consumer, in the order they were written.
+     *
+     * @throws IllegalArgumentException if the file is no violation log or was written in another format version
+     */
+    @PublicAPI(usage = ACCESS)
+    public static void read(Path file, Consumer<? super Violation> consumer) {
+        checkNotNull(file, "Supplied file must not be null");
+        checkNotNull(consumer, "Supplied consumer must not be null");
+        CheckKind[] checks = CheckKind.values();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION) {
+                throw new IllegalArgumentException(String.format("%s is no violation log of version %d", file, FORMAT_VERSION));
+            }
+            List<String> names = new ArrayList<>();
+            int check;
+            while ((check = in.read()) >= 0) {
+                int dependencyKind = in.readUnsignedByte();
+                int lineNumber = readVarInt(in);
+                String origin = readName(in, names);
+                String target = readName(in, names);
+                String originFPackage = readName(in, names);
+                String targetFPackage = readName(in, names);
+                byte[] message = new byte[readVarInt(in)];
+                in.readFully(message);
+                String text = new String(message, UTF_8);
+                consumer.accept(new Violation(checks[check], origin, target, originFPackage, targetFPackage,
+                        dependencyKind == 0 ? null : DependencyKind.fromOrdinal(dependencyKind - 1), lineNumber, () -> text));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String readName(DataInputStream in, List<String> names) throws IOException {
+        int reference = readVarInt(in);
+        if (reference == NULL_NAME) {
+            return null;
+        }
+        if (reference > names.size()) {
+            names.add(in.readUTF());
+        }
+        return names.get(reference - 1);
+    }
+
+    private static int readVarInt(DataInputStream in) throws IOException {
+        int result = 0;
+        for (int shift = 0; ; shift += 7) {
+            int b = in.readUnsignedByte();
+            result |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return result;
+            }
+        }
+    }
+
+}
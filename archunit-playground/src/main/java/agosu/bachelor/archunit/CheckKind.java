@@ -0,0 +1,33 @@
+package agosu.bachelor.archunit;
+
+/**
+ * The checks a {@link CustomArchitectures.FunctionalArchitecture} evaluates, as reported to an {@link EvaluationListener}.
+ */
+public enum CheckKind {
+
+    EMPTY_FPACKAGE,
+    LAYERS,
+    MEMBERSHIP,
+    DEPENDENCY_SPECIFICATION,
+    DEPENDENCY_DIRECTION,
+    CYCLES,
+    /**
+     * All class based checks evaluated together by {@link CustomArchitectures.FunctionalArchitecture#evaluatedInSinglePass()}
+     */
+    SINGLE_PASS,
+    /**
+     * The rules on the FPackages reachable through chains of dependencies, e.g.
+     * {@link AbstractFPackageDependencySpecification#mayNotTransitivelyAccessFPackages(String...)}
+     */
+    TRANSITIVE_ACCESS,
+    /**
+     * The thresholds on the {@link CouplingMetrics coupling metrics} of FPackages and groups
+     */
+    COUPLING,
+    /**
+     * The rules on the kinds of dependencies between FPackages, e.g.
+     * {@link AbstractFPackageDependencySpecification#mayAccessFPackageOnlyBy(String, DependencyKind...)}
+     */
+    DEPENDENCY_KIND
+
+}
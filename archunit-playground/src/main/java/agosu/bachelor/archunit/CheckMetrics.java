@@ -0,0 +1,92 @@
+package agosu.bachelor.archunit;
+
+import com.tngtech.archunit.PublicAPI;
+
+import static com.tngtech.archunit.PublicAPI.Usage.ACCESS;
+
+/**
+ * What one check of an evaluation did and how long it took.
+ */
+public final class CheckMetrics {
+
+    private final CheckKind kind;
+    private final String description;
+    private final String fPackageName;
+    private final long wallTimeNanos;
+    private final long classesVisited;
+    private final long dependenciesExamined;
+    private final long predicateEvaluations;
+    private final int violations;
+
+    CheckMetrics(CheckKind kind, String description, String fPackageName, long wallTimeNanos, long classesVisited,
+                 long dependenciesExamined, long predicateEvaluations, int violations) {
+        this.kind = kind;
+        this.description = description;
+        this.fPackageName = fPackageName;
+        this.wallTimeNanos = wallTimeNanos;
+        this.classesVisited = classesVisited;
+        this.dependenciesExamined = dependenciesExamined;
+        this.predicateEvaluations = predicateEvaluations;
+        this.violations = violations;
+    }
+
+    @PublicAPI(usage = ACCESS)
+    public CheckKind getKind() {
+        return kind;
+    }
+
+    @PublicAPI(usage = ACCESS)
+    public String getDescription() {
+        return description;
+    }
+
+    /**
+     * @return the name of the FPackage the check is about, i.e. the FPackage checked for being empty or the FPackage
+     * of a dependency specification, or {@code null} if the check is about all classes
+     */
+    @PublicAPI(usage = ACCESS)
+    public String getFPackageName() {
+        return fPackageName;
+    }
+
+    @PublicAPI(usage = ACCESS)
+    public long getWallTimeNanos() {
+        return wallTimeNanos;
+    }
+
+    /**
+     * @return the number of classes the condition of the check was checked on
+     */
+    @PublicAPI(usage = ACCESS)
+    public long getClassesVisited() {
+        return classesVisited;
+    }
+
+    @PublicAPI(usage = ACCESS)
+    public long getDependenciesExamined() {
+        return dependenciesExamined;
+    }
+
+    /**
+     * @return the number of times a predicate selecting classes or dependencies was evaluated
+     */
+    @PublicAPI(usage = ACCESS)
+    public long getPredicateEvaluations() {
+        return predicateEvaluations;
+    }
+
+    /**
+     * @return the number of violation lines the check reported
+     */
+    @PublicAPI(usage = ACCESS)
+    public int getViolations() {
+        return violations;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: %d ms, %d classes, %d dependencies, %d predicate evaluations, %d violations",
+                description, wallTimeNanos / 1_000_000, classesVisited, dependenciesExamined, predicateEvaluations, violations);
+    }
+
+}
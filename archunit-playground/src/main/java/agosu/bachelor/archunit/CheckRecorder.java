@@ -0,0 +1,246 @@
+package agosu.bachelor.archunit;
+
+import com.tngtech.archunit.base.DescribedPredicate;
+import com.tngtech.archunit.core.domain.Dependency;
+import com.tngtech.archunit.core.domain.JavaClass;
+import com.tngtech.archunit.lang.ArchCondition;
+import com.tngtech.archunit.lang.ConditionEvent;
+import com.tngtech.archunit.lang.ConditionEvents;
+import com.tngtech.archunit.lang.EvaluationResult;
+
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Counts what one check does, for the {@link EvaluationListener}s of an architecture. The recorder wraps the
+ * predicates and conditions of the check into counting ones. The {@link #DISABLED} recorder hands them out unchanged,
+ * so architectures without listeners count nothing.
+ * <p>
+ * If the evaluation has a limited {@link ViolationBudget}, the conditions handed out by the recorder also stop checking
+ * classes once the budget is exhausted, and spend the violations they find on it while the check is still running.
+ */
+final class CheckRecorder {
+
+    static final CheckRecorder DISABLED = new CheckRecorder(null, null, null, false, ViolationBudget.UNLIMITED, null);
+
+    private final CheckKind kind;
+    private final String description;
+    private final String fPackageName;
+    private final boolean counting;
+    private final ViolationBudget budget;
+    private final ViolationReporting.TopOffenders offenders;
+    private final LongAdder violationsSpent = new LongAdder();
+    private final LongAdder violationsTallied = new LongAdder();
+    private final LongAdder classesVisited = new LongAdder();
+    private final LongAdder dependenciesExamined = new LongAdder();
+    private final LongAdder predicateEvaluations = new LongAdder();
+
+    /**
+     * @param counting whether the metrics of the check are reported to listeners
+     * @param offenders the offenders the violations are tallied in, or {@code null} if they are kept
+     */
+    CheckRecorder(CheckKind kind, String description, String fPackageName, boolean counting, ViolationBudget budget,
+                  ViolationReporting.TopOffenders offenders) {
+        this.kind = kind;
+        this.description = description;
+        this.fPackageName = fPackageName;
+        this.counting = counting;
+        this.budget = budget;
+        this.offenders = offenders;
+    }
+
+    /**
+     * @return whether the metrics of the check are recorded
+     */
+    boolean isEnabled() {
+        return counting;
+    }
+
+    /**
+     * @return whether the recorder wraps the conditions of the check, for counting, to stop them or to tally their
+     * violations
+     */
+    boolean isVisiting() {
+        return counting || budget.isLimited() || offenders != null;
+    }
+
+    /**
+     * @return whether the violations of the check are tallied for the top offenders instead of being kept
+     */
+    boolean isTallying() {
+        return offenders != null;
+    }
+
+    /**
+     * Tallies the violations among the events found while the check is still running, which are dropped afterwards.
+     */
+    void tally(ConditionEvents events) {
+        for (ConditionEvent event : events.getViolating()) {
+            event.handleWith((violatingObjects, message) -> {
+                violationsTallied.increment();
+                offenders.add(violatingObjects, message);
+            });
+        }
+    }
+
+    /**
+     * Tallies the violations of the finished check that were not {@link #tally(ConditionEvents) tallied} while it was
+     * running.
+     */
+    void tallyRemaining(EvaluationResult result) {
+        offenders.tally(result);
+    }
+
+    boolean isBudgeted() {
+        return budget.isLimited();
+    }
+
+    boolean isOverBudget() {
+        return budget.isExhausted();
+    }
+
+    /**
+     * Spends violations found while the check is running.
+     */
+    void found(int violations) {
+        if (budget.isLimited() && violations > 0) {
+            violationsSpent.add(violations);
+            budget.spend(violations);
+        }
+    }
+
+    /**
+     * Spends the violations of the finished check that were not {@link #found(int) found} while it was running.
+     */
+    void settle(int violations) {
+        budget.spend(violations - violationsSpent.intValue());
+    }
+
+    <T> DescribedPredicate<T> counting(final DescribedPredicate<T> predicate) {
+        if (!counting) {
+            return predicate;
+        }
+        return new DescribedPredicate<T>(predicate.getDescription()) {
+            @Override
+            public boolean apply(T input) {
+                predicateEvaluations.increment();
+                return predicate.apply(input);
+            }
+        };
+    }
+
+    /**
+     * Counts every evaluation of the predicate as an examined dependency.
+     */
+    DescribedPredicate<Dependency> examining(final DescribedPredicate<Dependency> predicate) {
+        if (!counting) {
+            return predicate;
+        }
+        return new DescribedPredicate<Dependency>(predicate.getDescription()) {
+            @Override
+            public boolean apply(Dependency dependency) {
+                dependenciesExamined.increment();
+                predicateEvaluations.increment();
+                return predicate.apply(dependency);
+            }
+        };
+    }
+
+    /**
+     * @param examinesDependencies whether the condition examines all dependencies of every class itself
+     */
+    ArchCondition<JavaClass> visiting(ArchCondition<JavaClass> condition, boolean examinesDependencies) {
+        if (!isVisiting()) {
+            return condition;
+        }
+        return condition instanceof MergeableCondition ?
+                new MergeableVisitingCondition(condition, examinesDependencies) :
+                new VisitingCondition(condition, examinesDependencies);
+    }
+
+    Supplier<ArchCondition<JavaClass>> visiting(Supplier<? extends ArchCondition<JavaClass>> conditions, boolean examinesDependencies) {
+        return () -> visiting(conditions.get(), examinesDependencies);
+    }
+
+    void visited(long classes, long dependencies) {
+        classesVisited.add(classes);
+        dependenciesExamined.add(dependencies);
+    }
+
+    CheckMetrics metrics(long wallTimeNanos, int violations) {
+        return new CheckMetrics(kind, description, fPackageName, wallTimeNanos, classesVisited.sum(),
+                dependenciesExamined.sum(), predicateEvaluations.sum(), violations + violationsTallied.intValue());
+    }
+
+    private class VisitingCondition extends ArchCondition<JavaClass> {
+        final ArchCondition<JavaClass> delegate;
+        private final boolean examinesDependencies;
+        private volatile boolean skippedClasses;
+
+        VisitingCondition(ArchCondition<JavaClass> delegate, boolean examinesDependencies) {
+            super(delegate.getDescription());
+            this.delegate = delegate;
+            this.examinesDependencies = examinesDependencies;
+        }
+
+        @Override
+        public void init(Iterable<JavaClass> allObjectsToTest) {
+            delegate.init(allObjectsToTest);
+        }
+
+        @Override
+        public void check(JavaClass item, ConditionEvents events) {
+            if (budget.isExhausted()) {
+                skippedClasses = true;
+                return;
+            }
+            if (counting) {
+                classesVisited.increment();
+                if (examinesDependencies) {
+                    dependenciesExamined.add(item.getDirectDependenciesFromSelf().size());
+                }
+            }
+            if (!budget.isLimited() && offenders == null) {
+                delegate.check(item, events);
+                return;
+            }
+            ConditionEvents classEvents = new ConditionEvents();
+            delegate.check(item, classEvents);
+            if (offenders != null) {
+                tally(classEvents);
+                return;
+            }
+            int violations = 0;
+            for (ConditionEvent event : classEvents) {
+                events.add(event);
+                if (event.isViolation()) {
+                    violations += event.getDescriptionLines().size();
+                }
+            }
+            found(violations);
+        }
+
+        // a condition judging all classes at the end, e.g. that an FPackage is not empty, cannot judge the classes it
+        // did not see
+        @Override
+        public void finish(ConditionEvents events) {
+            if (!skippedClasses) {
+                delegate.finish(events);
+            }
+        }
+    }
+
+    private final class MergeableVisitingCondition extends VisitingCondition implements MergeableCondition<MergeableVisitingCondition> {
+
+        MergeableVisitingCondition(ArchCondition<JavaClass> delegate, boolean examinesDependencies) {
+            super(delegate, examinesDependencies);
+        }
+
+        @Override
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        public void merge(MergeableVisitingCondition other) {
+            ((MergeableCondition) delegate).merge((MergeableCondition) other.delegate);
+        }
+    }
+
+}
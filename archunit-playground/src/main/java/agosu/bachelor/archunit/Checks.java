@@ -0,0 +1,143 @@
+package agosu.bachelor.archunit;
+
+import com.tngtech.archunit.lang.ArchRule;
+import com.tngtech.archunit.lang.EvaluationResult;
+import com.tngtech.archunit.lang.Priority;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.BiConsumer;
+
+/**
+ * Independent checks of a rule that only read the evaluated classes. Every check writes into its own
+ * {@link EvaluationResult}, the results are merged in the order the checks were added, so the merged result
+ * is the same whether the checks run one after another or concurrently.
+ * <p>
+ * Every check gets a {@link CheckRecorder}. If there are listeners, the check is timed and its metrics are
+ * reported to the listeners once it is done, otherwise the recorder is {@link CheckRecorder#DISABLED disabled}.
+ * <p>
+ * Checks that have not started yet are skipped once the {@link ViolationBudget} of the evaluation is exhausted. If
+ * the evaluation reports its top offenders, the checks tally their violations in them instead of keeping them.
+ */
+final class Checks {
+
+    private final ArchRule rule;
+    private final List<EvaluationListener> listeners;
+    private final ViolationBudget budget;
+    private final ViolationReporting.TopOffenders offenders;
+    private final List<Check> checks = new ArrayList<>();
+
+    /**
+     * @param offenders the offenders the checks tally their violations in, or {@code null} if they keep them
+     */
+    Checks(ArchRule rule, List<EvaluationListener> listeners, ViolationBudget budget, ViolationReporting.TopOffenders offenders) {
+        this.rule = rule;
+        this.listeners = listeners;
+        this.budget = budget;
+        this.offenders = offenders;
+    }
+
+    /**
+     * @param fPackageName the FPackage the check is about, or {@code null}
+     */
+    Checks add(CheckKind kind, String description, String fPackageName, BiConsumer<EvaluationResult, CheckRecorder> check) {
+        CheckRecorder recorder = listeners.isEmpty() && !budget.isLimited() && offenders == null ?
+                CheckRecorder.DISABLED :
+                new CheckRecorder(kind, description, fPackageName, !listeners.isEmpty(), budget, offenders);
+        checks.add(new Check(recorder, check));
+        return this;
+    }
+
+    /**
+     * @param executor the executor to run the checks on, or {@code null} to run them one after another on the calling thread
+     */
+    EvaluationResult run(Executor executor) {
+        EvaluationResult result = newResult();
+        if (executor == null) {
+            for (Check check : checks) {
+                if (budget.isExhausted()) {
+                    break;
+                }
+                if (check.recorder.isVisiting()) {
+                    result.add(evaluate(check));
+                } else {
+                    check.evaluation.accept(result, check.recorder);
+                }
+            }
+            return result;
+        }
+
+        // checks still running when the budget runs out may have spent it, so every result is joined; the checks
+        // starting afterwards return an empty result at once
+        List<CompletableFuture<EvaluationResult>> futures = new ArrayList<>();
+        for (final Check check : checks) {
+            futures.add(CompletableFuture.supplyAsync(() -> evaluate(check), executor));
+        }
+        for (CompletableFuture<EvaluationResult> future : futures) {
+            result.add(join(future, futures));
+        }
+        return result;
+    }
+
+    private EvaluationResult evaluate(Check check) {
+        EvaluationResult result = newResult();
+        if (budget.isExhausted()) {
+            return result;
+        }
+        long start = System.nanoTime();
+        check.evaluation.accept(result, check.recorder);
+        long wallTime = System.nanoTime() - start;
+        if (!check.recorder.isVisiting()) {
+            return result;
+        }
+        int violations = result.getFailureReport().getDetails().size();
+        check.recorder.settle(violations);
+        if (check.recorder.isTallying()) {
+            check.recorder.tallyRemaining(result);
+            result = newResult();
+        }
+        if (check.recorder.isEnabled()) {
+            CheckMetrics metrics = check.recorder.metrics(wallTime, violations);
+            for (EvaluationListener listener : listeners) {
+                listener.onCheckEvaluated(metrics);
+            }
+        }
+        return result;
+    }
+
+    private EvaluationResult newResult() {
+        return new EvaluationResult(rule, Priority.MEDIUM);
+    }
+
+    // rethrows the failure of the first failing check, the way it would have been thrown when run one after another
+    private static EvaluationResult join(CompletableFuture<EvaluationResult> future, List<CompletableFuture<EvaluationResult>> all) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            for (CompletableFuture<EvaluationResult> other : all) {
+                other.cancel(false);
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    private static final class Check {
+        private final CheckRecorder recorder;
+        private final BiConsumer<EvaluationResult, CheckRecorder> evaluation;
+
+        Check(CheckRecorder recorder, BiConsumer<EvaluationResult, CheckRecorder> evaluation) {
+            this.recorder = recorder;
+            this.evaluation = evaluation;
+        }
+    }
+
+}
@@ -0,0 +1,532 @@
+package agosu.bachelor.archunit;
+
+import com.tngtech.archunit.PublicAPI;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.stream.Stream;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.tngtech.archunit.PublicAPI.Usage.ACCESS;
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Builds a {@link DependencyGraph} straight from class files, without importing them with ArchUnit. Only the name of
+ * every class and the classes it refers to are read: the super class and interfaces, the types in field and method
+ * descriptors and generic signatures, thrown exceptions, annotation types and the owners of the fields and methods
+ * in the constant pool. Any other class in the constant pool is a dependency of kind {@link DependencyKind#OTHER}.
+ * <p>
+ * Dependencies are aggregated per target class and kind, and described once they are reported, as "Class &lt;A&gt;
+ * extends &lt;B&gt; in (A.java:0)", since a scan reads no code and knows no lines. Class entries that only describe the nesting of the
+ * class itself (its outer and nested classes) are not counted as dependencies. A graph built by a scan has no
+ * ArchUnit classes and dependencies, so it is evaluated by {@link CustomArchitectures.FunctionalArchitecture#evaluateFastScan(Path...)}.
+ */
+public final class ClassFileScanner {
+
+    private static final String CLASS_FILE_EXTENSION = ".class";
+    private static final String JAR_FILE_EXTENSION = ".jar";
+    private static final int MAGIC = 0xCAFEBABE;
+
+    private static final int CONSTANT_UTF8 = 1;
+    private static final int CONSTANT_LONG = 5;
+    private static final int CONSTANT_DOUBLE = 6;
+    private static final int CONSTANT_CLASS = 7;
+    private static final int CONSTANT_FIELDREF = 9;
+    private static final int CONSTANT_METHODREF = 10;
+    private static final int CONSTANT_INTERFACE_METHODREF = 11;
+    private static final int CONSTANT_METHOD_HANDLE = 15;
+
+    private final String systemRoot;
+    private final DependencyGraph.Builder builder = new DependencyGraph.Builder();
+    private final Set<String> scanned = new HashSet<>();
+    private final Map<String, Integer> dependencyKinds = new LinkedHashMap<>();
+    private final Set<String> interfaces = new HashSet<>();
+    private final BitSet interfaceIds = new BitSet();
+
+    private ClassFileScanner(String systemRoot) {
+        this.systemRoot = systemRoot;
+    }
+
+    /**
+     * Scans the class files in the given directories and jar files, or given class files. Classes outside the system
+     * root are skipped, and so are dependencies on them, which is what keeps the graph of a large code base small.
+     * A class found in several locations is scanned the first time only, like on a class path.
+     *
+     * @param systemRoot the package all scanned classes reside in, or the empty string to scan all of them
+     */
+    @PublicAPI(usage = ACCESS)
+    public static DependencyGraph scan(String systemRoot, Path... locations) {
+        checkNotNull(systemRoot, "Supplied system root must not be null");
+        checkArgument(locations.length > 0, "At least 1 location must be provided");
+        ClassFileScanner scanner = new ClassFileScanner(systemRoot);
+        try {
+            for (Path location : locations) {
+                checkNotNull(location, "Supplied location must not be null");
+                scanner.scanLocation(location);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return scanner.builder.build(scanner::describe);
+    }
+
+    private void scanLocation(Path location) throws IOException {
+        if (Files.isDirectory(location)) {
+            List<Path> files;
+            try (Stream<Path> walk = Files.walk(location)) {
+                files = walk.filter(file -> file.toString().endsWith(CLASS_FILE_EXTENSION) && Files.isRegularFile(file))
+                        .sorted()
+                        .collect(toList());
+            }
+            for (Path file : files) {
+                scanClass(ByteBuffer.wrap(Files.readAllBytes(file)), file.toString());
+            }
+        } else if (location.toString().endsWith(JAR_FILE_EXTENSION)) {
+            try (JarFile jar = new JarFile(location.toFile())) {
+                Enumeration<JarEntry> entries = jar.entries();
+                while (entries.hasMoreElements()) {
+                    JarEntry entry = entries.nextElement();
+                    if (!entry.isDirectory() && entry.getName().endsWith(CLASS_FILE_EXTENSION)) {
+                        try (InputStream in = jar.getInputStream(entry)) {
+                            scanClass(ByteBuffer.wrap(readAll(in, entry.getSize())), location + "!/" + entry.getName());
+                        }
+                    }
+                }
+            }
+        } else {
+            scanClass(ByteBuffer.wrap(Files.readAllBytes(location)), location.toString());
+        }
+    }
+
+    private static byte[] readAll(InputStream in, long size) throws IOException {
+        byte[] buffer = new byte[size > 0 ? (int) size : 8192];
+        int length = 0;
+        int read;
+        while ((read = in.read(buffer, length, buffer.length - length)) >= 0) {
+            length += read;
+            if (length == buffer.length) {
+                int next = in.read();
+                if (next < 0) {
+                    break;
+                }
+                buffer = Arrays.copyOf(buffer, buffer.length * 2);
+                buffer[length++] = (byte) next;
+            }
+        }
+        return length == buffer.length ? buffer : Arrays.copyOf(buffer, length);
+    }
+
+    private void scanClass(ByteBuffer bytes, String location) {
+        checkArgument(bytes.remaining() >= 10 && bytes.getInt() == MAGIC, "%s is no class file", location);
+        ClassFile classFile = new ClassFile(bytes);
+        String className = classFile.className(bytes.getShort(bytes.position() + 2) & 0xFFFF);
+        if (className.equals("module-info") || !isInSystem(packageOf(className)) || !scanned.add(className)) {
+            return;
+        }
+        dependencyKinds.clear();
+        interfaces.clear();
+        classFile.readReferences(className, this);
+
+        int origin = builder.addClass(className, packageOf(className));
+        builder.markImported(origin);
+        String sourceFile = classFile.sourceFile != null ? classFile.sourceFile : defaultSourceFile(className);
+        for (Map.Entry<String, Integer> dependency : dependencyKinds.entrySet()) {
+            String target = dependency.getKey();
+            int targetId = builder.addClass(target, packageOf(target));
+            if (interfaces.contains(target)) {
+                interfaceIds.set(targetId);
+            }
+            for (DependencyKind kind : DependencyKind.values()) {
+                if (kind.isIn(dependency.getValue())) {
+                    builder.addDependency(origin, targetId, kind, null, sourceFile, 0);
+                }
+            }
+        }
+    }
+
+    // descriptions are only needed for reported dependencies, so they are not stored for all of them
+    private String describe(DependencyGraph graph, int dependency) {
+        int target = graph.getDependencyTarget(dependency);
+        return String.format("Class <%s> %s <%s> in (%s:0)", graph.getClassName(graph.getDependencyOrigin(dependency)),
+                verbOf(graph.getDependencyKind(dependency), interfaceIds.get(target)), graph.getClassName(target),
+                graph.getDependencySourceFile(dependency));
+    }
+
+    // called by the class file for every class it refers to, dependencies on itself and outside the system are dropped
+    void addReference(String origin, String target, DependencyKind kind) {
+        if (target.equals(origin) || !isInSystem(packageOf(target))) {
+            return;
+        }
+        dependencyKinds.merge(target, kind.flag(), (a, b) -> a | b);
+    }
+
+    void addInterface(String origin, String target) {
+        interfaces.add(target);
+        addReference(origin, target, DependencyKind.INHERITANCE);
+    }
+
+    private boolean isInSystem(String packageName) {
+        return systemRoot.isEmpty() || packageName.equals(systemRoot) || packageName.startsWith(systemRoot + ".");
+    }
+
+    private static String packageOf(String className) {
+        int lastDot = className.lastIndexOf('.');
+        return lastDot < 0 ? "" : className.substring(0, lastDot);
+    }
+
+    private static String defaultSourceFile(String className) {
+        String simpleName = className.substring(className.lastIndexOf('.') + 1);
+        int dollar = simpleName.indexOf('$');
+        return (dollar > 0 ? simpleName.substring(0, dollar) : simpleName) + ".java";
+    }
+
+    private static String verbOf(DependencyKind kind, boolean isInterface) {
+        switch (kind) {
+            case INHERITANCE:
+                return isInterface ? "implements" : "extends";
+            case METHOD_CALL:
+                return "calls a method of";
+            case FIELD_ACCESS:
+                return "accesses a field of";
+            case ANNOTATION:
+                return "is annotated with";
+            case TYPE_ARGUMENT:
+                return "has a type argument of";
+            case MEMBER_TYPE:
+                return "has a member of type";
+            default:
+                return "depends on";
+        }
+    }
+
+    /**
+     * The constant pool of one class file, and a reader for the parts of the file that refer to classes.
+     * Strings are only decoded when they are needed.
+     */
+    private static final class ClassFile {
+        private final ByteBuffer bytes;
+        private final int[] offsets;
+        private final byte[] tags;
+        private final String[] strings;
+        private String sourceFile;
+
+        ClassFile(ByteBuffer bytes) {
+            this.bytes = bytes;
+            bytes.position(8);
+            int count = bytes.getShort() & 0xFFFF;
+            this.offsets = new int[count];
+            this.tags = new byte[count];
+            this.strings = new String[count];
+            for (int i = 1; i < count; i++) {
+                int tag = bytes.get() & 0xFF;
+                tags[i] = (byte) tag;
+                offsets[i] = bytes.position();
+                bytes.position(bytes.position() + entrySize(tag));
+                if (tag == CONSTANT_LONG || tag == CONSTANT_DOUBLE) {
+                    i++;
+                }
+            }
+        }
+
+        private int entrySize(int tag) {
+            switch (tag) {
+                case CONSTANT_UTF8:
+                    return 2 + (bytes.getShort(bytes.position()) & 0xFFFF);
+                case CONSTANT_METHOD_HANDLE:
+                    return 3;
+                case CONSTANT_CLASS:
+                case 8:  // String
+                case 16: // MethodType
+                case 19: // Module
+                case 20: // Package
+                    return 2;
+                case CONSTANT_LONG:
+                case CONSTANT_DOUBLE:
+                    return 8;
+                case 3:  // Integer
+                case 4:  // Float
+                case CONSTANT_FIELDREF:
+                case CONSTANT_METHODREF:
+                case CONSTANT_INTERFACE_METHODREF:
+                case 12: // NameAndType
+                case 17: // Dynamic
+                case 18: // InvokeDynamic
+                    return 4;
+                default:
+                    throw new IllegalArgumentException("Unknown constant pool tag " + tag);
+            }
+        }
+
+        String utf8(int index) {
+            if (strings[index] == null) {
+                strings[index] = decodeModifiedUtf8(offsets[index] + 2, bytes.getShort(offsets[index]) & 0xFFFF);
+            }
+            return strings[index];
+        }
+
+        private String decodeModifiedUtf8(int start, int length) {
+            char[] chars = new char[length];
+            int count = 0;
+            int position = start;
+            int end = start + length;
+            while (position < end) {
+                int b = bytes.get(position++) & 0xFF;
+                if (b < 0x80) {
+                    chars[count++] = (char) b;
+                } else if ((b & 0xE0) == 0xC0) {
+                    chars[count++] = (char) (((b & 0x1F) << 6) | (bytes.get(position++) & 0x3F));
+                } else {
+                    chars[count++] = (char) (((b & 0x0F) << 12) | ((bytes.get(position++) & 0x3F) << 6) | (bytes.get(position++) & 0x3F));
+                }
+            }
+            return new String(chars, 0, count);
+        }
+
+        // the binary name of a class entry, or of the component type of an array entry, or null for primitive arrays
+        String className(int classIndex) {
+            String name = utf8(bytes.getShort(offsets[classIndex]) & 0xFFFF);
+            if (name.startsWith("[")) {
+                int component = name.lastIndexOf('[') + 1;
+                return name.charAt(component) == 'L' ? name.substring(component + 1, name.length() - 1).replace('/', '.') : null;
+            }
+            return name.replace('/', '.');
+        }
+
+        void readReferences(String className, ClassFileScanner scanner) {
+            BitSet explained = new BitSet(tags.length);
+            bytes.position(bytes.position() + 2); // access flags
+            int thisClass = u2();
+            explained.set(thisClass);
+            int superClass = u2();
+            if (superClass != 0) {
+                explained.set(superClass);
+                reference(className, className(superClass), DependencyKind.INHERITANCE, scanner);
+            }
+            int interfaceCount = u2();
+            for (int i = 0; i < interfaceCount; i++) {
+                int anInterface = u2();
+                explained.set(anInterface);
+                String name = className(anInterface);
+                if (name != null) {
+                    scanner.addInterface(className, name);
+                }
+            }
+            for (int members = 0; members < 2; members++) {
+                int memberCount = u2();
+                for (int i = 0; i < memberCount; i++) {
+                    bytes.position(bytes.position() + 4); // access flags, name
+                    signature(className, utf8(u2()), DependencyKind.MEMBER_TYPE, scanner);
+                    readAttributes(className, scanner, explained, DependencyKind.MEMBER_TYPE);
+                }
+            }
+            readAttributes(className, scanner, explained, DependencyKind.INHERITANCE);
+
+            for (int i = 1; i < tags.length; i++) {
+                if (tags[i] == CONSTANT_FIELDREF || tags[i] == CONSTANT_METHODREF || tags[i] == CONSTANT_INTERFACE_METHODREF) {
+                    int owner = bytes.getShort(offsets[i]) & 0xFFFF;
+                    explained.set(owner);
+                    reference(className, className(owner), tags[i] == CONSTANT_FIELDREF ? DependencyKind.FIELD_ACCESS : DependencyKind.METHOD_CALL, scanner);
+                }
+            }
+            for (int i = 1; i < tags.length; i++) {
+                if (tags[i] == CONSTANT_CLASS && !explained.get(i)) {
+                    String name = className(i);
+                    if (name != null && !isNestedIn(name, className) && !isNestedIn(className, name)) {
+                        scanner.addReference(className, name, DependencyKind.OTHER);
+                    }
+                }
+            }
+        }
+
+        private static boolean isNestedIn(String candidate, String className) {
+            return candidate.length() > className.length() + 1
+                    && candidate.charAt(className.length()) == '$'
+                    && candidate.startsWith(className);
+        }
+
+        // the signature of the class names its super types, the signature of a member the types of the member
+        private void readAttributes(String className, ClassFileScanner scanner, BitSet explained, DependencyKind signatureKind) {
+            int attributeCount = u2();
+            for (int i = 0; i < attributeCount; i++) {
+                String name = utf8(u2());
+                int length = bytes.getInt();
+                int end = bytes.position() + length;
+                switch (name) {
+                    case "Signature":
+                        signature(className, utf8(u2()), signatureKind, scanner);
+                        break;
+                    case "SourceFile":
+                        sourceFile = utf8(u2());
+                        break;
+                    case "Exceptions":
+                        int exceptionCount = u2();
+                        for (int j = 0; j < exceptionCount; j++) {
+                            int exception = u2();
+                            explained.set(exception);
+                            reference(className, className(exception), DependencyKind.MEMBER_TYPE, scanner);
+                        }
+                        break;
+                    case "RuntimeVisibleAnnotations":
+                    case "RuntimeInvisibleAnnotations":
+                        annotations(className, scanner);
+                        break;
+                    case "RuntimeVisibleParameterAnnotations":
+                    case "RuntimeInvisibleParameterAnnotations":
+                        int parameterCount = bytes.get() & 0xFF;
+                        for (int j = 0; j < parameterCount; j++) {
+                            annotations(className, scanner);
+                        }
+                        break;
+                    default:
+                        break;
+                }
+                bytes.position(end);
+            }
+        }
+
+        private void annotations(String className, ClassFileScanner scanner) {
+            int annotationCount = u2();
+            for (int i = 0; i < annotationCount; i++) {
+                annotation(className, scanner);
+            }
+        }
+
+        private void annotation(String className, ClassFileScanner scanner) {
+            signature(className, utf8(u2()), DependencyKind.ANNOTATION, scanner);
+            int pairCount = u2();
+            for (int i = 0; i < pairCount; i++) {
+                u2(); // element name
+                elementValue(className, scanner);
+            }
+        }
+
+        private void elementValue(String className, ClassFileScanner scanner) {
+            char tag = (char) (bytes.get() & 0xFF);
+            switch (tag) {
+                case 'e':
+                    signature(className, utf8(u2()), DependencyKind.ANNOTATION, scanner);
+                    u2(); // constant name
+                    break;
+                case 'c':
+                    signature(className, utf8(u2()), DependencyKind.ANNOTATION, scanner);
+                    break;
+                case '@':
+                    annotation(className, scanner);
+                    break;
+                case '[':
+                    int valueCount = u2();
+                    for (int i = 0; i < valueCount; i++) {
+                        elementValue(className, scanner);
+                    }
+                    break;
+                default:
+                    u2(); // constant value
+                    break;
+            }
+        }
+
+        private int u2() {
+            return bytes.getShort() & 0xFFFF;
+        }
+
+        private static void reference(String origin, String target, DependencyKind kind, ClassFileScanner scanner) {
+            if (target != null) {
+                scanner.addReference(origin, target, kind);
+            }
+        }
+
+        // reports every class type of a descriptor or generic signature, which descriptors are a subset of
+        private static void signature(String origin, String signature, DependencyKind kind, ClassFileScanner scanner) {
+            int position = 0;
+            if (signature.startsWith("<")) {
+                position = formalTypeParameters(origin, signature, scanner);
+            }
+            while (position < signature.length()) {
+                char c = signature.charAt(position);
+                if (c == 'L' || c == 'T' || c == '[') {
+                    position = type(origin, signature, position, kind, scanner);
+                } else {
+                    position++;
+                }
+            }
+        }
+
+        // the bounds of type parameters are type arguments of the class or method declaring them
+        private static int formalTypeParameters(String origin, String signature, ClassFileScanner scanner) {
+            int position = 1;
+            while (signature.charAt(position) != '>') {
+                position = signature.indexOf(':', position);
+                while (signature.charAt(position) == ':') {
+                    position++;
+                    char c = signature.charAt(position);
+                    if (c == 'L' || c == 'T' || c == '[') {
+                        position = type(origin, signature, position, DependencyKind.TYPE_ARGUMENT, scanner);
+                    }
+                }
+            }
+            return position + 1;
+        }
+
+        private static int type(String origin, String signature, int position, DependencyKind kind, ClassFileScanner scanner) {
+            switch (signature.charAt(position)) {
+                case '[':
+                    return type(origin, signature, position + 1, kind, scanner);
+                case 'T':
+                    return signature.indexOf(';', position) + 1;
+                case 'L':
+                    return classType(origin, signature, position + 1, kind, scanner);
+                default:
+                    return position + 1;
+            }
+        }
+
+        private static int classType(String origin, String signature, int position, DependencyKind kind, ClassFileScanner scanner) {
+            StringBuilder name = new StringBuilder();
+            while (true) {
+                int start = position;
+                char c = signature.charAt(position);
+                while (c != '<' && c != ';' && c != '.') {
+                    c = signature.charAt(++position);
+                }
+                if (name.length() > 0) {
+                    name.append('$');
+                }
+                name.append(signature, start, position);
+                scanner.addReference(origin, name.toString().replace('/', '.'), kind);
+                if (c == '<') {
+                    position++;
+                    while (signature.charAt(position) != '>') {
+                        char argument = signature.charAt(position);
+                        if (argument == '*') {
+                            position++;
+                        } else {
+                            position = type(origin, signature, argument == '+' || argument == '-' ? position + 1 : position,
+                                    DependencyKind.TYPE_ARGUMENT, scanner);
+                        }
+                    }
+                    c = signature.charAt(++position);
+                }
+                position++;
+                if (c == ';') {
+                    return position;
+                }
+            }
+        }
+    }
+
+}
@@ -0,0 +1,69 @@
+package agosu.bachelor.archunit;
+
+import agosu.bachelor.archunit.CustomArchitectures.FunctionalArchitecture;
+import com.tngtech.archunit.PublicAPI;
+import com.tngtech.archunit.core.domain.JavaClasses;
+import com.tngtech.archunit.lang.ArchRule;
+import com.tngtech.archunit.lang.EvaluationResult;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.tngtech.archunit.PublicAPI.Usage.ACCESS;
+
+/**
+ * A {@link FunctionalArchitecture} frozen by {@link FunctionalArchitecture#compile()}. It holds a copy of the
+ * definitions and the predicates, the FPackage index and the lookup tables built from them, and keeps the state of an
+ * evaluation in the evaluation only. One compiled architecture can therefore evaluate many {@link JavaClasses}, e.g.
+ * the imports of every module, concurrently and without being compiled again.
+ */
+public final class CompiledFunctionalArchitecture implements ArchRule {
+
+    private final FunctionalArchitecture architecture;
+    private final FunctionalArchitecture.Compilation compilation;
+
+    CompiledFunctionalArchitecture(FunctionalArchitecture architecture, FunctionalArchitecture.Compilation compilation) {
+        this.architecture = architecture;
+        this.compilation = compilation;
+    }
+
+    @Override
+    @PublicAPI(usage = ACCESS)
+    public String getDescription() {
+        return architecture.getDescription();
+    }
+
+    @Override
+    public String toString() {
+        return getDescription();
+    }
+
+    @Override
+    @PublicAPI(usage = ACCESS)
+    public EvaluationResult evaluate(JavaClasses classes) {
+        checkNotNull(classes, "Supplied classes must not be null");
+        return architecture.evaluate(classes, compilation);
+    }
+
+    @Override
+    @PublicAPI(usage = ACCESS)
+    public void check(JavaClasses classes) {
+        Assertions.check(this, classes);
+    }
+
+    @Override
+    @PublicAPI(usage = ACCESS)
+    public ArchRule because(String reason) {
+        return ArchRule.Factory.withBecause(this, reason);
+    }
+
+    @Override
+    public ArchRule allowEmptyShould(boolean allowEmptyShould) {
+        return this;
+    }
+
+    @Override
+    @PublicAPI(usage = ACCESS)
+    public CompiledFunctionalArchitecture as(String newDescription) {
+        return this;
+    }
+
+}
@@ -0,0 +1,45 @@
+package agosu.bachelor.archunit;
+
+import com.tngtech.archunit.PublicAPI;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.tngtech.archunit.PublicAPI.Usage.ACCESS;
+
+/**
+ * Only counts the violations per check, without rendering their messages, e.g. for a quick verdict on a large system.
+ */
+public final class CountingViolationSink implements ViolationSink {
+
+    private final Map<CheckKind, LongAdder> counts = new EnumMap<>(CheckKind.class);
+
+    public CountingViolationSink() {
+        for (CheckKind check : CheckKind.values()) {
+            counts.put(check, new LongAdder());
+        }
+    }
+
+    @Override
+    public void accept(Violation violation) {
+        counts.get(violation.getCheck()).increment();
+    }
+
+    @PublicAPI(usage = ACCESS)
+    public long getCount() {
+        long result = 0;
+        for (LongAdder count : counts.values()) {
+            result += count.sum();
+        }
+        return result;
+    }
+
+    @PublicAPI(usage = ACCESS)
+    public long getCount(CheckKind check) {
+        checkNotNull(check, "Supplied check must not be null");
+        return counts.get(check).sum();
+    }
+
+}
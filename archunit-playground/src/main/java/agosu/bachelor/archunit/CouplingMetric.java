@@ -0,0 +1,40 @@
+package agosu.bachelor.archunit;
+
+/**
+ * A coupling metric of an FPackage or a group, as computed by {@link CouplingMetrics}.
+ */
+public enum CouplingMetric {
+
+    AFFERENT_COUPLING("afferent coupling"),
+    EFFERENT_COUPLING("efferent coupling"),
+    INSTABILITY("instability"),
+    ABSTRACTNESS("abstractness"),
+    DISTANCE("distance from the main sequence");
+
+    private final String description;
+
+    CouplingMetric(String description) {
+        this.description = description;
+    }
+
+    double of(CouplingMetrics.Metrics metrics) {
+        switch (this) {
+            case AFFERENT_COUPLING:
+                return metrics.getAfferentCoupling();
+            case EFFERENT_COUPLING:
+                return metrics.getEfferentCoupling();
+            case INSTABILITY:
+                return metrics.getInstability();
+            case ABSTRACTNESS:
+                return metrics.getAbstractness();
+            default:
+                return metrics.getDistance();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return description;
+    }
+
+}
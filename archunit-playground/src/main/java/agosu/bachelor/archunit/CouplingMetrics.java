@@ -0,0 +1,241 @@
+package agosu.bachelor.archunit;
+
+import com.tngtech.archunit.PublicAPI;
+import com.tngtech.archunit.base.DescribedPredicate;
+import com.tngtech.archunit.core.domain.Dependency;
+import com.tngtech.archunit.core.domain.JavaClass;
+import com.tngtech.archunit.core.domain.JavaModifier;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.*;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.tngtech.archunit.PublicAPI.Usage.ACCESS;
+
+/**
+ * The coupling metrics of every FPackage and every group, computed on the {@link DependencyGraph} of an evaluation:
+ * <ul>
+ *     <li>afferent coupling (Ca): the classes outside of the unit that depend on classes inside of it</li>
+ *     <li>efferent coupling (Ce): the classes inside of the unit that depend on classes outside of it</li>
+ *     <li>instability (I): Ce / (Ca + Ce), or 0 if the unit is not coupled at all</li>
+ *     <li>abstractness (A): the share of interfaces and abstract classes among the classes of the unit</li>
+ *     <li>distance from the main sequence (D): |A + I - 1|</li>
+ * </ul>
+ * Only imported classes are counted, and dependencies ignored by
+ * {@link CustomArchitectures.FunctionalArchitecture#ignoreDependency(DescribedPredicate, DescribedPredicate)} do not
+ * couple units. Classes of graphs not built from ArchUnit classes, e.g. read from a snapshot, count as concrete.
+ */
+public final class CouplingMetrics {
+
+    private static final int NONE = -1;
+
+    private final Map<String, Metrics> fPackages;
+    private final Map<String, Metrics> groups;
+    private final int classesOutsideFPackages;
+
+    private CouplingMetrics(Map<String, Metrics> fPackages, Map<String, Metrics> groups, int classesOutsideFPackages) {
+        this.fPackages = fPackages;
+        this.groups = groups;
+        this.classesOutsideFPackages = classesOutsideFPackages;
+    }
+
+    /**
+     * @param fPackageOfClass the FPackage of every class, by class id, or {@code null} for classes in no FPackage
+     * @param groupOfClass the group of every class, by class id, or {@code null} for classes in no group
+     * @param irrelevantDependencies dependencies that do not couple units, or {@code null} if all do
+     */
+    static CouplingMetrics of(DependencyGraph graph, String[] fPackageOfClass, List<String> fPackageNames,
+                              String[] groupOfClass, Collection<String> groupNames,
+                              DescribedPredicate<Dependency> irrelevantDependencies) {
+        boolean[] abstractClasses = new boolean[graph.getClassCount()];
+        int classesOutsideFPackages = 0;
+        for (int clazz = 0; clazz < abstractClasses.length; clazz++) {
+            if (!graph.isImported(clazz)) {
+                continue;
+            }
+            JavaClass javaClass = graph.getJavaClass(clazz);
+            abstractClasses[clazz] = javaClass != null
+                    && (javaClass.isInterface() || javaClass.getModifiers().contains(JavaModifier.ABSTRACT));
+            if (fPackageOfClass[clazz] == null) {
+                classesOutsideFPackages++;
+            }
+        }
+        return new CouplingMetrics(
+                metricsOf(graph, fPackageOfClass, fPackageNames, abstractClasses, irrelevantDependencies),
+                metricsOf(graph, groupOfClass, groupNames, abstractClasses, irrelevantDependencies),
+                classesOutsideFPackages);
+    }
+
+    // one walk over the class edges, every class counted at most once per unit it couples to
+    private static Map<String, Metrics> metricsOf(DependencyGraph graph, String[] unitOfClass, Collection<String> unitNames,
+                                                  boolean[] abstractClasses, DescribedPredicate<Dependency> irrelevantDependencies) {
+        Map<String, Integer> ids = new HashMap<>();
+        for (String unitName : unitNames) {
+            ids.put(unitName, ids.size());
+        }
+        int[] units = new int[graph.getClassCount()];
+        for (int clazz = 0; clazz < units.length; clazz++) {
+            Integer id = unitOfClass[clazz] == null ? null : ids.get(unitOfClass[clazz]);
+            units[clazz] = id == null ? NONE : id;
+        }
+
+        int[] classes = new int[ids.size()];
+        int[] abstractCounts = new int[ids.size()];
+        int[] afferent = new int[ids.size()];
+        int[] efferent = new int[ids.size()];
+        int[] lastOrigin = new int[ids.size()];
+        Arrays.fill(lastOrigin, NONE);
+        DependencyGraph.Resolver dependencies = graph.newResolver();
+        for (int clazz = 0; clazz < units.length; clazz++) {
+            if (!graph.isImported(clazz)) {
+                continue;
+            }
+            int origin = units[clazz];
+            if (origin != NONE) {
+                classes[origin]++;
+                abstractCounts[origin] += abstractClasses[clazz] ? 1 : 0;
+            }
+            boolean dependsOnOtherUnit = false;
+            for (int edge = graph.getFirstEdge(clazz); edge < graph.getEdgeEnd(clazz); edge++) {
+                int targetClass = graph.getEdgeTarget(edge);
+                int target = units[targetClass];
+                if (target == origin || !graph.isImported(targetClass)) {
+                    continue;
+                }
+                boolean countsEfferent = origin != NONE && !dependsOnOtherUnit;
+                boolean countsAfferent = target != NONE && lastOrigin[target] != clazz;
+                if (!countsEfferent && !countsAfferent || !FPackageReachability.isRelevant(graph, dependencies, edge, irrelevantDependencies)) {
+                    continue;
+                }
+                if (countsEfferent) {
+                    efferent[origin]++;
+                    dependsOnOtherUnit = true;
+                }
+                if (countsAfferent) {
+                    afferent[target]++;
+                    lastOrigin[target] = clazz;
+                }
+            }
+        }
+
+        Map<String, Metrics> result = new LinkedHashMap<>();
+        for (String unitName : unitNames) {
+            int id = ids.get(unitName);
+            result.put(unitName, new Metrics(unitName, classes[id], abstractCounts[id], afferent[id], efferent[id]));
+        }
+        return Collections.unmodifiableMap(result);
+    }
+
+    /**
+     * @return the metrics of every FPackage, in the order the FPackages were defined
+     */
+    @PublicAPI(usage = ACCESS)
+    public Map<String, Metrics> getFPackages() {
+        return fPackages;
+    }
+
+    @PublicAPI(usage = ACCESS)
+    public Metrics getFPackage(String name) {
+        checkArgument(fPackages.containsKey(name), "There is no FPackage name '%s'", name);
+        return fPackages.get(name);
+    }
+
+    /**
+     * @return the metrics of every group, in the order the groups were added
+     */
+    @PublicAPI(usage = ACCESS)
+    public Map<String, Metrics> getGroups() {
+        return groups;
+    }
+
+    @PublicAPI(usage = ACCESS)
+    public Metrics getGroup(String thePackage) {
+        checkArgument(groups.containsKey(thePackage), "There is no group '%s'", thePackage);
+        return groups.get(thePackage);
+    }
+
+    /**
+     * @return the number of imported classes that belong to no FPackage
+     */
+    @PublicAPI(usage = ACCESS)
+    public int getClassesOutsideFPackages() {
+        return classesOutsideFPackages;
+    }
+
+    // at most two decimals, without trailing zeros
+    static String format(double value) {
+        return BigDecimal.valueOf(value).setScale(2, RoundingMode.HALF_UP).stripTrailingZeros().toPlainString();
+    }
+
+    /**
+     * The coupling metrics of one FPackage or group.
+     */
+    public static final class Metrics {
+
+        private final String name;
+        private final int classes;
+        private final int abstractClasses;
+        private final int afferentCoupling;
+        private final int efferentCoupling;
+
+        Metrics(String name, int classes, int abstractClasses, int afferentCoupling, int efferentCoupling) {
+            this.name = name;
+            this.classes = classes;
+            this.abstractClasses = abstractClasses;
+            this.afferentCoupling = afferentCoupling;
+            this.efferentCoupling = efferentCoupling;
+        }
+
+        @PublicAPI(usage = ACCESS)
+        public String getName() {
+            return name;
+        }
+
+        @PublicAPI(usage = ACCESS)
+        public int getClasses() {
+            return classes;
+        }
+
+        /**
+         * @return the number of interfaces and abstract classes
+         */
+        @PublicAPI(usage = ACCESS)
+        public int getAbstractClasses() {
+            return abstractClasses;
+        }
+
+        @PublicAPI(usage = ACCESS)
+        public int getAfferentCoupling() {
+            return afferentCoupling;
+        }
+
+        @PublicAPI(usage = ACCESS)
+        public int getEfferentCoupling() {
+            return efferentCoupling;
+        }
+
+        @PublicAPI(usage = ACCESS)
+        public double getInstability() {
+            int coupling = afferentCoupling + efferentCoupling;
+            return coupling == 0 ? 0 : (double) efferentCoupling / coupling;
+        }
+
+        @PublicAPI(usage = ACCESS)
+        public double getAbstractness() {
+            return classes == 0 ? 0 : (double) abstractClasses / classes;
+        }
+
+        @PublicAPI(usage = ACCESS)
+        public double getDistance() {
+            return Math.abs(getAbstractness() + getInstability() - 1);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Ca %d, Ce %d, I %s, A %s, D %s", afferentCoupling, efferentCoupling,
+                    format(getInstability()), format(getAbstractness()), format(getDistance()));
+        }
+    }
+
+}
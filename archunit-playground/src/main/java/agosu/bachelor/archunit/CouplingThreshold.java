@@ -0,0 +1,39 @@
+package agosu.bachelor.archunit;
+
+import com.tngtech.archunit.lang.ConditionEvents;
+import com.tngtech.archunit.lang.SimpleConditionEvent;
+
+import static java.lang.String.format;
+
+/**
+ * A rule that a coupling metric of an FPackage or a group stays below a bound.
+ */
+final class CouplingThreshold {
+
+    private final boolean group;
+    private final String unitName;
+    private final CouplingMetric metric;
+    private final double bound;
+
+    CouplingThreshold(boolean group, String unitName, CouplingMetric metric, double bound) {
+        this.group = group;
+        this.unitName = unitName;
+        this.metric = metric;
+        this.bound = bound;
+    }
+
+    void check(CouplingMetrics metrics, ConditionEvents events) {
+        CouplingMetrics.Metrics unitMetrics = group ? metrics.getGroup(unitName) : metrics.getFPackage(unitName);
+        double value = metric.of(unitMetrics);
+        if (value >= bound) {
+            events.add(SimpleConditionEvent.violated(unitMetrics, format("%s '%s' has %s %s, which is not below %s (%s)",
+                    group ? "Group" : "FPackage", unitName, metric, CouplingMetrics.format(value), CouplingMetrics.format(bound), unitMetrics)));
+        }
+    }
+
+    @Override
+    public String toString() {
+        return format("where %s '%s' should have %s below %s", group ? "group" : "FPackage", unitName, metric, CouplingMetrics.format(bound));
+    }
+
+}
@@ -5,11 +5,21 @@ import com.tngtech.archunit.base.DescribedPredicate;
 import com.tngtech.archunit.core.domain.Dependency;
 import com.tngtech.archunit.core.domain.JavaClass;
 import com.tngtech.archunit.core.domain.JavaClasses;
+import com.tngtech.archunit.core.domain.JavaPackage;
 import com.tngtech.archunit.lang.*;
 import com.tngtech.archunit.lang.syntax.PredicateAggregator;
 import com.google.common.base.Joiner;
+import com.google.common.base.Suppliers;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 import static agosu.bachelor.archunit.CustomPredicates.*;
 import static agosu.bachelor.archunit.CustomTransformers.packages;
@@ -17,9 +27,11 @@ import static agosu.bachelor.archunit.Utils.getPackageExcludingSubpackages;
 import static agosu.bachelor.archunit.Utils.getParentPackage;
 import static com.tngtech.archunit.PublicAPI.Usage.ACCESS;
 import static com.tngtech.archunit.base.DescribedPredicate.alwaysFalse;
+import static com.tngtech.archunit.base.DescribedPredicate.alwaysTrue;
 import static com.tngtech.archunit.core.domain.Dependency.Predicates.*;
 import static com.tngtech.archunit.lang.conditions.ArchConditions.onlyHaveDependenciesWhere;
 import static com.tngtech.archunit.lang.conditions.ArchConditions.onlyHaveDependentsWhere;
+import static com.tngtech.archunit.lang.conditions.ArchConditions.resideInAnyPackage;
 import static com.tngtech.archunit.lang.syntax.ArchRuleDefinition.all;
 import static com.tngtech.archunit.lang.syntax.ArchRuleDefinition.classes;
 import static com.google.common.base.Preconditions.*;
@@ -44,64 +56,136 @@ public final class CustomArchitectures {
 
         private final FPackageDefinitions fPackageDefinitions;
         private final Set<FPackageDependencySpecification> dependencySpecifications;
+        private final List<TransitiveFPackageAccess> transitiveAccesses;
+        private final List<CouplingThreshold> couplingThresholds;
+        private final List<FPackageKindRestriction> kindRestrictions;
         private final PredicateAggregator<Dependency> irrelevantDependenciesPredicate;
         private final DependencyDirection dependencyDirection;
         private final Set<String> groups;
         private final String systemRoot;
+        private final boolean droppingDependenciesLeavingTheSystemRoot;
 
         private final boolean fPackagesOn;
+        private final boolean singlePass;
+        private final CycleGranularity cycleGranularity;
+        private final int maxReportedCycles;
+        private final Executor executor;
+        private final List<EvaluationListener> listeners;
+        private final ViolationReporting reporting;
+
+        // the architecture does not change, so its predicates and lookup tables are built once and shared by all evaluations
+        private final Supplier<Compilation> compilation = Suppliers.memoize(() -> new Compilation())::get;
+        // the dependency graph of the classes evaluated last, which the coupling metrics of the same classes reuse
+        private volatile EvaluatedGraph lastGraph;
 
         private FunctionalArchitecture() {
-            this(
-                    new FPackageDefinitions(),
-                    new LinkedHashSet<>(),
-                    new PredicateAggregator<Dependency>().thatORs(),
-                    DependencyDirection.BOTH,
-                    new LinkedHashSet<>(),
-                    "",
-                    true
-            );
+            this(new Settings());
+        }
+
+        private FunctionalArchitecture(Settings settings) {
+            this.fPackageDefinitions = settings.fPackageDefinitions;
+            this.dependencySpecifications = settings.dependencySpecifications;
+            this.transitiveAccesses = settings.transitiveAccesses;
+            this.couplingThresholds = settings.couplingThresholds;
+            this.kindRestrictions = settings.kindRestrictions;
+            this.irrelevantDependenciesPredicate = settings.irrelevantDependenciesPredicate;
+            this.dependencyDirection = settings.dependencyDirection;
+            this.groups = settings.groups;
+            this.systemRoot = settings.systemRoot;
+            this.droppingDependenciesLeavingTheSystemRoot = settings.droppingDependenciesLeavingTheSystemRoot;
+            this.fPackagesOn = settings.fPackagesOn;
+            this.singlePass = settings.singlePass;
+            this.cycleGranularity = settings.cycleGranularity;
+            this.maxReportedCycles = settings.maxReportedCycles;
+            this.executor = settings.executor;
+            this.listeners = settings.listeners;
+            this.reporting = settings.reporting;
+        }
+
+        // a copy of the settings with the given changes, so the fluent API does not have to list all settings
+        private FunctionalArchitecture with(Consumer<Settings> changes) {
+            Settings settings = new Settings(this);
+            changes.accept(settings);
+            return new FunctionalArchitecture(settings);
         }
 
-        private FunctionalArchitecture(
-                FPackageDefinitions fPackageDefinitions,
-                Set<FPackageDependencySpecification> dependencySpecifications,
-                PredicateAggregator<Dependency> irrelevantDependenciesPredicate,
-                DependencyDirection dependencyDirection,
-                Set<String> groups,
-                String systemRoot,
-                boolean fPackagesOn) {
-            this.fPackageDefinitions = fPackageDefinitions;
-            this.dependencySpecifications = dependencySpecifications;
-            this.irrelevantDependenciesPredicate = irrelevantDependenciesPredicate;
-            this.dependencyDirection = dependencyDirection;
-            this.groups = groups;
-            this.systemRoot = systemRoot;
-            this.fPackagesOn = fPackagesOn;
+        private static final class Settings {
+            private FPackageDefinitions fPackageDefinitions = new FPackageDefinitions();
+            private Set<FPackageDependencySpecification> dependencySpecifications = Collections.emptySet();
+            private List<TransitiveFPackageAccess> transitiveAccesses = Collections.emptyList();
+            private List<CouplingThreshold> couplingThresholds = Collections.emptyList();
+            private List<FPackageKindRestriction> kindRestrictions = Collections.emptyList();
+            private PredicateAggregator<Dependency> irrelevantDependenciesPredicate = new PredicateAggregator<Dependency>().thatORs();
+            private DependencyDirection dependencyDirection = DependencyDirection.BOTH;
+            private Set<String> groups = Collections.emptySet();
+            private String systemRoot = "";
+            private boolean droppingDependenciesLeavingTheSystemRoot = false;
+            private boolean fPackagesOn = true;
+            private boolean singlePass = false;
+            private CycleGranularity cycleGranularity = null;
+            private int maxReportedCycles = CycleDetector.DEFAULT_MAX_REPORTED_CYCLES;
+            private Executor executor = null;
+            private List<EvaluationListener> listeners = Collections.emptyList();
+            private ViolationReporting reporting = ViolationReporting.ALL;
+
+            Settings() {
+            }
+
+            Settings(FunctionalArchitecture architecture) {
+                this.fPackageDefinitions = architecture.fPackageDefinitions;
+                this.dependencySpecifications = architecture.dependencySpecifications;
+                this.transitiveAccesses = architecture.transitiveAccesses;
+                this.couplingThresholds = architecture.couplingThresholds;
+                this.kindRestrictions = architecture.kindRestrictions;
+                this.irrelevantDependenciesPredicate = architecture.irrelevantDependenciesPredicate;
+                this.dependencyDirection = architecture.dependencyDirection;
+                this.groups = architecture.groups;
+                this.systemRoot = architecture.systemRoot;
+                this.droppingDependenciesLeavingTheSystemRoot = architecture.droppingDependenciesLeavingTheSystemRoot;
+                this.fPackagesOn = architecture.fPackagesOn;
+                this.singlePass = architecture.singlePass;
+                this.cycleGranularity = architecture.cycleGranularity;
+                this.maxReportedCycles = architecture.maxReportedCycles;
+                this.executor = architecture.executor;
+                this.listeners = architecture.listeners;
+                this.reporting = architecture.reporting;
+            }
         }
 
         @PublicAPI(usage = ACCESS)
         public FunctionalArchitecture inFunctionalArchitecture() {
-            return new FunctionalArchitecture(
-                    fPackageDefinitions,
-                    dependencySpecifications,
-                    irrelevantDependenciesPredicate,
-                    dependencyDirection,
-                    groups,
-                    systemRoot,
-                    fPackagesOn
-            );
+            return with(settings -> {});
         }
 
         private FunctionalArchitecture addFPackageDefinition(FPackageDefinition definition) {
-            fPackageDefinitions.add(definition);
-            return this;
+            FPackageDefinitions newFPackageDefinitions = new FPackageDefinitions(fPackageDefinitions);
+            newFPackageDefinitions.add(definition);
+            return with(settings -> settings.fPackageDefinitions = newFPackageDefinitions);
         }
 
         private FunctionalArchitecture addDependencySpecification(FPackageDependencySpecification dependencySpecification) {
-            dependencySpecifications.removeIf(specification -> specification.getFPackageName().equals(dependencySpecification.getFPackageName()));
-            dependencySpecifications.add(dependencySpecification);
-            return this;
+            Set<FPackageDependencySpecification> newDependencySpecifications = new LinkedHashSet<>(dependencySpecifications);
+            newDependencySpecifications.removeIf(specification -> specification.getFPackageName().equals(dependencySpecification.getFPackageName()));
+            newDependencySpecifications.add(dependencySpecification);
+            return with(settings -> settings.dependencySpecifications = Collections.unmodifiableSet(newDependencySpecifications));
+        }
+
+        private FunctionalArchitecture addTransitiveAccess(TransitiveFPackageAccess transitiveAccess) {
+            List<TransitiveFPackageAccess> newTransitiveAccesses = new ArrayList<>(transitiveAccesses);
+            newTransitiveAccesses.add(transitiveAccess);
+            return with(settings -> settings.transitiveAccesses = Collections.unmodifiableList(newTransitiveAccesses));
+        }
+
+        private FunctionalArchitecture addCouplingThreshold(CouplingThreshold couplingThreshold) {
+            List<CouplingThreshold> newCouplingThresholds = new ArrayList<>(couplingThresholds);
+            newCouplingThresholds.add(couplingThreshold);
+            return with(settings -> settings.couplingThresholds = Collections.unmodifiableList(newCouplingThresholds));
+        }
+
+        private FunctionalArchitecture addKindRestriction(FPackageKindRestriction kindRestriction) {
+            List<FPackageKindRestriction> newKindRestrictions = new ArrayList<>(kindRestrictions);
+            newKindRestrictions.add(kindRestriction);
+            return with(settings -> settings.kindRestrictions = Collections.unmodifiableList(newKindRestrictions));
         }
         
         @PublicAPI(usage = ACCESS)
@@ -120,6 +204,15 @@ public final class CustomArchitectures {
             for (FPackageDependencySpecification specification : dependencySpecifications) {
                 lines.add(specification.toString());
             }
+            for (FPackageKindRestriction kindRestriction : kindRestrictions) {
+                lines.add(kindRestriction.toString());
+            }
+            for (TransitiveFPackageAccess transitiveAccess : transitiveAccesses) {
+                lines.add(transitiveAccess.toString());
+            }
+            for (CouplingThreshold couplingThreshold : couplingThresholds) {
+                lines.add(couplingThreshold.toString());
+            }
 
             return Joiner.on(lineSeparator()).join(lines);
         }
@@ -132,38 +225,547 @@ public final class CustomArchitectures {
         @Override
         @PublicAPI(usage = ACCESS)
         public EvaluationResult evaluate(JavaClasses classes) {
-            EvaluationResult result = new EvaluationResult(this, Priority.MEDIUM);
-            checkEmptyFPackages(classes, result);
-            checkNoUpperLayerPackageIsLayer(classes, result);
+            return evaluate(classes, compilation.get());
+        }
+
+        /**
+         * Drops the dependencies leaving the system root: the dependency graph of an evaluation does not store them, and
+         * the checks on the ArchUnit classes ignore them as if told to by
+         * {@link #ignoreDependency(DescribedPredicate, DescribedPredicate)}.
+         */
+        @PublicAPI(usage = ACCESS)
+        public FunctionalArchitecture droppingDependenciesLeavingTheSystemRoot() {
+            return with(settings -> settings.droppingDependenciesLeavingTheSystemRoot = true);
+        }
+
+        private PredicateAggregator<Dependency> irrelevantDependencyPredicates() {
+            if (!droppingDependenciesLeavingTheSystemRoot) {
+                return irrelevantDependenciesPredicate;
+            }
+            checkState(!systemRoot.isEmpty(), "A system root must be set to drop the dependencies leaving it");
+            return irrelevantDependenciesPredicate.add(dependency(alwaysTrue(), new DescribedPredicate<JavaClass>("is outside the system root: " + systemRoot) {
+                @Override
+                public boolean apply(JavaClass javaClass) {
+                    return !DependencyGraph.isInside(systemRoot, javaClass.getName());
+                }
+            }));
+        }
+
+        // the dependencies that are never reported, or null if all are relevant
+        private DescribedPredicate<Dependency> irrelevantDependencies() {
+            PredicateAggregator<Dependency> predicates = irrelevantDependencyPredicates();
+            return predicates.isPresent() ? predicates.get() : null;
+        }
+
+        private DependencyGraph dependencyGraphOf(JavaClasses classes) {
+            EvaluatedGraph last = lastGraph;
+            if (last != null && last.classes == classes) {
+                return last.graph;
+            }
+            DependencyGraph graph = droppingDependenciesLeavingTheSystemRoot ? DependencyGraph.of(classes, systemRoot) : DependencyGraph.of(classes);
+            lastGraph = new EvaluatedGraph(classes, graph);
+            return graph;
+        }
+
+        private static final class EvaluatedGraph {
+            private final JavaClasses classes;
+            private final DependencyGraph graph;
+
+            EvaluatedGraph(JavaClasses classes, DependencyGraph graph) {
+                this.classes = classes;
+                this.graph = graph;
+            }
+        }
+
+        /**
+         * An importer of the class files inside the system root, which does not resolve the classes outside of it
+         * from the classpath. It does not drop any dependencies, see
+         * {@link #droppingDependenciesLeavingTheSystemRoot()}.
+         *
+         * @throws IllegalStateException if no system root is set
+         */
+        @PublicAPI(usage = ACCESS)
+        public SystemClassImporter importer() {
+            checkState(!systemRoot.isEmpty(), "A system root must be set to import the system");
+            return SystemClassImporter.of(systemRoot);
+        }
+
+        /**
+         * Freezes the architecture into a rule that evaluates like this architecture does, with all predicates, the
+         * FPackage index and the lookup tables built once. The definitions are copied, so neither the architectures
+         * derived from this one nor an FPackage definition or specification used again change the compiled rule. The
+         * compiled rule can evaluate any number of {@link JavaClasses} concurrently.
+         */
+        @PublicAPI(usage = ACCESS)
+        public CompiledFunctionalArchitecture compile() {
+            FunctionalArchitecture frozen = frozenCopy();
+            return new CompiledFunctionalArchitecture(frozen, frozen.compilation.get());
+        }
+
+        EvaluationResult evaluate(JavaClasses classes, Compilation compilation) {
+            if (singlePass && !classes.isEmpty()) {
+                return evaluateInSinglePass(classes, compilation);
+            }
+            ViolationReporting.TopOffenders offenders = reporting.newTopOffenders(compilation.fPackageOf);
+            Checks checks = new Checks(this, listeners, reporting.newBudget(), offenders);
+            // built by the first graph based check that runs, and shared by all of them
+            Supplier<DependencyGraph> graph = Suppliers.memoize(() -> dependencyGraphOf(classes))::get;
+            for (FPackageDefinition definition : fPackageDefinitions) {
+                checks.add(CheckKind.EMPTY_FPACKAGE, String.format("FPackage '%s' should not be empty", definition.getName()), definition.getName(),
+                        (result, recorder) -> result.add(evaluateFPackagesShouldNotBeEmpty(classes, definition, compilation, recorder)));
+            }
+            checks.add(CheckKind.LAYERS, "Packages should not be layers", null,
+                    (result, recorder) -> checkNoUpperLayerPackageIsLayer(classes, result, recorder));
             if (fPackagesOn) {
-                checkAllClassesBelongToFPackagesOrAreDirectGroupChildren(classes, result);
+                checks.add(CheckKind.MEMBERSHIP, "Classes should belong to FPackages or be direct group children", null,
+                        (result, recorder) -> checkAllClassesBelongToFPackagesOrAreDirectGroupChildren(classes, result, recorder));
                 for (FPackageDependencySpecification specification : dependencySpecifications) {
-                    result.add(evaluateDependenciesShouldBeSatisfied(classes, specification));
+                    checks.add(CheckKind.DEPENDENCY_SPECIFICATION, specification.toString(), specification.getFPackageName(),
+                            (result, recorder) -> result.add(evaluateDependenciesShouldBeSatisfied(classes, specification, compilation, recorder)));
+                }
+                if (!kindRestrictions.isEmpty()) {
+                    checks.add(CheckKind.DEPENDENCY_KIND, DEPENDENCY_KIND_DESCRIPTION, null,
+                            (result, recorder) -> checkKindRestrictions(classes, graph.get(), compilation, result, recorder));
                 }
+                if (!transitiveAccesses.isEmpty()) {
+                    checks.add(CheckKind.TRANSITIVE_ACCESS, TRANSITIVE_ACCESS_DESCRIPTION, null,
+                            (result, recorder) -> checkTransitiveAccesses(classes, graph.get(), compilation, result, recorder));
+                }
+            }
+            if (!couplingThresholds.isEmpty()) {
+                checks.add(CheckKind.COUPLING, COUPLING_DESCRIPTION, null,
+                        (result, recorder) -> checkCouplingThresholds(classes, graph.get(), compilation, result, recorder));
             }
             switch (this.dependencyDirection) {
                 case UP:
-                    checkDependencyDirectionUp(classes, result);
+                    checks.add(CheckKind.DEPENDENCY_DIRECTION, "Classes should not access classes in subpackages", null,
+                            (result, recorder) -> checkDependencyDirectionUp(classes, result, recorder));
                     break;
                 case DOWN:
-                    checkDependencyDirectionDown(classes, result);
+                    checks.add(CheckKind.DEPENDENCY_DIRECTION, "Classes should not access classes in ancestor packages", null,
+                            (result, recorder) -> checkDependencyDirectionDown(classes, result, recorder));
                     break;
                 default:
                     break;
             }
-            checkCyclicDependenciesBetweenPackages(classes, result);
-            return result;
+            checks.add(CheckKind.CYCLES, cyclesDescription(), null,
+                    (result, recorder) -> checkCycles(classes, graph, compilation, result, recorder));
+            return reporting.report(this, checks.run(executor), offenders);
         }
 
-        private void checkNoUpperLayerPackageIsLayer(JavaClasses javaClasses, EvaluationResult result) {
+        private EvaluationResult evaluateInSinglePass(JavaClasses classes, Compilation compilation) {
+            SinglePassEvaluation evaluation = singlePassEvaluation(compilation);
+            ViolationReporting.TopOffenders offenders = reporting.newTopOffenders(compilation.fPackageOf);
+            Checks checks = new Checks(this, listeners, reporting.newBudget(), offenders);
+            checks.add(CheckKind.SINGLE_PASS, "Class based checks in a single pass", null, (result, recorder) -> {
+                result.add(new EvaluationResult(this, evaluation.evaluate(classes, recorder), Priority.MEDIUM));
+                lastGraph = new EvaluatedGraph(classes, evaluation.getGraph());
+                if (recorder.isEnabled()) {
+                    DependencyGraph graph = evaluation.getGraph();
+                    recorder.visited(classes.size(), graph.getDependencyCount());
+                }
+                if (recorder.isOverBudget()) {
+                    return;
+                }
+
+                // the separate rules fail on empty FPackages and packages, let them report it the same way
+                for (FPackageDefinition definition : evaluation.getEmptyFPackages()) {
+                    result.add(evaluateFPackagesShouldNotBeEmpty(classes, definition, compilation, CheckRecorder.DISABLED));
+                }
+                if (!evaluation.hasCheckedAnyPackage()) {
+                    checkNoUpperLayerPackageIsLayer(classes, result, CheckRecorder.DISABLED);
+                }
+            });
+            // run after the single pass, which builds the graph
+            if (fPackagesOn && !kindRestrictions.isEmpty()) {
+                checks.add(CheckKind.DEPENDENCY_KIND, DEPENDENCY_KIND_DESCRIPTION, null,
+                        (result, recorder) -> checkKindRestrictions(classes, evaluation.getGraph(), compilation, result, recorder));
+            }
+            if (fPackagesOn && !transitiveAccesses.isEmpty()) {
+                checks.add(CheckKind.TRANSITIVE_ACCESS, TRANSITIVE_ACCESS_DESCRIPTION, null,
+                        (result, recorder) -> checkTransitiveAccesses(classes, evaluation.getGraph(), compilation, result, recorder));
+            }
+            if (!couplingThresholds.isEmpty()) {
+                checks.add(CheckKind.COUPLING, COUPLING_DESCRIPTION, null,
+                        (result, recorder) -> checkCouplingThresholds(classes, evaluation.getGraph(), compilation, result, recorder));
+            }
+            checks.add(CheckKind.CYCLES, cyclesDescription(), null,
+                    (result, recorder) -> checkCycles(classes, evaluation::getGraph, compilation, result, recorder));
+            return reporting.report(this, checks.run(null), offenders);
+        }
+
+        private static final String DEPENDENCY_KIND_DESCRIPTION = "FPackages should only access FPackages by the kinds of dependencies they may";
+        private static final String TRANSITIVE_ACCESS_DESCRIPTION = "FPackages should only transitively access the FPackages they may";
+        private static final String COUPLING_DESCRIPTION = "FPackages and groups should keep their coupling metrics below the thresholds";
+
+        private String cyclesDescription() {
+            return String.format("There should be no cycles between %s", cycleGranularity != null ? cycleGranularity : CycleGranularity.SLICE);
+        }
+
+        private SinglePassEvaluation singlePassEvaluation(Compilation compilation) {
+            return new SinglePassEvaluation(
+                    compilation.definitions,
+                    compilation.index,
+                    compilation.accesses,
+                    irrelevantDependencies(),
+                    droppingDependenciesLeavingTheSystemRoot ? systemRoot : null,
+                    compilation.membershipCondition,
+                    compilation.layerCandidates,
+                    notBeLayers,
+                    dependencyDirection
+            );
+        }
+
+        /**
+         * Evaluates the classes in the given directories like {@link #evaluatedInSinglePass()}, but only imports and
+         * checks the class files that changed since the last evaluation with the same cache file, and the classes
+         * depending on them. The facts of all other classes are read from the cache, which is only reused by an
+         * architecture with the same definitions and settings.
+         * <p>
+         * Empty FPackages, layers and cycles are checked on the cached facts of all classes. Empty FPackages are reported
+         * as violations instead of failing the evaluation, and cycles are found by the cycle detector, between
+         * {@link CycleGranularity#SLICE slices} unless {@link #whereCyclesDetectedBetween(CycleGranularity)} says otherwise.
+         * Cycles between FPackages need FPackages defined by packages. Transitive accesses and the kinds of dependencies
+         * between FPackages are checked on the cached dependencies, which do not consult the dependencies ignored by
+         * {@link #ignoreDependency(DescribedPredicate, DescribedPredicate)}.
+         *
+         * @throws IllegalStateException if coupling thresholds are declared, which need the imported classes
+         */
+        @PublicAPI(usage = ACCESS)
+        public EvaluationResult evaluateIncrementally(Path cacheFile, Path... classDirectories) {
+            checkNotNull(cacheFile, "Supplied cache file must not be null");
+            checkArgument(classDirectories.length > 0, "At least 1 class directory must be provided");
+            IncrementalEvaluation evaluation = incrementalEvaluation();
+            try {
+                return new EvaluationResult(this, evaluation.evaluate(cacheFile, asList(classDirectories)), Priority.MEDIUM);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        /**
+         * Evaluates the classes in the given directories like {@link #evaluateIncrementally(Path, Path...)}, keeping the
+         * facts of all classes in memory, and watches the directories for changed class files. Every change is
+         * evaluated again, importing only the changed classes and the classes depending on them, and the listener is
+         * told the violations that appeared and disappeared. The first evaluation runs before this method returns and
+         * reports all violations as new ones.
+         *
+         * @return the watcher, which stops watching when it is closed
+         * @throws IllegalStateException if coupling thresholds are declared, which need the imported classes
+         */
+        @PublicAPI(usage = ACCESS)
+        public ArchitectureWatcher watch(ArchitectureWatcher.Listener listener, Path... classDirectories) {
+            checkNotNull(listener, "Supplied listener must not be null");
+            checkArgument(classDirectories.length > 0, "At least 1 class directory must be provided");
+            IncrementalEvaluation evaluation = incrementalEvaluation();
+            try {
+                return ArchitectureWatcher.start(evaluation, asList(classDirectories), listener);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private IncrementalEvaluation incrementalEvaluation() {
+            checkNoCouplingThresholdsWithout("an incremental evaluation");
+            Compilation compilation = this.compilation.get();
+            return new IncrementalEvaluation(cacheFingerprint(), () -> singlePassEvaluation(compilation),
+                    compilation.fPackageNames, systemRoot, graph -> graphCheckEventsWithoutImport(graph, compilation),
+                    compilation.cycleDetector);
+        }
+
+        /**
+         * Evaluates the classes like {@link #evaluatedInSinglePass()}, but writes every violation to the sink as soon as
+         * it is found instead of collecting them in an {@link EvaluationResult}, so the violations of a badly broken
+         * system do not have to fit into memory. Only the violations of the class being checked are held at a time.
+         * <p>
+         * Empty FPackages are streamed as violations instead of failing the evaluation, and cycles are found by the
+         * cycle detector, between {@link CycleGranularity#SLICE slices} unless
+         * {@link #whereCyclesDetectedBetween(CycleGranularity)} says otherwise. Transitive accesses, coupling thresholds and
+         * the kinds of dependencies between FPackages are checked on the dependency graph of the single pass, and their
+         * violations streamed once it is done. Listeners and reporting modes do not apply.
+         *
+         * @return the number of violations written to the sink
+         */
+        @PublicAPI(usage = ACCESS)
+        public long streamViolations(JavaClasses classes, ViolationSink sink) {
+            checkNotNull(classes, "Supplied classes must not be null");
+            checkNotNull(sink, "Supplied sink must not be null");
+            Compilation compilation = this.compilation.get();
+            Function<JavaClass, String> fPackageOf = compilation.fPackageOf;
+            SinglePassEvaluation evaluation = singlePassEvaluation(compilation);
+            long[] count = new long[1];
+            evaluation.stream(classes, event -> {
+                sink.accept(Violation.of(event, fPackageOf));
+                count[0]++;
+            });
+            for (FPackageDefinition definition : evaluation.getEmptyFPackages()) {
+                String name = definition.getName();
+                sink.accept(new Violation(CheckKind.EMPTY_FPACKAGE, null, null, name, null, null, 0,
+                        () -> String.format("FPackage '%s' is empty", name)));
+                count[0]++;
+            }
+            for (Map.Entry<CheckKind, ConditionEvents> events : graphCheckEvents(evaluation.getGraph(), compilation).entrySet()) {
+                for (ConditionEvent event : events.getValue().getViolating()) {
+                    sink.accept(Violation.of(ViolationEvent.of(events.getKey(), null, event), fPackageOf));
+                    count[0]++;
+                }
+            }
+            for (ConditionEvent event : compilation.cycleDetector.detect(evaluation.getGraph()).getViolating()) {
+                sink.accept(Violation.of(ViolationEvent.of(CheckKind.CYCLES, null, event), fPackageOf));
+                count[0]++;
+            }
+            return count[0];
+        }
+
+        /**
+         * Evaluates the classes like {@link #streamViolations(JavaClasses, ViolationSink)} and aggregates the dependency
+         * graph the evaluation builds into the dependencies between the units of the given granularity, e.g. between
+         * FPackages. The edges count the violations of the FPackage dependency specifications and of the dependency
+         * direction among the class edges they aggregate, so they can be highlighted when the graph is written.
+         */
+        @PublicAPI(usage = ACCESS)
+        public ArchitectureGraph architectureGraph(JavaClasses classes, CycleGranularity granularity) {
+            checkNotNull(classes, "Supplied classes must not be null");
+            checkNotNull(granularity, "Supplied granularity must not be null");
+            Compilation compilation = this.compilation.get();
+            SinglePassEvaluation evaluation = singlePassEvaluation(compilation);
+            Map<String, Set<String>> violatingTargets = new HashMap<>();
+            evaluation.stream(classes, event -> {
+                if (event.getCorrespondingObject() instanceof Dependency) {
+                    Dependency dependency = (Dependency) event.getCorrespondingObject();
+                    violatingTargets.computeIfAbsent(dependency.getOriginClass().getName(), name -> new HashSet<>())
+                            .add(dependency.getTargetClass().getName());
+                }
+            });
+            DependencyGraph graph = evaluation.getGraph();
+            return ArchitectureGraph.of(graph, cycleDetector(granularity, compilation.index).unitsOf(graph), violatingTargets, granularity);
+        }
+
+        /**
+         * The {@link #architectureGraph(JavaClasses, CycleGranularity) architecture graph} of the classes as a
+         * dependency structure matrix, ordered so that the units depending on each other form blocks on its diagonal.
+         */
+        @PublicAPI(usage = ACCESS)
+        public DependencyStructureMatrix dependencyStructureMatrix(JavaClasses classes, CycleGranularity granularity) {
+            return DependencyStructureMatrix.of(architectureGraph(classes, granularity));
+        }
+
+        /**
+         * Computes the {@link CouplingMetrics coupling metrics} of every FPackage and group on the dependency graph the
+         * evaluation builds. The graph of the classes this architecture evaluated last is reused, as are the predicates
+         * and lookup tables of its evaluations, so the metrics of evaluated classes cost no further walk over them.
+         * Thresholds on the metrics are checked by the evaluation, see
+         * {@link AbstractFPackageDependencySpecification#shouldHaveCouplingBelow(CouplingMetric, double)} and
+         * {@link #whereGroupHasCouplingBelow(String, CouplingMetric, double)}.
+         */
+        @PublicAPI(usage = ACCESS)
+        public CouplingMetrics couplingMetrics(JavaClasses classes) {
+            checkNotNull(classes, "Supplied classes must not be null");
+            return couplingMetrics(dependencyGraphOf(classes), compilation.get());
+        }
+
+        /**
+         * Checks cycles on a dependency graph, e.g. one read from a {@link DependencyGraphSnapshot}, without importing
+         * any classes. Cycles are found between {@link CycleGranularity#SLICE slices} unless
+         * {@link #whereCyclesDetectedBetween(CycleGranularity)} says otherwise.
+         */
+        @PublicAPI(usage = ACCESS)
+        public EvaluationResult evaluateCycles(DependencyGraph graph) {
+            checkNotNull(graph, "Supplied graph must not be null");
+            return new EvaluationResult(this, cycleDetectorOrSlices(fPackageIndex()).detect(graph), Priority.MEDIUM);
+        }
+
+        /**
+         * Evaluates the class files in the given directories and jar files like {@link #evaluatedInSinglePass()}, but
+         * reads only the packages of the classes and the classes they refer to with the {@link ClassFileScanner}
+         * instead of importing them with ArchUnit. Meant for quick checks of large code bases, e.g. in a pre-commit hook.
+         * <p>
+         * Only classes inside the system root are scanned, and dependencies on classes outside of it are dropped, so the
+         * dependencies ignored by {@link #ignoreDependency(DescribedPredicate, DescribedPredicate)} are not consulted.
+         * Dependencies are described by the scan, without lines. Empty FPackages are reported as violations instead of
+         * failing the evaluation, and cycles are found by the cycle detector, between {@link CycleGranularity#SLICE slices}
+         * unless {@link #whereCyclesDetectedBetween(CycleGranularity)} says otherwise. Transitive accesses and the kinds
+         * of dependencies between FPackages are checked on the scanned dependency graph.
+         *
+         * @throws IllegalStateException if an FPackage is not defined by package identifiers, or coupling thresholds are
+         * declared, which need the imported classes
+         */
+        @PublicAPI(usage = ACCESS)
+        public EvaluationResult evaluateFastScan(Path... locations) {
+            checkArgument(locations.length > 0, "At least 1 location must be provided");
+            checkNoCouplingThresholdsWithout("a fast scan");
+            Compilation compilation = this.compilation.get();
+            FPackageIndex index = compilation.index;
+            List<String> fPackageNames = new ArrayList<>();
+            List<SinglePassEvaluation.FPackageAccess> accesses = new ArrayList<>();
+            for (FPackageDefinition definition : fPackageDefinitions) {
+                checkState(index.isIndexed(definition.getName()),
+                        "FPackage '%s' must be defined by package identifiers to be evaluated by a fast scan", definition.getName());
+                fPackageNames.add(definition.getName());
+                accesses.add(fPackagesOn ? accessFor(definition.getName(), index) : null);
+            }
+            FastScanEvaluation evaluation = new FastScanEvaluation(fPackageNames, index, accesses, systemRoot, groups,
+                    fPackagesOn ? fPackagePackages() : null, dependencyDirection, cycleDetectorOrSlices(index));
+            DependencyGraph graph = ClassFileScanner.scan(systemRoot, locations);
+            ConditionEvents events = evaluation.evaluate(graph);
+            for (ConditionEvent event : graphCheckEventsWithoutImport(graph, compilation)) {
+                events.add(event);
+            }
+            return new EvaluationResult(this, events, Priority.MEDIUM);
+        }
+
+        private CycleDetector cycleDetectorOrSlices(FPackageIndex index) {
+            return cycleDetector(cycleGranularity != null ? cycleGranularity : CycleGranularity.SLICE, index);
+        }
+
+        private CycleDetector cycleDetector(CycleGranularity granularity, FPackageIndex index) {
+            return new CycleDetector(granularity, systemRoot, groups, newArrayList(fPackageDefinitions), index, maxReportedCycles);
+        }
+
+        private String cacheFingerprint() {
+            List<String> lines = newArrayList(getDescription());
+            for (FPackageDefinition definition : fPackageDefinitions) {
+                lines.add(definition.getName() + " in " + definition.getThePackage());
+            }
+            lines.add("systemRoot " + systemRoot);
+            lines.add("groups " + groups);
+            lines.add("dependencyDirection " + dependencyDirection);
+            lines.add("fPackagesOn " + fPackagesOn);
+            lines.add("ignoring " + (irrelevantDependencies() != null ? irrelevantDependencies().getDescription() : ""));
+            lines.add("cycles " + cycleGranularity + " " + maxReportedCycles);
+            return EvaluationCache.hash(Joiner.on(lineSeparator()).join(lines));
+        }
+
+        private FPackageIndex fPackageIndex() {
+            return FPackageIndex.of(systemRoot, groups, fPackageDefinitions);
+        }
+
+        private SinglePassEvaluation.FPackageAccess accessFor(String fPackageName, FPackageIndex index) {
+            for (FPackageDependencySpecification specification : dependencySpecifications) {
+                if (specification.getFPackageName().equals(fPackageName)) {
+                    Set<String> allowedTargets = specification.allowedFPackages;
+                    return new SinglePassEvaluation.FPackageAccess(
+                            targetMatchesIfDependencyIsRelevant(fPackageName, allowedTargets, index),
+                            index.isIndexed(fPackageName) && index.isIndexed(allowedTargets) ? index.idsOf(allowedTargets) : null,
+                            parentPackageOf(fPackageName)
+                    );
+                }
+            }
+            return null;
+        }
+
+        private String parentPackageOf(String fPackageName) {
+            return getParentPackage(getPackageExcludingSubpackages(fPackageDefinitions.get(fPackageName).thePackage));
+        }
+
+        private void checkNoUpperLayerPackageIsLayer(JavaClasses javaClasses, EvaluationResult result, CheckRecorder recorder) {
             result.add(
                     all(packages)
-                            .that(areDirectRootChildrenOf(this.systemRoot))
+                            .that(recorder.counting(areDirectRootChildrenOf(this.systemRoot)))
                             .should(notBeLayers)
                             .evaluate(javaClasses)
             );
         }
 
+        // the graph is only built if the cycle detector checks it
+        private void checkCycles(JavaClasses javaClasses, Supplier<DependencyGraph> graph, Compilation compilation,
+                                 EvaluationResult result, CheckRecorder recorder) {
+            if (cycleGranularity == null) {
+                checkCyclicDependenciesBetweenPackages(javaClasses, result);
+                if (recorder.isEnabled()) {
+                    long dependencies = 0;
+                    for (JavaClass javaClass : javaClasses) {
+                        dependencies += javaClass.getDirectDependenciesFromSelf().size();
+                    }
+                    recorder.visited(javaClasses.size(), dependencies);
+                }
+                return;
+            }
+            DependencyGraph checkedGraph = graph.get();
+            result.add(new EvaluationResult(this, compilation.cycleDetector.detect(checkedGraph), Priority.MEDIUM));
+            recorder.visited(javaClasses.size(), checkedGraph.getDependencyCount());
+        }
+
+        private void checkKindRestrictions(JavaClasses javaClasses, DependencyGraph graph, Compilation compilation,
+                                           EvaluationResult result, CheckRecorder recorder) {
+            result.add(new EvaluationResult(this, kindRestrictionEvents(graph, compilation), Priority.MEDIUM));
+            recorder.visited(javaClasses.size(), graph.getDependencyCount());
+        }
+
+        private ConditionEvents kindRestrictionEvents(DependencyGraph graph, Compilation compilation) {
+            TypedFPackageEdges edges = TypedFPackageEdges.of(graph, compilation.fPackageUnits.unitsOf(graph),
+                    compilation.fPackageNames, irrelevantDependencies());
+            return edges.check(kindRestrictions);
+        }
+
+        private void checkTransitiveAccesses(JavaClasses javaClasses, DependencyGraph graph, Compilation compilation,
+                                             EvaluationResult result, CheckRecorder recorder) {
+            result.add(new EvaluationResult(this, transitiveAccessEvents(graph, compilation), Priority.MEDIUM));
+            recorder.visited(javaClasses.size(), graph.getDependencyCount());
+        }
+
+        private ConditionEvents transitiveAccessEvents(DependencyGraph graph, Compilation compilation) {
+            FPackageReachability reachability = FPackageReachability.of(graph, compilation.fPackageUnits.unitsOf(graph),
+                    compilation.fPackageNames, irrelevantDependencies());
+            return reachability.check(transitiveAccesses);
+        }
+
+        private void checkCouplingThresholds(JavaClasses javaClasses, DependencyGraph graph, Compilation compilation,
+                                             EvaluationResult result, CheckRecorder recorder) {
+            result.add(new EvaluationResult(this, couplingEvents(graph, compilation), Priority.MEDIUM));
+            recorder.visited(javaClasses.size(), graph.getDependencyCount());
+        }
+
+        private ConditionEvents couplingEvents(DependencyGraph graph, Compilation compilation) {
+            CouplingMetrics metrics = couplingMetrics(graph, compilation);
+            ConditionEvents events = new ConditionEvents();
+            for (CouplingThreshold couplingThreshold : couplingThresholds) {
+                couplingThreshold.check(metrics, events);
+            }
+            return events;
+        }
+
+        /**
+         * The checks on the FPackage edges of the whole dependency graph, for the evaluations that build the graph
+         * themselves instead of running {@link Checks}.
+         *
+         * @return the events of every graph based check that is declared, in the order of the checks
+         */
+        private Map<CheckKind, ConditionEvents> graphCheckEvents(DependencyGraph graph, Compilation compilation) {
+            Map<CheckKind, ConditionEvents> result = new EnumMap<>(CheckKind.class);
+            if (fPackagesOn && !transitiveAccesses.isEmpty()) {
+                result.put(CheckKind.TRANSITIVE_ACCESS, transitiveAccessEvents(graph, compilation));
+            }
+            if (!couplingThresholds.isEmpty()) {
+                result.put(CheckKind.COUPLING, couplingEvents(graph, compilation));
+            }
+            if (fPackagesOn && !kindRestrictions.isEmpty()) {
+                result.put(CheckKind.DEPENDENCY_KIND, kindRestrictionEvents(graph, compilation));
+            }
+            return result;
+        }
+
+        private ConditionEvents graphCheckEventsWithoutImport(DependencyGraph graph, Compilation compilation) {
+            ConditionEvents result = new ConditionEvents();
+            for (ConditionEvents events : graphCheckEvents(graph, compilation).values()) {
+                for (ConditionEvent event : events) {
+                    result.add(event);
+                }
+            }
+            return result;
+        }
+
+        // graphs without imported classes do not know which classes are abstract, which the coupling metrics need
+        private void checkNoCouplingThresholdsWithout(String evaluation) {
+            checkState(couplingThresholds.isEmpty(), "Coupling thresholds need imported classes and cannot be checked by %s", evaluation);
+        }
+
+        private CouplingMetrics couplingMetrics(DependencyGraph graph, Compilation compilation) {
+            return CouplingMetrics.of(graph, compilation.fPackageUnits.unitsOf(graph), compilation.fPackageNames,
+                    compilation.groupUnits.unitsOf(graph), groups,
+                    irrelevantDependencies());
+        }
+
         private void checkCyclicDependenciesBetweenPackages(JavaClasses javaClasses, EvaluationResult result) {
             result.add(
                     slices().matching("(" + this.systemRoot + ".*).(*)..")
@@ -172,72 +774,128 @@ public final class CustomArchitectures {
             );
         }
 
-        private void checkAllClassesBelongToFPackagesOrAreDirectGroupChildren(JavaClasses classes, EvaluationResult result) {
-            List<String> fPackages = new ArrayList<>();
-            fPackages.add(this.systemRoot);
-            for (FPackageDefinition fPackageDefinition : this.fPackageDefinitions) {
-                fPackages.add(fPackageDefinition.thePackage);
-            }
+        private void checkAllClassesBelongToFPackagesOrAreDirectGroupChildren(JavaClasses classes, EvaluationResult result,
+                                                                               CheckRecorder recorder) {
+            ArchRule rule = recorder.isVisiting() ?
+                    classes().should(recorder.visiting(belongToFPackagesOrBeDirectGroupChildren(), false)) :
+                    classes()
+                            .should()
+                            .resideInAnyPackage(this.groups.toArray(new String[]{}))
+                            .orShould(beInAnyOfPackages(fPackagePackages()));
             result.add(
-                classes()
-                        .should()
-                        .resideInAnyPackage(this.groups.toArray(new String[]{}))
-                        .orShould(beInAnyOfPackages(fPackages))
-                        .evaluate(classes)
+                evaluateClasses(classes, alwaysTrue(), recorder.visiting(this::belongToFPackagesOrBeDirectGroupChildren, false), rule)
             );
         }
 
-        private void checkEmptyFPackages(JavaClasses classes, EvaluationResult result) {
-            for (FPackageDefinition definition : fPackageDefinitions) {
-                result.add(evaluateFPackagesShouldNotBeEmpty(classes, definition));
+        // checks the classes on partitions when evaluated in parallel, otherwise, or if no class matches, evaluates the rule
+        private EvaluationResult evaluateClasses(JavaClasses classes, DescribedPredicate<? super JavaClass> predicate,
+                                                 Supplier<? extends ArchCondition<JavaClass>> condition, ArchRule rule) {
+            if (executor != null) {
+                List<JavaClass> selected = new ArrayList<>();
+                for (JavaClass javaClass : classes) {
+                    if (predicate.apply(javaClass)) {
+                        selected.add(javaClass);
+                    }
+                }
+                if (!selected.isEmpty()) {
+                    return new EvaluationResult(this, PartitionedEvaluation.check(condition, selected, executor), Priority.MEDIUM);
+                }
             }
+            return rule.evaluate(classes);
+        }
+
+        private ArchCondition<JavaClass> belongToFPackagesOrBeDirectGroupChildren() {
+            return resideInAnyPackage(this.groups.toArray(new String[]{}))
+                    .or(beInAnyOfPackages(fPackagePackages()));
         }
 
-        private void checkDependencyDirectionUp(JavaClasses classes, EvaluationResult result) {
+        private List<String> fPackagePackages() {
+            List<String> fPackages = new ArrayList<>();
+            fPackages.add(this.systemRoot);
+            for (FPackageDefinition fPackageDefinition : this.fPackageDefinitions) {
+                fPackages.add(fPackageDefinition.thePackage);
+            }
+            return fPackages;
+        }
+
+        private void checkDependencyDirectionUp(JavaClasses classes, EvaluationResult result, CheckRecorder recorder) {
+            // built once for all partitions of a parallel evaluation
+            PackageHierarchy hierarchy = PackageHierarchy.ofClasses(classes);
             result.add(
-                    classes().should(notAccessClassesInSubpackages()).evaluate(classes)
+                    evaluateClasses(classes, alwaysTrue(), recorder.visiting(() -> notAccessClassesInSubpackages(hierarchy), true),
+                            classes().should(recorder.visiting(notAccessClassesInSubpackages(hierarchy), true)))
             );
         }
 
-        private void checkDependencyDirectionDown(JavaClasses classes, EvaluationResult result) {
+        private void checkDependencyDirectionDown(JavaClasses classes, EvaluationResult result, CheckRecorder recorder) {
+            // built once for all partitions of a parallel evaluation
+            PackageHierarchy hierarchy = PackageHierarchy.ofClasses(classes);
             result.add(
-                    classes().should(notAccessClassesInAncestorPackages()).evaluate(classes)
+                    evaluateClasses(classes, alwaysTrue(), recorder.visiting(() -> notAccessClassesInAncestorPackages(hierarchy), true),
+                            classes().should(recorder.visiting(notAccessClassesInAncestorPackages(hierarchy), true)))
             );
         }
 
-        private EvaluationResult evaluateFPackagesShouldNotBeEmpty(JavaClasses classes, FPackageDefinition definition) {
-            return classes().that(fPackageDefinitions.containsPredicateFor(definition.getName()))
-                    .should(notBeEmptyFor(definition))
-                    .allowEmptyShould(false)
-                    .evaluate(classes);
+        private EvaluationResult evaluateFPackagesShouldNotBeEmpty(JavaClasses classes, FPackageDefinition definition, Compilation compilation,
+                                                                   CheckRecorder recorder) {
+            DescribedPredicate<JavaClass> containsPredicate =
+                    recorder.counting(compilation.containsPredicates.get(definition.getName()));
+            return evaluateClasses(classes, containsPredicate, recorder.visiting(() -> notBeEmptyFor(definition), false), classes().that(containsPredicate)
+                    .should(recorder.visiting(notBeEmptyFor(definition), false))
+                    .allowEmptyShould(false));
         }
 
-        private EvaluationResult evaluateDependenciesShouldBeSatisfied(JavaClasses classes, FPackageDependencySpecification specification) {
-            ArchCondition<JavaClass> satisfyFPackageDependenciesCondition = onlyHaveDependenciesWhere(
-                    targetMatchesIfDependencyIsRelevant(specification.getFPackageName(), specification.allowedFPackages)
-            );
-            return classes().that(fPackageDefinitions.containsPredicateFor(specification.getFPackageName()))
+        private EvaluationResult evaluateDependenciesShouldBeSatisfied(
+                JavaClasses classes, FPackageDependencySpecification specification, Compilation compilation, CheckRecorder recorder) {
+            DescribedPredicate<Dependency> targetMatches = recorder.examining(compilation.targetMatches.get(specification.getFPackageName()));
+            ArchCondition<JavaClass> satisfyFPackageDependenciesCondition = recorder.visiting(onlyHaveDependenciesWhere(targetMatches), false);
+            DescribedPredicate<JavaClass> containsPredicate =
+                    recorder.counting(compilation.containsPredicates.get(specification.getFPackageName()));
+            return evaluateClasses(classes, containsPredicate, recorder.visiting(() -> onlyHaveDependenciesWhere(targetMatches), false),
+                    classes().that(containsPredicate)
                     .should(satisfyFPackageDependenciesCondition)
-                    .allowEmptyShould(false)
-                    .evaluate(classes);
+                    .allowEmptyShould(false));
         }
 
-        private DescribedPredicate<Dependency> targetMatchesIfDependencyIsRelevant(String ownFPackage, Set<String> allowedTargets) {
-            DescribedPredicate<Dependency> targetPackageMatches = dependencyTarget(fPackageDefinitions.excludeSubpackagePredicateFor(allowedTargets))
-                    .or(dependencyTarget(fPackageDefinitions.containsPredicateFor(ownFPackage)))
+        private DescribedPredicate<Dependency> targetMatchesIfDependencyIsRelevant(
+                String ownFPackage, Set<String> allowedTargets, FPackageIndex index) {
+            String ownParentPackage = parentPackageOf(ownFPackage);
+            DescribedPredicate<Dependency> targetPackageMatches = dependencyTarget(fPackageDefinitions.excludeSubpackagePredicateFor(allowedTargets, index))
+                    .or(dependencyTarget(fPackageDefinitions.containsPredicateFor(ownFPackage, index)))
                     .or(dependencyTarget(areInParentPackageOf(getPackageExcludingSubpackages(fPackageDefinitions.get(ownFPackage).thePackage))));
 
             for (String group : this.groups) {
                 targetPackageMatches = targetPackageMatches.or(dependencyTarget(areInTheSamePackage(group)));
             }
 
+            if (index.isIndexed(ownFPackage) && index.isIndexed(allowedTargets)) {
+                targetPackageMatches = targetResolvesTo(ownFPackage, allowedTargets, ownParentPackage, index, targetPackageMatches.getDescription());
+            }
+
             return ifDependencyIsRelevant(targetPackageMatches);
         }
 
+        // same as the predicate chain above, but resolves the target package with a single index lookup
+        private DescribedPredicate<Dependency> targetResolvesTo(
+                String ownFPackage, Set<String> allowedTargets, final String ownParentPackage, final FPackageIndex index, String description) {
+            final int ownId = index.idOf(ownFPackage);
+            final BitSet allowedIds = index.idsOf(allowedTargets);
+            return new DescribedPredicate<Dependency>(description) {
+                @Override
+                public boolean apply(Dependency dependency) {
+                    String targetPackage = dependency.getTargetClass().getPackageName();
+                    FPackageIndex.Resolution target = index.resolve(targetPackage);
+                    return target.isInTopLayerOfAny(allowedIds)
+                            || target.isContainedIn(ownId)
+                            || targetPackage.equals(ownParentPackage)
+                            || target.isGroup();
+                }
+            };
+        }
+
         private DescribedPredicate<Dependency> ifDependencyIsRelevant(DescribedPredicate<Dependency> originPackageMatches) {
-            return irrelevantDependenciesPredicate.isPresent() ?
-                    originPackageMatches.or(irrelevantDependenciesPredicate.get()) :
-                    originPackageMatches;
+            DescribedPredicate<Dependency> irrelevantDependencies = irrelevantDependencies();
+            return irrelevantDependencies != null ? originPackageMatches.or(irrelevantDependencies) : originPackageMatches;
         }
 
         @Override
@@ -260,101 +918,166 @@ public final class CustomArchitectures {
         @Override
         @PublicAPI(usage = ACCESS)
         public FunctionalArchitecture as(String newDescription) {
-            return new FunctionalArchitecture(
-                    fPackageDefinitions,
-                    dependencySpecifications,
-                    irrelevantDependenciesPredicate,
-                    dependencyDirection,
-                    groups,
-                    systemRoot,
-                    fPackagesOn
-            );
+            return with(settings -> {});
         }
 
         @PublicAPI(usage = ACCESS)
         public FunctionalArchitecture ignoreDependency(
                 DescribedPredicate<? super JavaClass> origin, DescribedPredicate<? super JavaClass> target) {
-            return new FunctionalArchitecture(
-                    fPackageDefinitions,
-                    dependencySpecifications,
-                    irrelevantDependenciesPredicate.add(dependency(origin, target)),
-                    dependencyDirection,
-                    groups,
-                    systemRoot,
-                    fPackagesOn
-            );
+            return with(settings ->
+                    settings.irrelevantDependenciesPredicate = irrelevantDependenciesPredicate.add(dependency(origin, target)));
         }
 
         @PublicAPI(usage = ACCESS)
         public FunctionalArchitecture systemRoot(String systemRoot) {
-            return new FunctionalArchitecture(
-                    fPackageDefinitions,
-                    dependencySpecifications,
-                    irrelevantDependenciesPredicate,
-                    dependencyDirection,
-                    groups,
-                    systemRoot,
-                    fPackagesOn
-            );
+            return with(settings -> settings.systemRoot = systemRoot);
         }
 
         @PublicAPI(usage = ACCESS)
         public FunctionalArchitecture whereFPackagesOn() {
-            return new FunctionalArchitecture(
-                    fPackageDefinitions,
-                    dependencySpecifications,
-                    irrelevantDependenciesPredicate,
-                    dependencyDirection,
-                    groups,
-                    systemRoot,
-                    true
-            );
+            return with(settings -> settings.fPackagesOn = true);
         }
 
         @PublicAPI(usage = ACCESS)
         public FunctionalArchitecture whereFPackagesOff() {
-            return new FunctionalArchitecture(
-                    fPackageDefinitions,
-                    dependencySpecifications,
-                    irrelevantDependenciesPredicate,
-                    dependencyDirection,
-                    groups,
-                    systemRoot,
-                    false
-            );
+            return with(settings -> settings.fPackagesOn = false);
         }
 
         // Should be called before other constraint declarations (such as whereFPackage())
         @PublicAPI(usage = ACCESS)
         public FunctionalArchitecture whereDependencyDirectionDown() {
-            return new FunctionalArchitecture(
-                    fPackageDefinitions,
-                    dependencySpecifications,
-                    irrelevantDependenciesPredicate,
-                    DependencyDirection.DOWN,
-                    groups,
-                    systemRoot,
-                    fPackagesOn
-            );
+            return with(settings -> settings.dependencyDirection = DependencyDirection.DOWN);
         }
 
         // Should be called before other constraint declarations (such as whereFPackage())
         @PublicAPI(usage = ACCESS)
         public FunctionalArchitecture whereDependencyDirectionUp() {
-            return new FunctionalArchitecture(
-                    fPackageDefinitions,
-                    dependencySpecifications,
-                    irrelevantDependenciesPredicate,
-                    DependencyDirection.UP,
-                    groups,
-                    systemRoot,
-                    fPackagesOn
-            );
+            return with(settings -> settings.dependencyDirection = DependencyDirection.UP);
+        }
+
+        /**
+         * Evaluates all class based checks in one walk over the classes and their dependencies, instead of one
+         * pass per FPackage, dependency specification and rule. Reports the same violations as the default evaluation.
+         */
+        @PublicAPI(usage = ACCESS)
+        public FunctionalArchitecture evaluatedInSinglePass() {
+            return with(settings -> settings.singlePass = true);
+        }
+
+        /**
+         * Checks cycles between the given units with a dedicated cycle detector instead of ArchUnit slices.
+         * Every group of units depending on each other is reported once, with one shortest cycle and the class
+         * dependencies behind it.
+         */
+        @PublicAPI(usage = ACCESS)
+        public FunctionalArchitecture whereCyclesDetectedBetween(CycleGranularity granularity) {
+            checkNotNull(granularity, "Supplied granularity must not be null");
+            return with(settings -> settings.cycleGranularity = granularity);
+        }
+
+        /**
+         * Limits the number of cycles reported by {@link #whereCyclesDetectedBetween(CycleGranularity)}.
+         */
+        @PublicAPI(usage = ACCESS)
+        public FunctionalArchitecture reportingAtMostCycles(int maxReportedCycles) {
+            checkArgument(maxReportedCycles > 0, "At least 1 cycle must be reported");
+            return with(settings -> settings.maxReportedCycles = maxReportedCycles);
+        }
+
+        /**
+         * Runs the independent checks of the evaluation concurrently on the common {@link ForkJoinPool}.
+         * @see #inParallel(Executor)
+         */
+        @PublicAPI(usage = ACCESS)
+        public FunctionalArchitecture inParallel() {
+            return inParallel(ForkJoinPool.commonPool());
+        }
+
+        /**
+         * Runs the independent checks of the evaluation (empty FPackages, layers, membership, every dependency
+         * specification, dependency direction and cycles) concurrently on the given executor, and checks the classes of
+         * every class based check on partitions. The results are merged in the same order as they are when the checks
+         * run one after another.
+         */
+        @PublicAPI(usage = ACCESS)
+        public FunctionalArchitecture inParallel(Executor executor) {
+            checkNotNull(executor, "Supplied executor must not be null");
+            return with(settings -> settings.executor = executor);
+        }
+
+        /**
+         * Reports the metrics of every check of an evaluation to the listener, e.g. a {@code JfrEvaluationListener}.
+         * Dependency specifications and empty FPackage checks are reported per FPackage. Architectures evaluated in
+         * a single pass report all class based checks together.
+         */
+        @PublicAPI(usage = ACCESS)
+        public FunctionalArchitecture withListener(EvaluationListener listener) {
+            checkNotNull(listener, "Supplied listener must not be null");
+            List<EvaluationListener> newListeners = new ArrayList<>(listeners);
+            newListeners.add(listener);
+            return with(settings -> settings.listeners = Collections.unmodifiableList(newListeners));
+        }
+
+        /**
+         * Stops the evaluation at the first violation, e.g. for pre-commit hooks that only need to know whether the
+         * architecture is violated.
+         * @see #stoppingAfterViolations(int)
+         */
+        @PublicAPI(usage = ACCESS)
+        public FunctionalArchitecture stoppingAtFirstViolation() {
+            return stoppingAfterViolations(1);
+        }
+
+        /**
+         * Stops the evaluation once the given number of violations is found: checks that have not started are skipped
+         * and the running ones stop checking further classes. Exactly the first violations found are reported. Which
+         * violations these are follows the order of the checks, and depends on timing if evaluated {@link #inParallel()}.
+         */
+        @PublicAPI(usage = ACCESS)
+        public FunctionalArchitecture stoppingAfterViolations(int maxViolations) {
+            checkArgument(maxViolations > 0, "At least 1 violation must be reported");
+            return withReporting(ViolationReporting.stoppingAfter(maxViolations));
+        }
+
+        /**
+         * Evaluates all checks, but reports one violation per class with the most violations only, with the number
+         * of its violations and its first one. Violations not caused by a class, like cycles, are offenders of their own.
+         */
+        @PublicAPI(usage = ACCESS)
+        public FunctionalArchitecture reportingTopOffendingClasses(int maxOffenders) {
+            checkArgument(maxOffenders > 0, "At least 1 offender must be reported");
+            return withReporting(ViolationReporting.topOffenders(ViolationReporting.Offender.CLASS, maxOffenders));
+        }
+
+        /**
+         * Like {@link #reportingTopOffendingClasses(int)}, but counts the violations of dependencies per pair of the
+         * origin and target FPackage. Classes outside of FPackages are represented by their package.
+         */
+        @PublicAPI(usage = ACCESS)
+        public FunctionalArchitecture reportingTopOffendingFPackagePairs(int maxOffenders) {
+            checkArgument(maxOffenders > 0, "At least 1 offender must be reported");
+            return withReporting(ViolationReporting.topOffenders(ViolationReporting.Offender.FPACKAGE_PAIR, maxOffenders));
+        }
+
+        private FunctionalArchitecture withReporting(ViolationReporting reporting) {
+            return with(settings -> settings.reporting = reporting);
         }
 
         public FunctionalArchitecture group(String thePackage) {
-            groups.add(thePackage);
-            return this;
+            Set<String> newGroups = new LinkedHashSet<>(groups);
+            newGroups.add(thePackage);
+            return with(settings -> settings.groups = Collections.unmodifiableSet(newGroups));
+        }
+
+        /**
+         * Requires the coupling metric of the group to stay below the bound, e.g. the instability of a group below 0.5.
+         * @param thePackage a group as added before via {@link #group(String)}
+         */
+        @PublicAPI(usage = ACCESS)
+        public FunctionalArchitecture whereGroupHasCouplingBelow(String thePackage, CouplingMetric metric, double bound) {
+            checkArgument(groups.contains(thePackage), "There is no group '%s'", thePackage);
+            checkNotNull(metric, "Supplied metric must not be null");
+            return addCouplingThreshold(new CouplingThreshold(true, thePackage, metric, bound));
         }
 
         /**
@@ -383,9 +1106,79 @@ public final class CustomArchitectures {
             return new FPackageShouldNotBeEmptyCondition(fPackageDefinition);
         }
 
+        // copies the definitions and specifications, which a definition or specification used twice changes in place
+        private FunctionalArchitecture frozenCopy() {
+            FPackageDefinitions copiedDefinitions = new FPackageDefinitions();
+            Set<FPackageDependencySpecification> copiedSpecifications = new LinkedHashSet<>();
+            for (FPackageDefinition definition : fPackageDefinitions) {
+                copiedDefinitions.add(new FPackageDefinition(definition));
+            }
+            for (FPackageDependencySpecification specification : dependencySpecifications) {
+                copiedSpecifications.add(new FPackageDependencySpecification(specification));
+            }
+            return with(settings -> {
+                settings.fPackageDefinitions = copiedDefinitions;
+                settings.dependencySpecifications = Collections.unmodifiableSet(copiedSpecifications);
+            });
+        }
+
+        /**
+         * The predicates, the FPackage index and the lookup tables of an evaluation, built from the definitions of the
+         * architecture. They keep no state of an evaluation, so concurrent evaluations may share them.
+         */
+        final class Compilation {
+            private final FPackageIndex index;
+            private final List<FPackageDefinition> definitions;
+            private final Map<String, DescribedPredicate<JavaClass>> containsPredicates = new HashMap<>();
+            private final Map<String, DescribedPredicate<Dependency>> targetMatches = new HashMap<>();
+            private final List<SinglePassEvaluation.FPackageAccess> accesses = new ArrayList<>();
+            private final ArchCondition<JavaClass> membershipCondition;
+            private final DescribedPredicate<JavaPackage> layerCandidates;
+            private final CycleDetector cycleDetector;
+            private final CycleDetector fPackageUnits;
+            private final CycleDetector groupUnits;
+            private final List<String> fPackageNames = new ArrayList<>();
+            // the first FPackage containing the class, as far as the violations are reported by offending FPackage pairs
+            private final Function<JavaClass, String> fPackageOf;
+
+            private Compilation() {
+                index = fPackageIndex();
+                definitions = Collections.unmodifiableList(newArrayList(fPackageDefinitions));
+                for (FPackageDefinition definition : definitions) {
+                    fPackageNames.add(definition.getName());
+                    containsPredicates.put(definition.getName(), fPackageDefinitions.containsPredicateFor(definition.getName(), index));
+                    accesses.add(fPackagesOn ? accessFor(definition.getName(), index) : null);
+                }
+                for (FPackageDependencySpecification specification : dependencySpecifications) {
+                    targetMatches.put(specification.getFPackageName(),
+                            targetMatchesIfDependencyIsRelevant(specification.getFPackageName(), specification.allowedFPackages, index));
+                }
+                membershipCondition = fPackagesOn ? belongToFPackagesOrBeDirectGroupChildren() : null;
+                layerCandidates = areDirectRootChildrenOf(systemRoot);
+                cycleDetector = cycleDetectorOrSlices(index);
+                fPackageUnits = cycleDetector(CycleGranularity.FPACKAGE, index);
+                groupUnits = cycleDetector(CycleGranularity.GROUP, index);
+                fPackageOf = javaClass -> {
+                    for (FPackageDefinition definition : definitions) {
+                        if (containsPredicates.get(definition.getName()).apply(javaClass)) {
+                            return definition.getName();
+                        }
+                    }
+                    return null;
+                };
+            }
+        }
+
         private static final class FPackageDefinitions implements Iterable<FPackageDefinition> {
             private final Map<String, FPackageDefinition> fPackageDefinitions = new LinkedHashMap<>();
 
+            FPackageDefinitions() {
+            }
+
+            FPackageDefinitions(FPackageDefinitions definitions) {
+                fPackageDefinitions.putAll(definitions.fPackageDefinitions);
+            }
+
             void add(FPackageDefinition definition) {
                 fPackageDefinitions.put(definition.getName(), definition);
             }
@@ -398,28 +1191,28 @@ public final class CustomArchitectures {
                 return fPackageDefinitions.isEmpty();
             }
 
-            DescribedPredicate<JavaClass> containsPredicateFor(String fPackageName) {
-                return containsPredicateFor(singleton(fPackageName));
+            DescribedPredicate<JavaClass> containsPredicateFor(String fPackageName, FPackageIndex index) {
+                return containsPredicateFor(singleton(fPackageName), index);
             }
 
-            DescribedPredicate<JavaClass> containsPredicateFor(final Collection<String> fPackageNames) {
+            DescribedPredicate<JavaClass> containsPredicateFor(final Collection<String> fPackageNames, FPackageIndex index) {
                 DescribedPredicate<JavaClass> result = alwaysFalse();
                 for (FPackageDefinition definition : get(fPackageNames)) {
                     result = result.or(definition.containsPredicate());
                 }
-                return result;
+                return index.isIndexed(fPackageNames) ? index.containedInAny(fPackageNames, result.getDescription()) : result;
             }
 
-            DescribedPredicate<JavaClass> excludeSubpackagePredicateFor(String fPackageName) {
-                return excludeSubpackagePredicateFor(singleton(fPackageName));
+            DescribedPredicate<JavaClass> excludeSubpackagePredicateFor(String fPackageName, FPackageIndex index) {
+                return excludeSubpackagePredicateFor(singleton(fPackageName), index);
             }
 
-            DescribedPredicate<JavaClass> excludeSubpackagePredicateFor(final Collection<String> fPackageNames) {
+            DescribedPredicate<JavaClass> excludeSubpackagePredicateFor(final Collection<String> fPackageNames, FPackageIndex index) {
                 DescribedPredicate<JavaClass> result = alwaysFalse();
                 for (FPackageDefinition definition : get(fPackageNames)) {
                     result = result.or(definition.excludeSubpackagePredicate());
                 }
-                return result;
+                return index.isIndexed(fPackageNames) ? index.inTopLayerOfAny(fPackageNames, result.getDescription()) : result;
             }
 
             FPackageDefinition get(String fPackageName) {
@@ -446,6 +1239,14 @@ public final class CustomArchitectures {
                 super(name);
             }
 
+            private FPackageDefinition(FPackageDefinition definition) {
+                super(definition.getName());
+                this.thePackage = definition.thePackage;
+                this.packageIdentifiers = definition.packageIdentifiers;
+                this.containsPredicate = definition.containsPredicate;
+                this.excludeSubpackagePredicate = definition.excludeSubpackagePredicate;
+            }
+
             /**
              * Defines an FPackage by a predicate, i.e. any {@link JavaClass} that will match the predicate will belong to this FPackage.
              */
@@ -459,8 +1260,9 @@ public final class CustomArchitectures {
                 this.thePackage = thePackage;
                 this.containsPredicate = containsPredicate.forSubtype();
                 this.excludeSubpackagePredicate = excludeSubpackagePredicate.forSubtype();
-                FunctionalArchitecture.this.addDependencySpecification(new FPackageDependencySpecification(this.getName()));
-                return FunctionalArchitecture.this.addFPackageDefinition(this);
+                return FunctionalArchitecture.this
+                        .addDependencySpecification(new FPackageDependencySpecification(this.getName()))
+                        .addFPackageDefinition(this);
             }
         }
 
@@ -470,6 +1272,13 @@ public final class CustomArchitectures {
                 super(fPackageName);
             }
 
+            private FPackageDependencySpecification(FPackageDependencySpecification specification) {
+                super(specification.getFPackageName());
+                this.allowedFPackages.addAll(specification.allowedFPackages);
+                this.constraint = specification.constraint;
+                this.descriptionSuffix = specification.descriptionSuffix;
+            }
+
             public FunctionalArchitecture denyFPackageAccess(FPackageDependencyConstraint constraint, String description) {
                 allowedFPackages.clear();
                 this.constraint = constraint;
@@ -485,6 +1294,25 @@ public final class CustomArchitectures {
                 descriptionSuffix = String.format(descriptionTemplate, Joiner.on("', '").join(fPackageNames));
                 return FunctionalArchitecture.this.addDependencySpecification(this);
             }
+
+            public FunctionalArchitecture restrictTransitiveAccess(FPackageDependencyConstraint constraint, String[] fPackageNames, String descriptionTemplate) {
+                checkArgument(fPackageNames.length > 0, "At least 1 FPackage name must be provided.");
+                checkFPackageNamesExist(fPackageNames);
+                return FunctionalArchitecture.this.addTransitiveAccess(new TransitiveFPackageAccess(getFPackageName(), constraint,
+                        asList(fPackageNames), String.format(descriptionTemplate, Joiner.on("', '").join(fPackageNames))));
+            }
+
+            public FunctionalArchitecture restrictDependencyKinds(String fPackageName, int forbiddenKinds, String description) {
+                checkFPackageNamesExist(fPackageName);
+                checkArgument(!fPackageName.equals(getFPackageName()), "FPackage '%s' cannot restrict the dependencies on itself", fPackageName);
+                return FunctionalArchitecture.this.addKindRestriction(
+                        new FPackageKindRestriction(getFPackageName(), fPackageName, forbiddenKinds, description));
+            }
+
+            public FunctionalArchitecture restrictCoupling(CouplingMetric metric, double bound) {
+                checkNotNull(metric, "Supplied metric must not be null");
+                return FunctionalArchitecture.this.addCouplingThreshold(new CouplingThreshold(false, getFPackageName(), metric, bound));
+            }
         }
     }
 
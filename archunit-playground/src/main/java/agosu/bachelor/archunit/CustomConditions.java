@@ -4,27 +4,34 @@ import com.tngtech.archunit.core.domain.Dependency;
 import com.tngtech.archunit.core.domain.JavaClass;
 import com.tngtech.archunit.core.domain.JavaPackage;
 import com.tngtech.archunit.lang.ArchCondition;
+import com.tngtech.archunit.lang.ConditionEvent;
 import com.tngtech.archunit.lang.ConditionEvents;
 import com.tngtech.archunit.lang.SimpleConditionEvent;
 
-import java.util.ArrayList;
 import java.util.List;
 
 import static agosu.bachelor.archunit.Utils.*;
 import static java.lang.String.format;
-import static java.util.stream.Collectors.toList;
 
 public class CustomConditions {
 
     public static final ArchCondition<JavaPackage> notBeLayers = new ArchCondition<JavaPackage>("not be layers") {
         @Override
         public void check(JavaPackage javaPackage, ConditionEvents events) {
-            if (javaPackage.getRelativeName().matches("service|controller|persistence")) {
-                events.add(SimpleConditionEvent.violated(javaPackage, format("Package %s violates no layers rule", javaPackage.getName())));
+            if (isLayer(javaPackage.getRelativeName())) {
+                events.add(isLayerViolation(javaPackage, javaPackage.getName()));
             }
         }
     };
 
+    static boolean isLayer(String relativePackageName) {
+        return relativePackageName.matches("service|controller|persistence");
+    }
+
+    static ConditionEvent isLayerViolation(Object javaPackage, String packageName) {
+        return SimpleConditionEvent.violated(javaPackage, format("Package %s violates no layers rule", packageName));
+    }
+
     public static ArchCondition<JavaClass> beInAnyOfPackages(List<String> packages) {
         return new ArchCondition<JavaClass>("be in any given package") {
             @Override
@@ -50,7 +57,7 @@ public class CustomConditions {
                 String packageName = javaClass.getPackageName();
                 boolean isThereItShouldBe = packageName.equals(thePackage) ||
                         packageName.equals(getParentPackage(thePackage)) ||
-                        packageName.matches(getSubpackageRegex(thePackage));
+                        isDirectSubpackage(packageName, thePackage);
                 if (!isThereItShouldBe) {
                     events.add(
                             SimpleConditionEvent.violated(
@@ -67,61 +74,68 @@ public class CustomConditions {
         };
     }
 
+    static final String DEPENDS_ON_SUBPACKAGES = "depends on subpackages";
+    static final String DEPENDS_ON_ANCESTOR_PACKAGES = "depends on ancestor packages";
+
     public static ArchCondition<JavaClass> notAccessClassesInSubpackages() {
+        return notAccessClassesInSubpackages(null);
+    }
+
+    /**
+     * @param hierarchy the packages of the classes to test and of their dependencies, built once and shared by all
+     *                  instances of the condition, or {@code null} to build it from the classes to test
+     */
+    public static ArchCondition<JavaClass> notAccessClassesInSubpackages(PackageHierarchy hierarchy) {
         return new ArchCondition<JavaClass>("not access classes in subpackages") {
+            private PackageHierarchy packages = hierarchy != null ? hierarchy : PackageHierarchy.EMPTY;
+
             @Override
-            public void check(JavaClass clazz, ConditionEvents events) {
-                List<Dependency> dependenciesThatAreNotAllowed = clazz.getDirectDependenciesFromSelf().stream()
-                        .filter(it -> it.getTargetClass().getPackageName().matches(getSubpackageRegex(clazz.getPackageName())))
-                        .collect(toList());
+            public void init(Iterable<JavaClass> allObjectsToTest) {
+                if (hierarchy == null) {
+                    packages = PackageHierarchy.ofClasses(allObjectsToTest);
+                }
+            }
 
-                if (!dependenciesThatAreNotAllowed.isEmpty()) {
-                    events.add(
-                            SimpleConditionEvent.violated(
-                                    clazz,
-                                    format(
-                                            "Class %s depends on subpackages",
-                                            clazz.getName()
-                                    )
-                            )
-                    );
+            @Override
+            public void check(JavaClass clazz, ConditionEvents events) {
+                OffendingDependencies offending = null;
+                for (Dependency dependency : clazz.getDirectDependenciesFromSelf()) {
+                    if (dependsOnSubpackage(clazz, dependency, packages)) {
+                        offending = add(offending, dependency);
+                    }
                 }
+                report(offending, clazz, DEPENDS_ON_SUBPACKAGES, events);
             }
         };
     }
 
-    public static ArchCondition<JavaClass> notAccessClassesInAncestorPackages(){
+    public static ArchCondition<JavaClass> notAccessClassesInAncestorPackages() {
+        return notAccessClassesInAncestorPackages(null);
+    }
+
+    /**
+     * @param hierarchy see {@link #notAccessClassesInSubpackages(PackageHierarchy)}
+     */
+    public static ArchCondition<JavaClass> notAccessClassesInAncestorPackages(PackageHierarchy hierarchy) {
         return new ArchCondition<JavaClass>("not access classes in ancestor packages") {
+            private PackageHierarchy packages = hierarchy != null ? hierarchy : PackageHierarchy.EMPTY;
+
+            @Override
+            public void init(Iterable<JavaClass> allObjectsToTest) {
+                if (hierarchy == null) {
+                    packages = PackageHierarchy.ofClasses(allObjectsToTest);
+                }
+            }
+
             @Override
             public void check(JavaClass clazz, ConditionEvents events) {
-                List<Dependency> dependenciesThatAreNotAllowed = clazz.getDirectDependenciesFromSelf().stream()
-                        .filter(it -> {
-                            int numberOfPackageLayers = clazz.getPackageName().split("[.]").length;
-                            List<String> ancestors = new ArrayList<>();
-                            ancestors.add(getParentPackage(clazz.getPackageName()));
-                            for (int i = 0; i < numberOfPackageLayers - 2; i++) {
-                                ancestors.add(getParentPackage(ancestors.get(i)));
-                            }
-                            String targetPackage = it.getTargetClass().getPackageName();
-                            boolean result = false;
-                            for (String ancestor : ancestors) {
-                                result = result || targetPackage.equals(ancestor);
-                            }
-                            return result;
-                        })
-                        .collect(toList());
-
-                if (!dependenciesThatAreNotAllowed.isEmpty()) {
-                    events.add(
-                            SimpleConditionEvent.violated(
-                                    clazz,
-                                    format(
-                                            "Class %s depends on ancestor packages",
-                                            clazz.getName()
-                                    )
-                            )
-                    );
+                OffendingDependencies offending = null;
+                for (Dependency dependency : clazz.getDirectDependenciesFromSelf()) {
+                    if (dependsOnAncestorPackage(clazz, dependency, packages)) {
+                        offending = add(offending, dependency);
+                    }
                 }
+                report(offending, clazz, DEPENDS_ON_ANCESTOR_PACKAGES, events);
             }
         };
     }
@@ -130,25 +144,14 @@ public class CustomConditions {
         return new ArchCondition<JavaClass>("access classes in the same package") {
             @Override
             public void check(JavaClass clazz, ConditionEvents events) {
-                List<Dependency> dependenciesThatResideNotInTheSamePackage = clazz.getDirectDependenciesFromSelf().stream()
-                        .filter(it -> {
-                            String targetPackage = it.getTargetClass().getPackageName();
-                            return !(targetPackage.equals(clazz.getPackageName())) &&
-                                    targetPackage.contains(systemRoot);
-                        })
-                        .collect(toList());
-
-                if (!dependenciesThatResideNotInTheSamePackage.isEmpty()) {
-                    events.add(
-                            SimpleConditionEvent.violated(
-                                    clazz,
-                                    format(
-                                            "Class %s depends on classes outside of it's package",
-                                            clazz.getName()
-                                    )
-                            )
-                    );
+                OffendingDependencies offending = null;
+                for (Dependency dependency : clazz.getDirectDependenciesFromSelf()) {
+                    String targetPackage = dependency.getTargetClass().getPackageName();
+                    if (!targetPackage.equals(clazz.getPackageName()) && targetPackage.contains(systemRoot)) {
+                        offending = add(offending, dependency);
+                    }
                 }
+                report(offending, clazz, "depends on classes outside of it's package", events);
             }
         };
     }
@@ -157,85 +160,109 @@ public class CustomConditions {
         return new ArchCondition<JavaClass>("access classes in direct parent package") {
             @Override
             public void check(JavaClass clazz, ConditionEvents events) {
-                List<Dependency> dependenciesThatResideNotInDirectParentPackage = clazz.getDirectDependenciesFromSelf().stream()
-                        .filter(it -> {
-                            String targetPackage = it.getTargetClass().getPackageName();
-                            return !(targetPackage.equals(getParentPackage(clazz.getPackageName()))) &&
-                                    targetPackage.contains(systemRoot);
-                        })
-                        .collect(toList());
-
-                if (!dependenciesThatResideNotInDirectParentPackage.isEmpty()) {
-                    events.add(
-                            SimpleConditionEvent.violated(
-                                    clazz,
-                                    format(
-                                            "Class %s depends on classes not in it's direct parent package",
-                                            clazz.getName()
-                                    )
-                            )
-                    );
+                OffendingDependencies offending = null;
+                String parentPackage = null;
+                for (Dependency dependency : clazz.getDirectDependenciesFromSelf()) {
+                    if (parentPackage == null) {
+                        parentPackage = getParentPackage(clazz.getPackageName());
+                    }
+                    String targetPackage = dependency.getTargetClass().getPackageName();
+                    if (!targetPackage.equals(parentPackage) && targetPackage.contains(systemRoot)) {
+                        offending = add(offending, dependency);
+                    }
                 }
+                report(offending, clazz, "depends on classes not in it's direct parent package", events);
             }
         };
     }
 
-    public static ArchCondition<JavaClass> accessClassesInDirectSubpackage(String systemRoot){
+    public static ArchCondition<JavaClass> accessClassesInDirectSubpackage(String systemRoot) {
+        return accessClassesInDirectSubpackage(systemRoot, null);
+    }
+
+    /**
+     * @param hierarchy see {@link #notAccessClassesInSubpackages(PackageHierarchy)}
+     */
+    public static ArchCondition<JavaClass> accessClassesInDirectSubpackage(String systemRoot, PackageHierarchy hierarchy) {
         return new ArchCondition<JavaClass>("access classes in direct subpackage") {
+            private PackageHierarchy packages = hierarchy != null ? hierarchy : PackageHierarchy.EMPTY;
+
+            @Override
+            public void init(Iterable<JavaClass> allObjectsToTest) {
+                if (hierarchy == null) {
+                    packages = PackageHierarchy.ofClasses(allObjectsToTest);
+                }
+            }
+
             @Override
             public void check(JavaClass clazz, ConditionEvents events) {
-                List<Dependency> dependenciesThatResideNotInDirectSubpackage = clazz.getDirectDependenciesFromSelf().stream()
-                        .filter(it -> {
-                            String targetPackage = it.getTargetClass().getPackageName();
-                            return !(targetPackage.matches(getSubpackageRegex(clazz.getPackageName()))) &&
-                                    targetPackage.contains(systemRoot);
-                        })
-                        .collect(toList());
-
-                if (!dependenciesThatResideNotInDirectSubpackage.isEmpty()) {
-                    events.add(
-                            SimpleConditionEvent.violated(
-                                    clazz,
-                                    format(
-                                            "Class %s depends on classes not in it's direct subpackage",
-                                            clazz.getName()
-                                    )
-                            )
-                    );
+                OffendingDependencies offending = null;
+                for (Dependency dependency : clazz.getDirectDependenciesFromSelf()) {
+                    String targetPackage = dependency.getTargetClass().getPackageName();
+                    if (!packages.isDirectSubpackage(targetPackage, clazz.getPackageName()) && targetPackage.contains(systemRoot)) {
+                        offending = add(offending, dependency);
+                    }
                 }
+                report(offending, clazz, "depends on classes not in it's direct subpackage", events);
             }
         };
     }
 
-    public static ArchCondition<JavaClass> accessClassesInUpperLayerOfASiblingPackage(String systemRoot){
+    public static ArchCondition<JavaClass> accessClassesInUpperLayerOfASiblingPackage(String systemRoot) {
+        return accessClassesInUpperLayerOfASiblingPackage(systemRoot, null);
+    }
+
+    /**
+     * @param hierarchy see {@link #notAccessClassesInSubpackages(PackageHierarchy)}
+     */
+    public static ArchCondition<JavaClass> accessClassesInUpperLayerOfASiblingPackage(String systemRoot, PackageHierarchy hierarchy) {
         return new ArchCondition<JavaClass>("access classes in upper layer of a sibling package") {
+            private PackageHierarchy packages = hierarchy != null ? hierarchy : PackageHierarchy.EMPTY;
+
+            @Override
+            public void init(Iterable<JavaClass> allObjectsToTest) {
+                if (hierarchy == null) {
+                    packages = PackageHierarchy.ofClasses(allObjectsToTest);
+                }
+            }
+
             @Override
             public void check(JavaClass clazz, ConditionEvents events) {
-                List<Dependency> dependenciesThatResideNotInUpperLayerOfASiblingPackage = clazz.getDirectDependenciesFromSelf().stream()
-                        .filter(it -> {
-                            String targetPackage = it.getTargetClass().getPackageName();
-                            return !(targetPackage.matches(getSiblingPackageOrSelfRegex(clazz.getPackageName()))) &&
-                                    targetPackage.contains(systemRoot);
-                        })
-                        .collect(toList());
-
-                if (!dependenciesThatResideNotInUpperLayerOfASiblingPackage.isEmpty()) {
-                    events.add(
-                            SimpleConditionEvent.violated(
-                                    clazz,
-                                    format(
-                                            "Class %s depends on classes not in upper layer of a sibling package",
-                                            clazz.getName()
-                                    )
-                            )
-                    );
+                OffendingDependencies offending = null;
+                for (Dependency dependency : clazz.getDirectDependenciesFromSelf()) {
+                    String targetPackage = dependency.getTargetClass().getPackageName();
+                    if (!packages.isSiblingPackageOrSelf(targetPackage, clazz.getPackageName()) && targetPackage.contains(systemRoot)) {
+                        offending = add(offending, dependency);
+                    }
                 }
+                report(offending, clazz, "depends on classes not in upper layer of a sibling package", events);
             }
         };
     }
 
+    // the offending dependencies are only collected once there is one, so classes without violations allocate nothing
+    private static OffendingDependencies add(OffendingDependencies offending, Dependency dependency) {
+        OffendingDependencies result = offending != null ? offending : new OffendingDependencies();
+        result.add(dependency);
+        return result;
+    }
+
+    private static void report(OffendingDependencies offending, JavaClass clazz, String violation, ConditionEvents events) {
+        if (offending != null) {
+            offending.report(clazz, violation, (object, event) -> events.add(event));
+        }
+    }
+
+    static boolean dependsOnSubpackage(JavaClass clazz, Dependency dependency, PackageHierarchy hierarchy) {
+        return hierarchy.isDirectSubpackage(dependency.getTargetClass().getPackageName(), clazz.getPackageName());
+    }
+
+    static boolean dependsOnAncestorPackage(JavaClass clazz, Dependency dependency, PackageHierarchy hierarchy) {
+        return hierarchy.isAncestorPackage(dependency.getTargetClass().getPackageName(), clazz.getPackageName());
+    }
+
     private static boolean belongsToGroup(boolean groups, String thePackage, String systemRoot) {
-        return groups && thePackage.matches(getSubpackageRegex(systemRoot));
+        return groups && isDirectSubpackage(thePackage, systemRoot);
     }
 
     private static boolean belongsToFPackage(List<String> fPackages, String targetPackage) {
@@ -5,7 +5,7 @@ import com.tngtech.archunit.core.domain.JavaClass;
 import com.tngtech.archunit.core.domain.JavaPackage;
 
 import static agosu.bachelor.archunit.Utils.getParentPackage;
-import static agosu.bachelor.archunit.Utils.getSubpackageRegex;
+import static agosu.bachelor.archunit.Utils.isDirectSubpackage;
 import static java.lang.String.format;
 
 public class CustomPredicates {
@@ -14,12 +14,16 @@ public class CustomPredicates {
         return new DescribedPredicate<JavaPackage>(format("are direct root <%s> children", root)) {
             @Override
             public boolean apply(JavaPackage javaPackage) {
-                String packageNameMinusRootName = javaPackage.getName().replace(root + ".", "");
-                return !packageNameMinusRootName.isEmpty() && !packageNameMinusRootName.contains(".");
+                return isDirectRootChild(javaPackage.getName(), root);
             }
         };
     }
 
+    static boolean isDirectRootChild(String packageName, String root) {
+        String packageNameMinusRootName = packageName.replace(root + ".", "");
+        return !packageNameMinusRootName.isEmpty() && !packageNameMinusRootName.contains(".");
+    }
+
     public static DescribedPredicate<JavaClass> isOutsideThisSystem(String systemRootPackage) {
         return new DescribedPredicate<JavaClass>("is outside this system: " + systemRootPackage) {
             @Override
@@ -49,13 +53,12 @@ public class CustomPredicates {
 
     public static DescribedPredicate<JavaClass> areInTheSameOrParentPackageOrSubpackage(String thePackage) {
         String theParentPackage = thePackage.substring(0, thePackage.lastIndexOf('.') - 1);
-        String theSubpackage = thePackage + "[.][^.]+";
         return new DescribedPredicate<JavaClass>("are in the same or parent package or subpackage") {
             @Override
             public boolean apply(JavaClass javaClass) {
                 return javaClass.getPackageName().equals(thePackage)
                         || javaClass.getPackageName().equals(theParentPackage)
-                        || javaClass.getPackageName().matches(theSubpackage);
+                        || isDirectSubpackage(javaClass.getPackageName(), thePackage);
             }
         };
     }
@@ -73,7 +76,7 @@ public class CustomPredicates {
         return new DescribedPredicate<JavaClass>(format("are in subpackage of %s", thePackage)) {
             @Override
             public boolean apply(JavaClass javaClass) {
-                return javaClass.getPackageName().matches(getSubpackageRegex(thePackage));
+                return isDirectSubpackage(javaClass.getPackageName(), thePackage);
             }
         };
     }
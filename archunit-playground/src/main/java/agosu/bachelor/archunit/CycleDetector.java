@@ -0,0 +1,445 @@
+package agosu.bachelor.archunit;
+
+import com.tngtech.archunit.core.domain.JavaClass;
+import com.tngtech.archunit.lang.ConditionEvents;
+import com.tngtech.archunit.lang.SimpleConditionEvent;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static java.lang.String.format;
+import static java.lang.System.lineSeparator;
+
+/**
+ * Detects cycles between the FPackages, groups or packages of a system on its {@link DependencyGraph}.
+ * <p>
+ * Instead of enumerating cycles, the strongly connected components of the graph are found in linear time.
+ * Every component is reported once, with the shortest cycle through its first member and the class dependencies
+ * behind the edges of that cycle. At most {@code maxReportedCycles} components are reported.
+ */
+final class CycleDetector {
+
+    static final int DEFAULT_MAX_REPORTED_CYCLES = 100;
+    static final int MAX_REPORTED_DEPENDENCIES_PER_EDGE = 20;
+
+    private static final int NONE = -1;
+
+    private final CycleGranularity granularity;
+    private final String systemRoot;
+    private final Set<String> groups;
+    private final List<? extends AbstractFPackageDefinition> definitions;
+    private final FPackageIndex index;
+    private final int maxReportedCycles;
+
+    CycleDetector(CycleGranularity granularity, String systemRoot, Set<String> groups,
+                  List<? extends AbstractFPackageDefinition> definitions, FPackageIndex index, int maxReportedCycles) {
+        this.granularity = granularity;
+        this.systemRoot = systemRoot;
+        this.groups = groups;
+        this.definitions = definitions;
+        this.index = index;
+        this.maxReportedCycles = maxReportedCycles;
+    }
+
+    ConditionEvents detect(DependencyGraph graph) {
+        ConditionEvents events = new ConditionEvents();
+        String[] unitNames = unitsOf(graph);
+        List<String> units = new ArrayList<>(new TreeSet<>(nonNull(unitNames)));
+        Map<String, Integer> unitIds = new HashMap<>();
+        for (String unit : units) {
+            unitIds.put(unit, unitIds.size());
+        }
+        int[] unitOfClass = new int[graph.getClassCount()];
+        for (int clazz = 0; clazz < unitOfClass.length; clazz++) {
+            unitOfClass[clazz] = unitNames[clazz] == null ? NONE : unitIds.get(unitNames[clazz]);
+        }
+
+        int[][] unitEdges = unitEdges(graph, unitOfClass, units.size());
+        int[] offsets = unitEdges[0];
+        int[] targets = unitEdges[1];
+        int[] components = stronglyConnectedComponents(units.size(), offsets, targets);
+
+        List<int[]> cycles = new ArrayList<>();
+        for (int[] members : membersOfCyclicComponents(components)) {
+            if (cycles.size() == maxReportedCycles) {
+                events.add(SimpleConditionEvent.violated(graph,
+                        format("Number of reported cycles between %s limited to %d", granularity, maxReportedCycles)));
+                break;
+            }
+            cycles.add(members);
+        }
+
+        Map<Long, EdgeDependencies> dependenciesOfWitnessEdges = new HashMap<>();
+        List<int[]> witnesses = new ArrayList<>();
+        int[] predecessors = new int[units.size()];
+        int[] visitedFrom = new int[units.size()];
+        Arrays.fill(visitedFrom, NONE);
+        for (int[] members : cycles) {
+            int[] witness = shortestCycle(members, components, offsets, targets, predecessors, visitedFrom);
+            witnesses.add(witness);
+            for (int i = 0; i < witness.length; i++) {
+                dependenciesOfWitnessEdges.put(key(witness[i], witness[(i + 1) % witness.length]), new EdgeDependencies());
+            }
+        }
+        collectDependencies(graph, unitOfClass, dependenciesOfWitnessEdges);
+
+        for (int i = 0; i < cycles.size(); i++) {
+            events.add(SimpleConditionEvent.violated(graph,
+                    describe(cycles.get(i), witnesses.get(i), units, dependenciesOfWitnessEdges)));
+        }
+        return events;
+    }
+
+    /**
+     * @return the name of the unit of every class, by class id, or {@code null} for classes in no unit
+     */
+    String[] unitsOf(DependencyGraph graph) {
+        String[] unitsOfPackages = granularity == CycleGranularity.FPACKAGE ? null : unitNamesOfPackages(graph);
+        boolean indexed = index.isIndexed(namesOf(definitions));
+        String[] fPackagesOfPackages = new String[graph.getPackageCount()];
+        boolean[] resolved = new boolean[graph.getPackageCount()];
+
+        String[] result = new String[graph.getClassCount()];
+        for (int clazz = 0; clazz < result.length; clazz++) {
+            int thePackage = graph.getPackageOf(clazz);
+            if (unitsOfPackages != null) {
+                result[clazz] = unitsOfPackages[thePackage];
+            } else if (indexed) {
+                if (!resolved[thePackage]) {
+                    fPackagesOfPackages[thePackage] = innermostFPackage(graph.getPackageName(thePackage));
+                    resolved[thePackage] = true;
+                }
+                result[clazz] = fPackagesOfPackages[thePackage];
+            } else {
+                result[clazz] = innermostFPackage(graph.getJavaClass(clazz));
+            }
+        }
+        return result;
+    }
+
+    // parents are interned before their children, so the unit of the parent is known when a package is reached
+    private String[] unitNamesOfPackages(DependencyGraph graph) {
+        int sliceDepth = depthOf(systemRoot) + 2;
+        String[] result = new String[graph.getPackageCount()];
+        for (int thePackage = 0; thePackage < result.length; thePackage++) {
+            String packageName = graph.getPackageName(thePackage);
+            if (granularity == CycleGranularity.PACKAGE) {
+                result[thePackage] = isInsideSystemRoot(packageName) ? packageName : null;
+            } else if (granularity == CycleGranularity.SLICE && depthOf(packageName) == sliceDepth && isInsideSystemRoot(packageName)) {
+                result[thePackage] = packageName;
+            } else if (granularity == CycleGranularity.GROUP && groups.contains(packageName)) {
+                result[thePackage] = packageName;
+            } else {
+                int parent = graph.getParentPackage(thePackage);
+                result[thePackage] = parent == DependencyGraph.NO_PACKAGE ? null : result[parent];
+            }
+        }
+        return result;
+    }
+
+    private static int depthOf(String packageName) {
+        int result = packageName.isEmpty() ? 0 : 1;
+        for (int i = packageName.indexOf('.'); i >= 0; i = packageName.indexOf('.', i + 1)) {
+            result++;
+        }
+        return result;
+    }
+
+    private boolean isInsideSystemRoot(String packageName) {
+        return systemRoot.isEmpty() || packageName.equals(systemRoot) || Utils.isAncestorPackage(systemRoot, packageName);
+    }
+
+    // the index lists the containing FPackages from the outermost to the innermost package
+    private String innermostFPackage(String packageName) {
+        int[] containing = index.resolve(packageName).getContaining();
+        return containing.length == 0 ? null : definitions.get(containing[containing.length - 1]).getName();
+    }
+
+    private String innermostFPackage(JavaClass javaClass) {
+        if (javaClass == null) {
+            return null;
+        }
+        AbstractFPackageDefinition result = null;
+        for (AbstractFPackageDefinition definition : definitions) {
+            if (definition.containsPredicate().apply(javaClass)
+                    && (result == null || definition.getThePackage().length() > result.getThePackage().length())) {
+                result = definition;
+            }
+        }
+        return result == null ? null : result.getName();
+    }
+
+    private static int[][] unitEdges(DependencyGraph graph, int[] unitOfClass, int unitCount) {
+        long[] keys = new long[graph.getEdgeCount()];
+        int size = 0;
+        for (int clazz = 0; clazz < graph.getClassCount(); clazz++) {
+            int origin = unitOfClass[clazz];
+            if (origin == NONE) {
+                continue;
+            }
+            for (int edge = graph.getFirstEdge(clazz); edge < graph.getEdgeEnd(clazz); edge++) {
+                int target = unitOfClass[graph.getEdgeTarget(edge)];
+                if (target != NONE && target != origin) {
+                    keys[size++] = key(origin, target);
+                }
+            }
+        }
+        Arrays.sort(keys, 0, size);
+
+        int[] offsets = new int[unitCount + 1];
+        IntList targets = new IntList();
+        long last = -1;
+        for (int i = 0; i < size; i++) {
+            if (keys[i] != last) {
+                offsets[(int) (keys[i] >>> 32) + 1]++;
+                targets.add((int) keys[i]);
+                last = keys[i];
+            }
+        }
+        for (int unit = 0; unit < unitCount; unit++) {
+            offsets[unit + 1] += offsets[unit];
+        }
+        return new int[][]{offsets, targets.toArray()};
+    }
+
+    /**
+     * Tarjan's algorithm, with an explicit stack instead of recursion.
+     *
+     * @return the component of every node, components are numbered in reverse topological order
+     */
+    static int[] stronglyConnectedComponents(int nodeCount, int[] offsets, int[] targets) {
+        int[] component = new int[nodeCount];
+        int[] order = new int[nodeCount];
+        int[] lowLink = new int[nodeCount];
+        int[] nextEdge = new int[nodeCount];
+        boolean[] onStack = new boolean[nodeCount];
+        int[] stack = new int[nodeCount];
+        int[] calls = new int[nodeCount];
+        Arrays.fill(order, NONE);
+        int stackSize = 0;
+        int counter = 0;
+        int components = 0;
+
+        for (int root = 0; root < nodeCount; root++) {
+            if (order[root] != NONE) {
+                continue;
+            }
+            int callSize = 0;
+            order[root] = lowLink[root] = counter++;
+            nextEdge[root] = offsets[root];
+            stack[stackSize++] = root;
+            onStack[root] = true;
+            calls[callSize++] = root;
+            while (callSize > 0) {
+                int node = calls[callSize - 1];
+                if (nextEdge[node] < offsets[node + 1]) {
+                    int target = targets[nextEdge[node]++];
+                    if (order[target] == NONE) {
+                        order[target] = lowLink[target] = counter++;
+                        nextEdge[target] = offsets[target];
+                        stack[stackSize++] = target;
+                        onStack[target] = true;
+                        calls[callSize++] = target;
+                    } else if (onStack[target]) {
+                        lowLink[node] = Math.min(lowLink[node], order[target]);
+                    }
+                    continue;
+                }
+                callSize--;
+                if (callSize > 0) {
+                    int caller = calls[callSize - 1];
+                    lowLink[caller] = Math.min(lowLink[caller], lowLink[node]);
+                }
+                if (lowLink[node] == order[node]) {
+                    int member;
+                    do {
+                        member = stack[--stackSize];
+                        onStack[member] = false;
+                        component[member] = components;
+                    } while (member != node);
+                    components++;
+                }
+            }
+        }
+        return component;
+    }
+
+    // ordered by their first member, members ordered by id
+    private static List<int[]> membersOfCyclicComponents(int[] components) {
+        Map<Integer, IntList> members = new HashMap<>();
+        List<IntList> ordered = new ArrayList<>();
+        for (int node = 0; node < components.length; node++) {
+            IntList list = members.get(components[node]);
+            if (list == null) {
+                list = new IntList(2);
+                members.put(components[node], list);
+                ordered.add(list);
+            }
+            list.add(node);
+        }
+        List<int[]> result = new ArrayList<>();
+        for (IntList list : ordered) {
+            if (list.size() > 1) {
+                result.add(list.toArray());
+            }
+        }
+        return result;
+    }
+
+    // one breadth first search within the component from its first member, every member lies on a cycle through it
+    private static int[] shortestCycle(int[] members, int[] components, int[] offsets, int[] targets,
+                                       int[] predecessors, int[] visitedFrom) {
+        int source = members[0];
+        int component = components[source];
+        int[] queue = new int[members.length];
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = source;
+        predecessors[source] = NONE;
+        visitedFrom[source] = source;
+        int closing = NONE;
+        while (head < tail && closing == NONE) {
+            int node = queue[head++];
+            for (int edge = offsets[node]; edge < offsets[node + 1]; edge++) {
+                int target = targets[edge];
+                if (target == source) {
+                    closing = node;
+                    break;
+                }
+                if (components[target] == component && visitedFrom[target] != source) {
+                    visitedFrom[target] = source;
+                    predecessors[target] = node;
+                    queue[tail++] = target;
+                }
+            }
+        }
+        return rotateToSmallest(pathTo(closing, predecessors));
+    }
+
+    private static int[] pathTo(int node, int[] predecessors) {
+        IntList reversed = new IntList(4);
+        for (int current = node; current != NONE; current = predecessors[current]) {
+            reversed.add(current);
+        }
+        int[] result = new int[reversed.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = reversed.get(result.length - 1 - i);
+        }
+        return result;
+    }
+
+    private static int[] rotateToSmallest(int[] cycle) {
+        int smallest = 0;
+        for (int i = 1; i < cycle.length; i++) {
+            if (cycle[i] < cycle[smallest]) {
+                smallest = i;
+            }
+        }
+        int[] result = new int[cycle.length];
+        for (int i = 0; i < cycle.length; i++) {
+            result[i] = cycle[(smallest + i) % cycle.length];
+        }
+        return result;
+    }
+
+    static void collectDependencies(DependencyGraph graph, int[] unitOfClass, Map<Long, EdgeDependencies> dependenciesOfEdges) {
+        if (dependenciesOfEdges.isEmpty()) {
+            return;
+        }
+        DependencyGraph.Resolver resolver = graph.newResolver();
+        for (int clazz = 0; clazz < graph.getClassCount(); clazz++) {
+            if (unitOfClass[clazz] == NONE) {
+                continue;
+            }
+            for (int edge = graph.getFirstEdge(clazz); edge < graph.getEdgeEnd(clazz); edge++) {
+                int target = graph.getEdgeTarget(edge);
+                if (unitOfClass[target] == NONE) {
+                    continue;
+                }
+                EdgeDependencies dependencies = dependenciesOfEdges.get(key(unitOfClass[clazz], unitOfClass[target]));
+                if (dependencies == null) {
+                    continue;
+                }
+                for (int i = graph.getFirstDependency(edge); i < graph.getDependencyEnd(edge); i++) {
+                    if (dependencies.reported.size() == MAX_REPORTED_DEPENDENCIES_PER_EDGE) {
+                        dependencies.more += graph.getDependencyEnd(edge) - i;
+                        break;
+                    }
+                    String description = resolver.getDescription(i);
+                    dependencies.reported.add(description != null ?
+                            description :
+                            format("%s %s %s", graph.getClassName(clazz), graph.getDependencyKind(i), graph.getClassName(target)));
+                }
+            }
+        }
+    }
+
+    private String describe(int[] members, int[] witness, List<String> units, Map<Long, EdgeDependencies> dependenciesOfEdges) {
+        StringBuilder path = new StringBuilder();
+        for (int unit : witness) {
+            path.append(units.get(unit)).append(" -> ");
+        }
+        path.append(units.get(witness[0]));
+        List<String> memberNames = new ArrayList<>();
+        for (int member : members) {
+            memberNames.add(units.get(member));
+        }
+
+        StringBuilder result = new StringBuilder(format("Cycle between %s %s (%d %s depend on each other: %s)",
+                granularity, path, members.length, granularity, String.join(", ", memberNames)));
+        for (int i = 0; i < witness.length; i++) {
+            int origin = witness[i];
+            int target = witness[(i + 1) % witness.length];
+            result.append(lineSeparator())
+                    .append(format("  Dependencies of %s on %s:", units.get(origin), units.get(target)));
+            dependenciesOfEdges.get(key(origin, target)).appendTo(result);
+        }
+        return result.toString();
+    }
+
+    static long key(int origin, int target) {
+        return ((long) origin << 32) | target;
+    }
+
+    private static List<String> namesOf(List<? extends AbstractFPackageDefinition> definitions) {
+        List<String> result = new ArrayList<>();
+        for (AbstractFPackageDefinition definition : definitions) {
+            result.add(definition.getName());
+        }
+        return result;
+    }
+
+    /**
+     * The dependencies behind an edge between two units: the descriptions of the first
+     * {@link #MAX_REPORTED_DEPENDENCIES_PER_EDGE} of them, which are reported, and the number of the others.
+     */
+    static final class EdgeDependencies {
+        private final List<String> reported = new ArrayList<>();
+        private int more;
+
+        void appendTo(StringBuilder result) {
+            for (String dependency : reported) {
+                result.append(lineSeparator()).append("    - ").append(dependency);
+            }
+            if (more > 0) {
+                result.append(lineSeparator()).append(format("    (%d more)", more));
+            }
+        }
+    }
+
+    private static List<String> nonNull(String[] values) {
+        List<String> result = new ArrayList<>();
+        for (String value : values) {
+            if (value != null) {
+                result.add(value);
+            }
+        }
+        return result;
+    }
+
+}
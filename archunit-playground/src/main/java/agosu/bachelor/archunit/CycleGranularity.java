@@ -0,0 +1,24 @@
+package agosu.bachelor.archunit;
+
+public enum CycleGranularity {
+
+    FPACKAGE("FPackages"),
+    GROUP("groups"),
+    PACKAGE("packages"),
+    /**
+     * The packages two levels below the system root, with all their subpackages, as sliced by the default cycle rule
+     */
+    SLICE("slices");
+
+    private final String description;
+
+    CycleGranularity(String description) {
+        this.description = description;
+    }
+
+    @Override
+    public String toString() {
+        return description;
+    }
+
+}
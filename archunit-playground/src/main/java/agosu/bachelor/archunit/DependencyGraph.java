@@ -0,0 +1,687 @@
+package agosu.bachelor.archunit;
+
+import com.google.common.base.Suppliers;
+import com.tngtech.archunit.core.domain.Dependency;
+import com.tngtech.archunit.core.domain.JavaClass;
+import com.tngtech.archunit.core.domain.JavaClasses;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Compact dependency graph of a set of classes, built once per evaluation and shared by all checks.
+ * <p>
+ * Classes and packages are interned to int ids. The class to class edges and the package to package edges are
+ * stored as adjacency lists in compressed sparse row form: the outgoing edges of a node {@code n} are the indices
+ * {@code [firstEdge(n), edgeEnd(n))}. Every class edge aggregates all dependencies between the two classes and
+ * carries the {@link DependencyKind} flags of these dependencies. Every package edge carries the number of class
+ * edges it aggregates as its weight.
+ * <p>
+ * The kinds of the dependencies of a graph built from ArchUnit's {@link JavaClasses} are classified once the first
+ * kind is asked for, so evaluations without checks on kinds never classify them.
+ * <p>
+ * Graphs built from ArchUnit's {@link JavaClasses} hold only the ids and names, not the ArchUnit objects. The
+ * {@link JavaClass} and {@link Dependency} of an id are looked up on demand, so violations can be reported the same
+ * way ArchUnit reports them; a {@link Resolver} looks them up class by class for checks walking many dependencies.
+ */
+public final class DependencyGraph {
+
+    public static final int NO_PACKAGE = -1;
+
+    private final String[] classNames;
+    private final int[] classPackages;
+    private final BitSet imported;
+    private final JavaClasses classes;
+    private final int[] referencingDependencies;
+
+    private final String[] packageNames;
+    private final int[] packageParents;
+    private final Map<String, Integer> packageIds;
+
+    private final int[] classEdgeOffsets;
+    private final int[] classEdgeTargets;
+    private final int[] dependencyOffsets;
+    private final int[] dependencyPositions;
+    private final IntFunction<String> descriptions;
+    private final int[] sourceFiles;
+    private final String[] sourceFileNames;
+    private final int[] lineNumbers;
+
+    private final int[] packageEdgeOffsets;
+    private final int[] packageEdgeTargets;
+    private final int[] packageEdgeWeights;
+    private final Supplier<Kinds> kinds;
+
+    private DependencyGraph(Builder builder, JavaClasses classes, int[] classEdgeOffsets, int[] classEdgeTargets,
+                            int[] classEdgeKinds, int[] dependencyOffsets, int[] dependencyKinds,
+                            int[] dependencyPositions, IntFunction<String> descriptions, int[] sourceFiles,
+                            int[] lineNumbers) {
+        this(builder.classNames.toArray(new String[0]), builder.classPackages.toArray(), (BitSet) builder.imported.clone(),
+                classes, builder.packageNames.toArray(new String[0]), builder.packageParents.toArray(),
+                classEdgeOffsets, classEdgeTargets, classEdgeKinds, dependencyOffsets, dependencyKinds,
+                dependencyPositions, descriptions, sourceFiles, builder.sourceFileNames.toArray(new String[0]),
+                lineNumbers);
+    }
+
+    /**
+     * Creates a graph from its compacted form, e.g. as read from a {@link DependencyGraphSnapshot}. The edges must be
+     * ordered by origin and target and the dependencies by edge, as {@link Builder#build()} orders them.
+     *
+     * @param descriptions the description of a dependency by its id, which may be created on demand
+     * @param sourceFiles the index of the source file name of every dependency, or -1 if unknown
+     */
+    DependencyGraph(String[] classNames, int[] classPackages, BitSet imported, String[] packageNames,
+                    int[] packageParents, int[] classEdgeOffsets, int[] classEdgeTargets, int[] classEdgeKinds,
+                    int[] dependencyOffsets, int[] dependencyKinds, IntFunction<String> descriptions,
+                    int[] sourceFiles, String[] sourceFileNames, int[] lineNumbers) {
+        this(classNames, classPackages, imported, null, packageNames, packageParents, classEdgeOffsets,
+                classEdgeTargets, classEdgeKinds, dependencyOffsets, dependencyKinds, null, descriptions, sourceFiles,
+                sourceFileNames, lineNumbers);
+    }
+
+    private DependencyGraph(String[] classNames, int[] classPackages, BitSet imported, JavaClasses classes,
+                            String[] packageNames, int[] packageParents, int[] classEdgeOffsets,
+                            int[] classEdgeTargets, int[] classEdgeKinds, int[] dependencyOffsets,
+                            int[] dependencyKinds, int[] dependencyPositions, IntFunction<String> descriptions,
+                            int[] sourceFiles, String[] sourceFileNames, int[] lineNumbers) {
+        this.classNames = classNames;
+        this.classPackages = classPackages;
+        this.imported = imported;
+        this.classes = classes;
+        this.packageNames = packageNames;
+        this.packageParents = packageParents;
+        this.packageIds = new HashMap<>();
+        for (int i = 0; i < packageNames.length; i++) {
+            packageIds.put(packageNames[i], i);
+        }
+        this.classEdgeOffsets = classEdgeOffsets;
+        this.classEdgeTargets = classEdgeTargets;
+        this.dependencyOffsets = dependencyOffsets;
+        this.dependencyPositions = dependencyPositions;
+        this.descriptions = descriptions;
+        this.sourceFiles = sourceFiles;
+        this.sourceFileNames = sourceFileNames;
+        this.lineNumbers = lineNumbers;
+        this.referencingDependencies = classes == null ? null : firstReferencingDependencies();
+
+        int[][] packageEdges = aggregatePackageEdges();
+        this.packageEdgeOffsets = packageEdges[0];
+        this.packageEdgeTargets = packageEdges[1];
+        this.packageEdgeWeights = packageEdges[2];
+        if (dependencyKinds != null) {
+            Kinds known = new Kinds(dependencyKinds, classEdgeKinds, aggregatePackageEdgeKinds(classEdgeKinds));
+            this.kinds = () -> known;
+        } else {
+            this.kinds = Suppliers.memoize(this::classifyDependencies)::get;
+        }
+    }
+
+    /**
+     * Builds the graph in one walk over the classes and their direct dependencies.
+     */
+    public static DependencyGraph of(JavaClasses classes) {
+        return build(classes, null);
+    }
+
+    /**
+     * Builds the graph like {@link #of(JavaClasses)}, but leaves out the dependencies leaving the system root, so the
+     * graph stores neither them nor the classes only they lead to. The classes were imported with these dependencies,
+     * so this saves the memory and the time of the graph and of the checks walking it only.
+     */
+    public static DependencyGraph of(JavaClasses classes, String systemRoot) {
+        checkNotNull(systemRoot, "Supplied system root must not be null");
+        return build(classes, systemRoot);
+    }
+
+    private static DependencyGraph build(JavaClasses classes, String systemRoot) {
+        Builder builder = new Builder();
+        for (JavaClass clazz : classes) {
+            builder.markImported(builder.addClass(clazz.getName(), clazz.getPackageName()));
+        }
+        for (JavaClass clazz : classes) {
+            int origin = builder.classIdOf(clazz.getName());
+            // the position in the memoized dependencies of the origin finds the ArchUnit dependency again on demand
+            int position = 0;
+            for (Dependency dependency : clazz.getDirectDependenciesFromSelf()) {
+                JavaClass targetClass = dependency.getTargetClass();
+                if (systemRoot == null || isInside(systemRoot, targetClass.getName())) {
+                    int target = builder.addClass(targetClass.getName(), targetClass.getPackageName());
+                    builder.addDependency(origin, target, position);
+                }
+                position++;
+            }
+        }
+        return builder.build(classes);
+    }
+
+    static boolean isInside(String systemRoot, String className) {
+        return className.startsWith(systemRoot + ".");
+    }
+
+    public int getClassCount() {
+        return classNames.length;
+    }
+
+    public String getClassName(int classId) {
+        return classNames[classId];
+    }
+
+    public int getPackageOf(int classId) {
+        return classPackages[classId];
+    }
+
+    /**
+     * @return whether the class was imported itself, as opposed to only being the target of a dependency
+     */
+    public boolean isImported(int classId) {
+        return imported.get(classId);
+    }
+
+    /**
+     * @return the ArchUnit class with the id, or {@code null} if the graph was not built from ArchUnit classes
+     */
+    public JavaClass getJavaClass(int classId) {
+        if (classes == null) {
+            return null;
+        }
+        return isImported(classId) ?
+                classes.get(classNames[classId]) :
+                getDependency(referencingDependencies[classId]).getTargetClass();
+    }
+
+    // classes that are only dependency targets are not part of the imported classes, but of the dependencies on them
+    private int[] firstReferencingDependencies() {
+        int[] result = new int[classNames.length];
+        Arrays.fill(result, -1);
+        for (int edge = 0; edge < classEdgeTargets.length; edge++) {
+            int target = classEdgeTargets[edge];
+            if (!isImported(target) && result[target] < 0) {
+                result[target] = dependencyOffsets[edge];
+            }
+        }
+        return result;
+    }
+
+    public int getPackageCount() {
+        return packageNames.length;
+    }
+
+    public String getPackageName(int packageId) {
+        return packageNames[packageId];
+    }
+
+    /**
+     * @return the id of the parent package, or {@link #NO_PACKAGE} for the default package
+     */
+    public int getParentPackage(int packageId) {
+        return packageParents[packageId];
+    }
+
+    /**
+     * @return the id of the package, or {@link #NO_PACKAGE} if the graph does not contain it
+     */
+    public int getPackageId(String packageName) {
+        Integer id = packageIds.get(packageName);
+        return id == null ? NO_PACKAGE : id;
+    }
+
+    public int getEdgeCount() {
+        return classEdgeTargets.length;
+    }
+
+    public int getFirstEdge(int classId) {
+        return classEdgeOffsets[classId];
+    }
+
+    public int getEdgeEnd(int classId) {
+        return classEdgeOffsets[classId + 1];
+    }
+
+    public int getEdgeTarget(int edge) {
+        return classEdgeTargets[edge];
+    }
+
+    /**
+     * @return the {@link DependencyKind#flag() flags} of all dependencies of the class edge
+     */
+    public int getEdgeKinds(int edge) {
+        return kinds.get().edges[edge];
+    }
+
+    public int getDependencyCount() {
+        return dependencyOffsets[dependencyOffsets.length - 1];
+    }
+
+    public int getFirstDependency(int edge) {
+        return dependencyOffsets[edge];
+    }
+
+    public int getDependencyEnd(int edge) {
+        return dependencyOffsets[edge + 1];
+    }
+
+    public DependencyKind getDependencyKind(int dependency) {
+        return DependencyKind.fromOrdinal(kinds.get().dependencies[dependency]);
+    }
+
+    /**
+     * @return the ArchUnit dependency with the id, or {@code null} if the graph was not built from ArchUnit classes
+     */
+    public Dependency getDependency(int dependency) {
+        return newResolver().getDependency(dependency);
+    }
+
+    /**
+     * @return the description of the dependency as ArchUnit describes it, or {@code null} if it is not known
+     */
+    public String getDependencyDescription(int dependency) {
+        return newResolver().getDescription(dependency);
+    }
+
+    // only reporting needs the origin of a dependency, so it is found by binary search instead of being stored
+    int getDependencyOrigin(int dependency) {
+        return lastAtMost(classEdgeOffsets, lastAtMost(dependencyOffsets, dependency));
+    }
+
+    int getDependencyTarget(int dependency) {
+        return classEdgeTargets[lastAtMost(dependencyOffsets, dependency)];
+    }
+
+    // the last index of the offsets starting a range that contains the value
+    private static int lastAtMost(int[] offsets, int value) {
+        int low = 0;
+        int high = offsets.length - 2;
+        while (low < high) {
+            int middle = (low + high + 1) >>> 1;
+            if (offsets[middle] <= value) {
+                low = middle;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * @return the name of the source file the dependency is declared in, or {@code null} if it is not known
+     */
+    public String getDependencySourceFile(int dependency) {
+        return newResolver().getSourceFile(dependency);
+    }
+
+    /**
+     * @return the line the dependency is declared in, or 0 if it is not known, like ArchUnit reports unknown lines
+     */
+    public int getDependencyLineNumber(int dependency) {
+        return newResolver().getLineNumber(dependency);
+    }
+
+    /**
+     * @return a new {@link Resolver} of the dependencies of this graph
+     */
+    Resolver newResolver() {
+        return new Resolver();
+    }
+
+    /**
+     * Looks up the ArchUnit dependencies of the graph by their ids. All dependencies of an origin class are looked up
+     * together once the first of them is asked for, so a walk over the dependencies in id order looks up the
+     * dependencies of every class once. Not thread safe, every walk uses its own resolver.
+     */
+    final class Resolver {
+        private int first;
+        private Dependency[] resolved = new Dependency[0];
+
+        private Resolver() {
+        }
+
+        /**
+         * @return the ArchUnit dependency with the id, or {@code null} if the graph was not built from ArchUnit classes
+         */
+        Dependency getDependency(int dependency) {
+            if (classes == null) {
+                return null;
+            }
+            if (dependency < first || dependency >= first + resolved.length) {
+                int origin = getDependencyOrigin(dependency);
+                first = dependencyOffsets[classEdgeOffsets[origin]];
+                Dependency[] byPosition = getJavaClass(origin).getDirectDependenciesFromSelf().toArray(new Dependency[0]);
+                resolved = new Dependency[dependencyOffsets[classEdgeOffsets[origin + 1]] - first];
+                for (int i = 0; i < resolved.length; i++) {
+                    resolved[i] = byPosition[dependencyPositions[first + i]];
+                }
+            }
+            return resolved[dependency - first];
+        }
+
+        /**
+         * @see DependencyGraph#getDependencyDescription(int)
+         */
+        String getDescription(int dependency) {
+            return classes != null ? getDependency(dependency).getDescription() : descriptions.apply(dependency);
+        }
+
+        /**
+         * @see DependencyGraph#getDependencySourceFile(int)
+         */
+        String getSourceFile(int dependency) {
+            if (classes != null) {
+                return getDependency(dependency).getSourceCodeLocation().getSourceFileName();
+            }
+            return sourceFiles[dependency] < 0 ? null : sourceFileNames[sourceFiles[dependency]];
+        }
+
+        /**
+         * @see DependencyGraph#getDependencyLineNumber(int)
+         */
+        int getLineNumber(int dependency) {
+            return classes != null ? getDependency(dependency).getSourceCodeLocation().getLineNumber() : lineNumbers[dependency];
+        }
+    }
+
+    public int getPackageEdgeCount() {
+        return packageEdgeTargets.length;
+    }
+
+    public int getFirstPackageEdge(int packageId) {
+        return packageEdgeOffsets[packageId];
+    }
+
+    public int getPackageEdgeEnd(int packageId) {
+        return packageEdgeOffsets[packageId + 1];
+    }
+
+    public int getPackageEdgeTarget(int packageEdge) {
+        return packageEdgeTargets[packageEdge];
+    }
+
+    /**
+     * @return the number of class edges the package edge aggregates
+     */
+    public int getPackageEdgeWeight(int packageEdge) {
+        return packageEdgeWeights[packageEdge];
+    }
+
+    public int getPackageEdgeKinds(int packageEdge) {
+        return kinds.get().packageEdges[packageEdge];
+    }
+
+    // accesses are classified by their type, so the accesses of every origin class are looked at once
+    private Kinds classifyDependencies() {
+        int[] dependencyKinds = new int[getDependencyCount()];
+        int[] edgeKinds = new int[classEdgeTargets.length];
+        Resolver dependencies = newResolver();
+        for (int clazz = 0; clazz < classNames.length; clazz++) {
+            if (getFirstEdge(clazz) == getEdgeEnd(clazz)) {
+                continue;
+            }
+            Map<String, DependencyKind> accessKinds = DependencyKind.accessKindsOf(getJavaClass(clazz));
+            for (int edge = getFirstEdge(clazz); edge < getEdgeEnd(clazz); edge++) {
+                for (int i = getFirstDependency(edge); i < getDependencyEnd(edge); i++) {
+                    DependencyKind kind = DependencyKind.of(dependencies.getDependency(i), accessKinds);
+                    dependencyKinds[i] = kind.ordinal();
+                    edgeKinds[edge] |= kind.flag();
+                }
+            }
+        }
+        return new Kinds(dependencyKinds, edgeKinds, aggregatePackageEdgeKinds(edgeKinds));
+    }
+
+    // the package edges of an origin package are ordered by target, so the package edge of a class edge is searched
+    private int[] aggregatePackageEdgeKinds(int[] edgeKinds) {
+        int[] result = new int[packageEdgeTargets.length];
+        for (int origin = 0; origin < classNames.length; origin++) {
+            int thePackage = classPackages[origin];
+            for (int edge = classEdgeOffsets[origin]; edge < classEdgeOffsets[origin + 1]; edge++) {
+                int packageEdge = Arrays.binarySearch(packageEdgeTargets, packageEdgeOffsets[thePackage],
+                        packageEdgeOffsets[thePackage + 1], classPackages[classEdgeTargets[edge]]);
+                result[packageEdge] |= edgeKinds[edge];
+            }
+        }
+        return result;
+    }
+
+    // buckets the class edges by origin package, orders every bucket by target package and merges equal targets
+    private int[][] aggregatePackageEdges() {
+        int packageCount = packageNames.length;
+        int[] starts = new int[packageCount + 1];
+        for (int origin = 0; origin < classNames.length; origin++) {
+            starts[classPackages[origin] + 1] += classEdgeOffsets[origin + 1] - classEdgeOffsets[origin];
+        }
+        for (int i = 0; i < packageCount; i++) {
+            starts[i + 1] += starts[i];
+        }
+        long[] byOrigin = new long[classEdgeTargets.length];
+        int[] fill = Arrays.copyOf(starts, packageCount);
+        for (int origin = 0; origin < classNames.length; origin++) {
+            for (int edge = classEdgeOffsets[origin]; edge < classEdgeOffsets[origin + 1]; edge++) {
+                byOrigin[fill[classPackages[origin]]++] = ((long) classPackages[classEdgeTargets[edge]] << 32) | edge;
+            }
+        }
+
+        int[] offsets = new int[packageCount + 1];
+        IntList targets = new IntList();
+        IntList weights = new IntList();
+        for (int origin = 0; origin < packageCount; origin++) {
+            Arrays.sort(byOrigin, starts[origin], starts[origin + 1]);
+            int lastTarget = -1;
+            for (int i = starts[origin]; i < starts[origin + 1]; i++) {
+                int target = (int) (byOrigin[i] >>> 32);
+                if (target != lastTarget) {
+                    targets.add(target);
+                    weights.add(0);
+                    lastTarget = target;
+                }
+                int last = targets.size() - 1;
+                weights.set(last, weights.get(last) + 1);
+            }
+            offsets[origin + 1] = targets.size();
+        }
+        return new int[][]{offsets, targets.toArray(), weights.toArray()};
+    }
+
+    /**
+     * Collects classes and dependencies in any order and compacts them into a {@link DependencyGraph}.
+     */
+    static final class Builder {
+        private final List<String> classNames = new ArrayList<>();
+        private final IntList classPackages = new IntList();
+        private final BitSet imported = new BitSet();
+        private final Map<String, Integer> classIds = new HashMap<>();
+
+        private final List<String> packageNames = new ArrayList<>();
+        private final IntList packageParents = new IntList();
+        private final Map<String, Integer> packageIds = new HashMap<>();
+
+        private final IntList origins = new IntList();
+        private final IntList targets = new IntList();
+        private final IntList kinds = new IntList();
+        private final IntList positions = new IntList();
+        private final List<String> descriptions = new ArrayList<>();
+        private final IntList sourceFiles = new IntList();
+        private final IntList lineNumbers = new IntList();
+        private final List<String> sourceFileNames = new ArrayList<>();
+        private final Map<String, Integer> sourceFileIds = new HashMap<>();
+
+        Builder() {
+            internPackage("");
+        }
+
+        int addClass(String className, String packageName) {
+            Integer id = classIds.get(className);
+            if (id == null) {
+                id = classNames.size();
+                classIds.put(className, id);
+                classNames.add(className);
+                classPackages.add(internPackage(packageName));
+            }
+            return id;
+        }
+
+        void markImported(int classId) {
+            imported.set(classId);
+        }
+
+        int classIdOf(String className) {
+            return classIds.get(className);
+        }
+
+        /**
+         * Adds a dependency of a class the graph will be {@link #build(JavaClasses) built} from, whose kind is
+         * classified on demand.
+         *
+         * @param position the position of the dependency in {@link JavaClass#getDirectDependenciesFromSelf()} of its
+         * origin, counting the dependencies left out of the graph as well
+         */
+        void addDependency(int origin, int target, int position) {
+            addDependency(origin, target, null, position, null, null, 0);
+        }
+
+        void addDependency(int origin, int target, DependencyKind kind, String description) {
+            addDependency(origin, target, kind, -1, description, null, 0);
+        }
+
+        void addDependency(int origin, int target, DependencyKind kind, String description, String sourceFile, int lineNumber) {
+            addDependency(origin, target, kind, -1, description, sourceFile, lineNumber);
+        }
+
+        private void addDependency(int origin, int target, DependencyKind kind, int position, String description,
+                                   String sourceFile, int lineNumber) {
+            origins.add(origin);
+            targets.add(target);
+            kinds.add(kind == null ? -1 : kind.ordinal());
+            positions.add(position);
+            descriptions.add(description);
+            sourceFiles.add(sourceFile == null ? -1 : sourceFileIds.computeIfAbsent(sourceFile, name -> {
+                sourceFileNames.add(name);
+                return sourceFileNames.size() - 1;
+            }));
+            lineNumbers.add(lineNumber);
+        }
+
+        int internPackage(String packageName) {
+            Integer id = packageIds.get(packageName);
+            if (id == null) {
+                int parent = packageName.isEmpty() ? NO_PACKAGE : internPackage(parentOf(packageName));
+                id = packageNames.size();
+                packageIds.put(packageName, id);
+                packageNames.add(packageName);
+                packageParents.add(parent);
+            }
+            return id;
+        }
+
+        private static String parentOf(String packageName) {
+            int lastDot = packageName.lastIndexOf('.');
+            return lastDot < 0 ? "" : packageName.substring(0, lastDot);
+        }
+
+        DependencyGraph build() {
+            return build(null, null);
+        }
+
+        /**
+         * @param describer describes the dependencies added without a description once they are reported, or
+         * {@code null} if they have none
+         */
+        DependencyGraph build(Describer describer) {
+            return build(null, describer);
+        }
+
+        /**
+         * @param classes the classes the dependencies were added from by their {@link #addDependency(int, int, int)
+         * position}, which the ArchUnit objects of the graph are looked up in on demand
+         */
+        DependencyGraph build(JavaClasses classes) {
+            return build(classes, null);
+        }
+
+        private DependencyGraph build(JavaClasses classes, Describer describer) {
+            int classCount = classNames.size();
+            int dependencyCount = origins.size();
+
+            // bucket the dependencies by origin, then order every bucket by target
+            int[] dependencyStarts = new int[classCount + 1];
+            for (int i = 0; i < dependencyCount; i++) {
+                dependencyStarts[origins.get(i) + 1]++;
+            }
+            for (int i = 0; i < classCount; i++) {
+                dependencyStarts[i + 1] += dependencyStarts[i];
+            }
+            long[] byOrigin = new long[dependencyCount];
+            int[] fill = Arrays.copyOf(dependencyStarts, classCount);
+            for (int i = 0; i < dependencyCount; i++) {
+                byOrigin[fill[origins.get(i)]++] = ((long) targets.get(i) << 32) | i;
+            }
+
+            int[] classEdgeOffsets = new int[classCount + 1];
+            IntList edgeTargets = new IntList();
+            IntList edgeKinds = new IntList();
+            IntList dependencyOffsets = new IntList();
+            int[] sortedKinds = new int[dependencyCount];
+            int[] sortedPositions = new int[dependencyCount];
+            String[] sortedDescriptions = new String[dependencyCount];
+            int[] sortedSourceFiles = new int[dependencyCount];
+            int[] sortedLineNumbers = new int[dependencyCount];
+            for (int origin = 0; origin < classCount; origin++) {
+                Arrays.sort(byOrigin, dependencyStarts[origin], dependencyStarts[origin + 1]);
+                int lastTarget = -1;
+                for (int i = dependencyStarts[origin]; i < dependencyStarts[origin + 1]; i++) {
+                    int target = (int) (byOrigin[i] >>> 32);
+                    int dependency = (int) byOrigin[i];
+                    if (target != lastTarget) {
+                        edgeTargets.add(target);
+                        edgeKinds.add(0);
+                        dependencyOffsets.add(i);
+                        lastTarget = target;
+                    }
+                    int kind = kinds.get(dependency);
+                    if (kind >= 0) {
+                        edgeKinds.set(edgeKinds.size() - 1, edgeKinds.get(edgeKinds.size() - 1) | (1 << kind));
+                    }
+                    sortedKinds[i] = kind;
+                    sortedPositions[i] = positions.get(dependency);
+                    sortedDescriptions[i] = descriptions.get(dependency);
+                    sortedSourceFiles[i] = sourceFiles.get(dependency);
+                    sortedLineNumbers[i] = lineNumbers.get(dependency);
+                }
+                classEdgeOffsets[origin + 1] = edgeTargets.size();
+            }
+            dependencyOffsets.add(dependencyCount);
+
+            DependencyGraph[] graph = new DependencyGraph[1];
+            IntFunction<String> descriptions = describer == null ? dependency -> sortedDescriptions[dependency]
+                    : dependency -> sortedDescriptions[dependency] != null ? sortedDescriptions[dependency] : describer.describe(graph[0], dependency);
+            graph[0] = new DependencyGraph(this, classes, classEdgeOffsets, edgeTargets.toArray(),
+                    classes == null ? edgeKinds.toArray() : null, dependencyOffsets.toArray(),
+                    classes == null ? sortedKinds : null, classes == null ? null : sortedPositions, descriptions,
+                    sortedSourceFiles, sortedLineNumbers);
+            return graph[0];
+        }
+    }
+
+    private static final class Kinds {
+        private final int[] dependencies;
+        private final int[] edges;
+        private final int[] packageEdges;
+
+        private Kinds(int[] dependencies, int[] edges, int[] packageEdges) {
+            this.dependencies = dependencies;
+            this.edges = edges;
+            this.packageEdges = packageEdges;
+        }
+    }
+
+    interface Describer {
+        String describe(DependencyGraph graph, int dependency);
+    }
+
+}
@@ -0,0 +1,313 @@
+package agosu.bachelor.archunit;
+
+import com.tngtech.archunit.PublicAPI;
+import com.tngtech.archunit.core.domain.Dependency;
+import com.tngtech.archunit.core.domain.JavaClass;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.tngtech.archunit.PublicAPI.Usage.ACCESS;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Writes the facts of a {@link DependencyGraph} (classes, packages, typed edges, dependency descriptions and source
+ * locations) to a compact binary file, and reads them back by memory-mapping the file, without importing any classes.
+ * <p>
+ * The file holds the graph in the same compressed sparse row form the graph keeps in memory, so reading it copies
+ * int arrays instead of building objects per dependency. Names are decoded when the file is read, dependency
+ * descriptions only when they are asked for. A graph read from a snapshot has no {@link JavaClass} and
+ * {@link Dependency} objects, so only checks working on the graph itself, like cycle detection, can use it.
+ * <p>
+ * Every count, id and offset read from a file is checked against the file before it is used, so a truncated or
+ * corrupt file fails with an {@link IllegalArgumentException} instead of a broken graph.
+ */
+public final class DependencyGraphSnapshot {
+
+    private static final int MAGIC = 0x46504b47;
+    private static final int FORMAT_VERSION = 1;
+    private static final int NONE = -1;
+    private static final int KIND_COUNT = DependencyKind.values().length;
+
+    private DependencyGraphSnapshot() {}
+
+    @PublicAPI(usage = ACCESS)
+    public static void write(DependencyGraph graph, Path file) {
+        checkNotNull(graph, "Supplied graph must not be null");
+        checkNotNull(file, "Supplied file must not be null");
+        try {
+            Path directory = file.toAbsolutePath().getParent();
+            Files.createDirectories(directory);
+            Path temporary = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+            try {
+                try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+                    write(graph, out);
+                }
+                Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temporary);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Reads a graph to check with {@link CustomArchitectures.FunctionalArchitecture#evaluateCycles(DependencyGraph)},
+     * which is the only check working on a graph without the classes it was built from.
+     *
+     * @throws IllegalArgumentException if the file is no snapshot, was written in another format version or is corrupt
+     */
+    @PublicAPI(usage = ACCESS)
+    public static DependencyGraph read(Path file) {
+        checkNotNull(file, "Supplied file must not be null");
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return read(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()), file);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void write(DependencyGraph graph, DataOutputStream out) throws IOException {
+        int packageCount = graph.getPackageCount();
+        int classCount = graph.getClassCount();
+        int edgeCount = graph.getEdgeCount();
+        int dependencyCount = graph.getDependencyCount();
+
+        out.writeInt(MAGIC);
+        out.writeInt(FORMAT_VERSION);
+        out.writeInt(packageCount);
+        out.writeInt(classCount);
+        out.writeInt(edgeCount);
+        out.writeInt(dependencyCount);
+
+        for (int thePackage = 0; thePackage < packageCount; thePackage++) {
+            writeString(graph.getPackageName(thePackage), out);
+            out.writeInt(graph.getParentPackage(thePackage));
+        }
+
+        BitSet imported = new BitSet(classCount);
+        for (int clazz = 0; clazz < classCount; clazz++) {
+            writeString(graph.getClassName(clazz), out);
+            out.writeInt(graph.getPackageOf(clazz));
+            imported.set(clazz, graph.isImported(clazz));
+        }
+        long[] importedWords = imported.toLongArray();
+        out.writeInt(importedWords.length);
+        for (long word : importedWords) {
+            out.writeLong(word);
+        }
+
+        for (int clazz = 0; clazz < classCount; clazz++) {
+            out.writeInt(graph.getFirstEdge(clazz));
+        }
+        out.writeInt(edgeCount);
+        for (int edge = 0; edge < edgeCount; edge++) {
+            out.writeInt(graph.getEdgeTarget(edge));
+        }
+        for (int edge = 0; edge < edgeCount; edge++) {
+            out.writeInt(graph.getEdgeKinds(edge));
+        }
+        for (int edge = 0; edge < edgeCount; edge++) {
+            out.writeInt(graph.getFirstDependency(edge));
+        }
+        out.writeInt(dependencyCount);
+        for (int dependency = 0; dependency < dependencyCount; dependency++) {
+            out.writeInt(graph.getDependencyKind(dependency).ordinal());
+        }
+
+        DependencyGraph.Resolver dependencies = graph.newResolver();
+        List<String> sourceFileNames = new ArrayList<>();
+        Map<String, Integer> sourceFileIds = new HashMap<>();
+        int[] sourceFiles = new int[dependencyCount];
+        for (int dependency = 0; dependency < dependencyCount; dependency++) {
+            String sourceFile = dependencies.getSourceFile(dependency);
+            sourceFiles[dependency] = sourceFile == null ? NONE : sourceFileIds.computeIfAbsent(sourceFile, name -> {
+                sourceFileNames.add(name);
+                return sourceFileNames.size() - 1;
+            });
+        }
+        out.writeInt(sourceFileNames.size());
+        for (String sourceFileName : sourceFileNames) {
+            writeString(sourceFileName, out);
+        }
+        for (int dependency = 0; dependency < dependencyCount; dependency++) {
+            out.writeInt(sourceFiles[dependency]);
+        }
+        for (int dependency = 0; dependency < dependencyCount; dependency++) {
+            out.writeInt(dependencies.getLineNumber(dependency));
+        }
+
+        // descriptions are the bulk of the file, their offsets come first so they can be decoded one by one
+        byte[][] descriptions = new byte[dependencyCount][];
+        int offset = 0;
+        for (int dependency = 0; dependency < dependencyCount; dependency++) {
+            String description = dependencies.getDescription(dependency);
+            descriptions[dependency] = description == null ? null : description.getBytes(UTF_8);
+            out.writeInt(description == null ? NONE : offset);
+            offset += description == null ? 0 : Integer.BYTES + descriptions[dependency].length;
+        }
+        out.writeInt(offset);
+        for (byte[] description : descriptions) {
+            if (description != null) {
+                out.writeInt(description.length);
+                out.write(description);
+            }
+        }
+    }
+
+    private static DependencyGraph read(MappedByteBuffer buffer, Path file) {
+        if (buffer.remaining() < 2 * Integer.BYTES || buffer.getInt() != MAGIC || buffer.getInt() != FORMAT_VERSION) {
+            throw new IllegalArgumentException(String.format("%s is no dependency graph snapshot of version %d", file, FORMAT_VERSION));
+        }
+        try {
+            return read(buffer);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException(String.format("%s is a corrupt dependency graph snapshot: %s", file, e.getMessage()), e);
+        }
+    }
+
+    // the counts are checked against the smallest number of bytes their entries take, before anything is allocated
+    private static DependencyGraph read(ByteBuffer buffer) {
+        int packageCount = readCount(buffer, 2 * Integer.BYTES);
+        int classCount = readCount(buffer, 2 * Integer.BYTES);
+        int edgeCount = readCount(buffer, 3 * Integer.BYTES);
+        int dependencyCount = readCount(buffer, 4 * Integer.BYTES);
+
+        String[] packageNames = new String[packageCount];
+        int[] packageParents = new int[packageCount];
+        for (int thePackage = 0; thePackage < packageCount; thePackage++) {
+            packageNames[thePackage] = readString(buffer);
+            packageParents[thePackage] = readInt(buffer, NONE, thePackage);
+        }
+
+        String[] classNames = new String[classCount];
+        int[] classPackages = new int[classCount];
+        for (int clazz = 0; clazz < classCount; clazz++) {
+            classNames[clazz] = readString(buffer);
+            classPackages[clazz] = readInt(buffer, 0, packageCount);
+        }
+        long[] importedWords = new long[readCount(buffer, Long.BYTES)];
+        buffer.asLongBuffer().get(importedWords);
+        skip(buffer, importedWords.length * Long.BYTES);
+        BitSet imported = BitSet.valueOf(importedWords);
+        checkArgument(imported.length() <= classCount, "class %s is imported, but there are %s classes",
+                imported.length() - 1, classCount);
+
+        int[] classEdgeOffsets = readOffsets(buffer, classCount, edgeCount);
+        int[] classEdgeTargets = readInts(buffer, edgeCount, 0, classCount);
+        int[] classEdgeKinds = readInts(buffer, edgeCount, 0, 1 << KIND_COUNT);
+        int[] dependencyOffsets = readOffsets(buffer, edgeCount, dependencyCount);
+        int[] dependencyKinds = readInts(buffer, dependencyCount, 0, KIND_COUNT);
+
+        String[] sourceFileNames = new String[readCount(buffer, Integer.BYTES)];
+        for (int i = 0; i < sourceFileNames.length; i++) {
+            sourceFileNames[i] = readString(buffer);
+        }
+        int[] sourceFiles = readInts(buffer, dependencyCount, NONE, sourceFileNames.length);
+        int[] lineNumbers = readInts(buffer, dependencyCount, 0, Integer.MAX_VALUE);
+
+        int[] descriptionOffsets = readInts(buffer, dependencyCount, NONE, Integer.MAX_VALUE);
+        int descriptionsLength = readCount(buffer, 1);
+        ByteBuffer descriptions = buffer.slice();
+        descriptions.limit(descriptionsLength);
+        for (int descriptionOffset : descriptionOffsets) {
+            if (descriptionOffset != NONE) {
+                checkString(descriptions, descriptionOffset);
+            }
+        }
+
+        return new DependencyGraph(classNames, classPackages, imported, packageNames,
+                packageParents, classEdgeOffsets, classEdgeTargets, classEdgeKinds, dependencyOffsets, dependencyKinds,
+                dependency -> descriptionOffsets[dependency] == NONE ? null : readString(descriptions, descriptionOffsets[dependency]),
+                sourceFiles, sourceFileNames, lineNumbers);
+    }
+
+    private static int readCount(ByteBuffer buffer, int minBytesPerEntry) {
+        int count = readInt(buffer, 0, Integer.MAX_VALUE);
+        checkRemaining(buffer, (long) count * minBytesPerEntry);
+        return count;
+    }
+
+    // a value in [min, end)
+    private static int readInt(ByteBuffer buffer, int min, int end) {
+        checkRemaining(buffer, Integer.BYTES);
+        int result = buffer.getInt();
+        checkArgument(result >= min && result < end, "%s at byte %s is not in [%s, %s)",
+                result, buffer.position() - Integer.BYTES, min, end);
+        return result;
+    }
+
+    private static int[] readInts(ByteBuffer buffer, int count, int min, int end) {
+        checkRemaining(buffer, (long) count * Integer.BYTES);
+        int[] result = new int[count];
+        buffer.asIntBuffer().get(result);
+        for (int i = 0; i < count; i++) {
+            checkArgument(result[i] >= min && result[i] < end, "%s at byte %s is not in [%s, %s)",
+                    result[i], buffer.position() + i * Integer.BYTES, min, end);
+        }
+        skip(buffer, count * Integer.BYTES);
+        return result;
+    }
+
+    // the offsets of the ranges of the nodes, ascending from 0 to the number of entries
+    private static int[] readOffsets(ByteBuffer buffer, int nodeCount, int entryCount) {
+        int[] result = readInts(buffer, nodeCount + 1, 0, entryCount + 1);
+        checkArgument(result[0] == 0 && result[nodeCount] == entryCount, "the offsets do not range from 0 to %s", entryCount);
+        for (int i = 0; i < nodeCount; i++) {
+            checkArgument(result[i] <= result[i + 1], "the offsets are not ascending at %s", i);
+        }
+        return result;
+    }
+
+    private static void checkRemaining(ByteBuffer buffer, long bytes) {
+        checkArgument(bytes <= buffer.remaining(), "%s bytes are expected at byte %s, but the file ends at byte %s",
+                bytes, buffer.position(), buffer.limit());
+    }
+
+    private static void checkString(ByteBuffer buffer, int offset) {
+        checkArgument(offset <= buffer.limit() - Integer.BYTES
+                        && buffer.getInt(offset) >= 0 && buffer.getInt(offset) <= buffer.limit() - offset - Integer.BYTES,
+                "no string at byte %s", offset);
+    }
+
+    private static void skip(ByteBuffer buffer, int bytes) {
+        buffer.position(buffer.position() + bytes);
+    }
+
+    private static void writeString(String string, DataOutputStream out) throws IOException {
+        byte[] bytes = string.getBytes(UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        checkString(buffer, buffer.position());
+        String result = readString(buffer, buffer.position());
+        skip(buffer, Integer.BYTES + buffer.getInt(buffer.position()));
+        return result;
+    }
+
+    // reads by absolute index only, so descriptions can be decoded by several threads at once
+    private static String readString(ByteBuffer buffer, int offset) {
+        byte[] bytes = new byte[buffer.getInt(offset)];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = buffer.get(offset + Integer.BYTES + i);
+        }
+        return new String(bytes, UTF_8);
+    }
+
+}
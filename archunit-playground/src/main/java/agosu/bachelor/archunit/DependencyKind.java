@@ -0,0 +1,102 @@
+package agosu.bachelor.archunit;
+
+import com.tngtech.archunit.core.domain.Dependency;
+import com.tngtech.archunit.core.domain.JavaAccess;
+import com.tngtech.archunit.core.domain.JavaClass;
+import com.tngtech.archunit.core.domain.JavaFieldAccess;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * The kind of a {@link Dependency}. ArchUnit's dependencies carry no type, so accesses are classified by the type of
+ * the {@link JavaAccess} they stem from, and all other dependencies by the verb ArchUnit describes them with
+ * (e.g. "extends", "has type"). Every kind has a bit flag, so the kinds of several dependencies can be stored as a
+ * single int.
+ */
+public enum DependencyKind {
+
+    INHERITANCE("extends ", "implements "),
+    METHOD_CALL("calls method ", "calls constructor ", "references method ", "references constructor "),
+    FIELD_ACCESS("gets field ", "sets field "),
+    ANNOTATION("is annotated with ", "has annotation member of type "),
+    // before MEMBER_TYPE, whose "has type " starts "has type parameter "
+    TYPE_ARGUMENT("has generic ", "has type parameter "),
+    MEMBER_TYPE("has type ", "has return type ", "has parameter of type ", "throws type ", "depends on component type "),
+    OTHER();
+
+    // the description of the origin, e.g. "Method <a.B.m()>", ends with the first "> ", the verb follows it
+    private static final String END_OF_ORIGIN = "> ";
+
+    private static final DependencyKind[] VALUES = values();
+
+    private final String[] verbs;
+
+    DependencyKind(String... verbs) {
+        this.verbs = verbs;
+    }
+
+    public int flag() {
+        return 1 << ordinal();
+    }
+
+    public boolean isIn(int flags) {
+        return (flags & flag()) != 0;
+    }
+
+    public static DependencyKind of(JavaAccess<?> access) {
+        return access instanceof JavaFieldAccess ? FIELD_ACCESS : METHOD_CALL;
+    }
+
+    public static DependencyKind of(Dependency dependency) {
+        return of(dependency.getDescription());
+    }
+
+    /**
+     * @param accessKinds the kinds of the accesses of the origin class by their description, as
+     * {@link #accessKindsOf(JavaClass)} returns them
+     */
+    static DependencyKind of(Dependency dependency, Map<String, DependencyKind> accessKinds) {
+        DependencyKind result = accessKinds.get(dependency.getDescription());
+        return result != null ? result : of(dependency.getDescription());
+    }
+
+    /**
+     * @return the kinds of the accesses from the class by their description, which is the description of the
+     * dependencies ArchUnit derives from them
+     */
+    static Map<String, DependencyKind> accessKindsOf(JavaClass origin) {
+        Map<String, DependencyKind> result = new HashMap<>();
+        for (JavaAccess<?> access : origin.getAccessesFromSelf()) {
+            result.put(access.getDescription(), of(access));
+        }
+        return result;
+    }
+
+    public static DependencyKind of(String description) {
+        int verbIndex = description.indexOf(END_OF_ORIGIN);
+        if (verbIndex < 0) {
+            return OTHER;
+        }
+        verbIndex += END_OF_ORIGIN.length();
+        for (DependencyKind kind : VALUES) {
+            for (String verb : kind.verbs) {
+                if (description.startsWith(verb, verbIndex)) {
+                    return kind;
+                }
+            }
+        }
+        return OTHER;
+    }
+
+    // e.g. "method call"
+    String describe() {
+        return name().toLowerCase(Locale.ROOT).replace('_', ' ');
+    }
+
+    static DependencyKind fromOrdinal(int ordinal) {
+        return VALUES[ordinal];
+    }
+
+}
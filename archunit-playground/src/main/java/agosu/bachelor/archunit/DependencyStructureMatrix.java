@@ -0,0 +1,308 @@
+package agosu.bachelor.archunit;
+
+import com.tngtech.archunit.PublicAPI;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.tngtech.archunit.PublicAPI.Usage.ACCESS;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * The dependency structure matrix of an {@link ArchitectureGraph}: the cell in the row of one unit and the column of
+ * another holds the number of class edges from the first unit to the second.
+ * <p>
+ * The units are ordered by the strongly connected components of the graph, in reverse topological order, so every unit
+ * comes after the units it depends on: dependencies outside of cycles are below the diagonal, and the units depending
+ * on each other form blocks on the diagonal, the only places with cells above it. Within a block the units are
+ * ordered by name. The matrix is kept sparse, built in the time of sorting the edges.
+ */
+public final class DependencyStructureMatrix {
+
+    private final CycleGranularity granularity;
+    private final List<String> units;
+    private final Map<String, Integer> positions = new HashMap<>();
+    private final int[] blockOf;
+    private final int[] rowOffsets;
+    private final int[] columns;
+    private final int[] weights;
+    private final int[] violations;
+
+    private DependencyStructureMatrix(CycleGranularity granularity, List<String> units, int[] blockOf, int[] rowOffsets,
+                                      int[] columns, int[] weights, int[] violations) {
+        this.granularity = granularity;
+        this.units = units;
+        for (String unit : units) {
+            positions.put(unit, positions.size());
+        }
+        this.blockOf = blockOf;
+        this.rowOffsets = rowOffsets;
+        this.columns = columns;
+        this.weights = weights;
+        this.violations = violations;
+    }
+
+    @PublicAPI(usage = ACCESS)
+    public static DependencyStructureMatrix of(ArchitectureGraph graph) {
+        checkNotNull(graph, "Supplied graph must not be null");
+        List<String> names = graph.getUnits();
+        int unitCount = names.size();
+        int edgeCount = graph.getEdgeCount();
+
+        // the edges of the graph are ordered by their origin already
+        int[] offsets = new int[unitCount + 1];
+        int[] targets = new int[edgeCount];
+        for (int edge = 0; edge < edgeCount; edge++) {
+            offsets[graph.getEdgeOrigin(edge) + 1]++;
+            targets[edge] = graph.getEdgeTarget(edge);
+        }
+        for (int unit = 0; unit < unitCount; unit++) {
+            offsets[unit + 1] += offsets[unit];
+        }
+        int[] components = CycleDetector.stronglyConnectedComponents(unitCount, offsets, targets);
+
+        // units are ordered by name already, so sorting by component keeps them ordered by name within a block
+        Integer[] order = new Integer[unitCount];
+        for (int unit = 0; unit < unitCount; unit++) {
+            order[unit] = unit;
+        }
+        Arrays.sort(order, Comparator.comparingInt(unit -> components[unit]));
+        int[] positionOf = new int[unitCount];
+        List<String> units = new ArrayList<>();
+        int[] blockOf = new int[unitCount];
+        for (int position = 0; position < unitCount; position++) {
+            positionOf[order[position]] = position;
+            units.add(names.get(order[position]));
+            blockOf[position] = components[order[position]];
+        }
+
+        long[] cells = new long[edgeCount];
+        for (int edge = 0; edge < edgeCount; edge++) {
+            cells[edge] = (long) positionOf[graph.getEdgeOrigin(edge)] << 32 | positionOf[graph.getEdgeTarget(edge)];
+        }
+        Integer[] edgesByCell = new Integer[edgeCount];
+        for (int edge = 0; edge < edgeCount; edge++) {
+            edgesByCell[edge] = edge;
+        }
+        Arrays.sort(edgesByCell, Comparator.comparingLong(edge -> cells[edge]));
+
+        int[] rowOffsets = new int[unitCount + 1];
+        int[] columns = new int[edgeCount];
+        int[] weights = new int[edgeCount];
+        int[] violations = new int[edgeCount];
+        for (int cell = 0; cell < edgeCount; cell++) {
+            int edge = edgesByCell[cell];
+            rowOffsets[(int) (cells[edge] >>> 32) + 1]++;
+            columns[cell] = (int) cells[edge];
+            weights[cell] = graph.getEdgeWeight(edge);
+            violations[cell] = graph.getEdgeViolations(edge);
+        }
+        for (int row = 0; row < unitCount; row++) {
+            rowOffsets[row + 1] += rowOffsets[row];
+        }
+        return new DependencyStructureMatrix(graph.getGranularity(), Collections.unmodifiableList(units), blockOf,
+                rowOffsets, columns, weights, violations);
+    }
+
+    @PublicAPI(usage = ACCESS)
+    public CycleGranularity getGranularity() {
+        return granularity;
+    }
+
+    /**
+     * @return the names of the units, in the order of the rows and columns
+     */
+    @PublicAPI(usage = ACCESS)
+    public List<String> getUnits() {
+        return units;
+    }
+
+    /**
+     * @return the units depending on each other, every block in the order of the rows
+     */
+    @PublicAPI(usage = ACCESS)
+    public List<List<String>> getCyclicBlocks() {
+        List<List<String>> result = new ArrayList<>();
+        int start = 0;
+        for (int position = 1; position <= units.size(); position++) {
+            if (position == units.size() || blockOf[position] != blockOf[start]) {
+                if (position - start > 1) {
+                    result.add(units.subList(start, position));
+                }
+                start = position;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return the number of class edges from the unit of the row to the unit of the column, or 0 if there are none
+     */
+    @PublicAPI(usage = ACCESS)
+    public int getWeight(String row, String column) {
+        int cell = cellOf(row, column);
+        return cell < 0 ? 0 : weights[cell];
+    }
+
+    /**
+     * @return the number of violating class edges from the unit of the row to the unit of the column
+     */
+    @PublicAPI(usage = ACCESS)
+    public int getViolations(String row, String column) {
+        int cell = cellOf(row, column);
+        return cell < 0 ? 0 : violations[cell];
+    }
+
+    private int cellOf(String row, String column) {
+        Integer rowPosition = positions.get(row);
+        Integer columnPosition = positions.get(column);
+        if (rowPosition == null || columnPosition == null) {
+            return -1;
+        }
+        int cell = Arrays.binarySearch(columns, rowOffsets[rowPosition], rowOffsets[rowPosition + 1], columnPosition);
+        return cell < 0 ? -1 : cell;
+    }
+
+    /**
+     * Creates the file, or replaces it if it exists.
+     */
+    @PublicAPI(usage = ACCESS)
+    public void write(MatrixFormat format, Path file) {
+        checkNotNull(file, "Supplied file must not be null");
+        try (Writer writer = Files.newBufferedWriter(file, UTF_8)) {
+            write(format, writer);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Writes the matrix to the writer, which is flushed but not closed. CSV and HTML are written as full matrices,
+     * JSON lists the cells with dependencies only.
+     */
+    @PublicAPI(usage = ACCESS)
+    public void write(MatrixFormat format, Writer writer) {
+        checkNotNull(format, "Supplied format must not be null");
+        checkNotNull(writer, "Supplied writer must not be null");
+        Writer out = writer instanceof BufferedWriter ? writer : new BufferedWriter(writer);
+        try {
+            switch (format) {
+                case CSV:
+                    writeCsv(out);
+                    break;
+                case JSON:
+                    writeJson(out);
+                    break;
+                default:
+                    writeHtml(out);
+                    break;
+            }
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void writeCsv(Writer out) throws IOException {
+        for (String unit : units) {
+            out.write("," + csv(unit));
+        }
+        out.write("\n");
+        int[] row = new int[units.size()];
+        for (int position = 0; position < units.size(); position++) {
+            fillRow(position, weights, row);
+            out.write(csv(units.get(position)));
+            for (int weight : row) {
+                out.write(weight == 0 ? "," : "," + weight);
+            }
+            out.write("\n");
+        }
+    }
+
+    private void fillRow(int position, int[] values, int[] row) {
+        Arrays.fill(row, 0);
+        for (int cell = rowOffsets[position]; cell < rowOffsets[position + 1]; cell++) {
+            row[columns[cell]] = values[cell];
+        }
+    }
+
+    private static String csv(String value) {
+        return value.indexOf(',') < 0 && value.indexOf('"') < 0 ? value : "\"" + value.replace("\"", "\"\"") + "\"";
+    }
+
+    private void writeJson(Writer out) throws IOException {
+        out.write("{\"granularity\":");
+        JsonLinesViolationSink.writeString(granularity.name(), out);
+        out.write(",\"units\":[");
+        for (int position = 0; position < units.size(); position++) {
+            out.write(position == 0 ? "" : ",");
+            JsonLinesViolationSink.writeString(units.get(position), out);
+        }
+        out.write("],\"cyclicBlocks\":[");
+        List<List<String>> blocks = getCyclicBlocks();
+        for (int block = 0; block < blocks.size(); block++) {
+            out.write(block == 0 ? "[" : ",[");
+            for (int member = 0; member < blocks.get(block).size(); member++) {
+                out.write(member == 0 ? "" : ",");
+                JsonLinesViolationSink.writeString(blocks.get(block).get(member), out);
+            }
+            out.write("]");
+        }
+        out.write("],\"cells\":[");
+        boolean first = true;
+        for (int position = 0; position < units.size(); position++) {
+            for (int cell = rowOffsets[position]; cell < rowOffsets[position + 1]; cell++) {
+                out.write(first ? "\n" : ",\n");
+                first = false;
+                out.write("{\"row\":" + position + ",\"column\":" + columns[cell]
+                        + ",\"weight\":" + weights[cell] + ",\"violations\":" + violations[cell] + "}");
+            }
+        }
+        out.write("]}\n");
+    }
+
+    // cells of cyclic blocks are shaded, cells with violations are red
+    private void writeHtml(Writer out) throws IOException {
+        out.write("<!DOCTYPE html>\n<html>\n<head>\n<meta charset=\"UTF-8\">\n");
+        out.write("<title>Dependency structure matrix of " + ArchitectureGraph.xml(granularity.toString()) + "</title>\n");
+        out.write("<style>\n"
+                + "table { border-collapse: collapse; font-family: monospace; }\n"
+                + "th, td { border: 1px solid #ccc; padding: 2px 6px; text-align: center; }\n"
+                + "th.unit { text-align: left; }\n"
+                + "td.diagonal { background: #555; }\n"
+                + "td.cyclic { background: #fde9b4; }\n"
+                + "td.violating { background: #f4a6a6; font-weight: bold; }\n"
+                + "</style>\n</head>\n<body>\n<table>\n<tr><th></th><th></th>");
+        for (int position = 0; position < units.size(); position++) {
+            out.write("<th>" + (position + 1) + "</th>");
+        }
+        out.write("</tr>\n");
+        int[] rowWeights = new int[units.size()];
+        int[] rowViolations = new int[units.size()];
+        for (int position = 0; position < units.size(); position++) {
+            fillRow(position, weights, rowWeights);
+            fillRow(position, violations, rowViolations);
+            out.write("<tr><th class=\"unit\">" + ArchitectureGraph.xml(units.get(position)) + "</th><th>" + (position + 1) + "</th>");
+            for (int column = 0; column < units.size(); column++) {
+                String style = column == position ? "diagonal"
+                        : rowViolations[column] > 0 ? "violating"
+                        : blockOf[column] == blockOf[position] ? "cyclic"
+                        : null;
+                out.write(style == null ? "<td>" : "<td class=\"" + style + "\">");
+                if (rowWeights[column] > 0) {
+                    out.write(String.valueOf(rowWeights[column]));
+                }
+                out.write("</td>");
+            }
+            out.write("</tr>\n");
+        }
+        out.write("</table>\n</body>\n</html>\n");
+    }
+
+}
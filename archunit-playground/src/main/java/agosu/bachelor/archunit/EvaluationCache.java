@@ -0,0 +1,320 @@
+package agosu.bachelor.archunit;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * The facts of an incremental evaluation that survive between runs: for every class file its content hash, the
+ * FPackages its class belongs to, the violations of the class based checks and the outgoing dependencies of the class.
+ * A class file the importer returns no class for is kept as a tombstone with its content hash only, so it is not
+ * imported again until it changes.
+ * <p>
+ * The cache is only valid for the architecture it was written for. Reading a cache written for another fingerprint
+ * or in another format gives an empty cache, so every class is checked again.
+ */
+final class EvaluationCache {
+
+    private static final int FORMAT_VERSION = 3;
+
+    private final String fingerprint;
+    private final Map<String, Entry> entries = new LinkedHashMap<>();
+
+    EvaluationCache(String fingerprint) {
+        this.fingerprint = fingerprint;
+    }
+
+    /**
+     * @throws IOException if the file exists but cannot be read; a file that cannot be decoded, e.g. a truncated or
+     *                     otherwise corrupt one, gives an empty cache
+     */
+    static EvaluationCache read(Path file, String fingerprint) throws IOException {
+        byte[] content;
+        try {
+            content = Files.readAllBytes(file);
+        } catch (NoSuchFileException e) {
+            return new EvaluationCache(fingerprint);
+        }
+        // the stream knows how many bytes are left, so corrupt lengths are rejected before anything is allocated
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(content))) {
+            EvaluationCache result = new EvaluationCache(fingerprint);
+            if (in.readInt() != FORMAT_VERSION || !in.readUTF().equals(fingerprint)) {
+                return result;
+            }
+            int entryCount = readLength(in);
+            for (int i = 0; i < entryCount; i++) {
+                Entry entry = Entry.read(in);
+                result.entries.put(entry.classFile, entry);
+            }
+            return result;
+        } catch (IOException | RuntimeException e) {
+            return new EvaluationCache(fingerprint);
+        }
+    }
+
+    /**
+     * Writes the cache to a temporary file next to the given one first, so an interrupted write never leaves a
+     * truncated cache behind.
+     */
+    void write(Path file) throws IOException {
+        Path directory = file.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temporary = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+                out.writeInt(FORMAT_VERSION);
+                out.writeUTF(fingerprint);
+                out.writeInt(entries.size());
+                for (Entry entry : entries.values()) {
+                    entry.write(out);
+                }
+            }
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    Entry get(String classFile) {
+        return entries.get(classFile);
+    }
+
+    void put(Entry entry) {
+        entries.put(entry.classFile, entry);
+    }
+
+    void remove(String classFile) {
+        entries.remove(classFile);
+    }
+
+    /**
+     * @return the entries of the class files that were imported, without the tombstones
+     */
+    Collection<Entry> entries() {
+        List<Entry> result = new ArrayList<>(entries.size());
+        for (Entry entry : entries.values()) {
+            if (!entry.isTombstone()) {
+                result.add(entry);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return the class files of all entries, including the tombstones
+     */
+    Set<String> classFiles() {
+        return entries.keySet();
+    }
+
+    static String hash(byte[] content) {
+        return toHex(sha256().digest(content));
+    }
+
+    static String hash(String content) {
+        return hash(content.getBytes(UTF_8));
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Every Java platform supports SHA-256", e);
+        }
+    }
+
+    private static String toHex(byte[] bytes) {
+        StringBuilder result = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            result.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return result.toString();
+    }
+
+    static final class Entry {
+        private final String classFile;
+        private final String contentHash;
+        private final boolean tombstone;
+        private final String className;
+        private final String packageName;
+        private final List<String> fPackages;
+        private final List<String> violations;
+        private final List<CachedDependency> dependencies;
+
+        Entry(String classFile, String contentHash, String className, String packageName,
+              List<String> fPackages, List<String> violations, List<CachedDependency> dependencies) {
+            this(classFile, contentHash, false, className, packageName, fPackages, violations, dependencies);
+        }
+
+        private Entry(String classFile, String contentHash, boolean tombstone, String className, String packageName,
+                      List<String> fPackages, List<String> violations, List<CachedDependency> dependencies) {
+            this.classFile = classFile;
+            this.contentHash = contentHash;
+            this.tombstone = tombstone;
+            this.className = className;
+            this.packageName = packageName;
+            this.fPackages = fPackages;
+            this.violations = violations;
+            this.dependencies = dependencies;
+        }
+
+        String getClassFile() {
+            return classFile;
+        }
+
+        /**
+         * @param className the class name derived from the path of the class file
+         */
+        static Entry tombstone(String classFile, String contentHash, String className) {
+            return new Entry(classFile, contentHash, true, className, "",
+                    Collections.<String>emptyList(), Collections.<String>emptyList(), Collections.<CachedDependency>emptyList());
+        }
+
+        String getContentHash() {
+            return contentHash;
+        }
+
+        boolean isTombstone() {
+            return tombstone;
+        }
+
+        String getClassName() {
+            return className;
+        }
+
+        String getPackageName() {
+            return packageName;
+        }
+
+        List<String> getFPackages() {
+            return fPackages;
+        }
+
+        List<String> getViolations() {
+            return violations;
+        }
+
+        List<CachedDependency> getDependencies() {
+            return dependencies;
+        }
+
+        boolean dependsOnAnyOf(Set<String> classNames) {
+            for (CachedDependency dependency : dependencies) {
+                if (classNames.contains(dependency.targetClass)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private void write(DataOutputStream out) throws IOException {
+            out.writeUTF(classFile);
+            out.writeUTF(contentHash);
+            out.writeBoolean(tombstone);
+            out.writeUTF(className);
+            out.writeUTF(packageName);
+            writeStrings(fPackages, out);
+            writeStrings(violations, out);
+            out.writeInt(dependencies.size());
+            for (CachedDependency dependency : dependencies) {
+                out.writeUTF(dependency.targetClass);
+                out.writeUTF(dependency.targetPackage);
+                out.writeByte(dependency.kind.ordinal());
+                writeLongString(dependency.description, out);
+            }
+        }
+
+        private static Entry read(DataInputStream in) throws IOException {
+            String classFile = in.readUTF();
+            String contentHash = in.readUTF();
+            boolean tombstone = in.readBoolean();
+            String className = in.readUTF();
+            String packageName = in.readUTF();
+            List<String> fPackages = readStrings(in);
+            List<String> violations = readStrings(in);
+            int dependencyCount = readLength(in);
+            List<CachedDependency> dependencies = new ArrayList<>(dependencyCount);
+            for (int i = 0; i < dependencyCount; i++) {
+                dependencies.add(new CachedDependency(
+                        in.readUTF(), in.readUTF(), DependencyKind.fromOrdinal(in.readByte()), readLongString(in)));
+            }
+            return new Entry(classFile, contentHash, tombstone, className, packageName, fPackages, violations, dependencies);
+        }
+    }
+
+    static final class CachedDependency {
+        private final String targetClass;
+        private final String targetPackage;
+        private final DependencyKind kind;
+        private final String description;
+
+        CachedDependency(String targetClass, String targetPackage, DependencyKind kind, String description) {
+            this.targetClass = targetClass;
+            this.targetPackage = targetPackage;
+            this.kind = kind;
+            this.description = description;
+        }
+
+        String getTargetClass() {
+            return targetClass;
+        }
+
+        String getTargetPackage() {
+            return targetPackage;
+        }
+
+        DependencyKind getKind() {
+            return kind;
+        }
+
+        String getDescription() {
+            return description;
+        }
+    }
+
+    private static void writeStrings(List<String> strings, DataOutputStream out) throws IOException {
+        out.writeInt(strings.size());
+        for (String string : strings) {
+            writeLongString(string, out);
+        }
+    }
+
+    private static List<String> readStrings(DataInputStream in) throws IOException {
+        int size = readLength(in);
+        List<String> result = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            result.add(readLongString(in));
+        }
+        return result;
+    }
+
+    // every element of a length takes at least one byte, so no valid length exceeds the bytes left
+    private static int readLength(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0 || length > in.available()) {
+            throw new IOException("Invalid length " + length);
+        }
+        return length;
+    }
+
+    // violation messages may exceed the 64 KB limit of writeUTF
+    private static void writeLongString(String string, DataOutputStream out) throws IOException {
+        byte[] bytes = string.getBytes(UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readLongString(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[readLength(in)];
+        in.readFully(bytes);
+        return new String(bytes, UTF_8);
+    }
+
+}
@@ -0,0 +1,13 @@
+package agosu.bachelor.archunit;
+
+/**
+ * Is told about every check of a {@link CustomArchitectures.FunctionalArchitecture} once it was evaluated.
+ * <p>
+ * Checks evaluated {@link CustomArchitectures.FunctionalArchitecture#inParallel() in parallel} report from the
+ * threads they ran on, so listeners of such architectures have to be thread-safe.
+ */
+public interface EvaluationListener {
+
+    void onCheckEvaluated(CheckMetrics metrics);
+
+}
@@ -0,0 +1,244 @@
+package agosu.bachelor.archunit;
+
+import com.tngtech.archunit.base.DescribedPredicate;
+import com.tngtech.archunit.core.domain.JavaClass;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Package segment trie compiled from the FPackage definitions, groups and the system root of a functional architecture.
+ * Resolves which FPackages contain a package, and which FPackages have it as their top layer, in one lookup
+ * regardless of the number of FPackages. Resolutions are memoized per package name.
+ * <p>
+ * Only FPackages defined by plain package identifiers (e.g. {@code com.library.domain.books..}) can be indexed,
+ * FPackages defined by custom predicates have to be matched by their predicates.
+ */
+final class FPackageIndex {
+
+    private static final int[] NONE = new int[0];
+
+    private final Node root = new Node();
+    private final Map<String, Integer> ids = new LinkedHashMap<>();
+    private final Map<String, Resolution> resolutions = new ConcurrentHashMap<>();
+
+    private FPackageIndex() {}
+
+    static FPackageIndex of(String systemRoot, Collection<String> groups, Iterable<? extends AbstractFPackageDefinition> definitions) {
+        FPackageIndex index = new FPackageIndex();
+        int id = 0;
+        for (AbstractFPackageDefinition definition : definitions) {
+            if (isIndexable(definition)) {
+                index.ids.put(definition.getName(), id);
+                String[] identifiers = definition.getPackageIdentifiers();
+                for (String identifier : identifiers) {
+                    index.nodeFor(Utils.getPackageExcludingSubpackages(identifier)).containing.add(id);
+                }
+                index.nodeFor(Utils.getPackageExcludingSubpackages(identifiers[0])).topLayerOf.add(id);
+            }
+            id++;
+        }
+        for (String group : groups) {
+            index.nodeFor(group).group = true;
+        }
+        if (!systemRoot.isEmpty()) {
+            index.nodeFor(systemRoot).systemRoot = true;
+        }
+        return index;
+    }
+
+    private static boolean isIndexable(AbstractFPackageDefinition definition) {
+        String[] identifiers = definition.getPackageIdentifiers();
+        if (identifiers == null || identifiers.length == 0) {
+            return false;
+        }
+        for (String identifier : identifiers) {
+            if (!identifier.matches("[\\w$]+([.][\\w$]+)*[.][.]")) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private Node nodeFor(String packageName) {
+        Node node = root;
+        int start = 0;
+        while (start < packageName.length()) {
+            int end = segmentEnd(packageName, start);
+            node = node.children.computeIfAbsent(packageName.substring(start, end), segment -> new Node());
+            start = end + 1;
+        }
+        return node;
+    }
+
+    private static int segmentEnd(String packageName, int start) {
+        int end = packageName.indexOf('.', start);
+        return end < 0 ? packageName.length() : end;
+    }
+
+    boolean isIndexed(String fPackageName) {
+        return ids.containsKey(fPackageName);
+    }
+
+    boolean isIndexed(Collection<String> fPackageNames) {
+        for (String fPackageName : fPackageNames) {
+            if (!isIndexed(fPackageName)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return the id of the FPackage, which is its position in declaration order
+     */
+    int idOf(String fPackageName) {
+        return ids.get(fPackageName);
+    }
+
+    BitSet idsOf(Collection<String> fPackageNames) {
+        BitSet result = new BitSet();
+        for (String fPackageName : fPackageNames) {
+            result.set(idOf(fPackageName));
+        }
+        return result;
+    }
+
+    Resolution resolve(String packageName) {
+        Resolution resolution = resolutions.get(packageName);
+        if (resolution == null) {
+            resolution = lookUp(packageName);
+            resolutions.put(packageName, resolution);
+        }
+        return resolution;
+    }
+
+    private Resolution lookUp(String packageName) {
+        List<Integer> containing = new ArrayList<>(root.containing);
+        boolean insideSystemRoot = root.systemRoot;
+        Node node = root;
+        int start = 0;
+        while (node != null && start < packageName.length()) {
+            int end = segmentEnd(packageName, start);
+            node = node.children.get(packageName.substring(start, end));
+            if (node != null) {
+                containing.addAll(node.containing);
+                insideSystemRoot = insideSystemRoot || node.systemRoot;
+            }
+            start = end + 1;
+        }
+        return node == null ?
+                new Resolution(toArray(containing), NONE, false, insideSystemRoot) :
+                new Resolution(toArray(containing), toArray(node.topLayerOf), node.group, insideSystemRoot);
+    }
+
+    private static int[] toArray(List<Integer> ids) {
+        if (ids.isEmpty()) {
+            return NONE;
+        }
+        int[] result = new int[ids.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = ids.get(i);
+        }
+        return result;
+    }
+
+    /**
+     * @return a predicate matching classes in any of the given FPackages, which must all be indexed
+     */
+    DescribedPredicate<JavaClass> containedInAny(Collection<String> fPackageNames, String description) {
+        final BitSet wanted = idsOf(fPackageNames);
+        return new DescribedPredicate<JavaClass>(description) {
+            @Override
+            public boolean apply(JavaClass javaClass) {
+                return resolve(javaClass.getPackageName()).isContainedInAny(wanted);
+            }
+        };
+    }
+
+    /**
+     * @return a predicate matching classes in the top layer of any of the given FPackages, which must all be indexed
+     */
+    DescribedPredicate<JavaClass> inTopLayerOfAny(Collection<String> fPackageNames, String description) {
+        final BitSet wanted = idsOf(fPackageNames);
+        return new DescribedPredicate<JavaClass>(description) {
+            @Override
+            public boolean apply(JavaClass javaClass) {
+                return resolve(javaClass.getPackageName()).isInTopLayerOfAny(wanted);
+            }
+        };
+    }
+
+    static final class Resolution {
+        private final int[] containing;
+        private final int[] topLayerOf;
+        private final boolean group;
+        private final boolean insideSystemRoot;
+
+        private Resolution(int[] containing, int[] topLayerOf, boolean group, boolean insideSystemRoot) {
+            this.containing = containing;
+            this.topLayerOf = topLayerOf;
+            this.group = group;
+            this.insideSystemRoot = insideSystemRoot;
+        }
+
+        /**
+         * @return the ids of all indexed FPackages containing the package
+         */
+        int[] getContaining() {
+            return containing;
+        }
+
+        boolean isContainedIn(int id) {
+            for (int candidate : containing) {
+                if (candidate == id) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        boolean isContainedInAny(BitSet ids) {
+            return intersects(containing, ids);
+        }
+
+        boolean isInTopLayerOfAny(BitSet ids) {
+            return intersects(topLayerOf, ids);
+        }
+
+        /**
+         * @return whether the package is exactly a group package
+         */
+        boolean isGroup() {
+            return group;
+        }
+
+        boolean isInsideSystemRoot() {
+            return insideSystemRoot;
+        }
+
+        private static boolean intersects(int[] candidates, BitSet ids) {
+            for (int candidate : candidates) {
+                if (ids.get(candidate)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    private static final class Node {
+        private final Map<String, Node> children = new HashMap<>();
+        private final List<Integer> containing = new ArrayList<>();
+        private final List<Integer> topLayerOf = new ArrayList<>();
+        private boolean group;
+        private boolean systemRoot;
+    }
+
+}
@@ -0,0 +1,42 @@
+package agosu.bachelor.archunit;
+
+/**
+ * A rule on the {@link DependencyKind kinds} of the dependencies an FPackage may have on another FPackage, e.g. that
+ * it may implement the interfaces of the other FPackage but not call its methods.
+ */
+final class FPackageKindRestriction {
+
+    private final String fPackageName;
+    private final String targetFPackageName;
+    private final int forbiddenKinds;
+    private final String descriptionSuffix;
+
+    /**
+     * @param forbiddenKinds the {@link DependencyKind#flag() flags} of the kinds the FPackage may not depend on the
+     *                       target FPackage by
+     */
+    FPackageKindRestriction(String fPackageName, String targetFPackageName, int forbiddenKinds, String descriptionSuffix) {
+        this.fPackageName = fPackageName;
+        this.targetFPackageName = targetFPackageName;
+        this.forbiddenKinds = forbiddenKinds;
+        this.descriptionSuffix = descriptionSuffix;
+    }
+
+    String getFPackageName() {
+        return fPackageName;
+    }
+
+    String getTargetFPackageName() {
+        return targetFPackageName;
+    }
+
+    int getForbiddenKinds() {
+        return forbiddenKinds;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("where FPackage '%s' %s", fPackageName, descriptionSuffix);
+    }
+
+}
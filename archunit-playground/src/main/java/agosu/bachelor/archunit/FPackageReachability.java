@@ -0,0 +1,204 @@
+package agosu.bachelor.archunit;
+
+import com.tngtech.archunit.base.DescribedPredicate;
+import com.tngtech.archunit.core.domain.Dependency;
+import com.tngtech.archunit.lang.ConditionEvents;
+import com.tngtech.archunit.lang.SimpleConditionEvent;
+
+import java.util.*;
+
+import static java.lang.String.format;
+import static java.lang.System.lineSeparator;
+
+/**
+ * Which FPackages reach which other FPackages through chains of class dependencies, found on the {@link DependencyGraph}
+ * of an evaluation.
+ * <p>
+ * The class edges are aggregated into the edges between FPackages once, and the transitive closure of these is
+ * computed on one bit set per FPackage, so the cost depends on the number of FPackages rather than on the number of
+ * classes. Every violation is reported with one shortest path and the class dependencies behind its edges.
+ */
+final class FPackageReachability {
+
+    private static final int NONE = -1;
+
+    private final DependencyGraph graph;
+    private final List<String> fPackageNames;
+    private final Map<String, Integer> fPackageIds = new HashMap<>();
+    private final int[] fPackageOfClass;
+    private final BitSet[] successors;
+    private final BitSet[] reachable;
+
+    private FPackageReachability(DependencyGraph graph, List<String> fPackageNames, int[] fPackageOfClass, BitSet[] successors) {
+        this.graph = graph;
+        this.fPackageNames = fPackageNames;
+        for (String fPackageName : fPackageNames) {
+            fPackageIds.put(fPackageName, fPackageIds.size());
+        }
+        this.fPackageOfClass = fPackageOfClass;
+        this.successors = successors;
+        this.reachable = closure(successors);
+    }
+
+    /**
+     * @param fPackageOfClass the FPackage of every class, by class id, or {@code null} for classes in no FPackage
+     * @param fPackageNames the names of all FPackages
+     * @param irrelevantDependencies dependencies that do not connect FPackages, or {@code null} if all do
+     */
+    static FPackageReachability of(DependencyGraph graph, String[] fPackageOfClass, List<String> fPackageNames,
+                                   DescribedPredicate<Dependency> irrelevantDependencies) {
+        Map<String, Integer> ids = new HashMap<>();
+        for (String fPackageName : fPackageNames) {
+            ids.put(fPackageName, ids.size());
+        }
+        int[] fPackageIds = new int[graph.getClassCount()];
+        for (int clazz = 0; clazz < fPackageIds.length; clazz++) {
+            fPackageIds[clazz] = fPackageOfClass[clazz] == null ? NONE : ids.get(fPackageOfClass[clazz]);
+        }
+
+        BitSet[] successors = new BitSet[fPackageNames.size()];
+        for (int fPackage = 0; fPackage < successors.length; fPackage++) {
+            successors[fPackage] = new BitSet(successors.length);
+        }
+        DependencyGraph.Resolver dependencies = graph.newResolver();
+        for (int clazz = 0; clazz < fPackageIds.length; clazz++) {
+            int origin = fPackageIds[clazz];
+            if (origin == NONE) {
+                continue;
+            }
+            for (int edge = graph.getFirstEdge(clazz); edge < graph.getEdgeEnd(clazz); edge++) {
+                int target = fPackageIds[graph.getEdgeTarget(edge)];
+                if (target != NONE && target != origin && !successors[origin].get(target)
+                        && isRelevant(graph, dependencies, edge, irrelevantDependencies)) {
+                    successors[origin].set(target);
+                }
+            }
+        }
+        return new FPackageReachability(graph, fPackageNames, fPackageIds, successors);
+    }
+
+    // an edge of an imported graph connects the FPackages if any of its dependencies is relevant
+    static boolean isRelevant(DependencyGraph graph, DependencyGraph.Resolver dependencies, int edge,
+                              DescribedPredicate<Dependency> irrelevantDependencies) {
+        if (irrelevantDependencies == null) {
+            return true;
+        }
+        for (int dependency = graph.getFirstDependency(edge); dependency < graph.getDependencyEnd(edge); dependency++) {
+            Dependency javaDependency = dependencies.getDependency(dependency);
+            if (javaDependency == null || !irrelevantDependencies.apply(javaDependency)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Warshall's algorithm, with the reachable FPackages of every FPackage as a bit set
+    private static BitSet[] closure(BitSet[] successors) {
+        BitSet[] result = new BitSet[successors.length];
+        for (int fPackage = 0; fPackage < successors.length; fPackage++) {
+            result[fPackage] = (BitSet) successors[fPackage].clone();
+        }
+        for (int via = 0; via < result.length; via++) {
+            for (int fPackage = 0; fPackage < result.length; fPackage++) {
+                if (result[fPackage].get(via)) {
+                    result[fPackage].or(result[via]);
+                }
+            }
+        }
+        return result;
+    }
+
+    ConditionEvents check(List<TransitiveFPackageAccess> rules) {
+        List<int[]> violations = new ArrayList<>();
+        for (TransitiveFPackageAccess rule : rules) {
+            int fPackage = fPackageIds.get(rule.getFPackageName());
+            BitSet named = new BitSet(fPackageNames.size());
+            for (String fPackageName : rule.getFPackageNames()) {
+                named.set(fPackageIds.get(fPackageName));
+            }
+            if (rule.getConstraint() == FPackageDependencyConstraint.TARGET) {
+                BitSet forbidden = (BitSet) reachable[fPackage].clone();
+                forbidden.and(named);
+                for (int target = forbidden.nextSetBit(0); target >= 0; target = forbidden.nextSetBit(target + 1)) {
+                    violations.add(new int[]{fPackage, target});
+                }
+            } else {
+                for (int origin = 0; origin < reachable.length; origin++) {
+                    if (origin != fPackage && !named.get(origin) && reachable[origin].get(fPackage)) {
+                        violations.add(new int[]{origin, fPackage});
+                    }
+                }
+            }
+        }
+
+        List<int[]> paths = new ArrayList<>();
+        Map<Long, CycleDetector.EdgeDependencies> dependenciesOfPathEdges = new HashMap<>();
+        for (int[] violation : violations) {
+            int[] path = shortestPath(violation[0], violation[1]);
+            paths.add(path);
+            for (int i = 0; i + 1 < path.length; i++) {
+                dependenciesOfPathEdges.put(CycleDetector.key(path[i], path[i + 1]), new CycleDetector.EdgeDependencies());
+            }
+        }
+        CycleDetector.collectDependencies(graph, fPackageOfClass, dependenciesOfPathEdges);
+
+        ConditionEvents events = new ConditionEvents();
+        for (int i = 0; i < violations.size(); i++) {
+            events.add(SimpleConditionEvent.violated(graph, describe(violations.get(i), paths.get(i), dependenciesOfPathEdges)));
+        }
+        return events;
+    }
+
+    // breadth first on the edges between the FPackages
+    private int[] shortestPath(int origin, int target) {
+        int[] predecessors = new int[successors.length];
+        Arrays.fill(predecessors, NONE);
+        Deque<Integer> queue = new ArrayDeque<>();
+        queue.add(origin);
+        while (!queue.isEmpty()) {
+            int fPackage = queue.poll();
+            BitSet next = successors[fPackage];
+            for (int successor = next.nextSetBit(0); successor >= 0; successor = next.nextSetBit(successor + 1)) {
+                if (successor == origin || predecessors[successor] != NONE) {
+                    continue;
+                }
+                predecessors[successor] = fPackage;
+                if (successor == target) {
+                    return pathTo(target, origin, predecessors);
+                }
+                queue.add(successor);
+            }
+        }
+        throw new IllegalStateException(format("FPackage '%s' does not reach FPackage '%s'",
+                fPackageNames.get(origin), fPackageNames.get(target)));
+    }
+
+    private static int[] pathTo(int target, int origin, int[] predecessors) {
+        List<Integer> reversed = new ArrayList<>();
+        for (int fPackage = target; fPackage != origin; fPackage = predecessors[fPackage]) {
+            reversed.add(fPackage);
+        }
+        reversed.add(origin);
+        int[] result = new int[reversed.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = reversed.get(result.length - 1 - i);
+        }
+        return result;
+    }
+
+    private String describe(int[] violation, int[] path, Map<Long, CycleDetector.EdgeDependencies> dependenciesOfEdges) {
+        List<String> names = new ArrayList<>();
+        for (int fPackage : path) {
+            names.add(fPackageNames.get(fPackage));
+        }
+        StringBuilder result = new StringBuilder(format("FPackage '%s' transitively accesses FPackage '%s' via %s",
+                fPackageNames.get(violation[0]), fPackageNames.get(violation[1]), String.join(" -> ", names)));
+        for (int i = 0; i + 1 < path.length; i++) {
+            result.append(lineSeparator())
+                    .append(format("  Dependencies of %s on %s:", names.get(i), names.get(i + 1)));
+            dependenciesOfEdges.get(CycleDetector.key(path[i], path[i + 1])).appendTo(result);
+        }
+        return result.toString();
+    }
+
+}
@@ -6,7 +6,8 @@ import com.tngtech.archunit.lang.ConditionEvents;
 
 import static com.tngtech.archunit.lang.SimpleConditionEvent.violated;
 
-public class FPackageShouldNotBeEmptyCondition extends ArchCondition<JavaClass> {
+public class FPackageShouldNotBeEmptyCondition extends ArchCondition<JavaClass>
+        implements MergeableCondition<FPackageShouldNotBeEmptyCondition> {
 
     private final CustomArchitectures.FunctionalArchitecture.FPackageDefinition fPackageDefinition;
     private boolean empty = true;
@@ -21,6 +22,11 @@ public class FPackageShouldNotBeEmptyCondition extends ArchCondition<JavaClass>
         empty = false;
     }
 
+    @Override
+    public void merge(FPackageShouldNotBeEmptyCondition other) {
+        empty = empty && other.empty;
+    }
+
     @Override
     public void finish(ConditionEvents events) {
         if (empty) {
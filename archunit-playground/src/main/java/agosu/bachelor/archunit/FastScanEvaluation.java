@@ -0,0 +1,219 @@
+package agosu.bachelor.archunit;
+
+import com.google.common.base.Joiner;
+import com.tngtech.archunit.base.PackageMatchers;
+import com.tngtech.archunit.lang.ConditionEvent;
+import com.tngtech.archunit.lang.ConditionEvents;
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.Set;
+
+import static agosu.bachelor.archunit.CustomConditions.*;
+import static agosu.bachelor.archunit.CustomPredicates.isDirectRootChild;
+import static agosu.bachelor.archunit.Utils.getPackageExcludingSubpackages;
+import static com.tngtech.archunit.lang.SimpleConditionEvent.violated;
+
+/**
+ * Evaluates the checks of a {@link CustomArchitectures.FunctionalArchitecture} on a {@link DependencyGraph} built by
+ * the {@link ClassFileScanner}, which knows the packages of the classes and the classes they depend on, but has no
+ * ArchUnit classes. Every check is decided on package names and int ids, so all FPackages have to be indexed.
+ * <p>
+ * Violations are reported with the same messages as the {@link SinglePassEvaluation} reports them, except that
+ * dependencies are described by the scan. Empty FPackages are reported as violations, like an incremental evaluation
+ * reports them.
+ */
+final class FastScanEvaluation {
+
+    private final List<String> fPackageNames;
+    private final FPackageIndex index;
+    private final List<SinglePassEvaluation.FPackageAccess> accesses;
+    private final String systemRoot;
+    private final Set<String> groups;
+    private final List<String> fPackagePackages;
+    private final DependencyDirection dependencyDirection;
+    private final CycleDetector cycleDetector;
+
+    /**
+     * @param accesses for every FPackage, the access its classes are restricted to, or {@code null} if not checked
+     * @param fPackagePackages the packages every class has to be in, if not in a group, or {@code null} if not checked
+     */
+    FastScanEvaluation(List<String> fPackageNames, FPackageIndex index, List<SinglePassEvaluation.FPackageAccess> accesses,
+                       String systemRoot, Set<String> groups, List<String> fPackagePackages,
+                       DependencyDirection dependencyDirection, CycleDetector cycleDetector) {
+        this.fPackageNames = fPackageNames;
+        this.index = index;
+        this.accesses = accesses;
+        this.systemRoot = systemRoot;
+        this.groups = groups;
+        this.fPackagePackages = fPackagePackages;
+        this.dependencyDirection = dependencyDirection;
+        this.cycleDetector = cycleDetector;
+    }
+
+    ConditionEvents evaluate(DependencyGraph graph) {
+        ConditionEvents events = new ConditionEvents();
+        FPackageIndex.Resolution[] resolutions = new FPackageIndex.Resolution[graph.getPackageCount()];
+        int[] ownParentPackages = new int[accesses.size()];
+        for (int i = 0; i < accesses.size(); i++) {
+            ownParentPackages[i] = accesses.get(i) == null ? DependencyGraph.NO_PACKAGE : graph.getPackageId(accesses.get(i).getOwnParentPackage());
+        }
+        PackageMatchers groupMatchers = PackageMatchers.of(groups);
+        BitSet checkedPackages = new BitSet();
+        BitSet nonEmpty = new BitSet();
+
+        for (int clazz = 0; clazz < graph.getClassCount(); clazz++) {
+            if (!graph.isImported(clazz)) {
+                continue;
+            }
+            int thePackage = graph.getPackageOf(clazz);
+            if (fPackagePackages != null && !checkedPackages.get(thePackage)) {
+                checkMembership(graph, clazz, groupMatchers, events);
+            }
+            checkedPackages.set(thePackage);
+
+            for (int fPackage : resolutionOf(graph, thePackage, resolutions).getContaining()) {
+                nonEmpty.set(fPackage);
+                SinglePassEvaluation.FPackageAccess access = accesses.get(fPackage);
+                if (access != null) {
+                    checkAccess(graph, clazz, fPackage, access.getAllowedTopLayers(), ownParentPackages[fPackage], resolutions, events);
+                }
+            }
+
+            switch (dependencyDirection) {
+                case UP:
+                    checkDirection(graph, clazz, true, DEPENDS_ON_SUBPACKAGES, events);
+                    break;
+                case DOWN:
+                    checkDirection(graph, clazz, false, DEPENDS_ON_ANCESTOR_PACKAGES, events);
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        for (int fPackage = 0; fPackage < fPackageNames.size(); fPackage++) {
+            if (!nonEmpty.get(fPackage)) {
+                String name = fPackageNames.get(fPackage);
+                events.add(violated(name, String.format("FPackage '%s' is empty", name)));
+            }
+        }
+        checkLayers(graph, checkedPackages, events);
+        for (ConditionEvent event : cycleDetector.detect(graph)) {
+            events.add(event);
+        }
+        return events;
+    }
+
+    private FPackageIndex.Resolution resolutionOf(DependencyGraph graph, int thePackage, FPackageIndex.Resolution[] resolutions) {
+        if (resolutions[thePackage] == null) {
+            resolutions[thePackage] = index.resolve(graph.getPackageName(thePackage));
+        }
+        return resolutions[thePackage];
+    }
+
+    // whether a class is a member only depends on its package, so only the first class of every package is checked
+    private void checkMembership(DependencyGraph graph, int clazz, PackageMatchers groupMatchers, ConditionEvents events) {
+        String packageName = graph.getPackageName(graph.getPackageOf(clazz));
+        if (groupMatchers.apply(packageName)) {
+            return;
+        }
+        for (String fPackagePackage : fPackagePackages) {
+            if (packageName.contains(getPackageExcludingSubpackages(fPackagePackage))) {
+                return;
+            }
+        }
+        String className = graph.getClassName(clazz);
+        events.add(violated(className, String.format("Class <%s> does not reside in any package ['%s'] in (%s:0) and is not in any FPackage",
+                className, Joiner.on("', '").join(groups), sourceFileOf(graph, clazz))));
+    }
+
+    private static String sourceFileOf(DependencyGraph graph, int clazz) {
+        if (graph.getFirstEdge(clazz) < graph.getEdgeEnd(clazz)) {
+            String sourceFile = graph.getDependencySourceFile(graph.getFirstDependency(graph.getFirstEdge(clazz)));
+            if (sourceFile != null) {
+                return sourceFile;
+            }
+        }
+        String simpleName = graph.getClassName(clazz).substring(graph.getClassName(clazz).lastIndexOf('.') + 1);
+        int dollar = simpleName.indexOf('$');
+        return (dollar > 0 ? simpleName.substring(0, dollar) : simpleName) + ".java";
+    }
+
+    private void checkAccess(DependencyGraph graph, int clazz, int fPackage, BitSet allowedTopLayers, int ownParentPackage,
+                             FPackageIndex.Resolution[] resolutions, ConditionEvents events) {
+        for (int edge = graph.getFirstEdge(clazz); edge < graph.getEdgeEnd(clazz); edge++) {
+            int targetPackage = graph.getPackageOf(graph.getEdgeTarget(edge));
+            FPackageIndex.Resolution target = resolutionOf(graph, targetPackage, resolutions);
+            boolean allowed = target.isInTopLayerOfAny(allowedTopLayers)
+                    || target.isContainedIn(fPackage)
+                    || targetPackage == ownParentPackage
+                    || target.isGroup();
+            if (!allowed) {
+                for (int i = graph.getFirstDependency(edge); i < graph.getDependencyEnd(edge); i++) {
+                    events.add(violated(graph.getClassName(clazz), graph.getDependencyDescription(i)));
+                }
+            }
+        }
+    }
+
+    // reports every offending dependency up to the maximum per class, like the conditions of CustomConditions
+    private static void checkDirection(DependencyGraph graph, int clazz, boolean subpackages, String violation, ConditionEvents events) {
+        int thePackage = graph.getPackageOf(clazz);
+        if (subpackages && graph.getPackageName(thePackage).isEmpty()) {
+            return;
+        }
+        String className = graph.getClassName(clazz);
+        int count = 0;
+        for (int edge = graph.getFirstEdge(clazz); edge < graph.getEdgeEnd(clazz); edge++) {
+            int target = graph.getEdgeTarget(edge);
+            if (!(subpackages ? isSubpackage(graph, graph.getPackageOf(target), thePackage) : isAncestor(graph, graph.getPackageOf(target), thePackage))) {
+                continue;
+            }
+            for (int i = graph.getFirstDependency(edge); i < graph.getDependencyEnd(edge); i++) {
+                if (count++ < OffendingDependencies.MAX_REPORTED_PER_CLASS) {
+                    events.add(violated(className, String.format("Class %s %s: <%s> in (%s:%d)", className, violation,
+                            graph.getClassName(target), graph.getDependencySourceFile(i), graph.getDependencyLineNumber(i))));
+                }
+            }
+        }
+        if (count > OffendingDependencies.MAX_REPORTED_PER_CLASS) {
+            events.add(violated(className, String.format("Class %s %s: %d more dependencies not reported",
+                    className, violation, count - OffendingDependencies.MAX_REPORTED_PER_CLASS)));
+        }
+    }
+
+    private static boolean isSubpackage(DependencyGraph graph, int candidate, int thePackage) {
+        return graph.getParentPackage(candidate) == thePackage;
+    }
+
+    private static boolean isAncestor(DependencyGraph graph, int candidate, int thePackage) {
+        for (int ancestor = graph.getParentPackage(thePackage);
+             ancestor != DependencyGraph.NO_PACKAGE && !graph.getPackageName(ancestor).isEmpty();
+             ancestor = graph.getParentPackage(ancestor)) {
+            if (ancestor == candidate) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // the packages of the scanned classes and all their ancestors are candidates, like in an incremental evaluation
+    private void checkLayers(DependencyGraph graph, BitSet packagesOfClasses, ConditionEvents events) {
+        BitSet packages = new BitSet();
+        for (int thePackage = packagesOfClasses.nextSetBit(0); thePackage >= 0; thePackage = packagesOfClasses.nextSetBit(thePackage + 1)) {
+            for (int ancestor = thePackage;
+                 ancestor != DependencyGraph.NO_PACKAGE && !graph.getPackageName(ancestor).isEmpty() && !packages.get(ancestor);
+                 ancestor = graph.getParentPackage(ancestor)) {
+                packages.set(ancestor);
+            }
+        }
+        for (int thePackage = packages.nextSetBit(0); thePackage >= 0; thePackage = packages.nextSetBit(thePackage + 1)) {
+            String packageName = graph.getPackageName(thePackage);
+            if (isDirectRootChild(packageName, systemRoot) && isLayer(packageName.substring(packageName.lastIndexOf('.') + 1))) {
+                events.add(isLayerViolation(packageName, packageName));
+            }
+        }
+    }
+
+}
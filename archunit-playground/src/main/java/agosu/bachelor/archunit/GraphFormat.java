@@ -0,0 +1,12 @@
+package agosu.bachelor.archunit;
+
+/**
+ * The formats an {@link ArchitectureGraph} can be written in.
+ */
+public enum GraphFormat {
+
+    DOT,
+    GRAPHML,
+    JSON
+
+}
@@ -0,0 +1,248 @@
+package agosu.bachelor.archunit;
+
+import com.tngtech.archunit.core.domain.Dependency;
+import com.tngtech.archunit.core.domain.JavaClass;
+import com.tngtech.archunit.core.domain.JavaClasses;
+import com.tngtech.archunit.core.importer.ClassFileImporter;
+import com.tngtech.archunit.lang.ConditionEvent;
+import com.tngtech.archunit.lang.ConditionEvents;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import static agosu.bachelor.archunit.CustomConditions.isLayer;
+import static agosu.bachelor.archunit.CustomConditions.isLayerViolation;
+import static agosu.bachelor.archunit.CustomPredicates.isDirectRootChild;
+import static com.tngtech.archunit.lang.SimpleConditionEvent.violated;
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Evaluates class directories against an {@link EvaluationCache}. Only the class files that changed since the cache
+ * was written, and the cached classes that depend on classes of changed or removed files, are imported and checked.
+ * The checks on all classes together (empty FPackages, layers and cycles) are evaluated on the cached facts.
+ */
+final class IncrementalEvaluation {
+
+    private static final String CLASS_FILE_EXTENSION = ".class";
+
+    private final String fingerprint;
+    private final Supplier<SinglePassEvaluation> classChecks;
+    private final List<String> fPackageNames;
+    private final String systemRoot;
+    private final Function<DependencyGraph, ConditionEvents> graphChecks;
+    private final CycleDetector cycleDetector;
+
+    /**
+     * @param classChecks creates the single pass evaluation checking the imported classes
+     * @param graphChecks checks the FPackage edges of the dependency graph of all classes, built from the cached facts
+     */
+    IncrementalEvaluation(String fingerprint, Supplier<SinglePassEvaluation> classChecks, List<String> fPackageNames,
+                          String systemRoot, Function<DependencyGraph, ConditionEvents> graphChecks, CycleDetector cycleDetector) {
+        this.fingerprint = fingerprint;
+        this.classChecks = classChecks;
+        this.fPackageNames = fPackageNames;
+        this.systemRoot = systemRoot;
+        this.graphChecks = graphChecks;
+        this.cycleDetector = cycleDetector;
+    }
+
+    ConditionEvents evaluate(Path cacheFile, List<Path> classDirectories) throws IOException {
+        EvaluationCache cache = EvaluationCache.read(cacheFile, fingerprint);
+        update(cache, classFilesIn(classDirectories));
+        cache.write(cacheFile);
+        return evaluate(cache);
+    }
+
+    /**
+     * @return a cache for this evaluation that is kept in memory only
+     */
+    EvaluationCache emptyCache() {
+        return new EvaluationCache(fingerprint);
+    }
+
+    /**
+     * Checks the class files that changed since the cache was updated, and the cached classes depending on classes of
+     * changed or removed files, and updates the cache with their facts.
+     *
+     * @param classFiles all class files to be evaluated, by their {@link ClassFile#getKey() key}
+     * @return whether any class was checked or removed from the cache
+     */
+    boolean update(EvaluationCache cache, Map<String, ClassFile> classFiles) {
+        Set<String> changedClasses = new HashSet<>();
+        Set<String> affectedClassFiles = new TreeSet<>();
+        for (ClassFile classFile : classFiles.values()) {
+            EvaluationCache.Entry entry = cache.get(classFile.key);
+            if (entry == null || !entry.getContentHash().equals(classFile.contentHash)) {
+                changedClasses.add(classFile.className);
+                affectedClassFiles.add(classFile.key);
+            }
+        }
+        for (String removed : new ArrayList<>(cache.classFiles())) {
+            if (!classFiles.containsKey(removed)) {
+                changedClasses.add(cache.get(removed).getClassName());
+                cache.remove(removed);
+            }
+        }
+        for (EvaluationCache.Entry entry : cache.entries()) {
+            if (entry.dependsOnAnyOf(changedClasses)) {
+                affectedClassFiles.add(entry.getClassFile());
+            }
+        }
+
+        if (!affectedClassFiles.isEmpty()) {
+            check(affectedClassFiles, classFiles, cache);
+        }
+        return !changedClasses.isEmpty();
+    }
+
+    /**
+     * Evaluates the cached facts: the violations of the class based checks, and the checks on all classes together.
+     */
+    ConditionEvents evaluate(EvaluationCache cache) {
+        ConditionEvents events = new ConditionEvents();
+        Set<String> nonEmptyFPackages = new HashSet<>();
+        for (EvaluationCache.Entry entry : cache.entries()) {
+            for (String violation : entry.getViolations()) {
+                events.add(violated(entry.getClassName(), violation));
+            }
+            nonEmptyFPackages.addAll(entry.getFPackages());
+        }
+        for (String fPackageName : fPackageNames) {
+            if (!nonEmptyFPackages.contains(fPackageName)) {
+                events.add(violated(fPackageName, String.format("FPackage '%s' is empty", fPackageName)));
+            }
+        }
+        checkLayers(cache, events);
+        DependencyGraph graph = graphOf(cache);
+        for (ConditionEvent event : graphChecks.apply(graph)) {
+            events.add(event);
+        }
+        for (ConditionEvent event : cycleDetector.detect(graph)) {
+            events.add(event);
+        }
+        return events;
+    }
+
+    private void check(Set<String> affectedClassFiles, Map<String, ClassFile> classFiles, EvaluationCache cache) {
+        Map<String, ClassFile> byClassName = new HashMap<>();
+        List<Path> paths = new ArrayList<>();
+        for (String key : affectedClassFiles) {
+            ClassFile classFile = classFiles.get(key);
+            byClassName.put(classFile.className, classFile);
+            paths.add(classFile.path);
+        }
+        JavaClasses classes = new ClassFileImporter().importPaths(paths);
+        Map<String, SinglePassEvaluation.ClassEvaluation> evaluations = classChecks.get().evaluateClasses(classes);
+
+        for (JavaClass clazz : classes) {
+            ClassFile classFile = byClassName.remove(clazz.getName());
+            if (classFile == null) {
+                continue;
+            }
+            SinglePassEvaluation.ClassEvaluation evaluation = evaluations.get(clazz.getName());
+            List<String> violations = new ArrayList<>();
+            for (ConditionEvent event : evaluation.getEvents().getViolating()) {
+                violations.addAll(event.getDescriptionLines());
+            }
+            List<String> fPackages = new ArrayList<>();
+            for (int fPackage : evaluation.getFPackages()) {
+                fPackages.add(fPackageNames.get(fPackage));
+            }
+            List<EvaluationCache.CachedDependency> dependencies = new ArrayList<>();
+            Map<String, DependencyKind> accessKinds = DependencyKind.accessKindsOf(clazz);
+            for (Dependency dependency : clazz.getDirectDependenciesFromSelf()) {
+                dependencies.add(new EvaluationCache.CachedDependency(
+                        dependency.getTargetClass().getName(),
+                        dependency.getTargetClass().getPackageName(),
+                        DependencyKind.of(dependency, accessKinds),
+                        dependency.getDescription()));
+            }
+            cache.put(new EvaluationCache.Entry(classFile.key, classFile.contentHash, clazz.getName(), clazz.getPackageName(),
+                    fPackages, violations, dependencies));
+        }
+        // e.g. corrupt class files, or files whose class is named differently; checked again only once they change
+        for (ClassFile notImported : byClassName.values()) {
+            cache.put(EvaluationCache.Entry.tombstone(notImported.key, notImported.contentHash, notImported.className));
+        }
+    }
+
+    private void checkLayers(EvaluationCache cache, ConditionEvents events) {
+        Set<String> packages = new TreeSet<>();
+        for (EvaluationCache.Entry entry : cache.entries()) {
+            String thePackage = entry.getPackageName();
+            while (!thePackage.isEmpty() && packages.add(thePackage)) {
+                thePackage = thePackage.substring(0, Math.max(0, thePackage.lastIndexOf('.')));
+            }
+        }
+        for (String thePackage : packages) {
+            String relativeName = thePackage.substring(thePackage.lastIndexOf('.') + 1);
+            if (isDirectRootChild(thePackage, systemRoot) && isLayer(relativeName)) {
+                events.add(isLayerViolation(thePackage, thePackage));
+            }
+        }
+    }
+
+    private static DependencyGraph graphOf(EvaluationCache cache) {
+        DependencyGraph.Builder builder = new DependencyGraph.Builder();
+        for (EvaluationCache.Entry entry : cache.entries()) {
+            builder.markImported(builder.addClass(entry.getClassName(), entry.getPackageName()));
+        }
+        for (EvaluationCache.Entry entry : cache.entries()) {
+            int origin = builder.classIdOf(entry.getClassName());
+            for (EvaluationCache.CachedDependency dependency : entry.getDependencies()) {
+                int target = builder.addClass(dependency.getTargetClass(), dependency.getTargetPackage());
+                builder.addDependency(origin, target, dependency.getKind(), dependency.getDescription());
+            }
+        }
+        return builder.build();
+    }
+
+    static Map<String, ClassFile> classFilesIn(List<Path> classDirectories) throws IOException {
+        Map<String, ClassFile> result = new TreeMap<>();
+        for (Path directory : classDirectories) {
+            Path root = directory.toAbsolutePath().normalize();
+            for (Path file : classFilesBelow(root)) {
+                ClassFile classFile = new ClassFile(root, file);
+                result.put(classFile.key, classFile);
+            }
+        }
+        return result;
+    }
+
+    static List<Path> classFilesBelow(Path directory) throws IOException {
+        try (Stream<Path> walk = Files.walk(directory)) {
+            return walk.filter(IncrementalEvaluation::isClassFile).collect(toList());
+        }
+    }
+
+    static boolean isClassFile(Path file) {
+        return file.toString().endsWith(CLASS_FILE_EXTENSION) && Files.isRegularFile(file);
+    }
+
+    static final class ClassFile {
+        private final Path path;
+        private final String key;
+        private final String className;
+        private final String contentHash;
+
+        ClassFile(Path root, Path path) throws IOException {
+            this.path = path;
+            this.key = path.toString();
+            String relativePath = root.relativize(path).toString();
+            this.className = relativePath
+                    .substring(0, relativePath.length() - CLASS_FILE_EXTENSION.length())
+                    .replace(path.getFileSystem().getSeparator(), ".");
+            this.contentHash = EvaluationCache.hash(Files.readAllBytes(path));
+        }
+
+        String getKey() {
+            return key;
+        }
+    }
+
+}
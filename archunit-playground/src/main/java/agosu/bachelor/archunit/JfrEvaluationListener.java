@@ -0,0 +1,67 @@
+package agosu.bachelor.archunit;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * Commits a Java Flight Recorder event for every evaluated check, so the metrics of the checks show up in a recording
+ * next to the allocations and threads of the evaluation. Events are only created while a recording enables them.
+ * <p>
+ * Needs Java 11: the listener is compiled for it by the {@code jfr} profile, while the rest of the library stays on
+ * Java 8.
+ */
+public final class JfrEvaluationListener implements EvaluationListener {
+
+    @Override
+    public void onCheckEvaluated(CheckMetrics metrics) {
+        CheckEvent event = new CheckEvent();
+        if (!event.shouldCommit()) {
+            return;
+        }
+        event.kind = metrics.getKind().name();
+        event.check = metrics.getDescription();
+        event.fPackage = metrics.getFPackageName();
+        event.wallTime = metrics.getWallTimeNanos();
+        event.classesVisited = metrics.getClassesVisited();
+        event.dependenciesExamined = metrics.getDependenciesExamined();
+        event.predicateEvaluations = metrics.getPredicateEvaluations();
+        event.violations = metrics.getViolations();
+        event.commit();
+    }
+
+    @Name("agosu.bachelor.archunit.Check")
+    @Label("Architecture Check")
+    @Category({"ArchUnit", "Functional Architecture"})
+    @Description("One check of a functional architecture evaluation")
+    static final class CheckEvent extends Event {
+        @Label("Kind")
+        String kind;
+
+        @Label("Check")
+        String check;
+
+        @Label("FPackage")
+        String fPackage;
+
+        @Label("Wall Time")
+        @Timespan(Timespan.NANOSECONDS)
+        long wallTime;
+
+        @Label("Classes Visited")
+        long classesVisited;
+
+        @Label("Dependencies Examined")
+        long dependenciesExamined;
+
+        @Label("Predicate Evaluations")
+        long predicateEvaluations;
+
+        @Label("Violations")
+        int violations;
+    }
+
+}
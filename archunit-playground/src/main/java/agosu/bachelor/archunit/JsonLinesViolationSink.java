@@ -0,0 +1,115 @@
+package agosu.bachelor.archunit;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Writes every violation as one JSON object per line, with the fields of the {@link Violation} and its message.
+ * Absent fields are written as {@code null}.
+ */
+public final class JsonLinesViolationSink implements ViolationSink {
+
+    private final Writer writer;
+
+    /**
+     * Creates the file, or replaces it if it exists.
+     */
+    public JsonLinesViolationSink(Path file) {
+        checkNotNull(file, "Supplied file must not be null");
+        try {
+            this.writer = Files.newBufferedWriter(file, UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Writes to the given writer, which the sink closes when it is closed.
+     */
+    public JsonLinesViolationSink(Writer writer) {
+        checkNotNull(writer, "Supplied writer must not be null");
+        this.writer = writer instanceof BufferedWriter ? writer : new BufferedWriter(writer);
+    }
+
+    @Override
+    public void accept(Violation violation) {
+        try {
+            writer.write("{\"check\":");
+            writeString(violation.getCheck().name());
+            writer.write(",\"origin\":");
+            writeString(violation.getOrigin());
+            writer.write(",\"target\":");
+            writeString(violation.getTarget());
+            writer.write(",\"originFPackage\":");
+            writeString(violation.getOriginFPackage());
+            writer.write(",\"targetFPackage\":");
+            writeString(violation.getTargetFPackage());
+            writer.write(",\"dependencyKind\":");
+            writeString(violation.getDependencyKind() != null ? violation.getDependencyKind().name() : null);
+            writer.write(",\"line\":");
+            writer.write(Integer.toString(violation.getLineNumber()));
+            writer.write(",\"message\":");
+            writeString(violation.getMessage());
+            writer.write("}\n");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void writeString(String string) throws IOException {
+        writeString(string, writer);
+    }
+
+    static void writeString(String string, Writer writer) throws IOException {
+        if (string == null) {
+            writer.write("null");
+            return;
+        }
+        writer.write('"');
+        for (int i = 0; i < string.length(); i++) {
+            char c = string.charAt(i);
+            switch (c) {
+                case '"':
+                    writer.write("\\\"");
+                    break;
+                case '\\':
+                    writer.write("\\\\");
+                    break;
+                case '\n':
+                    writer.write("\\n");
+                    break;
+                case '\r':
+                    writer.write("\\r");
+                    break;
+                case '\t':
+                    writer.write("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        writer.write(String.format("\\u%04x", (int) c));
+                    } else {
+                        writer.write(c);
+                    }
+                    break;
+            }
+        }
+        writer.write('"');
+    }
+
+    @Override
+    public void close() {
+        try {
+            writer.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+}
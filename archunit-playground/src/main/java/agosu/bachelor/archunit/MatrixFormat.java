@@ -0,0 +1,12 @@
+package agosu.bachelor.archunit;
+
+/**
+ * The formats a {@link DependencyStructureMatrix} can be written in.
+ */
+public enum MatrixFormat {
+
+    CSV,
+    JSON,
+    HTML
+
+}
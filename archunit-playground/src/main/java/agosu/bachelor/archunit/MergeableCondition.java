@@ -0,0 +1,18 @@
+package agosu.bachelor.archunit;
+
+/**
+ * A condition that collects state while checking objects, e.g. whether any object was checked at all.
+ * <p>
+ * When objects are checked on partitions, every partition is checked by its own instance of the condition. The state
+ * of all instances is then merged into one of them, and only that one is
+ * {@link com.tngtech.archunit.lang.ArchCondition#finish(com.tngtech.archunit.lang.ConditionEvents) finished}.
+ * Conditions whose {@code finish} depends on their state have to implement this to be checked on partitions.
+ */
+public interface MergeableCondition<C extends MergeableCondition<C>> {
+
+    /**
+     * Adds the state collected by another instance of this condition to this instance.
+     */
+    void merge(C other);
+
+}
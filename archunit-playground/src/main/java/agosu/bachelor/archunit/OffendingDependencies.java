@@ -0,0 +1,75 @@
+package agosu.bachelor.archunit;
+
+import com.tngtech.archunit.core.domain.Dependency;
+import com.tngtech.archunit.core.domain.JavaClass;
+import com.tngtech.archunit.lang.ConditionEvent;
+import com.tngtech.archunit.lang.SimpleConditionEvent;
+
+import java.util.function.BiConsumer;
+
+import static java.lang.String.format;
+
+/**
+ * The dependencies of one class that violate a condition. Every one of them is reported with its target and source
+ * location, up to a maximum per class, the remaining ones are summed up in one more violation.
+ * <p>
+ * The reported dependencies are the first ones in the natural order of {@link Dependency}, so a class is reported
+ * the same no matter in which order its dependencies are visited. Conditions create the collection on the first
+ * offending dependency only, so checking a class without violations allocates nothing.
+ */
+final class OffendingDependencies {
+
+    static final int MAX_REPORTED_PER_CLASS = 10;
+
+    private final Dependency[] reported;
+    private int size = 0;
+    private int count = 0;
+
+    OffendingDependencies() {
+        this(MAX_REPORTED_PER_CLASS);
+    }
+
+    OffendingDependencies(int maxReported) {
+        this.reported = new Dependency[maxReported];
+    }
+
+    // keeps the reported dependencies sorted, inserting a smaller dependency drops the largest one once full
+    void add(Dependency dependency) {
+        count++;
+        if (size == reported.length && dependency.compareTo(reported[size - 1]) >= 0) {
+            return;
+        }
+        int position = size == reported.length ? size - 1 : size++;
+        while (position > 0 && dependency.compareTo(reported[position - 1]) < 0) {
+            reported[position] = reported[position - 1];
+            position--;
+        }
+        reported[position] = dependency;
+    }
+
+    /**
+     * @param violation what the class does, e.g. "depends on subpackages"
+     * @param events is handed every violation together with the object it is about
+     */
+    void report(JavaClass clazz, String violation, BiConsumer<Object, ConditionEvent> events) {
+        for (int i = 0; i < size; i++) {
+            Dependency dependency = reported[i];
+            events.accept(dependency, SimpleConditionEvent.violated(dependency, format(
+                    "Class %s %s: <%s> in %s",
+                    clazz.getName(),
+                    violation,
+                    dependency.getTargetClass().getName(),
+                    dependency.getSourceCodeLocation()
+            )));
+        }
+        if (count > size) {
+            events.accept(clazz, SimpleConditionEvent.violated(clazz, format(
+                    "Class %s %s: %d more dependencies not reported",
+                    clazz.getName(),
+                    violation,
+                    count - size
+            )));
+        }
+    }
+
+}
@@ -0,0 +1,167 @@
+package agosu.bachelor.archunit;
+
+import com.tngtech.archunit.core.domain.Dependency;
+import com.tngtech.archunit.core.domain.JavaClass;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Package tree of a set of packages and all their ancestors, with the depth and the Euler tour interval of every
+ * package computed once. Checking whether a package is a direct subpackage, an ancestor or a sibling of another
+ * package is then a lookup of both names and a few int comparisons.
+ * <p>
+ * Packages that are not part of the tree are answered by the equivalent string comparisons of {@link Utils}, which
+ * {@link CustomPredicates} use directly since they are defined on single package names rather than on a set of classes.
+ */
+public final class PackageHierarchy {
+
+    public static final PackageHierarchy EMPTY = of(Collections.<String>emptyList());
+
+    private static final int NONE = -1;
+
+    private final Map<String, Integer> ids;
+    private final int[] parents;
+    private final int[] depths;
+    private final int[] enter;
+    private final int[] exit;
+
+    private PackageHierarchy(Map<String, Integer> ids, IntList parents) {
+        this.ids = ids;
+        this.parents = parents.toArray();
+        this.depths = new int[this.parents.length];
+        this.enter = new int[this.parents.length];
+        this.exit = new int[this.parents.length];
+        tour();
+    }
+
+    public static PackageHierarchy of(Iterable<String> packageNames) {
+        Map<String, Integer> ids = new HashMap<>();
+        IntList parents = new IntList();
+        intern("", ids, parents);
+        for (String packageName : packageNames) {
+            intern(packageName, ids, parents);
+        }
+        return new PackageHierarchy(ids, parents);
+    }
+
+    /**
+     * @return the tree of the packages of the classes and of the targets of their direct dependencies, so every
+     *         dependency of the classes is answered by lookups
+     */
+    public static PackageHierarchy ofClasses(Iterable<JavaClass> classes) {
+        Map<String, Integer> ids = new HashMap<>();
+        IntList parents = new IntList();
+        intern("", ids, parents);
+        for (JavaClass javaClass : classes) {
+            intern(javaClass.getPackageName(), ids, parents);
+            for (Dependency dependency : javaClass.getDirectDependenciesFromSelf()) {
+                intern(dependency.getTargetClass().getPackageName(), ids, parents);
+            }
+        }
+        return new PackageHierarchy(ids, parents);
+    }
+
+    // ancestors are interned first, so every parent has a lower id than its children
+    private static int intern(String packageName, Map<String, Integer> ids, IntList parents) {
+        Integer id = ids.get(packageName);
+        if (id == null) {
+            int lastDot = packageName.lastIndexOf('.');
+            int parent = packageName.isEmpty() ? NONE : intern(lastDot < 0 ? "" : packageName.substring(0, lastDot), ids, parents);
+            id = parents.size();
+            ids.put(packageName, id);
+            parents.add(parent);
+        }
+        return id;
+    }
+
+    private void tour() {
+        int count = parents.length;
+        int[] childOffsets = new int[count + 1];
+        for (int id = 1; id < count; id++) {
+            childOffsets[parents[id] + 1]++;
+        }
+        for (int id = 0; id < count; id++) {
+            childOffsets[id + 1] += childOffsets[id];
+        }
+        int[] children = new int[Math.max(count - 1, 0)];
+        int[] fill = new int[count];
+        System.arraycopy(childOffsets, 0, fill, 0, count);
+        for (int id = 1; id < count; id++) {
+            children[fill[parents[id]]++] = id;
+        }
+
+        int[] stack = new int[count];
+        int[] nextChild = new int[count];
+        int size = 0;
+        int time = 0;
+        stack[size++] = 0;
+        enter[0] = time++;
+        nextChild[0] = childOffsets[0];
+        while (size > 0) {
+            int id = stack[size - 1];
+            if (nextChild[id] < childOffsets[id + 1]) {
+                int child = children[nextChild[id]++];
+                depths[child] = depths[id] + 1;
+                enter[child] = time++;
+                nextChild[child] = childOffsets[child];
+                stack[size++] = child;
+            } else {
+                exit[id] = time;
+                size--;
+            }
+        }
+    }
+
+    public boolean contains(String packageName) {
+        return ids.containsKey(packageName);
+    }
+
+    /**
+     * @return the number of segments of the package, or -1 if the package is not part of the tree
+     */
+    public int getDepth(String packageName) {
+        Integer id = ids.get(packageName);
+        return id == null ? NONE : depths[id];
+    }
+
+    public boolean isDirectSubpackage(String candidate, String thePackage) {
+        Integer candidateId = ids.get(candidate);
+        Integer packageId = ids.get(thePackage);
+        if (candidateId == null || packageId == null) {
+            return Utils.isDirectSubpackage(candidate, thePackage);
+        }
+        return parents[candidateId] == packageId;
+    }
+
+    /**
+     * @return whether the candidate is a proper ancestor of the package, not counting the default package
+     */
+    public boolean isAncestorPackage(String candidate, String thePackage) {
+        Integer candidateId = ids.get(candidate);
+        Integer packageId = ids.get(thePackage);
+        if (candidateId == null || packageId == null) {
+            return Utils.isAncestorPackage(candidate, thePackage);
+        }
+        return depths[candidateId] > 0 && enter[candidateId] < enter[packageId] && exit[packageId] <= exit[candidateId];
+    }
+
+    public boolean isSubpackageOrSelf(String candidate, String thePackage) {
+        return candidate.equals(thePackage) || isAncestorPackage(thePackage, candidate);
+    }
+
+    /**
+     * @return whether the candidate is a direct subpackage of the parent of the package, which must have a parent
+     *         other than the default package
+     */
+    public boolean isSiblingPackageOrSelf(String candidate, String thePackage) {
+        Integer candidateId = ids.get(candidate);
+        Integer packageId = ids.get(thePackage);
+        if (candidateId == null || packageId == null) {
+            return Utils.isSiblingPackageOrSelf(candidate, thePackage);
+        }
+        return depths[packageId] > 1 && parents[candidateId] == parents[packageId];
+    }
+
+}
@@ -0,0 +1,153 @@
+package agosu.bachelor.archunit;
+
+import com.tngtech.archunit.PublicAPI;
+import com.tngtech.archunit.lang.ArchCondition;
+import com.tngtech.archunit.lang.ConditionEvent;
+import com.tngtech.archunit.lang.ConditionEvents;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.tngtech.archunit.PublicAPI.Usage.ACCESS;
+
+/**
+ * Checks a condition on contiguous partitions of the objects to test, every partition with its own instance of the
+ * condition and its own {@link ConditionEvents}. The events are merged in partition order, so they are in the same
+ * order as if all objects were checked by one instance.
+ * <p>
+ * The calling thread checks partitions as well, and only waits for partitions that other threads already started.
+ * This way checks can be partitioned while they already run on the same executor, without waiting for its queue.
+ */
+public final class PartitionedEvaluation {
+
+    private static final int MIN_PARTITION_SIZE = 256;
+
+    private PartitionedEvaluation() {}
+
+    /**
+     * Checks the objects on as many partitions as the executor has threads, each with at least a few hundred objects.
+     */
+    @PublicAPI(usage = ACCESS)
+    public static <T> ConditionEvents check(Supplier<? extends ArchCondition<T>> conditions, List<T> objects, Executor executor) {
+        return check(conditions, objects, executor, partitionCount(objects.size(), executor));
+    }
+
+    /**
+     * @param conditions creates a new instance of the condition for every partition
+     */
+    @PublicAPI(usage = ACCESS)
+    public static <T> ConditionEvents check(Supplier<? extends ArchCondition<T>> conditions, List<T> objects, Executor executor,
+                                            int partitionCount) {
+        checkArgument(partitionCount > 0, "At least 1 partition must be checked");
+        int partitions = Math.max(1, Math.min(partitionCount, objects.size()));
+        List<ArchCondition<T>> partitionConditions = new ArrayList<>();
+        List<ConditionEvents> partitionEvents = new ArrayList<>();
+        for (int i = 0; i < partitions; i++) {
+            ArchCondition<T> condition = conditions.get();
+            condition.init(objects);
+            partitionConditions.add(condition);
+            partitionEvents.add(new ConditionEvents());
+        }
+
+        AtomicInteger next = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(partitions);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Runnable worker = () -> {
+            for (int partition = next.getAndIncrement(); partition < partitions; partition = next.getAndIncrement()) {
+                try {
+                    int from = (int) ((long) objects.size() * partition / partitions);
+                    int to = (int) ((long) objects.size() * (partition + 1) / partitions);
+                    for (T object : objects.subList(from, to)) {
+                        partitionConditions.get(partition).check(object, partitionEvents.get(partition));
+                    }
+                } catch (Throwable e) {
+                    failure.compareAndSet(null, e);
+                } finally {
+                    done.countDown();
+                }
+            }
+        };
+        try {
+            for (int i = 1; i < partitions; i++) {
+                executor.execute(worker);
+            }
+        } catch (RejectedExecutionException e) {
+            // the partitions not taken by other threads are checked by this one
+        }
+        worker.run();
+        awaitUninterruptibly(done);
+        rethrow(failure.get());
+
+        ConditionEvents result = new ConditionEvents();
+        for (ConditionEvents events : partitionEvents) {
+            addAll(events, result);
+        }
+        finish(partitionConditions, result);
+        return result;
+    }
+
+    private static int partitionCount(int objectCount, Executor executor) {
+        int parallelism = executor instanceof ForkJoinPool ?
+                ((ForkJoinPool) executor).getParallelism() :
+                Runtime.getRuntime().availableProcessors();
+        int bySize = (objectCount + MIN_PARTITION_SIZE - 1) / MIN_PARTITION_SIZE;
+        return Math.max(1, Math.min(bySize, parallelism * 2));
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static <T> void finish(List<ArchCondition<T>> partitionConditions, ConditionEvents events) {
+        ArchCondition<T> first = partitionConditions.get(0);
+        if (first instanceof MergeableCondition) {
+            for (ArchCondition<T> other : partitionConditions.subList(1, partitionConditions.size())) {
+                ((MergeableCondition) first).merge((MergeableCondition) other);
+            }
+            first.finish(events);
+        } else {
+            for (ArchCondition<T> condition : partitionConditions) {
+                condition.finish(events);
+            }
+        }
+    }
+
+    private static void addAll(ConditionEvents from, ConditionEvents to) {
+        for (ConditionEvent event : from) {
+            to.add(event);
+        }
+    }
+
+    private static void awaitUninterruptibly(CountDownLatch latch) {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                latch.await();
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void rethrow(Throwable failure) {
+        if (failure instanceof Error) {
+            throw (Error) failure;
+        }
+        if (failure instanceof RuntimeException) {
+            throw (RuntimeException) failure;
+        }
+        if (failure != null) {
+            throw new IllegalStateException(failure);
+        }
+    }
+
+}
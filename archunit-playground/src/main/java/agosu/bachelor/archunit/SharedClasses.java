@@ -0,0 +1,85 @@
+package agosu.bachelor.archunit;
+
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
+import com.tngtech.archunit.PublicAPI;
+import com.tngtech.archunit.core.domain.JavaClasses;
+import com.tngtech.archunit.core.importer.ClassFileImporter;
+import com.tngtech.archunit.core.importer.ImportOption;
+
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.tngtech.archunit.PublicAPI.Usage.ACCESS;
+
+/**
+ * Imports every combination of locations and import options once per JVM, and shares the imported classes between
+ * all test classes and methods asking for the same combination. {@link JavaClasses} are immutable, so any number of
+ * architectures can be evaluated against them, also concurrently.
+ * <p>
+ * Import options are told apart by {@link Object#equals(Object) equality}, which is identity for most options, so the
+ * same option instances have to be passed to share the classes, e.g. the constants of {@link ImportOption.Predefined}.
+ * The order of the locations and options does not matter. Concurrent requests for a combination that is being imported wait for that import.
+ */
+public final class SharedClasses {
+
+    private static final Map<List<Set<?>>, Supplier<JavaClasses>> IMPORTED = new ConcurrentHashMap<>();
+
+    private SharedClasses() {}
+
+    @PublicAPI(usage = ACCESS)
+    public static JavaClasses importPackages(String... packages) {
+        return importPackages(Collections.<ImportOption>emptyList(), packages);
+    }
+
+    @PublicAPI(usage = ACCESS)
+    public static JavaClasses importPackages(Collection<? extends ImportOption> options, String... packages) {
+        checkArgument(packages.length > 0, "At least 1 package must be provided");
+        List<String> locations = new ArrayList<>();
+        for (String aPackage : packages) {
+            locations.add("package " + checkNotNull(aPackage, "Supplied package must not be null"));
+        }
+        return get(locations, options, importer -> importer.importPackages(packages));
+    }
+
+    @PublicAPI(usage = ACCESS)
+    public static JavaClasses importPaths(Collection<? extends ImportOption> options, Path... paths) {
+        checkArgument(paths.length > 0, "At least 1 path must be provided");
+        List<String> locations = new ArrayList<>();
+        for (Path path : paths) {
+            locations.add("path " + checkNotNull(path, "Supplied path must not be null").toAbsolutePath().normalize());
+        }
+        return get(locations, options, importer -> importer.importPaths(paths));
+    }
+
+    /**
+     * Forgets all imported classes, e.g. after the classes on disk changed.
+     */
+    @PublicAPI(usage = ACCESS)
+    public static void clear() {
+        IMPORTED.clear();
+    }
+
+    // the import runs outside of the map, so imports of other combinations are not blocked by it
+    private static JavaClasses get(List<String> locations, Collection<? extends ImportOption> options,
+                                   Function<ClassFileImporter, JavaClasses> importing) {
+        checkNotNull(options, "Supplied import options must not be null");
+        List<ImportOption> importOptions = new ArrayList<>();
+        for (ImportOption option : options) {
+            importOptions.add(checkNotNull(option, "Supplied import option must not be null"));
+        }
+        List<Set<?>> key = Arrays.<Set<?>>asList(new HashSet<>(locations), new HashSet<>(importOptions));
+        return IMPORTED.computeIfAbsent(key, combination -> Suppliers.memoize(() -> {
+            ClassFileImporter importer = new ClassFileImporter();
+            for (ImportOption option : importOptions) {
+                importer = importer.withImportOption(option);
+            }
+            return importing.apply(importer);
+        })).get();
+    }
+
+}
@@ -0,0 +1,96 @@
+package agosu.bachelor.archunit;
+
+import com.tngtech.archunit.PublicAPI;
+import com.tngtech.archunit.core.domain.JavaClasses;
+import com.tngtech.archunit.core.importer.ImportOption;
+import com.tngtech.archunit.lang.ArchRule;
+import com.tngtech.archunit.lang.EvaluationResult;
+import org.junit.rules.TestRule;
+import org.junit.runner.Description;
+import org.junit.runners.model.Statement;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.tngtech.archunit.PublicAPI.Usage.ACCESS;
+
+/**
+ * JUnit 4 rule giving the tests the classes of some packages, imported once per JVM by {@link SharedClasses}. Used as
+ * a class rule, the classes are imported before the first test of the class runs, so the import is not part of the
+ * time of any test; used as a plain rule or without being applied at all, they are imported on first use.
+ * <pre>
+ * &#64;ClassRule
+ * public static final SharedClassesRule classes = SharedClassesRule.ofPackages("com.library")
+ *         .withImportOption(ImportOption.Predefined.DO_NOT_INCLUDE_TESTS);
+ *
+ * &#64;Test
+ * public void architecture() {
+ *     classes.check(functionalArchitecture()...);
+ * }
+ * </pre>
+ */
+public final class SharedClassesRule implements TestRule {
+
+    private final List<String> packages;
+    private final List<ImportOption> options;
+
+    private SharedClassesRule(List<String> packages, List<ImportOption> options) {
+        this.packages = packages;
+        this.options = options;
+    }
+
+    @PublicAPI(usage = ACCESS)
+    public static SharedClassesRule ofPackages(String... packages) {
+        checkArgument(packages.length > 0, "At least 1 package must be provided");
+        return new SharedClassesRule(Collections.unmodifiableList(Arrays.asList(packages.clone())), Collections.<ImportOption>emptyList());
+    }
+
+    @PublicAPI(usage = ACCESS)
+    public SharedClassesRule withImportOption(ImportOption option) {
+        checkNotNull(option, "Supplied import option must not be null");
+        List<ImportOption> newOptions = new ArrayList<>(options);
+        newOptions.add(option);
+        return new SharedClassesRule(packages, Collections.unmodifiableList(newOptions));
+    }
+
+    @Override
+    public Statement apply(Statement base, Description description) {
+        return new Statement() {
+            @Override
+            public void evaluate() throws Throwable {
+                get();
+                base.evaluate();
+            }
+        };
+    }
+
+    /**
+     * @return the shared classes, imported by the first call for the same packages and import options in this JVM
+     */
+    @PublicAPI(usage = ACCESS)
+    public JavaClasses get() {
+        return SharedClasses.importPackages(options, packages.toArray(new String[0]));
+    }
+
+    @PublicAPI(usage = ACCESS)
+    public EvaluationResult evaluate(ArchRule rule) {
+        checkNotNull(rule, "Supplied rule must not be null");
+        return rule.evaluate(get());
+    }
+
+    /**
+     * Checks every rule against the shared classes, e.g. several variants of a functional architecture.
+     */
+    @PublicAPI(usage = ACCESS)
+    public void check(ArchRule... rules) {
+        JavaClasses classes = get();
+        for (ArchRule rule : rules) {
+            checkNotNull(rule, "Supplied rule must not be null").check(classes);
+        }
+    }
+
+}
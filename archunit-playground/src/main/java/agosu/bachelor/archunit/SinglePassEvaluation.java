@@ -0,0 +1,441 @@
+package agosu.bachelor.archunit;
+
+import agosu.bachelor.archunit.CustomArchitectures.FunctionalArchitecture.FPackageDefinition;
+import com.tngtech.archunit.base.DescribedPredicate;
+import com.tngtech.archunit.base.Optional;
+import com.tngtech.archunit.core.domain.Dependency;
+import com.tngtech.archunit.core.domain.JavaClass;
+import com.tngtech.archunit.core.domain.JavaClasses;
+import com.tngtech.archunit.core.domain.JavaPackage;
+import com.tngtech.archunit.lang.ArchCondition;
+import com.tngtech.archunit.lang.ConditionEvent;
+import com.tngtech.archunit.lang.ConditionEvents;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+import java.util.function.ObjIntConsumer;
+
+import static agosu.bachelor.archunit.CustomConditions.*;
+
+/**
+ * Evaluates the class based checks of a {@link CustomArchitectures.FunctionalArchitecture} in a single walk over
+ * all classes and their direct dependencies, instead of one full pass per FPackage, specification and rule.
+ * The walk builds a {@link DependencyGraph}, all checks then run on its int ids.
+ * Violations are reported with the same messages as the separate rules would report them.
+ */
+final class SinglePassEvaluation {
+
+    private static final byte MEMBER = 1;
+    private static final byte NOT_MEMBER = 2;
+
+    private final List<FPackageDefinition> definitions;
+    private final FPackageIndex index;
+    private final boolean indexed;
+    private final List<FPackageAccess> accesses;
+    private final DescribedPredicate<Dependency> irrelevantDependencies;
+    private final String systemRoot;
+    private final ArchCondition<JavaClass> membershipCondition;
+    private final DescribedPredicate<JavaPackage> layerCandidates;
+    private final ArchCondition<JavaPackage> layerCondition;
+    private final DependencyDirection dependencyDirection;
+
+    private final boolean[] nonEmpty;
+    private final Set<JavaPackage> packages = new LinkedHashSet<>();
+    private boolean checkedAnyPackage = false;
+    private DependencyGraph graph;
+
+    /**
+     * @param definitions all FPackage definitions in declaration order
+     * @param index the index compiled from the definitions, used to resolve the FPackages of a class if it covers all of them
+     * @param accesses for every definition, the access its classes are restricted to, or {@code null} if not checked
+     * @param irrelevantDependencies dependencies that are never reported, or {@code null} if all are relevant
+     * @param systemRoot the package the dependency graph drops the dependencies leaving, or {@code null} to keep all
+     * @param membershipCondition the condition every class has to satisfy, or {@code null} if not checked
+     */
+    SinglePassEvaluation(
+            List<FPackageDefinition> definitions,
+            FPackageIndex index,
+            List<FPackageAccess> accesses,
+            DescribedPredicate<Dependency> irrelevantDependencies,
+            String systemRoot,
+            ArchCondition<JavaClass> membershipCondition,
+            DescribedPredicate<JavaPackage> layerCandidates,
+            ArchCondition<JavaPackage> layerCondition,
+            DependencyDirection dependencyDirection) {
+        this.definitions = definitions;
+        this.index = index;
+        this.indexed = allIndexed(definitions, index);
+        this.accesses = accesses;
+        this.irrelevantDependencies = irrelevantDependencies;
+        this.systemRoot = systemRoot;
+        this.membershipCondition = membershipCondition;
+        this.layerCandidates = layerCandidates;
+        this.layerCondition = layerCondition;
+        this.dependencyDirection = dependencyDirection;
+        this.nonEmpty = new boolean[definitions.size()];
+    }
+
+    ConditionEvents evaluate(JavaClasses classes) {
+        return evaluate(classes, CheckRecorder.DISABLED);
+    }
+
+    /**
+     * @param recorder spends the violations found on the budget of the evaluation, the walk stops once it is
+     * exhausted, or tallies the violations of every class for the top offenders once the class is checked
+     */
+    ConditionEvents evaluate(JavaClasses classes, CheckRecorder recorder) {
+        ConditionEvents events = new ConditionEvents();
+        if (recorder.isTallying()) {
+            ConditionEvents[] current = {new ConditionEvents()};
+            walk(classes, clazz -> current[0], (fPackages, clazz) -> {
+                if (!current[0].isEmpty()) {
+                    recorder.tally(current[0]);
+                    current[0] = new ConditionEvents();
+                }
+            }, recorder);
+        } else {
+            walk(classes, clazz -> events, null, recorder);
+        }
+        if (!recorder.isOverBudget()) {
+            checkLayers(events);
+        }
+        return events;
+    }
+
+    /**
+     * Evaluates like {@link #evaluate(JavaClasses)}, but hands the violations of every class to the consumer as soon
+     * as the class is checked, so only the violations of one class are held at a time. Every violation is a
+     * {@link ViolationEvent} tagged with the check that found it.
+     */
+    void stream(JavaClasses classes, Consumer<ViolationEvent> violations) {
+        ConditionEvents[] current = {new ConditionEvents()};
+        walk(classes, clazz -> current[0], (fPackages, clazz) -> {
+            if (!current[0].isEmpty()) {
+                drain(current[0], violations);
+                current[0] = new ConditionEvents();
+            }
+        }, CheckRecorder.DISABLED);
+        ConditionEvents layers = new ConditionEvents();
+        checkLayers(layers);
+        drain(layers, violations);
+    }
+
+    private static void drain(ConditionEvents events, Consumer<ViolationEvent> violations) {
+        for (ConditionEvent event : events.getViolating()) {
+            violations.accept((ViolationEvent) event);
+        }
+    }
+
+    /**
+     * Evaluates the class based checks only, without the layer check.
+     *
+     * @return the events and the FPackages of every evaluated class, by class name
+     */
+    Map<String, ClassEvaluation> evaluateClasses(JavaClasses classes) {
+        Map<String, ClassEvaluation> result = new LinkedHashMap<>();
+        walk(classes, clazz -> result.computeIfAbsent(graph.getClassName(clazz), name -> new ClassEvaluation()).events,
+                (fPackages, clazz) -> result.get(graph.getClassName(clazz)).fPackages = fPackages.toArray(), CheckRecorder.DISABLED);
+        return result;
+    }
+
+    /**
+     * @param classChecked is told the FPackages of every class once all its events are added, or {@code null}
+     */
+    private void walk(JavaClasses classes, IntFunction<ConditionEvents> eventsOf, ObjIntConsumer<IntList> classChecked,
+                      CheckRecorder recorder) {
+        graph = systemRoot != null ? DependencyGraph.of(classes, systemRoot) : DependencyGraph.of(classes);
+        DependencyGraph.Resolver dependencies = graph.newResolver();
+
+        FPackageIndex.Resolution[] resolutions = indexed ? resolveAll(graph) : null;
+        int[] ownParentPackages = new int[accesses.size()];
+        for (int i = 0; i < accesses.size(); i++) {
+            ownParentPackages[i] = accesses.get(i) == null ? DependencyGraph.NO_PACKAGE : graph.getPackageId(accesses.get(i).ownParentPackage);
+        }
+        byte[] membership = new byte[graph.getPackageCount()];
+        BitSet collectedPackages = new BitSet();
+        IntList fPackages = new IntList();
+        boolean budgeted = recorder.isBudgeted();
+
+        for (int clazz = 0; clazz < graph.getClassCount(); clazz++) {
+            if (!graph.isImported(clazz)) {
+                continue;
+            }
+            if (budgeted && recorder.isOverBudget()) {
+                break;
+            }
+            ConditionEvents events = eventsOf.apply(clazz);
+            int violationsBefore = budgeted ? events.getViolating().size() : 0;
+            JavaClass javaClass = graph.getJavaClass(clazz);
+            int thePackage = graph.getPackageOf(clazz);
+            if (!collectedPackages.get(thePackage)) {
+                collectedPackages.set(thePackage);
+                collectPackages(javaClass);
+            }
+            if (membershipCondition != null && membership[thePackage] != MEMBER) {
+                membership[thePackage] = checkMembership(javaClass, events);
+            }
+
+            fPackagesOf(javaClass, resolutions, thePackage, fPackages);
+            for (int i = 0; i < fPackages.size(); i++) {
+                int fPackage = fPackages.get(i);
+                nonEmpty[fPackage] = true;
+                FPackageAccess access = accesses.get(fPackage);
+                if (access == null) {
+                    continue;
+                }
+                if (indexed && access.allowedTopLayers != null) {
+                    checkAccess(graph, dependencies, clazz, fPackage, access.allowedTopLayers, ownParentPackages[fPackage], resolutions, events);
+                } else {
+                    checkAccess(graph, dependencies, clazz, access.predicate, events);
+                }
+            }
+
+            switch (dependencyDirection) {
+                case UP:
+                    reportDirection(subpackageDependencies(graph, dependencies, clazz), javaClass, DEPENDS_ON_SUBPACKAGES, events);
+                    break;
+                case DOWN:
+                    reportDirection(ancestorPackageDependencies(graph, dependencies, clazz), javaClass, DEPENDS_ON_ANCESTOR_PACKAGES, events);
+                    break;
+                default:
+                    break;
+            }
+            if (budgeted) {
+                recorder.found(events.getViolating().size() - violationsBefore);
+            }
+            if (classChecked != null) {
+                classChecked.accept(fPackages, clazz);
+            }
+        }
+    }
+
+    private FPackageIndex.Resolution[] resolveAll(DependencyGraph graph) {
+        FPackageIndex.Resolution[] result = new FPackageIndex.Resolution[graph.getPackageCount()];
+        for (int thePackage = 0; thePackage < result.length; thePackage++) {
+            result[thePackage] = index.resolve(graph.getPackageName(thePackage));
+        }
+        return result;
+    }
+
+    private void fPackagesOf(JavaClass javaClass, FPackageIndex.Resolution[] resolutions, int thePackage, IntList result) {
+        result.clear();
+        if (indexed) {
+            for (int fPackage : resolutions[thePackage].getContaining()) {
+                result.add(fPackage);
+            }
+        } else {
+            for (int fPackage = 0; fPackage < definitions.size(); fPackage++) {
+                if (definitions.get(fPackage).containsPredicate().apply(javaClass)) {
+                    result.add(fPackage);
+                }
+            }
+        }
+    }
+
+    // whether a class is a member only depends on its package, so the verdict of the first member is kept
+    private byte checkMembership(JavaClass javaClass, ConditionEvents events) {
+        ConditionEvents classEvents = new ConditionEvents();
+        membershipCondition.check(javaClass, classEvents);
+        for (ConditionEvent event : classEvents) {
+            events.add(event.isViolation() ? ViolationEvent.of(CheckKind.MEMBERSHIP, javaClass, event) : event);
+        }
+        return classEvents.containViolation() ? NOT_MEMBER : MEMBER;
+    }
+
+    private void checkAccess(DependencyGraph graph, DependencyGraph.Resolver dependencies, int clazz, int fPackage,
+                             BitSet allowedTopLayers, int ownParentPackage, FPackageIndex.Resolution[] resolutions,
+                             ConditionEvents events) {
+        for (int edge = graph.getFirstEdge(clazz); edge < graph.getEdgeEnd(clazz); edge++) {
+            int targetPackage = graph.getPackageOf(graph.getEdgeTarget(edge));
+            FPackageIndex.Resolution target = resolutions[targetPackage];
+            boolean allowed = target.isInTopLayerOfAny(allowedTopLayers)
+                    || target.isContainedIn(fPackage)
+                    || targetPackage == ownParentPackage
+                    || target.isGroup();
+            if (!allowed) {
+                reportRelevantDependencies(graph, dependencies, edge, events);
+            }
+        }
+    }
+
+    private void reportRelevantDependencies(DependencyGraph graph, DependencyGraph.Resolver dependencies, int edge,
+                                            ConditionEvents events) {
+        for (int i = graph.getFirstDependency(edge); i < graph.getDependencyEnd(edge); i++) {
+            Dependency dependency = dependencies.getDependency(i);
+            if (irrelevantDependencies == null || !irrelevantDependencies.apply(dependency)) {
+                events.add(ViolationEvent.of(CheckKind.DEPENDENCY_SPECIFICATION, dependency));
+            }
+        }
+    }
+
+    private void checkAccess(DependencyGraph graph, DependencyGraph.Resolver dependencies, int clazz,
+                             DescribedPredicate<Dependency> accessPredicate, ConditionEvents events) {
+        for (int edge = graph.getFirstEdge(clazz); edge < graph.getEdgeEnd(clazz); edge++) {
+            for (int i = graph.getFirstDependency(edge); i < graph.getDependencyEnd(edge); i++) {
+                Dependency dependency = dependencies.getDependency(i);
+                if (!accessPredicate.apply(dependency)) {
+                    events.add(ViolationEvent.of(CheckKind.DEPENDENCY_SPECIFICATION, dependency));
+                }
+            }
+        }
+    }
+
+    // reports the same violations as the conditions of CustomConditions, which visit the dependencies one by one
+    private static void reportDirection(OffendingDependencies offending, JavaClass javaClass, String violation, ConditionEvents events) {
+        if (offending != null) {
+            offending.report(javaClass, violation,
+                    (object, event) -> events.add(ViolationEvent.of(CheckKind.DEPENDENCY_DIRECTION, object, event)));
+        }
+    }
+
+    private static OffendingDependencies subpackageDependencies(DependencyGraph graph, DependencyGraph.Resolver dependencies,
+                                                                int clazz) {
+        int thePackage = graph.getPackageOf(clazz);
+        if (graph.getPackageName(thePackage).isEmpty()) {
+            return null;
+        }
+        OffendingDependencies result = null;
+        for (int edge = graph.getFirstEdge(clazz); edge < graph.getEdgeEnd(clazz); edge++) {
+            if (graph.getParentPackage(graph.getPackageOf(graph.getEdgeTarget(edge))) == thePackage) {
+                result = addDependencies(result, graph, dependencies, edge);
+            }
+        }
+        return result;
+    }
+
+    private static OffendingDependencies ancestorPackageDependencies(DependencyGraph graph,
+                                                                     DependencyGraph.Resolver dependencies, int clazz) {
+        int thePackage = graph.getPackageOf(clazz);
+        OffendingDependencies result = null;
+        for (int edge = graph.getFirstEdge(clazz); edge < graph.getEdgeEnd(clazz); edge++) {
+            int targetPackage = graph.getPackageOf(graph.getEdgeTarget(edge));
+            for (int ancestor = graph.getParentPackage(thePackage);
+                 ancestor != DependencyGraph.NO_PACKAGE && !graph.getPackageName(ancestor).isEmpty();
+                 ancestor = graph.getParentPackage(ancestor)) {
+                if (ancestor == targetPackage) {
+                    result = addDependencies(result, graph, dependencies, edge);
+                    break;
+                }
+            }
+        }
+        return result;
+    }
+
+    private static OffendingDependencies addDependencies(OffendingDependencies offending, DependencyGraph graph,
+                                                         DependencyGraph.Resolver dependencies, int edge) {
+        OffendingDependencies result = offending != null ? offending : new OffendingDependencies();
+        for (int i = graph.getFirstDependency(edge); i < graph.getDependencyEnd(edge); i++) {
+            result.add(dependencies.getDependency(i));
+        }
+        return result;
+    }
+
+    private static boolean allIndexed(List<FPackageDefinition> definitions, FPackageIndex index) {
+        for (FPackageDefinition definition : definitions) {
+            if (!index.isIndexed(definition.getName())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void collectPackages(JavaClass clazz) {
+        Optional<JavaPackage> current = Optional.of(clazz.getPackage());
+        while (current.isPresent() && packages.add(current.get())) {
+            current = current.get().getParent();
+        }
+    }
+
+    private void checkLayers(ConditionEvents events) {
+        for (JavaPackage javaPackage : packages) {
+            if (layerCandidates.apply(javaPackage)) {
+                checkedAnyPackage = true;
+                ConditionEvents packageEvents = new ConditionEvents();
+                layerCondition.check(javaPackage, packageEvents);
+                for (ConditionEvent event : packageEvents) {
+                    events.add(event.isViolation() ? ViolationEvent.of(CheckKind.LAYERS, javaPackage, event) : event);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the FPackage definitions no evaluated class belonged to, in declaration order
+     */
+    List<FPackageDefinition> getEmptyFPackages() {
+        List<FPackageDefinition> result = new ArrayList<>();
+        for (int i = 0; i < definitions.size(); i++) {
+            if (!nonEmpty[i]) {
+                result.add(definitions.get(i));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return the graph built by the last evaluation
+     */
+    DependencyGraph getGraph() {
+        return graph;
+    }
+
+    boolean hasCheckedAnyPackage() {
+        return checkedAnyPackage;
+    }
+
+    /**
+     * The result of the class based checks for one class.
+     */
+    static final class ClassEvaluation {
+        private final ConditionEvents events = new ConditionEvents();
+        private int[] fPackages = new int[0];
+
+        ConditionEvents getEvents() {
+            return events;
+        }
+
+        /**
+         * @return the ids of the FPackages the class belongs to, which are their positions in declaration order
+         */
+        int[] getFPackages() {
+            return fPackages;
+        }
+    }
+
+    /**
+     * The access the classes of one FPackage are restricted to.
+     */
+    static final class FPackageAccess {
+        private final DescribedPredicate<Dependency> predicate;
+        private final BitSet allowedTopLayers;
+        private final String ownParentPackage;
+
+        /**
+         * @param predicate the predicate every dependency of the FPackage has to satisfy
+         * @param allowedTopLayers the ids of the FPackages whose top layer may be accessed,
+         *                         or {@code null} if they are not all indexed and the predicate has to be used
+         * @param ownParentPackage the parent package of the FPackage, which may always be accessed
+         */
+        FPackageAccess(DescribedPredicate<Dependency> predicate, BitSet allowedTopLayers, String ownParentPackage) {
+            this.predicate = predicate;
+            this.allowedTopLayers = allowedTopLayers;
+            this.ownParentPackage = ownParentPackage;
+        }
+
+        BitSet getAllowedTopLayers() {
+            return allowedTopLayers;
+        }
+
+        String getOwnParentPackage() {
+            return ownParentPackage;
+        }
+    }
+
+}
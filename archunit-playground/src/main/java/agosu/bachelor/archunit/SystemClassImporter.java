@@ -0,0 +1,108 @@
+package agosu.bachelor.archunit;
+
+import com.tngtech.archunit.ArchConfiguration;
+import com.tngtech.archunit.PublicAPI;
+import com.tngtech.archunit.core.domain.JavaClasses;
+import com.tngtech.archunit.core.importer.ClassFileImporter;
+import com.tngtech.archunit.core.importer.ImportOption;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.tngtech.archunit.PublicAPI.Usage.ACCESS;
+import static com.tngtech.archunit.core.domain.JavaClass.Predicates.resideInAPackage;
+
+/**
+ * Imports the class files inside the system root of a {@link CustomArchitectures.FunctionalArchitecture}, see
+ * {@link CustomArchitectures.FunctionalArchitecture#importer()}, and skips all others, e.g. of other systems on the same
+ * classpath.
+ * <p>
+ * The import does not resolve the classes the imported classes depend on from the classpath, whatever the
+ * {@link ArchConfiguration} says: they are only known by their names, which is all the checks of an architecture need
+ * of the classes outside the system. The dependencies on them are still imported; to drop the dependencies leaving the
+ * system root, see {@link CustomArchitectures.FunctionalArchitecture#droppingDependenciesLeavingTheSystemRoot()}.
+ * The configuration is global, so other imports running at the same time do not resolve missing classes either.
+ */
+public final class SystemClassImporter {
+
+    private static final Object CONFIGURATION_LOCK = new Object();
+
+    private final String systemRoot;
+    private final List<ImportOption> options;
+
+    private SystemClassImporter(String systemRoot, List<ImportOption> options) {
+        this.systemRoot = systemRoot;
+        this.options = options;
+    }
+
+    static SystemClassImporter of(String systemRoot) {
+        return new SystemClassImporter(systemRoot, Collections.<ImportOption>emptyList());
+    }
+
+    @PublicAPI(usage = ACCESS)
+    public SystemClassImporter withImportOption(ImportOption option) {
+        checkNotNull(option, "Supplied import option must not be null");
+        List<ImportOption> newOptions = new ArrayList<>(options);
+        newOptions.add(option);
+        return new SystemClassImporter(systemRoot, Collections.unmodifiableList(newOptions));
+    }
+
+    /**
+     * Imports the classes of the packages inside the system root, or of the whole system if no package is given. A
+     * package containing the system root imports the whole system, a package outside of it nothing.
+     */
+    @PublicAPI(usage = ACCESS)
+    public JavaClasses importPackages(String... packages) {
+        List<String> imported = new ArrayList<>();
+        for (String aPackage : packages.length > 0 ? packages : new String[]{systemRoot}) {
+            checkNotNull(aPackage, "Supplied package must not be null");
+            if (isSameOrInside(aPackage, systemRoot)) {
+                imported.add(aPackage);
+            } else if (isSameOrInside(systemRoot, aPackage)) {
+                imported.add(systemRoot);
+            }
+        }
+        return importClasses(importer -> importer.importPackages(imported));
+    }
+
+    private static boolean isSameOrInside(String aPackage, String outerPackage) {
+        return aPackage.equals(outerPackage) || aPackage.startsWith(outerPackage + ".");
+    }
+
+    /**
+     * Imports the classes inside the system root from the given directories and jar files. The paths are imported
+     * whole and the classes outside the system root are left out afterwards, without resolving their dependencies.
+     */
+    @PublicAPI(usage = ACCESS)
+    public JavaClasses importPaths(Path... paths) {
+        checkArgument(paths.length > 0, "At least 1 path must be provided");
+        for (Path path : paths) {
+            checkNotNull(path, "Supplied path must not be null");
+        }
+        return importClasses(importer -> importer.importPaths(paths).that(resideInAPackage(systemRoot + "..")));
+    }
+
+    // the imports of this class switch the global configuration one at a time and restore it afterwards
+    private JavaClasses importClasses(Function<ClassFileImporter, JavaClasses> importing) {
+        ClassFileImporter importer = new ClassFileImporter();
+        for (ImportOption option : options) {
+            importer = importer.withImportOption(option);
+        }
+        synchronized (CONFIGURATION_LOCK) {
+            ArchConfiguration configuration = ArchConfiguration.get();
+            boolean resolving = configuration.resolveMissingDependenciesFromClassPath();
+            configuration.setResolveMissingDependenciesFromClassPath(false);
+            try {
+                return importing.apply(importer);
+            } finally {
+                configuration.setResolveMissingDependenciesFromClassPath(resolving);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,45 @@
+package agosu.bachelor.archunit;
+
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A rule on the FPackages reachable from or reaching an FPackage through chains of dependencies. With
+ * {@link FPackageDependencyConstraint#TARGET} the FPackage may not reach any of the given FPackages, with
+ * {@link FPackageDependencyConstraint#ORIGIN} only the given FPackages may reach it.
+ */
+final class TransitiveFPackageAccess {
+
+    private final String fPackageName;
+    private final FPackageDependencyConstraint constraint;
+    private final Set<String> fPackageNames;
+    private final String descriptionSuffix;
+
+    TransitiveFPackageAccess(String fPackageName, FPackageDependencyConstraint constraint, List<String> fPackageNames,
+                             String descriptionSuffix) {
+        this.fPackageName = fPackageName;
+        this.constraint = constraint;
+        this.fPackageNames = Collections.unmodifiableSet(new LinkedHashSet<>(fPackageNames));
+        this.descriptionSuffix = descriptionSuffix;
+    }
+
+    String getFPackageName() {
+        return fPackageName;
+    }
+
+    FPackageDependencyConstraint getConstraint() {
+        return constraint;
+    }
+
+    Set<String> getFPackageNames() {
+        return fPackageNames;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("where FPackage '%s' %s", fPackageName, descriptionSuffix);
+    }
+
+}
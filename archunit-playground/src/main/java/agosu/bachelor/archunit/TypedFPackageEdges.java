@@ -0,0 +1,137 @@
+package agosu.bachelor.archunit;
+
+import com.tngtech.archunit.base.DescribedPredicate;
+import com.tngtech.archunit.core.domain.Dependency;
+import com.tngtech.archunit.lang.ConditionEvents;
+import com.tngtech.archunit.lang.SimpleConditionEvent;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static java.lang.String.format;
+
+/**
+ * The dependencies between different FPackages of the {@link DependencyGraph} of an evaluation, bucketed by their
+ * {@link DependencyKind} and their origin FPackage.
+ * <p>
+ * The buckets are built in one walk over the class edges, which also drops the irrelevant dependencies, so every
+ * {@link FPackageKindRestriction} only looks at the dependencies of the kinds it forbids, and adding restrictions
+ * does not add walks over the dependencies of the classes.
+ */
+final class TypedFPackageEdges {
+
+    private static final int NONE = -1;
+    private static final int KIND_COUNT = DependencyKind.values().length;
+
+    private final DependencyGraph graph;
+    private final List<String> fPackageNames;
+    private final Map<String, Integer> fPackageIds;
+    // the bucket of a kind and an origin FPackage is kind * number of FPackages + origin
+    private final int[] bucketOffsets;
+    private final int[] dependencies;
+    private final int[] targets;
+
+    private TypedFPackageEdges(DependencyGraph graph, List<String> fPackageNames, Map<String, Integer> fPackageIds,
+                               int[] bucketOffsets, int[] dependencies, int[] targets) {
+        this.graph = graph;
+        this.fPackageNames = fPackageNames;
+        this.fPackageIds = fPackageIds;
+        this.bucketOffsets = bucketOffsets;
+        this.dependencies = dependencies;
+        this.targets = targets;
+    }
+
+    /**
+     * @param fPackageOfClass the FPackage of every class, by class id, or {@code null} for classes in no FPackage
+     * @param fPackageNames the names of all FPackages
+     * @param irrelevantDependencies dependencies that are never reported, or {@code null} if all are relevant
+     */
+    static TypedFPackageEdges of(DependencyGraph graph, String[] fPackageOfClass, List<String> fPackageNames,
+                                 DescribedPredicate<Dependency> irrelevantDependencies) {
+        Map<String, Integer> ids = new HashMap<>();
+        for (String fPackageName : fPackageNames) {
+            ids.put(fPackageName, ids.size());
+        }
+        int[] fPackageIds = new int[graph.getClassCount()];
+        for (int clazz = 0; clazz < fPackageIds.length; clazz++) {
+            fPackageIds[clazz] = fPackageOfClass[clazz] == null ? NONE : ids.get(fPackageOfClass[clazz]);
+        }
+
+        IntList relevant = new IntList();
+        IntList buckets = new IntList();
+        IntList relevantTargets = new IntList();
+        int[] bucketOffsets = new int[KIND_COUNT * fPackageNames.size() + 1];
+        DependencyGraph.Resolver javaDependencies = graph.newResolver();
+        for (int clazz = 0; clazz < fPackageIds.length; clazz++) {
+            int origin = fPackageIds[clazz];
+            if (origin == NONE) {
+                continue;
+            }
+            for (int edge = graph.getFirstEdge(clazz); edge < graph.getEdgeEnd(clazz); edge++) {
+                int target = fPackageIds[graph.getEdgeTarget(edge)];
+                if (target == NONE || target == origin) {
+                    continue;
+                }
+                for (int dependency = graph.getFirstDependency(edge); dependency < graph.getDependencyEnd(edge); dependency++) {
+                    Dependency javaDependency = irrelevantDependencies != null ? javaDependencies.getDependency(dependency) : null;
+                    if (javaDependency != null && irrelevantDependencies.apply(javaDependency)) {
+                        continue;
+                    }
+                    int bucket = graph.getDependencyKind(dependency).ordinal() * fPackageNames.size() + origin;
+                    relevant.add(dependency);
+                    buckets.add(bucket);
+                    relevantTargets.add(target);
+                    bucketOffsets[bucket + 1]++;
+                }
+            }
+        }
+
+        // counting sort into the buckets, keeping the order of the walk within every bucket
+        for (int bucket = 0; bucket + 1 < bucketOffsets.length; bucket++) {
+            bucketOffsets[bucket + 1] += bucketOffsets[bucket];
+        }
+        int[] next = Arrays.copyOf(bucketOffsets, bucketOffsets.length - 1);
+        int[] dependencies = new int[relevant.size()];
+        int[] targets = new int[relevant.size()];
+        for (int i = 0; i < relevant.size(); i++) {
+            int position = next[buckets.get(i)]++;
+            dependencies[position] = relevant.get(i);
+            targets[position] = relevantTargets.get(i);
+        }
+        return new TypedFPackageEdges(graph, fPackageNames, ids, bucketOffsets, dependencies, targets);
+    }
+
+    ConditionEvents check(List<FPackageKindRestriction> restrictions) {
+        ConditionEvents events = new ConditionEvents();
+        for (FPackageKindRestriction restriction : restrictions) {
+            int origin = fPackageIds.get(restriction.getFPackageName());
+            int target = fPackageIds.get(restriction.getTargetFPackageName());
+            IntList violating = new IntList();
+            for (int kind = 0; kind < KIND_COUNT; kind++) {
+                if (!DependencyKind.fromOrdinal(kind).isIn(restriction.getForbiddenKinds())) {
+                    continue;
+                }
+                int bucket = kind * fPackageNames.size() + origin;
+                for (int i = bucketOffsets[bucket]; i < bucketOffsets[bucket + 1]; i++) {
+                    if (targets[i] == target) {
+                        violating.add(dependencies[i]);
+                    }
+                }
+            }
+            int[] sorted = violating.toArray();
+            Arrays.sort(sorted);
+            DependencyGraph.Resolver javaDependencies = graph.newResolver();
+            for (int dependency : sorted) {
+                Dependency javaDependency = javaDependencies.getDependency(dependency);
+                Object correspondingObject = javaDependency != null ? javaDependency : graph;
+                events.add(SimpleConditionEvent.violated(correspondingObject, format("FPackage '%s' may not access FPackage '%s' by %s: %s",
+                        restriction.getFPackageName(), restriction.getTargetFPackageName(),
+                        graph.getDependencyKind(dependency).describe(), javaDependencies.getDescription(dependency))));
+            }
+        }
+        return events;
+    }
+
+}
@@ -2,20 +2,37 @@ package agosu.bachelor.archunit;
 
 public class Utils {
 
-    public static String getSubpackageRegex(String thePackage) {
-        return thePackage + "[.][^.]+";
-    }
-
     public static String getParentPackage(String thePackage) {
         return thePackage.substring(0, thePackage.lastIndexOf('.'));
     }
 
-    public static String getSiblingPackageOrSelfRegex(String thePackage) {
-        return getSubpackageRegex(getParentPackage(thePackage));
-    }
-
     public static String getPackageExcludingSubpackages(String thePackage) {
         return thePackage.substring(0, thePackage.length() - 2);
     }
 
+    public static boolean isDirectSubpackage(String candidate, String thePackage) {
+        int length = thePackage.length();
+        return candidate.length() > length + 1
+                && candidate.charAt(length) == '.'
+                && candidate.startsWith(thePackage)
+                && candidate.indexOf('.', length + 1) < 0;
+    }
+
+    public static boolean isAncestorPackage(String candidate, String thePackage) {
+        int length = candidate.length();
+        return length > 0
+                && thePackage.length() > length
+                && thePackage.charAt(length) == '.'
+                && thePackage.startsWith(candidate);
+    }
+
+    public static boolean isSiblingPackageOrSelf(String candidate, String thePackage) {
+        int parentLength = thePackage.lastIndexOf('.');
+        return parentLength > 0
+                && candidate.length() > parentLength + 1
+                && candidate.charAt(parentLength) == '.'
+                && candidate.regionMatches(0, thePackage, 0, parentLength)
+                && candidate.indexOf('.', parentLength + 1) < 0;
+    }
+
 }
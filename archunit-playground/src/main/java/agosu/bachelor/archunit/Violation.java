@@ -0,0 +1,136 @@
+package agosu.bachelor.archunit;
+
+import com.tngtech.archunit.PublicAPI;
+import com.tngtech.archunit.core.domain.Dependency;
+import com.tngtech.archunit.core.domain.JavaClass;
+import com.tngtech.archunit.core.domain.JavaPackage;
+
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import static com.tngtech.archunit.PublicAPI.Usage.ACCESS;
+import static java.lang.System.lineSeparator;
+
+/**
+ * One violation streamed to a {@link ViolationSink}, as a structured record. The message is only rendered when
+ * it is asked for, so sinks that do not need it, like the {@link CountingViolationSink}, never create it.
+ */
+public final class Violation {
+
+    private final CheckKind check;
+    private final String origin;
+    private final String target;
+    private final String originFPackage;
+    private final String targetFPackage;
+    private final DependencyKind dependencyKind;
+    private final int lineNumber;
+    private final Supplier<String> message;
+
+    /**
+     * @param origin the class or package violating the check, or {@code null} if the violation is about no single one
+     * @param target the class the origin depends on, or {@code null} if the violation is not about a dependency
+     * @param lineNumber the source line of the dependency, or 0 if unknown
+     */
+    Violation(CheckKind check, String origin, String target, String originFPackage, String targetFPackage,
+              DependencyKind dependencyKind, int lineNumber, Supplier<String> message) {
+        this.check = check;
+        this.origin = origin;
+        this.target = target;
+        this.originFPackage = originFPackage;
+        this.targetFPackage = targetFPackage;
+        this.dependencyKind = dependencyKind;
+        this.lineNumber = lineNumber;
+        this.message = message;
+    }
+
+    /**
+     * @param fPackageOf the name of the FPackage a class belongs to, or {@code null} if it belongs to none
+     */
+    static Violation of(ViolationEvent event, Function<JavaClass, String> fPackageOf) {
+        Object object = event.getCorrespondingObject();
+        Supplier<String> message = () -> String.join(lineSeparator(), event.getDescriptionLines());
+        if (object instanceof Dependency) {
+            Dependency dependency = (Dependency) object;
+            return new Violation(event.getCheck(),
+                    dependency.getOriginClass().getName(), dependency.getTargetClass().getName(),
+                    fPackageOf.apply(dependency.getOriginClass()), fPackageOf.apply(dependency.getTargetClass()),
+                    DependencyKind.of(dependency), dependency.getSourceCodeLocation().getLineNumber(), message);
+        }
+        if (object instanceof JavaClass) {
+            JavaClass javaClass = (JavaClass) object;
+            return new Violation(event.getCheck(), javaClass.getName(), null, fPackageOf.apply(javaClass), null, null, 0, message);
+        }
+        if (object instanceof JavaPackage) {
+            return new Violation(event.getCheck(), ((JavaPackage) object).getName(), null, null, null, null, 0, message);
+        }
+        return new Violation(event.getCheck(), object != null ? object.toString() : null, null, null, null, null, 0, message);
+    }
+
+    @PublicAPI(usage = ACCESS)
+    public CheckKind getCheck() {
+        return check;
+    }
+
+    /**
+     * @return the name of the class or package violating the check, or {@code null} if the violation is about no
+     * single one, e.g. a cycle
+     */
+    @PublicAPI(usage = ACCESS)
+    public String getOrigin() {
+        return origin;
+    }
+
+    /**
+     * @return the name of the class the origin depends on, or {@code null} if the violation is not about a dependency
+     */
+    @PublicAPI(usage = ACCESS)
+    public String getTarget() {
+        return target;
+    }
+
+    /**
+     * @return the FPackage of the origin, or {@code null} if it belongs to none
+     */
+    @PublicAPI(usage = ACCESS)
+    public String getOriginFPackage() {
+        return originFPackage;
+    }
+
+    /**
+     * @return the FPackage of the target, or {@code null} if there is no target or it belongs to no FPackage
+     */
+    @PublicAPI(usage = ACCESS)
+    public String getTargetFPackage() {
+        return targetFPackage;
+    }
+
+    /**
+     * @return the kind of the dependency, or {@code null} if the violation is not about a dependency
+     */
+    @PublicAPI(usage = ACCESS)
+    public DependencyKind getDependencyKind() {
+        return dependencyKind;
+    }
+
+    /**
+     * @return the source line of the dependency, or 0 if it is unknown or the violation is not about a dependency
+     */
+    @PublicAPI(usage = ACCESS)
+    public int getLineNumber() {
+        return lineNumber;
+    }
+
+    /**
+     * Renders the message of the violation, as it would be reported by an evaluation.
+     */
+    @PublicAPI(usage = ACCESS)
+    public String getMessage() {
+        return message.get();
+    }
+
+    @Override
+    public String toString() {
+        return check + ": " + getMessage();
+    }
+
+}
@@ -0,0 +1,34 @@
+package agosu.bachelor.archunit;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The number of violations one evaluation may find before its remaining checks and class scans are cancelled.
+ * The budget is shared by all checks of the evaluation, so checks running concurrently stop together.
+ */
+final class ViolationBudget {
+
+    static final ViolationBudget UNLIMITED = new ViolationBudget(Integer.MAX_VALUE);
+
+    private final int maxViolations;
+    private final AtomicInteger found = new AtomicInteger();
+
+    ViolationBudget(int maxViolations) {
+        this.maxViolations = maxViolations;
+    }
+
+    boolean isLimited() {
+        return this != UNLIMITED;
+    }
+
+    boolean isExhausted() {
+        return isLimited() && found.get() >= maxViolations;
+    }
+
+    void spend(int violations) {
+        if (isLimited() && violations > 0) {
+            found.addAndGet(violations);
+        }
+    }
+
+}
@@ -0,0 +1,84 @@
+package agosu.bachelor.archunit;
+
+import com.tngtech.archunit.core.domain.Dependency;
+import com.tngtech.archunit.lang.ConditionEvent;
+import com.tngtech.archunit.lang.ConditionEvents;
+import com.tngtech.archunit.lang.SimpleConditionEvent;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A violation found by the single pass evaluation, tagged with the check that found it, so a streamed
+ * {@link Violation} can tell its check and the objects it is about. Reports the same lines as the untagged event.
+ */
+final class ViolationEvent implements ConditionEvent {
+
+    private final CheckKind check;
+    private final Object correspondingObject;
+    private final Dependency dependency;
+    private final ConditionEvent delegate;
+
+    private ViolationEvent(CheckKind check, Object correspondingObject, Dependency dependency, ConditionEvent delegate) {
+        this.check = check;
+        this.correspondingObject = correspondingObject;
+        this.dependency = dependency;
+        this.delegate = delegate;
+    }
+
+    /**
+     * A dependency violating a check, described by the description of the dependency.
+     */
+    static ViolationEvent of(CheckKind check, Dependency dependency) {
+        return new ViolationEvent(check, dependency, dependency, null);
+    }
+
+    /**
+     * @param correspondingObject what the event is about, e.g. a class or a package, or {@code null} if it is about several objects
+     */
+    static ViolationEvent of(CheckKind check, Object correspondingObject, ConditionEvent event) {
+        return new ViolationEvent(check, correspondingObject, null, event);
+    }
+
+    CheckKind getCheck() {
+        return check;
+    }
+
+    Object getCorrespondingObject() {
+        return correspondingObject;
+    }
+
+    @Override
+    public boolean isViolation() {
+        return delegate == null || delegate.isViolation();
+    }
+
+    @Override
+    public void addInvertedTo(ConditionEvents events) {
+        if (delegate == null) {
+            events.add(SimpleConditionEvent.satisfied(dependency, dependency.getDescription()));
+        } else {
+            delegate.addInvertedTo(events);
+        }
+    }
+
+    @Override
+    public List<String> getDescriptionLines() {
+        return delegate == null ? Collections.singletonList(dependency.getDescription()) : delegate.getDescriptionLines();
+    }
+
+    @Override
+    public void handleWith(Handler handler) {
+        if (delegate == null) {
+            handler.handle(Collections.singleton(dependency), dependency.getDescription());
+        } else {
+            delegate.handleWith(handler);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "{check=" + check + ", " + (delegate == null ? dependency : delegate) + "}";
+    }
+
+}
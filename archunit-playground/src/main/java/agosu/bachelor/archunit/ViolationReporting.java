@@ -0,0 +1,222 @@
+package agosu.bachelor.archunit;
+
+import com.tngtech.archunit.core.domain.Dependency;
+import com.tngtech.archunit.core.domain.JavaClass;
+import com.tngtech.archunit.core.domain.JavaPackage;
+import com.tngtech.archunit.lang.ArchRule;
+import com.tngtech.archunit.lang.ConditionEvents;
+import com.tngtech.archunit.lang.EvaluationResult;
+import com.tngtech.archunit.lang.Priority;
+import com.tngtech.archunit.lang.SimpleConditionEvent;
+import com.tngtech.archunit.lang.ViolationHandler;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.function.Function;
+
+/**
+ * How much of the violations an evaluation finds is reported: all of them, the first ones up to a
+ * {@link ViolationBudget budget}, or one summary per top offender, i.e. per class or pair of FPackages with the most
+ * violations.
+ */
+final class ViolationReporting {
+
+    static final ViolationReporting ALL = new ViolationReporting(0, null, 0);
+
+    // its head is the offender with the fewest violations among the top ones
+    private static final Comparator<OffenderCount> FEWEST_FIRST =
+            Comparator.<OffenderCount>comparingInt(count -> count.violations)
+                    .thenComparing(Comparator.<OffenderCount, String>comparing(count -> count.key).reversed());
+
+    enum Offender {
+        CLASS,
+        FPACKAGE_PAIR
+    }
+
+    private final int maxViolations;
+    private final Offender offender;
+    private final int maxOffenders;
+
+    private ViolationReporting(int maxViolations, Offender offender, int maxOffenders) {
+        this.maxViolations = maxViolations;
+        this.offender = offender;
+        this.maxOffenders = maxOffenders;
+    }
+
+    static ViolationReporting stoppingAfter(int maxViolations) {
+        return new ViolationReporting(maxViolations, null, 0);
+    }
+
+    static ViolationReporting topOffenders(Offender offender, int maxOffenders) {
+        return new ViolationReporting(0, offender, maxOffenders);
+    }
+
+    ViolationBudget newBudget() {
+        return maxViolations > 0 ? new ViolationBudget(maxViolations) : ViolationBudget.UNLIMITED;
+    }
+
+    /**
+     * @param fPackageOf the name of the FPackage a class belongs to, or {@code null} if it belongs to none
+     * @return the offenders the checks of a new evaluation tally their violations in, or {@code null} if the
+     * violations are not reported by offender
+     */
+    TopOffenders newTopOffenders(Function<JavaClass, String> fPackageOf) {
+        return offender != null ? new TopOffenders(fPackageOf) : null;
+    }
+
+    /**
+     * @param offenders the offenders of the evaluation, as {@link #newTopOffenders(Function)} created them
+     */
+    EvaluationResult report(ArchRule rule, EvaluationResult result, TopOffenders offenders) {
+        if (maxViolations > 0) {
+            return firstViolations(rule, result);
+        }
+        if (offenders != null) {
+            offenders.tally(result);
+            return offenders.report(rule, result);
+        }
+        return result;
+    }
+
+    // the budget may be overspent by the checks running when it ran out, so the first violations are cut off exactly
+    private EvaluationResult firstViolations(ArchRule rule, EvaluationResult result) {
+        final List<ReportedViolation> violations = new ArrayList<>();
+        result.handleViolations(new ViolationHandler<Object>() {
+            @Override
+            public void handle(Collection<Object> violatingObjects, String message) {
+                violations.add(new ReportedViolation(violatingObjects, message));
+            }
+        });
+        if (violations.size() < maxViolations) {
+            return result;
+        }
+        ConditionEvents events = new ConditionEvents();
+        for (ReportedViolation violation : violations.subList(0, maxViolations)) {
+            events.add(SimpleConditionEvent.violated(violation.correspondingObject(), violation.message));
+        }
+        events.setInformationAboutNumberOfViolations(String.format("at least %d times, evaluation stopped", maxViolations));
+        return new EvaluationResult(rule, events, Priority.MEDIUM);
+    }
+
+    /**
+     * The offenders of one evaluation, tallied while its checks run. Every offender keeps the number of its
+     * violations, but only the offenders among the top ones so far keep one of them as an example; the violations of
+     * all other offenders are dropped once they are counted. Checks running concurrently tally into the same offenders.
+     * <p>
+     * The example is the violation with the first message, so it does not depend on the order the checks ran in,
+     * unless the offender dropped out of the top ones and came back; then it is the first since it came back.
+     */
+    final class TopOffenders {
+        private final Function<JavaClass, String> fPackageOf;
+        private final Map<String, OffenderCount> counts = new HashMap<>();
+        // bounded min-heap of the top offenders so far
+        private final PriorityQueue<OffenderCount> top = new PriorityQueue<>(maxOffenders + 1, FEWEST_FIRST);
+        private int total;
+
+        private TopOffenders(Function<JavaClass, String> fPackageOf) {
+            this.fPackageOf = fPackageOf;
+        }
+
+        synchronized void add(Collection<?> violatingObjects, String message) {
+            total++;
+            ReportedViolation violation = new ReportedViolation(violatingObjects, message);
+            OffenderCount count = counts.computeIfAbsent(keyOf(violation, fPackageOf), OffenderCount::new);
+            // the count orders the heap, so it changes while the offender is out of it
+            top.remove(count);
+            count.violations++;
+            if (count.example == null || message.compareTo(count.example.message) < 0) {
+                count.example = violation;
+            }
+            top.add(count);
+            if (top.size() > maxOffenders) {
+                top.poll().example = null;
+            }
+        }
+
+        /**
+         * Tallies the violations of a finished check.
+         */
+        void tally(EvaluationResult result) {
+            result.handleViolations(new ViolationHandler<Object>() {
+                @Override
+                public void handle(Collection<Object> violatingObjects, String message) {
+                    add(violatingObjects, message);
+                }
+            });
+        }
+
+        /**
+         * @param result the result of the evaluation, whose violations are all tallied
+         */
+        synchronized EvaluationResult report(ArchRule rule, EvaluationResult result) {
+            if (counts.isEmpty()) {
+                return result;
+            }
+            List<OffenderCount> reported = new ArrayList<>(top);
+            reported.sort(FEWEST_FIRST.reversed());
+
+            ConditionEvents events = new ConditionEvents();
+            for (OffenderCount count : reported) {
+                events.add(SimpleConditionEvent.violated(count.example.correspondingObject(),
+                        String.format("%s caused %d violation(s), e.g. %s", count.key, count.violations, count.example.message)));
+            }
+            events.setInformationAboutNumberOfViolations(String.format("%d times by %d offenders, the top %d are reported",
+                    total, counts.size(), reported.size()));
+            return new EvaluationResult(rule, events, Priority.MEDIUM);
+        }
+    }
+
+    private String keyOf(ReportedViolation violation, Function<JavaClass, String> fPackageOf) {
+        Object object = violation.correspondingObject();
+        if (object instanceof Dependency) {
+            Dependency dependency = (Dependency) object;
+            return offender == Offender.CLASS ?
+                    dependency.getOriginClass().getName() :
+                    fPackageOrPackageOf(dependency.getOriginClass(), fPackageOf) + " -> " + fPackageOrPackageOf(dependency.getTargetClass(), fPackageOf);
+        }
+        if (object instanceof JavaClass) {
+            JavaClass javaClass = (JavaClass) object;
+            return offender == Offender.CLASS ? javaClass.getName() : fPackageOrPackageOf(javaClass, fPackageOf);
+        }
+        if (object instanceof JavaPackage) {
+            return ((JavaPackage) object).getName();
+        }
+        // e.g. cycles, every one of them is an offender of its own
+        return violation.message;
+    }
+
+    private static String fPackageOrPackageOf(JavaClass javaClass, Function<JavaClass, String> fPackageOf) {
+        String fPackage = fPackageOf.apply(javaClass);
+        return fPackage != null ? fPackage : javaClass.getPackageName();
+    }
+
+    private static final class ReportedViolation {
+        private final Collection<?> violatingObjects;
+        private final String message;
+
+        ReportedViolation(Collection<?> violatingObjects, String message) {
+            this.violatingObjects = violatingObjects;
+            this.message = message;
+        }
+
+        Object correspondingObject() {
+            return violatingObjects.size() == 1 ? violatingObjects.iterator().next() : violatingObjects;
+        }
+    }
+
+    private static final class OffenderCount {
+        private final String key;
+        private ReportedViolation example;
+        private int violations;
+
+        OffenderCount(String key) {
+            this.key = key;
+        }
+    }
+
+}
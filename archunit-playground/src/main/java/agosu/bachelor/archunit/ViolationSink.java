@@ -0,0 +1,17 @@
+package agosu.bachelor.archunit;
+
+/**
+ * Receives the violations of a {@link CustomArchitectures.FunctionalArchitecture#streamViolations streamed} evaluation
+ * one by one, as soon as they are found, instead of collecting them in an evaluation result.
+ * <p>
+ * The evaluation does not close the sink, whoever opened it does.
+ */
+public interface ViolationSink extends AutoCloseable {
+
+    void accept(Violation violation);
+
+    @Override
+    default void close() {
+    }
+
+}
@@ -0,0 +1,212 @@
+package agosu.bachelor.pdep;
+
+import com.tngtech.archunit.PublicAPI;
+
+import java.io.*;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.tngtech.archunit.PublicAPI.Usage.ACCESS;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Builds the package dependency graph of {@code pdep.sh}: the dependencies between the direct subpackages of a
+ * package, and its own classes as {@code <root>}, written as a DOT graph.
+ * <p>
+ * Unlike the script, which greps the source tree once per subpackage, the tree is walked once and the files are read in
+ * parallel, memory-mapped. Besides plain imports, static imports and fully qualified names in the code are found
+ * too. The references of every file are cached by its modification time and size, so a second run only reads the
+ * files changed since.
+ */
+public final class PackageDependencies {
+
+    public static final String ROOT = "<root>";
+
+    private static final String JAVA_FILE_EXTENSION = ".java";
+    private static final String SOURCE_ROOT = "src/main/java/";
+
+    private final Map<String, SortedSet<String>> dependencies;
+    private final int filesRead;
+
+    private PackageDependencies(Map<String, SortedSet<String>> dependencies, int filesRead) {
+        this.dependencies = dependencies;
+        this.filesRead = filesRead;
+    }
+
+    /**
+     * Usage: {@code PackageDependencies [package directory] [output file] [cache file] [package name]}. Defaults to the
+     * current directory, {@code dependencies.dot}, the output file with the extension {@code .cache} and the package
+     * the directory is in below {@code src/main/java}, like {@code pdep.sh}.
+     */
+    public static void main(String[] args) throws IOException {
+        Path packageDirectory = Paths.get(args.length > 0 ? args[0] : ".");
+        Path output = Paths.get(args.length > 1 ? args[1] : "dependencies.dot");
+        Path cache = Paths.get(args.length > 2 ? args[2] : output + ".cache");
+        String packageName = args.length > 3 ? args[3] : packageNameOf(packageDirectory);
+        scan(packageDirectory, packageName, cache).writeDot(output);
+    }
+
+    /**
+     * @return the package a directory below {@code src/main/java} stands for
+     * @throws IllegalArgumentException if the directory is not below {@code src/main/java}
+     */
+    @PublicAPI(usage = ACCESS)
+    public static String packageNameOf(Path packageDirectory) {
+        checkNotNull(packageDirectory, "Supplied package directory must not be null");
+        String path = packageDirectory.toAbsolutePath().normalize().toString().replace(File.separatorChar, '/') + "/";
+        int sourceRoot = path.lastIndexOf(SOURCE_ROOT);
+        checkArgument(sourceRoot >= 0 && path.length() > sourceRoot + SOURCE_ROOT.length(),
+                "%s is no package directory below %s", packageDirectory, SOURCE_ROOT);
+        String relativePath = path.substring(sourceRoot + SOURCE_ROOT.length(), path.length() - 1);
+        return relativePath.replace('/', '.');
+    }
+
+    /**
+     * @param cacheFile the cache of the references of every file, which is created if it does not exist yet
+     */
+    @PublicAPI(usage = ACCESS)
+    public static PackageDependencies scan(Path packageDirectory, String packageName, Path cacheFile) throws IOException {
+        checkNotNull(packageDirectory, "Supplied package directory must not be null");
+        checkNotNull(packageName, "Supplied package name must not be null");
+        checkNotNull(cacheFile, "Supplied cache file must not be null");
+        Path root = packageDirectory.toAbsolutePath().normalize();
+        List<Path> files;
+        try (Stream<Path> walk = Files.walk(root)) {
+            files = walk.filter(file -> file.toString().endsWith(JAVA_FILE_EXTENSION) && Files.isRegularFile(file))
+                    .sorted()
+                    .collect(toList());
+        }
+
+        SourceCache cache = SourceCache.read(cacheFile, packageName);
+        SourceReferences sourceReferences = new SourceReferences(packageName);
+        Map<Path, Set<String>> references = new ConcurrentHashMap<>();
+        AtomicInteger filesRead = new AtomicInteger();
+        try {
+            files.parallelStream().forEach(file -> {
+                try {
+                    BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+                    long lastModified = attributes.lastModifiedTime().toMillis();
+                    Set<String> found = cache.get(file.toString(), lastModified, attributes.size());
+                    if (found == null) {
+                        found = read(file, sourceReferences);
+                        cache.put(file.toString(), lastModified, attributes.size(), found);
+                        filesRead.incrementAndGet();
+                    }
+                    references.put(file, found);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        Set<String> paths = new HashSet<>();
+        for (Path file : files) {
+            paths.add(file.toString());
+        }
+        cache.write(cacheFile, paths);
+
+        Map<String, SortedSet<String>> dependencies = new TreeMap<>();
+        for (Path file : files) {
+            Path relativePath = root.relativize(file);
+            String unit = relativePath.getNameCount() > 1 ? relativePath.getName(0).toString() : ROOT;
+            for (String reference : references.get(file)) {
+                String target = isClassOrWildcard(reference) ? ROOT : reference;
+                if (!target.equals(unit)) {
+                    dependencies.computeIfAbsent(unit, name -> new TreeSet<>()).add(target);
+                }
+            }
+        }
+        return new PackageDependencies(dependencies, filesRead.get());
+    }
+
+    private static Set<String> read(Path file, SourceReferences sourceReferences) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return sourceReferences.find(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    // classes start with an upper case letter by convention, which is how pdep.sh tells them from packages
+    private static boolean isClassOrWildcard(String reference) {
+        char first = reference.charAt(0);
+        return Character.isUpperCase(first) || first == '*';
+    }
+
+    /**
+     * @return the units every unit depends on, by unit; the units are the direct subpackages and {@link #ROOT}
+     */
+    @PublicAPI(usage = ACCESS)
+    public Map<String, SortedSet<String>> getDependencies() {
+        return Collections.unmodifiableMap(dependencies);
+    }
+
+    /**
+     * @return the number of files read by the scan, as opposed to taken from the cache
+     */
+    @PublicAPI(usage = ACCESS)
+    public int getFilesRead() {
+        return filesRead;
+    }
+
+    @PublicAPI(usage = ACCESS)
+    public void writeDot(Path file) throws IOException {
+        checkNotNull(file, "Supplied file must not be null");
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(Files.newOutputStream(file), UTF_8))) {
+            writeDot(writer);
+        }
+    }
+
+    /**
+     * Writes the graph like {@code pdep.sh} writes it: the dependencies of every subpackage, with the one on
+     * {@link #ROOT} last, followed by the dependencies of {@link #ROOT}.
+     */
+    @PublicAPI(usage = ACCESS)
+    public void writeDot(Writer writer) throws IOException {
+        checkNotNull(writer, "Supplied writer must not be null");
+        writer.write("digraph g {\n"
+                + "graph [\n"
+                + "    rankdir = \"LR\"\n"
+                + "];\n"
+                + "node [\n"
+                + "    fontsize = \"12\"\n"
+                + "    fontname = \"Courier\"\n"
+                + "    shape = \"ellipse\"\n"
+                + "];\n");
+        for (Map.Entry<String, SortedSet<String>> unit : dependencies.entrySet()) {
+            if (!unit.getKey().equals(ROOT)) {
+                writeEdges(unit.getKey(), unit.getValue(), writer);
+            }
+        }
+        if (dependencies.containsKey(ROOT)) {
+            writeEdges(ROOT, dependencies.get(ROOT), writer);
+        }
+        writer.write("}\n");
+    }
+
+    private static void writeEdges(String unit, SortedSet<String> targets, Writer writer) throws IOException {
+        for (String target : targets) {
+            if (!target.equals(ROOT)) {
+                writeEdge(unit, target, writer);
+            }
+        }
+        if (targets.contains(ROOT)) {
+            writeEdge(unit, ROOT, writer);
+        }
+    }
+
+    private static void writeEdge(String unit, String target, Writer writer) throws IOException {
+        writer.write("\"" + unit + "\" -> \"" + target + "\"\n");
+    }
+
+}
@@ -0,0 +1,121 @@
+package agosu.bachelor.pdep;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The references found in every source file by the last run, keyed by the path of the file. An entry is only reused
+ * while the modification time and the size of its file are unchanged.
+ * <p>
+ * The cache is only valid for the package it was written for. Reading a cache written for another package or in
+ * another format gives an empty cache, so every file is read again.
+ */
+final class SourceCache {
+
+    private static final int FORMAT_VERSION = 1;
+
+    private final String packageName;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    SourceCache(String packageName) {
+        this.packageName = packageName;
+    }
+
+    /**
+     * @throws IOException if the file exists but cannot be read; a file that cannot be decoded, e.g. a truncated or
+     *                     otherwise corrupt one, gives an empty cache
+     */
+    static SourceCache read(Path file, String packageName) throws IOException {
+        byte[] content;
+        try {
+            content = Files.readAllBytes(file);
+        } catch (NoSuchFileException e) {
+            return new SourceCache(packageName);
+        }
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(content))) {
+            SourceCache result = new SourceCache(packageName);
+            if (in.readInt() != FORMAT_VERSION || !in.readUTF().equals(packageName)) {
+                return result;
+            }
+            int entryCount = in.readInt();
+            for (int i = 0; i < entryCount; i++) {
+                String path = in.readUTF();
+                long lastModified = in.readLong();
+                long size = in.readLong();
+                int referenceCount = in.readInt();
+                Set<String> references = new TreeSet<>();
+                for (int j = 0; j < referenceCount; j++) {
+                    references.add(in.readUTF());
+                }
+                result.entries.put(path, new Entry(lastModified, size, references));
+            }
+            return result;
+        } catch (IOException | RuntimeException e) {
+            return new SourceCache(packageName);
+        }
+    }
+
+    /**
+     * Writes the cache to a temporary file next to the given one first, so an interrupted write never leaves a
+     * truncated cache behind. Only the entries of the given files are kept, removed files are dropped.
+     */
+    void write(Path file, Set<String> paths) throws IOException {
+        Path directory = file.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temporary = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+                out.writeInt(FORMAT_VERSION);
+                out.writeUTF(packageName);
+                Set<String> kept = new TreeSet<>(paths);
+                kept.retainAll(entries.keySet());
+                out.writeInt(kept.size());
+                for (String path : kept) {
+                    Entry entry = entries.get(path);
+                    out.writeUTF(path);
+                    out.writeLong(entry.lastModified);
+                    out.writeLong(entry.size);
+                    out.writeInt(entry.references.size());
+                    for (String reference : entry.references) {
+                        out.writeUTF(reference);
+                    }
+                }
+            }
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    /**
+     * @return the cached references of the file, or {@code null} if the file changed since they were cached
+     */
+    Set<String> get(String path, long lastModified, long size) {
+        Entry entry = entries.get(path);
+        return entry != null && entry.lastModified == lastModified && entry.size == size ? entry.references : null;
+    }
+
+    void put(String path, long lastModified, long size, Set<String> references) {
+        entries.put(path, new Entry(lastModified, size, references));
+    }
+
+    private static final class Entry {
+        private final long lastModified;
+        private final long size;
+        private final Set<String> references;
+
+        Entry(long lastModified, long size, Set<String> references) {
+            this.lastModified = lastModified;
+            this.size = size;
+            this.references = references;
+        }
+    }
+
+}
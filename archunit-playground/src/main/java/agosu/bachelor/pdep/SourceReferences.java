@@ -0,0 +1,140 @@
+package agosu.bachelor.pdep;
+
+import java.nio.ByteBuffer;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Finds the references of one Java source file to the members of a package: the first name segment following the
+ * package in every import, static import and fully qualified name, e.g. {@code rules} for
+ * {@code import org.junit.rules.TestRule;} or {@code Assert} for {@code org.junit.Assert.assertTrue(...)}.
+ * <p>
+ * The file is read as bytes, without decoding it, since the names compared are ASCII. Comments, string, character
+ * and text block literals and the package declaration are skipped.
+ */
+final class SourceReferences {
+
+    private static final String PACKAGE_KEYWORD = "package";
+
+    private final String prefix;
+
+    /**
+     * @param packageName the package whose members are looked for
+     */
+    SourceReferences(String packageName) {
+        this.prefix = packageName + ".";
+    }
+
+    /**
+     * @return the first name segments following the package, in their natural order
+     */
+    Set<String> find(ByteBuffer source) {
+        Set<String> result = new TreeSet<>();
+        StringBuilder name = new StringBuilder();
+        boolean afterDot = false;
+        boolean inPackageDeclaration = false;
+        int position = source.position();
+        int end = source.limit();
+        while (position < end) {
+            char c = (char) (source.get(position) & 0xFF);
+            if (c == '/' && position + 1 < end && source.get(position + 1) == '/') {
+                position = skipLine(source, position + 2, end);
+                continue;
+            }
+            if (c == '/' && position + 1 < end && source.get(position + 1) == '*') {
+                position = skipBlockComment(source, position + 2, end);
+                continue;
+            }
+            if (c == '"' || c == '\'') {
+                inPackageDeclaration = flush(name, inPackageDeclaration, result);
+                afterDot = false;
+                position = skipLiteral(source, position, end);
+                continue;
+            }
+            if (Character.isJavaIdentifierPart(c) && c != 0) {
+                if (name.length() > 0 && !afterDot) {
+                    inPackageDeclaration = flush(name, inPackageDeclaration, result);
+                }
+                int start = position;
+                while (position < end && isIdentifierPart((char) (source.get(position) & 0xFF))) {
+                    position++;
+                }
+                for (int i = start; i < position; i++) {
+                    name.append((char) (source.get(i) & 0xFF));
+                }
+                afterDot = false;
+                continue;
+            }
+            if (c == '.' && name.length() > 0 && !afterDot) {
+                name.append('.');
+                afterDot = true;
+            } else if (c == '*' && afterDot) {
+                name.append('*');
+                afterDot = false;
+            } else if (!Character.isWhitespace(c)) {
+                inPackageDeclaration = flush(name, inPackageDeclaration, result);
+                afterDot = false;
+            }
+            position++;
+        }
+        flush(name, inPackageDeclaration, result);
+        return result;
+    }
+
+    private static boolean isIdentifierPart(char c) {
+        return Character.isJavaIdentifierPart(c) && c != 0;
+    }
+
+    // adds the segment following the package to the result, and tells whether the name starts the package declaration
+    private boolean flush(StringBuilder name, boolean inPackageDeclaration, Set<String> result) {
+        if (name.length() == 0) {
+            return inPackageDeclaration;
+        }
+        String qualifiedName = name.toString();
+        name.setLength(0);
+        if (inPackageDeclaration) {
+            return false;
+        }
+        if (qualifiedName.equals(PACKAGE_KEYWORD)) {
+            return true;
+        }
+        if (qualifiedName.length() > prefix.length() && qualifiedName.startsWith(prefix)) {
+            int segmentEnd = qualifiedName.indexOf('.', prefix.length());
+            result.add(qualifiedName.substring(prefix.length(), segmentEnd < 0 ? qualifiedName.length() : segmentEnd));
+        }
+        return false;
+    }
+
+    private static int skipLine(ByteBuffer source, int position, int end) {
+        while (position < end && source.get(position) != '\n') {
+            position++;
+        }
+        return position;
+    }
+
+    private static int skipBlockComment(ByteBuffer source, int position, int end) {
+        while (position + 1 < end && !(source.get(position) == '*' && source.get(position + 1) == '/')) {
+            position++;
+        }
+        return Math.min(position + 2, end);
+    }
+
+    // skips a string, character or text block literal, including escaped quotes
+    private static int skipLiteral(ByteBuffer source, int position, int end) {
+        byte quote = source.get(position);
+        if (quote == '"' && position + 2 < end && source.get(position + 1) == '"' && source.get(position + 2) == '"') {
+            position += 3;
+            while (position + 2 < end && !(source.get(position) == '"' && source.get(position + 1) == '"' && source.get(position + 2) == '"'
+                    && source.get(position - 1) != '\\')) {
+                position++;
+            }
+            return Math.min(position + 3, end);
+        }
+        position++;
+        while (position < end && source.get(position) != quote && source.get(position) != '\n') {
+            position += source.get(position) == '\\' ? 2 : 1;
+        }
+        return Math.min(position + 1, end);
+    }
+
+}
@@ -0,0 +1,82 @@
+import agosu.bachelor.archunit.ArchitectureGraph;
+import agosu.bachelor.archunit.CustomArchitectures;
+import agosu.bachelor.archunit.CycleGranularity;
+import agosu.bachelor.archunit.GraphFormat;
+import agosu.bachelor.archunit.SharedClasses;
+import com.tngtech.archunit.core.domain.JavaClasses;
+import org.junit.Test;
+
+import java.io.StringWriter;
+
+import static agosu.bachelor.archunit.CustomArchitectures.functionalArchitecture;
+import static agosu.bachelor.archunit.CustomPredicates.*;
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ArchitectureGraphTest {
+
+    private final String SYSTEM_PATH = "com.offenders";
+    private final JavaClasses classes = SharedClasses.importPackages(SYSTEM_PATH);
+
+    @Test
+    public void aggregatesClassEdgesBetweenFPackages() {
+        ArchitectureGraph graph = getArchitecture().architectureGraph(classes, CycleGranularity.FPACKAGE);
+
+        assertEquals(asList("core", "web"), graph.getUnits());
+        assertEquals(1, graph.getEdgeCount());
+        assertEquals(3, graph.getWeight("core", "web"));
+        assertEquals(3, graph.getViolations("core", "web"));
+        assertEquals(0, graph.getWeight("web", "core"));
+    }
+
+    @Test
+    public void countsOnlyViolatingClassEdgesAsViolations() {
+        ArchitectureGraph graph = functionalArchitecture()
+                .systemRoot(SYSTEM_PATH)
+                .ignoreDependency(isInsideThisSystem(SYSTEM_PATH), isOutsideThisSystem(SYSTEM_PATH))
+                .fPackage("core").definedBy("com.offenders.app.core..")
+                .fPackage("web").definedBy("com.offenders.app.web..")
+                .whereFPackage("core").mayOnlyAccessFPackages("web")
+                .architectureGraph(classes, CycleGranularity.PACKAGE);
+
+        assertEquals(asList("com.offenders.app.core", "com.offenders.app.web"), graph.getUnits());
+        assertEquals(3, graph.getWeight("com.offenders.app.core", "com.offenders.app.web"));
+        assertEquals(0, graph.getViolations("com.offenders.app.core", "com.offenders.app.web"));
+    }
+
+    @Test
+    public void writesDotWithViolatingEdgesHighlighted() {
+        StringWriter out = new StringWriter();
+
+        getArchitecture().architectureGraph(classes, CycleGranularity.FPACKAGE).write(GraphFormat.DOT, out);
+
+        assertEquals("digraph \"FPackages\" {\n"
+                + "    \"core\";\n"
+                + "    \"web\";\n"
+                + "    \"core\" -> \"web\" [label=\"3 (3 violating)\", weight=3, color=\"red\", penwidth=2];\n"
+                + "}\n", out.toString());
+    }
+
+    @Test
+    public void writesGraphMlAndJson() {
+        ArchitectureGraph graph = getArchitecture().architectureGraph(classes, CycleGranularity.FPACKAGE);
+        StringWriter graphMl = new StringWriter();
+        StringWriter json = new StringWriter();
+
+        graph.write(GraphFormat.GRAPHML, graphMl);
+        graph.write(GraphFormat.JSON, json);
+
+        assertTrue(graphMl.toString().contains("<edge source=\"core\" target=\"web\">\n"
+                + "            <data key=\"weight\">3</data>\n"
+                + "            <data key=\"violations\">3</data>\n"));
+        assertEquals("{\"granularity\":\"FPACKAGE\",\"nodes\":[\n"
+                + "{\"id\":\"core\"},\n"
+                + "{\"id\":\"web\"}],\"edges\":[\n"
+                + "{\"source\":\"core\",\"target\":\"web\",\"weight\":3,\"violations\":3}]}\n", json.toString());
+    }
+
+    private CustomArchitectures.FunctionalArchitecture getArchitecture() {
+        return TestArchitectures.offenders().whereFPackage("core").mayNotAccessAnyFPackage();
+    }
+}
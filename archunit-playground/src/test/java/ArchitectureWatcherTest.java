@@ -0,0 +1,120 @@
+import agosu.bachelor.archunit.ArchitectureWatcher;
+import agosu.bachelor.archunit.CustomArchitectures;
+import com.offenders.app.core.Hub;
+import com.tngtech.archunit.core.importer.ClassFileImporter;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ArchitectureWatcherTest {
+
+    private static final String CORE_IS_EMPTY = "FPackage 'core' is empty";
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    private Path classes;
+    private Path classDirectory;
+
+    @Before
+    public void copyClasses() throws IOException, URISyntaxException {
+        classes = Paths.get(Hub.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+        classDirectory = folder.newFolder("classes").toPath();
+        copy(classes.resolve("com/offenders"), classDirectory.resolve("com/offenders"));
+    }
+
+    @Test
+    public void reportsAllViolationsOfTheFirstEvaluationAsNew() throws IOException {
+        LinkedBlockingQueue<Set<String>> newViolations = new LinkedBlockingQueue<>();
+
+        try (ArchitectureWatcher watcher = getArchitecture().watch((appeared, fixed) -> newViolations.add(appeared), classDirectory)) {
+            assertEquals(new HashSet<>(expectedDetails()), watcher.getViolations());
+            assertEquals(watcher.getViolations(), newViolations.poll());
+        }
+    }
+
+    @Test
+    public void reportsFixedAndNewViolationsOfChangedClassFiles() throws Exception {
+        LinkedBlockingQueue<List<Set<String>>> changes = new LinkedBlockingQueue<>();
+
+        try (ArchitectureWatcher watcher = getArchitecture().watch((appeared, fixed) -> changes.add(asList(appeared, fixed)), classDirectory)) {
+            Set<String> initial = watcher.getViolations();
+            changes.clear();
+
+            delete(classDirectory.resolve("com/offenders/app/core"));
+            awaitViolations(watcher, violations -> violations.equals(Collections.singleton(CORE_IS_EMPTY)));
+            List<Set<String>> change = changes.poll(10, TimeUnit.SECONDS);
+            assertFalse(change.get(1).isEmpty());
+
+            copy(classes.resolve("com/offenders/app/core"), classDirectory.resolve("com/offenders/app/core"));
+            awaitViolations(watcher, violations -> violations.equals(initial));
+            assertFalse(watcher.getViolations().contains(CORE_IS_EMPTY));
+        }
+    }
+
+    private static List<Set<String>> asList(Set<String> appeared, Set<String> fixed) {
+        List<Set<String>> result = new ArrayList<>();
+        result.add(appeared);
+        result.add(fixed);
+        return result;
+    }
+
+    private static void awaitViolations(ArchitectureWatcher watcher, Predicate<Set<String>> expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!expected.test(watcher.getViolations())) {
+            assertTrue("Violations not updated in time: " + watcher.getViolations(), System.currentTimeMillis() < deadline);
+            Thread.sleep(10);
+        }
+    }
+
+    private List<String> expectedDetails() {
+        return getArchitecture().evaluatedInSinglePass().evaluate(new ClassFileImporter().importPath(classDirectory))
+                .getFailureReport().getDetails();
+    }
+
+    private static void copy(Path from, Path to) throws IOException {
+        try (Stream<Path> files = Files.walk(from)) {
+            for (Path file : files.collect(Collectors.toList())) {
+                Path copy = to.resolve(from.relativize(file).toString());
+                if (Files.isDirectory(file)) {
+                    Files.createDirectories(copy);
+                } else {
+                    Files.copy(file, copy);
+                }
+            }
+        }
+    }
+
+    private static void delete(Path directory) throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Collections.reverseOrder()).collect(Collectors.toList())) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    private CustomArchitectures.FunctionalArchitecture getArchitecture() {
+        return TestArchitectures.offenders().whereFPackage("core").mayNotAccessAnyFPackage();
+    }
+}
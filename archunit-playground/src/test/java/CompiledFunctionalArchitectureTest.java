@@ -0,0 +1,84 @@
+import agosu.bachelor.archunit.CompiledFunctionalArchitecture;
+import agosu.bachelor.archunit.CustomArchitectures;
+import agosu.bachelor.archunit.SharedClasses;
+import com.tngtech.archunit.core.domain.JavaClasses;
+import com.tngtech.archunit.lang.EvaluationResult;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class CompiledFunctionalArchitectureTest {
+
+    private static final String SYSTEM_PATH = "com.offenders";
+
+    private final JavaClasses classes = SharedClasses.importPackages(SYSTEM_PATH);
+
+    @Test
+    public void evaluatesLikeTheArchitecture() {
+        CustomArchitectures.FunctionalArchitecture architecture =
+                TestArchitectures.offenders().whereFPackage("core").mayNotAccessAnyFPackage();
+
+        assertEquals(architecture.evaluate(classes).getFailureReport().getDetails(),
+                architecture.compile().evaluate(classes).getFailureReport().getDetails());
+        assertEquals(architecture.evaluatedInSinglePass().evaluate(classes).getFailureReport().getDetails(),
+                architecture.evaluatedInSinglePass().compile().evaluate(classes).getFailureReport().getDetails());
+    }
+
+    @Test
+    public void isNotChangedByTheArchitectureItWasCompiledFrom() {
+        CustomArchitectures.FunctionalArchitecture architecture =
+                TestArchitectures.offenders().whereFPackage("core").mayNotAccessAnyFPackage();
+        CompiledFunctionalArchitecture compiled = architecture.compile();
+
+        CustomArchitectures.FunctionalArchitecture changed =
+                architecture.whereFPackage("core").mayOnlyAccessFPackages("web").group("com.offenders.app");
+
+        assertFalse(changed.evaluate(classes).hasViolation());
+        assertTrue(compiled.evaluate(classes).hasViolation());
+        assertEquals(changed.compile().getDescription(), changed.getDescription());
+    }
+
+    @Test
+    public void isNotChangedByTheArchitecturesDerivedFromIt() {
+        CustomArchitectures.FunctionalArchitecture architecture =
+                TestArchitectures.offenders().whereFPackage("core").mayNotAccessAnyFPackage();
+        String description = architecture.getDescription();
+
+        architecture.inParallel().group("com.offenders.app").fPackage("app").definedBy("com.offenders.app..");
+        architecture.whereFPackage("core").mayOnlyAccessFPackages("web");
+
+        assertEquals(description, architecture.getDescription());
+        assertTrue(architecture.evaluate(classes).hasViolation());
+    }
+
+    @Test
+    public void evaluatesConcurrently() throws Exception {
+        CompiledFunctionalArchitecture compiled =
+                TestArchitectures.offenders().whereFPackage("core").mayNotAccessAnyFPackage().compile();
+        JavaClasses otherClasses = SharedClasses.importPackages(SYSTEM_PATH, "com.cycles");
+        List<String> expected = compiled.evaluate(classes).getFailureReport().getDetails();
+        List<String> otherExpected = compiled.evaluate(otherClasses).getFailureReport().getDetails();
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<EvaluationResult>> results = new ArrayList<>();
+            for (int i = 0; i < 16; i++) {
+                JavaClasses evaluated = i % 2 == 0 ? classes : otherClasses;
+                results.add(executor.submit(() -> compiled.evaluate(evaluated)));
+            }
+            for (int i = 0; i < results.size(); i++) {
+                assertEquals(i % 2 == 0 ? expected : otherExpected, results.get(i).get().getFailureReport().getDetails());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
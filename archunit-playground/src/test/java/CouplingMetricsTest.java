@@ -0,0 +1,84 @@
+import agosu.bachelor.archunit.CouplingMetric;
+import agosu.bachelor.archunit.CouplingMetrics;
+import agosu.bachelor.archunit.CustomArchitectures;
+import agosu.bachelor.archunit.CycleGranularity;
+import agosu.bachelor.archunit.SharedClasses;
+import com.tngtech.archunit.core.domain.JavaClasses;
+import com.tngtech.archunit.lang.EvaluationResult;
+import org.junit.Test;
+
+import static agosu.bachelor.archunit.CustomArchitectures.functionalArchitecture;
+import static agosu.bachelor.archunit.CustomPredicates.*;
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class CouplingMetricsTest {
+
+    private static final String SYSTEM_PATH = "com.coupling";
+
+    private final JavaClasses classes = SharedClasses.importPackages(SYSTEM_PATH);
+
+    @Test
+    public void computesTheMetricsOfEveryFPackage() {
+        CouplingMetrics metrics = getArchitecture().couplingMetrics(classes);
+
+        assertEquals(asList("users", "books", "email"), asList(metrics.getFPackages().keySet().toArray()));
+        assertEquals("Ca 0, Ce 1, I 1, A 0, D 0", metrics.getFPackage("users").toString());
+        assertEquals("Ca 1, Ce 1, I 0.5, A 0, D 0.5", metrics.getFPackage("books").toString());
+        assertEquals("Ca 1, Ce 0, I 0, A 1, D 0", metrics.getFPackage("email").toString());
+        assertEquals(1, metrics.getFPackage("email").getAbstractClasses());
+        assertEquals(0, metrics.getClassesOutsideFPackages());
+    }
+
+    @Test
+    public void computesTheMetricsOfEveryGroupAndCountsClassesOutsideFPackages() {
+        CouplingMetrics metrics = functionalArchitecture()
+                .systemRoot(SYSTEM_PATH)
+                .ignoreDependency(isInsideThisSystem(SYSTEM_PATH), isOutsideThisSystem(SYSTEM_PATH))
+                .group("com.coupling.users")
+                .group("com.coupling.books")
+                .fPackage("books").definedBy("com.coupling.books..")
+                .couplingMetrics(classes);
+
+        assertEquals(1, metrics.getGroup("com.coupling.users").getEfferentCoupling());
+        assertEquals(1, metrics.getGroup("com.coupling.books").getAfferentCoupling());
+        assertEquals(1, metrics.getGroup("com.coupling.books").getEfferentCoupling());
+        assertEquals(2, metrics.getClassesOutsideFPackages());
+    }
+
+    @Test
+    public void reportsMetricsAboveTheirThresholds() {
+        CustomArchitectures.FunctionalArchitecture architecture = getArchitecture()
+                .whereFPackage("books").shouldHaveCouplingBelow(CouplingMetric.INSTABILITY, 0.3)
+                .whereFPackage("email").shouldHaveCouplingBelow(CouplingMetric.DISTANCE, 0.5);
+
+        EvaluationResult result = architecture.evaluate(classes);
+
+        assertTrue(architecture.getDescription().contains("where FPackage 'books' should have instability below 0.3"));
+        assertEquals(singletonList("FPackage 'books' has instability 0.5, which is not below 0.3 (Ca 1, Ce 1, I 0.5, A 0, D 0.5)"),
+                result.getFailureReport().getDetails());
+        assertEquals(result.getFailureReport().getDetails(),
+                architecture.evaluatedInSinglePass().evaluate(classes).getFailureReport().getDetails());
+    }
+
+    @Test
+    public void checksThresholdsOfGroups() {
+        CustomArchitectures.FunctionalArchitecture architecture = getArchitecture()
+                .group("com.coupling.books");
+
+        assertTrue(architecture.whereGroupHasCouplingBelow("com.coupling.books", CouplingMetric.AFFERENT_COUPLING, 1)
+                .evaluate(classes).hasViolation());
+        assertFalse(architecture.whereGroupHasCouplingBelow("com.coupling.books", CouplingMetric.AFFERENT_COUPLING, 2)
+                .evaluate(classes).hasViolation());
+    }
+
+    private CustomArchitectures.FunctionalArchitecture getArchitecture() {
+        return TestArchitectures.usersBooksAndEmail(SYSTEM_PATH)
+                .whereFPackage("users").mayOnlyAccessFPackages("books")
+                .whereFPackage("books").mayOnlyAccessFPackages("email")
+                .whereCyclesDetectedBetween(CycleGranularity.FPACKAGE);
+    }
+}
@@ -0,0 +1,39 @@
+import agosu.bachelor.archunit.SharedClasses;
+import com.tngtech.archunit.core.domain.JavaClasses;
+import com.tngtech.archunit.lang.EvaluationResult;
+import org.junit.Test;
+
+import java.util.List;
+
+import static agosu.bachelor.archunit.CustomConditions.notAccessClassesInAncestorPackages;
+import static agosu.bachelor.archunit.CustomConditions.notAccessClassesInSubpackages;
+import static com.tngtech.archunit.lang.syntax.ArchRuleDefinition.classes;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class CustomConditionsTest {
+
+    private final JavaClasses classes = SharedClasses.importPackages("com.directions");
+
+    @Test
+    public void reportsEveryOffendingDependencyWithItsTargetAndLine() {
+        EvaluationResult result = classes().should(notAccessClassesInAncestorPackages()).evaluate(classes);
+
+        List<String> details = result.getFailureReport().getDetails();
+        assertEquals(1, details.size());
+        assertTrue(details.get(0).startsWith(
+                "Class com.directions.sub.Leaf depends on ancestor packages: <com.directions.Root> in (Leaf.java:"));
+    }
+
+    @Test
+    public void capsTheReportedDependenciesPerClass() {
+        EvaluationResult result = classes().should(notAccessClassesInSubpackages()).evaluate(classes);
+
+        List<String> details = result.getFailureReport().getDetails();
+        assertEquals(11, details.size());
+        assertEquals(10, details.stream()
+                .filter(detail -> detail.startsWith("Class com.directions.Root depends on subpackages: <com.directions.sub.Leaf> in"))
+                .count());
+        assertTrue(details.contains("Class com.directions.Root depends on subpackages: 2 more dependencies not reported"));
+    }
+}
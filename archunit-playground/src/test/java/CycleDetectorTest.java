@@ -0,0 +1,84 @@
+import agosu.bachelor.archunit.CustomArchitectures;
+import agosu.bachelor.archunit.CycleGranularity;
+import agosu.bachelor.archunit.SharedClasses;
+import com.tngtech.archunit.core.domain.JavaClasses;
+import com.tngtech.archunit.lang.EvaluationResult;
+import org.junit.Test;
+
+import static agosu.bachelor.archunit.CustomArchitectures.functionalArchitecture;
+import static java.lang.System.lineSeparator;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class CycleDetectorTest {
+
+    private final String SYSTEM_PATH = "com.cycles";
+    private final JavaClasses classes = SharedClasses.importPackages(SYSTEM_PATH);
+
+    @Test
+    public void reportsEveryCycleGroupOnceWithAShortestCycle() {
+        String report = evaluate(getArchitecture().whereCyclesDetectedBetween(CycleGranularity.PACKAGE));
+
+        assertEquals(2, countCycles(report));
+        assertTrue(report.contains("Cycle between packages com.cycles.a -> com.cycles.b -> com.cycles.a "
+                + "(3 packages depend on each other: com.cycles.a, com.cycles.b, com.cycles.c)"));
+        assertTrue(report.contains("Cycle between packages com.cycles.d -> com.cycles.e -> com.cycles.d "
+                + "(2 packages depend on each other: com.cycles.d, com.cycles.e)"));
+        assertTrue(report.contains("  Dependencies of com.cycles.a on com.cycles.b:"));
+        assertTrue(report.contains("    - Field <com.cycles.a.A.b> has type <com.cycles.b.B> in (A.java:0)"));
+    }
+
+    @Test
+    public void limitsTheNumberOfReportedCycles() {
+        String report = evaluate(getArchitecture()
+                .whereCyclesDetectedBetween(CycleGranularity.PACKAGE)
+                .reportingAtMostCycles(1));
+
+        assertEquals(1, countCycles(report));
+        assertTrue(report.contains("Number of reported cycles between packages limited to 1"));
+    }
+
+    @Test
+    public void detectsCyclesBetweenFPackages() {
+        String report = evaluate(getArchitecture()
+                .fPackage("a").definedBy("com.cycles.a..")
+                .fPackage("b").definedBy("com.cycles.b..")
+                .fPackage("d").definedBy("com.cycles.d..")
+                .whereCyclesDetectedBetween(CycleGranularity.FPACKAGE));
+
+        assertEquals(1, countCycles(report));
+        assertTrue(report.contains("Cycle between FPackages a -> b -> a (2 FPackages depend on each other: a, b)"));
+    }
+
+    @Test
+    public void detectsNoCyclesWithinAGroup() {
+        EvaluationResult result = getArchitecture()
+                .group("com.cycles")
+                .whereCyclesDetectedBetween(CycleGranularity.GROUP)
+                .evaluate(classes);
+
+        assertFalse(result.hasViolation());
+    }
+
+    @Test
+    public void reportsTheSameCyclesInSinglePass() {
+        CustomArchitectures.FunctionalArchitecture architecture = getArchitecture().whereCyclesDetectedBetween(CycleGranularity.PACKAGE);
+
+        assertEquals(evaluate(architecture), evaluate(architecture.evaluatedInSinglePass()));
+    }
+
+    private String evaluate(CustomArchitectures.FunctionalArchitecture architecture) {
+        return String.join(lineSeparator(), architecture.evaluate(classes).getFailureReport().getDetails());
+    }
+
+    private int countCycles(String report) {
+        return report.split("Cycle between", -1).length - 1;
+    }
+
+    private CustomArchitectures.FunctionalArchitecture getArchitecture() {
+        return functionalArchitecture()
+                .systemRoot(SYSTEM_PATH)
+                .whereFPackagesOff();
+    }
+}
@@ -0,0 +1,116 @@
+import agosu.bachelor.archunit.CustomArchitectures;
+import agosu.bachelor.archunit.CycleGranularity;
+import agosu.bachelor.archunit.DependencyGraph;
+import agosu.bachelor.archunit.DependencyGraphSnapshot;
+import agosu.bachelor.archunit.SharedClasses;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static agosu.bachelor.archunit.CustomArchitectures.functionalArchitecture;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+public class DependencyGraphSnapshotTest {
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void readsTheGraphItWrote() throws IOException {
+        DependencyGraph graph = DependencyGraph.of(SharedClasses.importPackages("com.library", "com.cycles"));
+        Path file = folder.getRoot().toPath().resolve("graph.snapshot");
+
+        DependencyGraphSnapshot.write(graph, file);
+        DependencyGraph read = DependencyGraphSnapshot.read(file);
+
+        assertEquals(graph.getClassCount(), read.getClassCount());
+        for (int clazz = 0; clazz < graph.getClassCount(); clazz++) {
+            assertEquals(graph.getClassName(clazz), read.getClassName(clazz));
+            assertEquals(graph.getPackageOf(clazz), read.getPackageOf(clazz));
+            assertEquals(graph.isImported(clazz), read.isImported(clazz));
+            assertNull(read.getJavaClass(clazz));
+            assertEquals(graph.getFirstEdge(clazz), read.getFirstEdge(clazz));
+            assertEquals(graph.getEdgeEnd(clazz), read.getEdgeEnd(clazz));
+        }
+        assertEquals(graph.getPackageCount(), read.getPackageCount());
+        for (int thePackage = 0; thePackage < graph.getPackageCount(); thePackage++) {
+            assertEquals(graph.getPackageName(thePackage), read.getPackageName(thePackage));
+            assertEquals(graph.getParentPackage(thePackage), read.getParentPackage(thePackage));
+            assertEquals(thePackage, read.getPackageId(graph.getPackageName(thePackage)));
+            assertEquals(graph.getFirstPackageEdge(thePackage), read.getFirstPackageEdge(thePackage));
+        }
+        assertEquals(graph.getEdgeCount(), read.getEdgeCount());
+        for (int edge = 0; edge < graph.getEdgeCount(); edge++) {
+            assertEquals(graph.getEdgeTarget(edge), read.getEdgeTarget(edge));
+            assertEquals(graph.getEdgeKinds(edge), read.getEdgeKinds(edge));
+            assertEquals(graph.getFirstDependency(edge), read.getFirstDependency(edge));
+        }
+        assertEquals(graph.getDependencyCount(), read.getDependencyCount());
+        for (int dependency = 0; dependency < graph.getDependencyCount(); dependency++) {
+            assertEquals(graph.getDependencyKind(dependency), read.getDependencyKind(dependency));
+            assertEquals(graph.getDependencyDescription(dependency), read.getDependencyDescription(dependency));
+            assertEquals(graph.getDependencySourceFile(dependency), read.getDependencySourceFile(dependency));
+            assertEquals(graph.getDependencyLineNumber(dependency), read.getDependencyLineNumber(dependency));
+        }
+    }
+
+    @Test
+    public void detectsTheSameCyclesOnASnapshot() {
+        CustomArchitectures.FunctionalArchitecture architecture = functionalArchitecture()
+                .systemRoot("com.cycles")
+                .whereCyclesDetectedBetween(CycleGranularity.PACKAGE);
+        DependencyGraph graph = DependencyGraph.of(SharedClasses.importPackages("com.cycles"));
+        Path file = folder.getRoot().toPath().resolve("graph.snapshot");
+
+        DependencyGraphSnapshot.write(graph, file);
+
+        assertEquals(
+                architecture.evaluateCycles(graph).getFailureReport().getDetails(),
+                architecture.evaluateCycles(DependencyGraphSnapshot.read(file)).getFailureReport().getDetails());
+    }
+
+    @Test
+    public void rejectsTruncatedSnapshots() throws IOException {
+        Path file = folder.getRoot().toPath().resolve("graph.snapshot");
+        DependencyGraphSnapshot.write(DependencyGraph.of(SharedClasses.importPackages("com.cycles")), file);
+        byte[] bytes = Files.readAllBytes(file);
+
+        Path truncated = folder.getRoot().toPath().resolve("truncated.snapshot");
+        for (int length = 0; length < bytes.length; length++) {
+            Files.write(truncated, Arrays.copyOf(bytes, length));
+            try {
+                DependencyGraphSnapshot.read(truncated);
+                fail("read a snapshot truncated to " + length + " bytes");
+            } catch (IllegalArgumentException expected) {
+            }
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsCountsBeyondTheFile() throws IOException {
+        Path file = folder.getRoot().toPath().resolve("graph.snapshot");
+        DependencyGraphSnapshot.write(DependencyGraph.of(SharedClasses.importPackages("com.cycles")), file);
+        ByteBuffer bytes = ByteBuffer.wrap(Files.readAllBytes(file));
+        // the class count follows the magic number, the format version and the package count
+        bytes.putInt(3 * Integer.BYTES, Integer.MAX_VALUE);
+        Files.write(file, bytes.array());
+
+        DependencyGraphSnapshot.read(file);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsOtherFiles() throws IOException {
+        Path file = folder.newFile("other").toPath();
+        Files.write(file, new byte[]{1, 2, 3, 4, 5, 6, 7, 8});
+
+        DependencyGraphSnapshot.read(file);
+    }
+}
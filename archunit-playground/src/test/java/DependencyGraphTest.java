@@ -0,0 +1,86 @@
+import agosu.bachelor.archunit.DependencyGraph;
+import agosu.bachelor.archunit.DependencyKind;
+import agosu.bachelor.archunit.SharedClasses;
+import com.tngtech.archunit.core.domain.JavaClass;
+import com.tngtech.archunit.core.domain.JavaCodeUnitAccess;
+import com.tngtech.archunit.core.domain.JavaClasses;
+import com.tngtech.archunit.core.importer.ImportOption;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class DependencyGraphTest {
+
+    private final JavaClasses classes = SharedClasses.importPackages(
+            Collections.singletonList(ImportOption.Predefined.DO_NOT_INCLUDE_TESTS), "com.library");
+    private final DependencyGraph graph = DependencyGraph.of(classes);
+
+    @Test
+    public void keepsEveryDirectDependency() {
+        int expected = 0;
+        for (JavaClass clazz : classes) {
+            expected += clazz.getDirectDependenciesFromSelf().size();
+        }
+        assertEquals(expected, graph.getDependencyCount());
+
+        int packageEdgeWeights = 0;
+        for (int packageEdge = 0; packageEdge < graph.getPackageEdgeCount(); packageEdge++) {
+            packageEdgeWeights += graph.getPackageEdgeWeight(packageEdge);
+        }
+        assertEquals(graph.getEdgeCount(), packageEdgeWeights);
+    }
+
+    @Test
+    public void aggregatesDependenciesBetweenTwoClassesIntoOneEdge() {
+        for (int clazz = 0; clazz < graph.getClassCount(); clazz++) {
+            int lastTarget = -1;
+            for (int edge = graph.getFirstEdge(clazz); edge < graph.getEdgeEnd(clazz); edge++) {
+                int target = graph.getEdgeTarget(edge);
+                assertTrue(target > lastTarget);
+                lastTarget = target;
+                for (int i = graph.getFirstDependency(edge); i < graph.getDependencyEnd(edge); i++) {
+                    assertEquals(graph.getClassName(clazz), graph.getDependency(i).getOriginClass().getName());
+                    assertEquals(graph.getClassName(target), graph.getDependency(i).getTargetClass().getName());
+                    assertTrue(graph.getDependencyKind(i).isIn(graph.getEdgeKinds(edge)));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void internsAllAncestorPackages() {
+        int users = graph.getPackageId("com.library.domain.users");
+        assertEquals("com.library.domain", graph.getPackageName(graph.getParentPackage(users)));
+        assertEquals(DependencyGraph.NO_PACKAGE, graph.getParentPackage(graph.getPackageId("")));
+        assertEquals(DependencyGraph.NO_PACKAGE, graph.getPackageId("com.library.nothing"));
+    }
+
+    @Test
+    public void classifiesDependenciesByDescription() {
+        assertEquals(DependencyKind.INHERITANCE, DependencyKind.of("Class <a.B> extends class <a.C> in (B.java:0)"));
+        assertEquals(DependencyKind.METHOD_CALL, DependencyKind.of("Method <a.B.m()> calls method <a.C.has type()> in (B.java:3)"));
+        assertEquals(DependencyKind.MEMBER_TYPE, DependencyKind.of("Field <a.B.f> has type <a.C> in (B.java:0)"));
+        assertEquals(DependencyKind.TYPE_ARGUMENT, DependencyKind.of("Class <a.B> has type parameter 'T' depending on <a.C> in (B.java:0)"));
+    }
+
+    @Test
+    public void classifiesAccessesByTheirType() {
+        Set<String> calls = new HashSet<>();
+        for (JavaClass clazz : classes) {
+            for (JavaCodeUnitAccess<?> access : clazz.getCodeUnitAccessesFromSelf()) {
+                calls.add(access.getDescription());
+            }
+        }
+        assertFalse(calls.isEmpty());
+        for (int i = 0; i < graph.getDependencyCount(); i++) {
+            boolean call = calls.contains(graph.getDependencyDescription(i));
+            assertEquals(call, graph.getDependencyKind(i) == DependencyKind.METHOD_CALL);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+import agosu.bachelor.archunit.CustomArchitectures;
+import agosu.bachelor.archunit.CycleGranularity;
+import agosu.bachelor.archunit.DependencyKind;
+import agosu.bachelor.archunit.SharedClasses;
+import com.tngtech.archunit.core.domain.JavaClasses;
+import com.tngtech.archunit.lang.EvaluationResult;
+import org.junit.Test;
+
+import static agosu.bachelor.archunit.CustomArchitectures.functionalArchitecture;
+import static agosu.bachelor.archunit.CustomPredicates.*;
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class DependencyKindRestrictionTest {
+
+    private static final String SYSTEM_PATH = "com.kinds";
+
+    private final JavaClasses classes = SharedClasses.importPackages(SYSTEM_PATH);
+
+    @Test
+    public void reportsTheDependenciesOfKindsTheFPackageMayNotAccessBy() {
+        CustomArchitectures.FunctionalArchitecture architecture = getArchitecture()
+                .whereFPackage("infrastructure").mayAccessFPackageOnlyBy("domain", DependencyKind.INHERITANCE);
+
+        EvaluationResult result = architecture.evaluate(classes);
+
+        assertTrue(architecture.getDescription().contains("where FPackage 'infrastructure' may access FPackage 'domain' only by [inheritance]"));
+        assertEquals(asList(
+                "FPackage 'infrastructure' may not access FPackage 'domain' by method call: "
+                        + "Method <com.kinds.infrastructure.Scheduler.schedule()> calls constructor <com.kinds.domain.Service.<init>()> in (Scheduler.java:8)",
+                "FPackage 'infrastructure' may not access FPackage 'domain' by method call: "
+                        + "Method <com.kinds.infrastructure.Scheduler.schedule()> calls method <com.kinds.domain.Service.run()> in (Scheduler.java:8)"),
+                result.getFailureReport().getDetails());
+        assertEquals(result.getFailureReport().getDetails(),
+                architecture.evaluatedInSinglePass().evaluate(classes).getFailureReport().getDetails());
+    }
+
+    @Test
+    public void allowsTheDependenciesOfOtherKinds() {
+        assertFalse(getArchitecture()
+                .whereFPackage("infrastructure").mayNotAccessFPackageBy("domain", DependencyKind.FIELD_ACCESS, DependencyKind.ANNOTATION)
+                .evaluate(classes).hasViolation());
+        assertTrue(getArchitecture()
+                .whereFPackage("infrastructure").mayNotAccessFPackageBy("domain", DependencyKind.INHERITANCE)
+                .evaluate(classes).hasViolation());
+    }
+
+    private CustomArchitectures.FunctionalArchitecture getArchitecture() {
+        return functionalArchitecture()
+                .systemRoot(SYSTEM_PATH)
+                .ignoreDependency(isInsideThisSystem(SYSTEM_PATH), isOutsideThisSystem(SYSTEM_PATH))
+                .fPackage("domain").definedBy("com.kinds.domain..")
+                .fPackage("infrastructure").definedBy("com.kinds.infrastructure..")
+                .whereFPackage("infrastructure").mayOnlyAccessFPackages("domain")
+                .whereCyclesDetectedBetween(CycleGranularity.FPACKAGE);
+    }
+}
@@ -0,0 +1,77 @@
+import agosu.bachelor.archunit.CycleGranularity;
+import agosu.bachelor.archunit.DependencyStructureMatrix;
+import agosu.bachelor.archunit.MatrixFormat;
+import agosu.bachelor.archunit.SharedClasses;
+import org.junit.Test;
+
+import java.io.StringWriter;
+import java.util.HashSet;
+import java.util.List;
+
+import static agosu.bachelor.archunit.CustomArchitectures.functionalArchitecture;
+import static agosu.bachelor.archunit.CustomPredicates.*;
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class DependencyStructureMatrixTest {
+
+    @Test
+    public void ordersEveryUnitAfterTheUnitsItDependsOn() {
+        DependencyStructureMatrix matrix = transitiveMatrix();
+
+        assertEquals(asList("email", "books", "users"), matrix.getUnits());
+        assertEquals(1, matrix.getWeight("users", "books"));
+        assertEquals(1, matrix.getWeight("books", "email"));
+        assertEquals(0, matrix.getWeight("email", "books"));
+        assertTrue(matrix.getCyclicBlocks().isEmpty());
+    }
+
+    @Test
+    public void placesUnitsDependingOnEachOtherInBlocksOnTheDiagonal() {
+        DependencyStructureMatrix matrix = functionalArchitecture()
+                .systemRoot("com.cycles")
+                .ignoreDependency(isInsideThisSystem("com.cycles"), isOutsideThisSystem("com.cycles"))
+                .whereFPackagesOff()
+                .dependencyStructureMatrix(SharedClasses.importPackages("com.cycles"), CycleGranularity.PACKAGE);
+
+        List<List<String>> blocks = matrix.getCyclicBlocks();
+        assertEquals(2, blocks.size());
+        assertEquals(new HashSet<>(asList(asList("com.cycles.a", "com.cycles.b", "com.cycles.c"), asList("com.cycles.d", "com.cycles.e"))),
+                new HashSet<>(blocks));
+        assertEquals(1, matrix.getWeight("com.cycles.c", "com.cycles.a"));
+    }
+
+    @Test
+    public void writesCsvJsonAndHtml() {
+        DependencyStructureMatrix matrix = transitiveMatrix();
+        StringWriter csv = new StringWriter();
+        StringWriter json = new StringWriter();
+        StringWriter html = new StringWriter();
+
+        matrix.write(MatrixFormat.CSV, csv);
+        matrix.write(MatrixFormat.JSON, json);
+        matrix.write(MatrixFormat.HTML, html);
+
+        assertEquals(",email,books,users\n"
+                + "email,,,\n"
+                + "books,1,,\n"
+                + "users,,1,\n", csv.toString());
+        assertEquals("{\"granularity\":\"FPACKAGE\",\"units\":[\"email\",\"books\",\"users\"],\"cyclicBlocks\":[],\"cells\":[\n"
+                + "{\"row\":1,\"column\":0,\"weight\":1,\"violations\":0},\n"
+                + "{\"row\":2,\"column\":1,\"weight\":1,\"violations\":1}]}\n", json.toString());
+        assertTrue(html.toString().contains("<tr><th class=\"unit\">users</th><th>3</th><td></td><td class=\"violating\">1</td><td class=\"diagonal\"></td></tr>"));
+    }
+
+    private DependencyStructureMatrix transitiveMatrix() {
+        return functionalArchitecture()
+                .systemRoot("com.transitive")
+                .ignoreDependency(isInsideThisSystem("com.transitive"), isOutsideThisSystem("com.transitive"))
+                .fPackage("users").definedBy("com.transitive.users..")
+                .fPackage("books").definedBy("com.transitive.books..")
+                .fPackage("email").definedBy("com.transitive.email..")
+                .whereFPackage("books").mayOnlyAccessFPackages("email")
+                .whereCyclesDetectedBetween(CycleGranularity.FPACKAGE)
+                .dependencyStructureMatrix(SharedClasses.importPackages("com.transitive"), CycleGranularity.FPACKAGE);
+    }
+}
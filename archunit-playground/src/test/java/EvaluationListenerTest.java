@@ -0,0 +1,75 @@
+import agosu.bachelor.archunit.CheckKind;
+import agosu.bachelor.archunit.CheckMetrics;
+import agosu.bachelor.archunit.CustomArchitectures;
+import agosu.bachelor.archunit.SharedClasses;
+import com.tngtech.archunit.core.domain.JavaClasses;
+import com.tngtech.archunit.core.importer.ImportOption;
+import com.tngtech.archunit.lang.EvaluationResult;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class EvaluationListenerTest {
+
+    private final String SYSTEM_PATH = "com.library";
+    private final JavaClasses classes = SharedClasses.importPackages(
+            Collections.singletonList(ImportOption.Predefined.DO_NOT_INCLUDE_TESTS), SYSTEM_PATH);
+
+    @Test
+    public void reportsEveryCheckWithoutChangingTheResult() {
+        List<CheckMetrics> metrics = Collections.synchronizedList(new ArrayList<>());
+        CustomArchitectures.FunctionalArchitecture architecture = getArchitecture();
+
+        EvaluationResult expected = architecture.evaluate(classes);
+        EvaluationResult actual = architecture.withListener(metrics::add).evaluate(classes);
+
+        assertEquals(expected.getFailureReport().toString(), actual.getFailureReport().toString());
+        assertEquals(5, count(metrics, CheckKind.EMPTY_FPACKAGE));
+        assertEquals(5, count(metrics, CheckKind.DEPENDENCY_SPECIFICATION));
+        assertEquals(1, count(metrics, CheckKind.LAYERS));
+        assertEquals(1, count(metrics, CheckKind.MEMBERSHIP));
+        assertEquals(1, count(metrics, CheckKind.DEPENDENCY_DIRECTION));
+        assertEquals(1, count(metrics, CheckKind.CYCLES));
+        int violations = 0;
+        for (CheckMetrics checkMetrics : metrics) {
+            violations += checkMetrics.getViolations();
+            if (checkMetrics.getKind() == CheckKind.DEPENDENCY_SPECIFICATION && checkMetrics.getFPackageName().equals("books")) {
+                assertTrue(checkMetrics.getClassesVisited() > 0);
+                assertTrue(checkMetrics.getDependenciesExamined() > 0);
+                assertTrue(checkMetrics.getPredicateEvaluations() >= classes.size());
+            }
+            if (checkMetrics.getKind() == CheckKind.DEPENDENCY_DIRECTION) {
+                assertEquals(classes.size(), checkMetrics.getClassesVisited());
+            }
+        }
+        assertEquals(actual.getFailureReport().getDetails().size(), violations);
+    }
+
+    @Test
+    public void reportsChecksEvaluatedInParallelAndInSinglePass() {
+        List<CheckMetrics> parallel = Collections.synchronizedList(new ArrayList<>());
+        List<CheckMetrics> singlePass = new ArrayList<>();
+
+        getArchitecture().withListener(parallel::add).inParallel().evaluate(classes);
+        getArchitecture().withListener(singlePass::add).evaluatedInSinglePass().evaluate(classes);
+
+        assertEquals(14, parallel.size());
+        assertEquals(1, count(singlePass, CheckKind.SINGLE_PASS));
+        assertEquals(1, count(singlePass, CheckKind.CYCLES));
+    }
+
+    private static long count(List<CheckMetrics> metrics, CheckKind kind) {
+        return metrics.stream().filter(checkMetrics -> checkMetrics.getKind() == kind).count();
+    }
+
+    private CustomArchitectures.FunctionalArchitecture getArchitecture() {
+        return TestArchitectures.library()
+                .whereDependencyDirectionDown()
+                .whereFPackage("books").mayNotAccessAnyFPackage();
+    }
+}
@@ -0,0 +1,145 @@
+import agosu.bachelor.archunit.ClassFileScanner;
+import agosu.bachelor.archunit.CustomArchitectures;
+import agosu.bachelor.archunit.DependencyGraph;
+import agosu.bachelor.archunit.SharedClasses;
+import com.tngtech.archunit.core.domain.JavaClasses;
+import com.tngtech.archunit.core.importer.ImportOption;
+import com.tngtech.archunit.lang.EvaluationResult;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.stream.Stream;
+
+import static agosu.bachelor.archunit.CustomArchitectures.functionalArchitecture;
+import static agosu.bachelor.archunit.CustomPredicates.*;
+import static com.tngtech.archunit.core.domain.JavaClass.Predicates.resideInAPackage;
+import static java.util.Arrays.asList;
+import static java.util.stream.Collectors.toList;
+import static java.util.stream.Collectors.toSet;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class FastScanTest {
+
+    private static final String LIBRARY = "com.library";
+    private static final String OFFENDERS = "com.offenders";
+    private static final Path CLASSES = Paths.get("target", "classes");
+    private static final Path TEST_CLASSES = Paths.get("target", "test-classes");
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void passesLikeTheImportedEvaluation() {
+        EvaluationResult result = getLibraryArchitecture()
+                .whereDependencyDirectionUp()
+                .whereFPackage("users").mayOnlyAccessFPackages("books", "email")
+                .evaluateFastScan(CLASSES);
+
+        assertFalse(result.getFailureReport().getDetails().toString(), result.hasViolation());
+    }
+
+    @Test
+    public void reportsTheSameOffendingDependenciesAsTheImportedEvaluation() {
+        JavaClasses classes = SharedClasses.importPackages(Collections.singletonList(ImportOption.Predefined.DO_NOT_INCLUDE_TESTS), LIBRARY);
+        CustomArchitectures.FunctionalArchitecture architecture = getLibraryArchitecture().whereDependencyDirectionDown();
+
+        Set<String> imported = offendingDependencies(architecture.evaluatedInSinglePass().evaluate(classes));
+        Set<String> scanned = offendingDependencies(architecture.evaluateFastScan(CLASSES));
+
+        assertFalse(imported.isEmpty());
+        assertEquals(imported, scanned);
+    }
+
+    @Test
+    public void describesDependenciesByTheirKind() {
+        List<String> details = getOffendersArchitecture().evaluateFastScan(TEST_CLASSES).getFailureReport().getDetails();
+
+        assertEquals(4, details.size());
+        assertTrue(details.contains("Class <com.offenders.app.core.Hub> has a member of type <com.offenders.app.web.Page> in (Hub.java:0)"));
+        assertTrue(details.contains("Class <com.offenders.app.core.Hub> calls a method of <com.offenders.app.web.Page> in (Hub.java:0)"));
+        assertTrue(details.contains("Class <com.offenders.app.core.Hub> has a member of type <com.offenders.app.web.Session> in (Hub.java:0)"));
+        assertTrue(details.contains("Class <com.offenders.app.core.Spoke> has a member of type <com.offenders.app.web.Session> in (Spoke.java:0)"));
+    }
+
+    @Test
+    public void describesTheSuperClassOfAGenericClassAsInheritance() {
+        DependencyGraph graph = ClassFileScanner.scan("com.signatures", TEST_CLASSES);
+
+        Set<String> descriptions = new HashSet<>();
+        for (int dependency = 0; dependency < graph.getDependencyCount(); dependency++) {
+            descriptions.add(graph.getDependencyDescription(dependency));
+        }
+        assertEquals(new HashSet<>(asList(
+                "Class <com.signatures.Generic> extends <com.signatures.Base> in (Generic.java:0)",
+                "Class <com.signatures.Generic> calls a method of <com.signatures.Base> in (Generic.java:0)")),
+                descriptions);
+    }
+
+    @Test
+    public void scansJarFiles() throws IOException {
+        Path jar = folder.getRoot().toPath().resolve("offenders.jar");
+        try (JarOutputStream out = new JarOutputStream(Files.newOutputStream(jar));
+             Stream<Path> files = Files.walk(TEST_CLASSES.resolve("com/offenders"))) {
+            for (Path file : files.filter(Files::isRegularFile).collect(toList())) {
+                out.putNextEntry(new JarEntry(TEST_CLASSES.relativize(file).toString().replace('\\', '/')));
+                out.write(Files.readAllBytes(file));
+                out.closeEntry();
+            }
+        }
+
+        assertEquals(
+                getOffendersArchitecture().evaluateFastScan(TEST_CLASSES).getFailureReport().getDetails(),
+                getOffendersArchitecture().evaluateFastScan(jar).getFailureReport().getDetails());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void needsFPackagesDefinedByPackages() {
+        getOffendersArchitecture()
+                .fPackage("custom").definedBy("com.offenders.app.custom", resideInAPackage("com.offenders.app.custom.."),
+                        resideInAPackage("com.offenders.app.custom"))
+                .evaluateFastScan(TEST_CLASSES);
+    }
+
+    // the dependency direction violations without their source locations, which the scan does not know
+    private static Set<String> offendingDependencies(EvaluationResult result) {
+        return result.getFailureReport().getDetails().stream()
+                .filter(detail -> detail.contains(" depends on "))
+                .map(detail -> detail.substring(0, detail.lastIndexOf(" in (")))
+                .collect(toSet());
+    }
+
+    private CustomArchitectures.FunctionalArchitecture getLibraryArchitecture() {
+        return functionalArchitecture()
+                .systemRoot(LIBRARY)
+                .ignoreDependency(isInsideThisSystem(LIBRARY), isOutsideThisSystem(LIBRARY))
+                .fPackage("books").definedBy("com.library.domain.books..")
+                .fPackage("events").definedBy("com.library.domain.events..")
+                .fPackage("users").definedBy("com.library.domain.users..")
+                .fPackage("email").definedBy("com.library.infrastructure.email..")
+                .fPackage("pdf").definedBy("com.library.infrastructure.pdf..")
+                .group("com.library.domain")
+                .group("com.library.infrastructure");
+    }
+
+    private CustomArchitectures.FunctionalArchitecture getOffendersArchitecture() {
+        return functionalArchitecture()
+                .systemRoot(OFFENDERS)
+                .fPackage("core").definedBy("com.offenders.app.core..")
+                .fPackage("web").definedBy("com.offenders.app.web..")
+                .whereFPackage("core").mayNotAccessAnyFPackage();
+    }
+}
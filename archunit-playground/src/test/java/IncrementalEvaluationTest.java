@@ -0,0 +1,127 @@
+import agosu.bachelor.archunit.CustomArchitectures;
+import agosu.bachelor.archunit.CycleGranularity;
+import com.library.domain.DirectParent;
+import com.tngtech.archunit.core.importer.ClassFileImporter;
+import com.tngtech.archunit.lang.EvaluationResult;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class IncrementalEvaluationTest {
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    private Path classDirectory;
+    private Path cacheFile;
+
+    @Before
+    public void copyClasses() throws IOException, URISyntaxException {
+        Path classes = Paths.get(DirectParent.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+        classDirectory = folder.newFolder("classes").toPath();
+        cacheFile = folder.getRoot().toPath().resolve("architecture.cache");
+        Path library = classes.resolve("com").resolve("library");
+        try (Stream<Path> files = Files.walk(library)) {
+            for (Path file : files.collect(Collectors.toList())) {
+                Path copy = classDirectory.resolve(classes.relativize(file).toString());
+                if (Files.isDirectory(file)) {
+                    Files.createDirectories(copy);
+                } else {
+                    Files.copy(file, copy);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void reportsTheSameAsSinglePassEvaluationOnEveryRun() {
+        CustomArchitectures.FunctionalArchitecture architecture = getArchitecture();
+
+        EvaluationResult first = architecture.evaluateIncrementally(cacheFile, classDirectory);
+        EvaluationResult second = architecture.evaluateIncrementally(cacheFile, classDirectory);
+
+        assertTrue(Files.exists(cacheFile));
+        assertTrue(first.hasViolation());
+        assertEquals(expectedDetails(architecture), first.getFailureReport().getDetails());
+        assertEquals(expectedDetails(architecture), second.getFailureReport().getDetails());
+    }
+
+    @Test
+    public void forgetsRemovedClasses() throws IOException {
+        CustomArchitectures.FunctionalArchitecture architecture = getArchitecture();
+        architecture.evaluateIncrementally(cacheFile, classDirectory);
+
+        try (Stream<Path> files = Files.walk(classDirectory.resolve("com/library/domain/books"))) {
+            for (Path file : files.filter(Files::isRegularFile).collect(Collectors.toList())) {
+                Files.delete(file);
+            }
+        }
+        List<String> details = architecture.evaluateIncrementally(cacheFile, classDirectory).getFailureReport().getDetails();
+
+        assertTrue(details.contains("FPackage 'books' is empty"));
+        for (String detail : details) {
+            assertFalse(detail, detail.startsWith("Class <com.library.domain.books."));
+        }
+    }
+
+    @Test
+    public void doesNotReuseTheCacheOfAnotherArchitecture() {
+        getArchitecture().evaluateIncrementally(cacheFile, classDirectory);
+        CustomArchitectures.FunctionalArchitecture other = getArchitecture().whereDependencyDirectionUp();
+
+        assertEquals(expectedDetails(other), other.evaluateIncrementally(cacheFile, classDirectory).getFailureReport().getDetails());
+    }
+
+    @Test
+    public void checksEveryClassAgainIfTheCacheIsCorrupt() throws IOException {
+        CustomArchitectures.FunctionalArchitecture architecture = getArchitecture();
+        architecture.evaluateIncrementally(cacheFile, classDirectory);
+        byte[] content = Files.readAllBytes(cacheFile);
+        Arrays.fill(content, content.length / 2, content.length, (byte) 0xFF);
+        Files.write(cacheFile, content);
+
+        assertEquals(expectedDetails(architecture), architecture.evaluateIncrementally(cacheFile, classDirectory).getFailureReport().getDetails());
+    }
+
+    @Test
+    public void reportsTheSameOnEveryRunWithClassFilesThatAreNotImported() throws IOException {
+        Files.write(classDirectory.resolve("com/library/domain/Broken.class"), new byte[]{1, 2, 3});
+        CustomArchitectures.FunctionalArchitecture architecture = getArchitecture();
+
+        EvaluationResult first = architecture.evaluateIncrementally(cacheFile, classDirectory);
+        EvaluationResult second = architecture.evaluateIncrementally(cacheFile, classDirectory);
+
+        assertEquals(expectedDetails(architecture), first.getFailureReport().getDetails());
+        assertEquals(expectedDetails(architecture), second.getFailureReport().getDetails());
+    }
+
+    private List<String> expectedDetails(CustomArchitectures.FunctionalArchitecture architecture) {
+        return architecture
+                .evaluatedInSinglePass()
+                .evaluate(new ClassFileImporter().importPath(classDirectory))
+                .getFailureReport()
+                .getDetails();
+    }
+
+    private CustomArchitectures.FunctionalArchitecture getArchitecture() {
+        return TestArchitectures.library()
+                .whereDependencyDirectionDown()
+                .whereFPackage("books").mayNotAccessAnyFPackage()
+                .whereCyclesDetectedBetween(CycleGranularity.SLICE);
+    }
+}
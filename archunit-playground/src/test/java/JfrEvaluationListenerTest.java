@@ -0,0 +1,55 @@
+import agosu.bachelor.archunit.CustomArchitectures;
+import agosu.bachelor.archunit.JfrEvaluationListener;
+import agosu.bachelor.archunit.SharedClasses;
+import com.tngtech.archunit.core.domain.JavaClasses;
+import com.tngtech.archunit.core.importer.ImportOption;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+public class JfrEvaluationListenerTest {
+
+    private final String SYSTEM_PATH = "com.library";
+    private final JavaClasses classes = SharedClasses.importPackages(
+            Collections.singletonList(ImportOption.Predefined.DO_NOT_INCLUDE_TESTS), SYSTEM_PATH);
+
+    @Test
+    public void emitsJfrEvents() throws IOException {
+        Path file = Files.createTempFile("evaluation", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("agosu.bachelor.archunit.Check");
+            recording.start();
+            getArchitecture().withListener(new JfrEvaluationListener()).evaluate(classes);
+            recording.stop();
+            recording.dump(file);
+
+            List<RecordedEvent> events = new ArrayList<>();
+            for (RecordedEvent event : RecordingFile.readAllEvents(file)) {
+                if (event.getEventType().getName().equals("agosu.bachelor.archunit.Check")) {
+                    events.add(event);
+                }
+            }
+            assertEquals(14, events.size());
+            assertFalse(events.get(0).getString("check").isEmpty());
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    private CustomArchitectures.FunctionalArchitecture getArchitecture() {
+        return TestArchitectures.library()
+                .whereDependencyDirectionDown()
+                .whereFPackage("books").mayNotAccessAnyFPackage();
+    }
+}
@@ -0,0 +1,100 @@
+import agosu.bachelor.pdep.PackageDependencies;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.assertEquals;
+
+public class PackageDependenciesTest {
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void findsImportsStaticImportsAndQualifiedNames() throws IOException {
+        Path sample = writeSample();
+
+        PackageDependencies dependencies = PackageDependencies.scan(sample, "org.sample", cacheFile());
+
+        assertEquals("{<root>=[a], a=[<root>, b], b=[<root>, c]}", dependencies.getDependencies().toString());
+    }
+
+    @Test
+    public void writesTheGraphLikeTheScript() throws IOException {
+        Path sample = writeSample();
+        StringWriter dot = new StringWriter();
+
+        PackageDependencies.scan(sample, PackageDependencies.packageNameOf(sample), cacheFile()).writeDot(dot);
+
+        assertEquals("digraph g {\n"
+                + "graph [\n"
+                + "    rankdir = \"LR\"\n"
+                + "];\n"
+                + "node [\n"
+                + "    fontsize = \"12\"\n"
+                + "    fontname = \"Courier\"\n"
+                + "    shape = \"ellipse\"\n"
+                + "];\n"
+                + "\"a\" -> \"b\"\n"
+                + "\"a\" -> \"<root>\"\n"
+                + "\"b\" -> \"c\"\n"
+                + "\"b\" -> \"<root>\"\n"
+                + "\"<root>\" -> \"a\"\n"
+                + "}\n", dot.toString());
+    }
+
+    @Test
+    public void readsOnlyChangedFilesAgain() throws IOException {
+        Path sample = writeSample();
+        Path cache = cacheFile();
+
+        assertEquals(4, PackageDependencies.scan(sample, "org.sample", cache).getFilesRead());
+        assertEquals(0, PackageDependencies.scan(sample, "org.sample", cache).getFilesRead());
+
+        Path changed = write(sample.resolve("c/C.java"), "package org.sample.c;\n\nimport org.sample.a.A;\n\npublic class C extends A {\n}\n");
+        Files.setLastModifiedTime(changed, FileTime.fromMillis(Files.getLastModifiedTime(changed).toMillis() + 1000));
+        PackageDependencies dependencies = PackageDependencies.scan(sample, "org.sample", cache);
+
+        assertEquals(1, dependencies.getFilesRead());
+        assertEquals("[a]", dependencies.getDependencies().get("c").toString());
+    }
+
+    private Path writeSample() throws IOException {
+        Path sample = folder.getRoot().toPath().resolve("src/main/java/org/sample");
+        write(sample.resolve("Root.java"), "package org.sample;\n\n"
+                + "import org.sample.a.A;\n\n"
+                + "public class Root {\n"
+                + "    // org.sample.b.B is only mentioned in a comment\n"
+                + "    private final String name = \"org.sample.c.C\";\n"
+                + "    private A a;\n"
+                + "}\n");
+        write(sample.resolve("a/A.java"), "package org.sample.a;\n\n"
+                + "import static org.sample.b.Util.help;\n\n"
+                + "public class A extends org.sample.Root {\n"
+                + "}\n");
+        write(sample.resolve("b/deep/B.java"), "package org.sample.b.deep;\n\n"
+                + "import org.sample.*;\n"
+                + "import org.sample.b.Util;\n\n"
+                + "public class B {\n"
+                + "    private org.sample.c.C c;\n"
+                + "}\n");
+        write(sample.resolve("c/C.java"), "package org.sample.c;\n\npublic class C {\n}\n");
+        return sample;
+    }
+
+    private Path cacheFile() {
+        return folder.getRoot().toPath().resolve("dependencies.dot.cache");
+    }
+
+    private static Path write(Path file, String content) throws IOException {
+        Files.createDirectories(file.getParent());
+        return Files.write(file, content.getBytes(UTF_8));
+    }
+}
@@ -0,0 +1,89 @@
+import agosu.bachelor.archunit.PackageHierarchy;
+import com.tngtech.archunit.core.importer.ClassFileImporter;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class PackageHierarchyTest {
+
+    private final List<String> packages = Arrays.asList(
+            "com.library.domain",
+            "com.library.domain.books",
+            "com.library.domain.books.reservations",
+            "com.library.domain.users",
+            "com.library.domain.users.permissions",
+            "com.library.infrastructure.email.api",
+            "com.libraryx",
+            "com.library.domainx.books"
+    );
+
+    private final List<String> otherPackages = Arrays.asList(
+            "com.library.domain.events",
+            "com.library.domain.books.reservations.internal",
+            "java.lang"
+    );
+
+    @Test
+    public void answersPackageRelations() {
+        PackageHierarchy hierarchy = PackageHierarchy.of(packages);
+
+        assertTrue(hierarchy.isDirectSubpackage("com.library.domain.books", "com.library.domain"));
+        assertFalse(hierarchy.isDirectSubpackage("com.library.domain.books.reservations", "com.library.domain"));
+        assertFalse(hierarchy.isDirectSubpackage("com.library.domainx.books", "com.library.domain"));
+        assertTrue(hierarchy.isDirectSubpackage("com.library.domain.events", "com.library.domain"));
+
+        assertTrue(hierarchy.isAncestorPackage("com.library", "com.library.domain.books.reservations"));
+        assertFalse(hierarchy.isAncestorPackage("com.library", "com.libraryx"));
+        assertFalse(hierarchy.isAncestorPackage("com.library.domain", "com.library.domain"));
+        assertFalse(hierarchy.isAncestorPackage("", "com.library"));
+
+        assertTrue(hierarchy.isSiblingPackageOrSelf("com.library.domain.users", "com.library.domain.books"));
+        assertTrue(hierarchy.isSiblingPackageOrSelf("com.library.domain.books", "com.library.domain.books"));
+        assertFalse(hierarchy.isSiblingPackageOrSelf("com.library.domainx.books", "com.library.domain.books"));
+        assertFalse(hierarchy.isSiblingPackageOrSelf("java", "com"));
+    }
+
+    @Test
+    public void answersUnknownPackagesLikeKnownOnes() {
+        PackageHierarchy hierarchy = PackageHierarchy.of(packages);
+        for (String thePackage : allPackages()) {
+            for (String candidate : allPackages()) {
+                String pair = candidate + " / " + thePackage;
+                assertEquals(pair, PackageHierarchy.EMPTY.isDirectSubpackage(candidate, thePackage), hierarchy.isDirectSubpackage(candidate, thePackage));
+                assertEquals(pair, PackageHierarchy.EMPTY.isSiblingPackageOrSelf(candidate, thePackage), hierarchy.isSiblingPackageOrSelf(candidate, thePackage));
+                assertEquals(pair, PackageHierarchy.EMPTY.isAncestorPackage(candidate, thePackage), hierarchy.isAncestorPackage(candidate, thePackage));
+            }
+        }
+    }
+
+    @Test
+    public void computesTheDepthOfKnownPackages() {
+        PackageHierarchy hierarchy = PackageHierarchy.of(packages);
+        assertEquals(0, hierarchy.getDepth(""));
+        assertEquals(2, hierarchy.getDepth("com.library"));
+        assertEquals(5, hierarchy.getDepth("com.library.domain.books.reservations"));
+        assertEquals(-1, hierarchy.getDepth("java.lang"));
+    }
+
+    @Test
+    public void containsThePackagesOfTheDependenciesOfClasses() {
+        PackageHierarchy hierarchy = PackageHierarchy.ofClasses(new ClassFileImporter().importClasses(PackageHierarchyTest.class));
+
+        assertTrue(hierarchy.contains(""));
+        assertTrue(hierarchy.contains("agosu.bachelor.archunit"));
+        assertTrue(hierarchy.contains("org.junit"));
+    }
+
+    private List<String> allPackages() {
+        List<String> result = new ArrayList<>(packages);
+        result.addAll(otherPackages);
+        result.add("com");
+        return result;
+    }
+}
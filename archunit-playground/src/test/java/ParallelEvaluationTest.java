@@ -0,0 +1,129 @@
+import agosu.bachelor.archunit.CustomArchitectures;
+import agosu.bachelor.archunit.CustomConditions;
+import agosu.bachelor.archunit.MergeableCondition;
+import agosu.bachelor.archunit.PackageHierarchy;
+import agosu.bachelor.archunit.PartitionedEvaluation;
+import agosu.bachelor.archunit.SharedClasses;
+import com.tngtech.archunit.core.domain.JavaClass;
+import com.tngtech.archunit.core.domain.JavaClasses;
+import com.tngtech.archunit.core.importer.ImportOption;
+import com.tngtech.archunit.lang.ArchCondition;
+import com.tngtech.archunit.lang.ConditionEvent;
+import com.tngtech.archunit.lang.ConditionEvents;
+import com.tngtech.archunit.lang.EvaluationResult;
+import com.tngtech.archunit.lang.SimpleConditionEvent;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static java.util.Collections.singletonList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ParallelEvaluationTest {
+
+    private final String SYSTEM_PATH = "com.library";
+    private final JavaClasses classes = SharedClasses.importPackages(
+            Collections.singletonList(ImportOption.Predefined.DO_NOT_INCLUDE_TESTS), SYSTEM_PATH);
+    private final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+    @After
+    public void shutDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void reportsTheSameAsSequentialEvaluation() {
+        CustomArchitectures.FunctionalArchitecture architecture = TestArchitectures.library()
+                .whereDependencyDirectionDown()
+                .whereFPackage("books").mayNotAccessAnyFPackage();
+
+        EvaluationResult expected = architecture.evaluate(classes);
+        EvaluationResult actual = architecture.inParallel(executor).evaluate(classes);
+
+        assertTrue(actual.hasViolation());
+        assertEquals(expected.getFailureReport().toString(), actual.getFailureReport().toString());
+        assertEquals(expected.getFailureReport().toString(), architecture.inParallel().evaluate(classes).getFailureReport().toString());
+    }
+
+    @Test(expected = AssertionError.class)
+    public void failsOnEmptyFPackagesLikeSequentialEvaluation() {
+        TestArchitectures.library()
+                .fPackage("nothing").definedBy("com.library.nothing..")
+                .inParallel(executor)
+                .evaluate(classes);
+    }
+
+    @Test
+    public void checksConditionsOnPartitionsLikeOnAllClasses() {
+        List<JavaClass> all = newArrayList(classes);
+        List<Supplier<ArchCondition<JavaClass>>> conditions = Arrays.asList(
+                CustomConditions::notAccessClassesInSubpackages,
+                CustomConditions::notAccessClassesInAncestorPackages,
+                () -> CustomConditions.notAccessClassesInAncestorPackages(PackageHierarchy.ofClasses(classes)),
+                () -> CustomConditions.accessClassesInUpperLayerOfASiblingPackage(SYSTEM_PATH),
+                () -> CustomConditions.beInAnyOfPackages(Arrays.asList("com.library.domain.books..", "com.library.domain.users.."))
+        );
+        for (Supplier<ArchCondition<JavaClass>> condition : conditions) {
+            ConditionEvents expected = new ConditionEvents();
+            ArchCondition<JavaClass> sequential = condition.get();
+            sequential.init(all);
+            for (JavaClass javaClass : all) {
+                sequential.check(javaClass, expected);
+            }
+            sequential.finish(expected);
+
+            ConditionEvents actual = PartitionedEvaluation.check(condition, all, executor, 4);
+
+            assertEquals(descriptionsOf(expected), descriptionsOf(actual));
+        }
+    }
+
+    @Test
+    public void mergesTheStateOfMergeableConditions() {
+        List<JavaClass> all = newArrayList(classes);
+
+        ConditionEvents events = PartitionedEvaluation.check(CountingCondition::new, all, executor, 4);
+
+        assertEquals(singletonList("checked " + all.size()), descriptionsOf(events));
+    }
+
+    private static List<String> descriptionsOf(ConditionEvents events) {
+        List<String> result = new ArrayList<>();
+        for (ConditionEvent event : events) {
+            result.addAll(event.getDescriptionLines());
+        }
+        return result;
+    }
+
+    private static class CountingCondition extends ArchCondition<JavaClass> implements MergeableCondition<CountingCondition> {
+        private int count;
+
+        CountingCondition() {
+            super("be counted");
+        }
+
+        @Override
+        public void check(JavaClass item, ConditionEvents events) {
+            count++;
+        }
+
+        @Override
+        public void merge(CountingCondition other) {
+            count += other.count;
+        }
+
+        @Override
+        public void finish(ConditionEvents events) {
+            events.add(SimpleConditionEvent.violated(this, "checked " + count));
+        }
+    }
+}
@@ -0,0 +1,61 @@
+import agosu.bachelor.archunit.SharedClasses;
+import agosu.bachelor.archunit.SharedClassesRule;
+import com.tngtech.archunit.core.domain.JavaClasses;
+import com.tngtech.archunit.core.importer.ImportOption;
+import org.junit.ClassRule;
+import org.junit.Test;
+
+import java.nio.file.Paths;
+import java.util.Collections;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+public class SharedClassesTest {
+
+    @ClassRule
+    public static final SharedClassesRule classes = SharedClassesRule.ofPackages("com.offenders");
+
+    @Test
+    public void importsEveryCombinationOnce() {
+        JavaClasses imported = SharedClasses.importPackages("com.offenders", "com.cycles");
+
+        assertSame(imported, SharedClasses.importPackages("com.cycles", "com.offenders"));
+        assertSame(classes.get(), SharedClasses.importPackages("com.offenders"));
+        assertNotSame(imported, classes.get());
+    }
+
+    @Test
+    public void tellsImportOptionsApartByEquality() {
+        JavaClasses withoutTests = SharedClasses.importPackages(
+                Collections.singletonList(ImportOption.Predefined.DO_NOT_INCLUDE_TESTS), "com.offenders");
+        ImportOption everything = location -> true;
+
+        assertSame(withoutTests, SharedClasses.importPackages(
+                Collections.singletonList(ImportOption.Predefined.DO_NOT_INCLUDE_TESTS), "com.offenders"));
+        assertNotSame(withoutTests, classes.get());
+        assertEquals(0, withoutTests.size());
+        assertNotSame(SharedClasses.importPackages(Collections.singletonList(everything), "com.offenders"),
+                SharedClasses.importPackages(Collections.singletonList(new ImportOption.DoNotIncludeTests()), "com.offenders"));
+        assertSame(SharedClasses.importPackages(Collections.singletonList(everything), "com.offenders"),
+                SharedClasses.importPackages(Collections.singletonList(everything), "com.offenders"));
+    }
+
+    @Test
+    public void importsPathsOnce() {
+        JavaClasses imported = SharedClasses.importPaths(Collections.<ImportOption>emptyList(), Paths.get("target/test-classes/com/cycles"));
+
+        assertSame(imported, SharedClasses.importPaths(Collections.<ImportOption>emptyList(), Paths.get("target/test-classes/com/cycles")));
+        assertFalse(imported.isEmpty());
+    }
+
+    @Test
+    public void evaluatesArchitectureVariantsAgainstTheSharedClasses() {
+        assertEquals(asList(true, false), asList(
+                classes.evaluate(TestArchitectures.offenders().whereFPackage("core").mayNotAccessAnyFPackage()).hasViolation(),
+                classes.evaluate(TestArchitectures.offenders().whereFPackage("core").mayOnlyAccessFPackages("web")).hasViolation()));
+    }
+}
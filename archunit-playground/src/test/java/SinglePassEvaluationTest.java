@@ -0,0 +1,64 @@
+import agosu.bachelor.archunit.CustomArchitectures;
+import agosu.bachelor.archunit.SharedClasses;
+import com.tngtech.archunit.core.domain.JavaClasses;
+import com.tngtech.archunit.core.importer.ImportOption;
+import com.tngtech.archunit.lang.EvaluationResult;
+import org.junit.Test;
+
+import java.util.Collections;
+
+import static com.tngtech.archunit.core.domain.JavaClass.Predicates.resideInAPackage;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class SinglePassEvaluationTest {
+
+    private final String SYSTEM_PATH = "com.library";
+    private final JavaClasses classes = SharedClasses.importPackages(
+            Collections.singletonList(ImportOption.Predefined.DO_NOT_INCLUDE_TESTS), SYSTEM_PATH);
+
+    @Test
+    public void reportsTheSameAsSeparatePassesWithDirectionUp() {
+        assertSameResult(TestArchitectures.library()
+                .whereDependencyDirectionUp()
+                .whereFPackage("users").mayOnlyAccessFPackages("books", "email"));
+    }
+
+    @Test
+    public void reportsTheSameAsSeparatePassesWithDirectionDown() {
+        EvaluationResult result = assertSameResult(TestArchitectures.library()
+                .whereDependencyDirectionDown()
+                .whereFPackage("books").mayNotAccessAnyFPackage());
+        assertTrue(result.hasViolation());
+    }
+
+    @Test
+    public void reportsTheSameAsSeparatePassesWithoutGroups() {
+        assertSameResult(TestArchitectures.libraryWithoutGroups()
+                .whereFPackage("users").mayNotAccessAnyFPackage());
+    }
+
+    @Test
+    public void reportsTheSameAsSeparatePassesWithFPackagesOff() {
+        assertSameResult(TestArchitectures.libraryWithoutGroups().whereFPackagesOff().whereDependencyDirectionDown());
+    }
+
+    @Test
+    public void reportsTheSameAsSeparatePassesWithPredicateDefinedFPackages() {
+        assertSameResult(TestArchitectures.library()
+                .fPackage("reservations").definedBy(
+                        "com.library.domain.books.reservations..",
+                        resideInAPackage("com.library.domain.books.reservations.."),
+                        resideInAPackage("com.library.domain.books.reservations"))
+                .whereDependencyDirectionUp()
+                .whereFPackage("reservations").mayNotAccessAnyFPackage());
+    }
+
+    private EvaluationResult assertSameResult(CustomArchitectures.FunctionalArchitecture architecture) {
+        EvaluationResult expected = architecture.evaluate(classes);
+        EvaluationResult actual = architecture.evaluatedInSinglePass().evaluate(classes);
+        assertEquals(expected.getFailureReport().getDetails(), actual.getFailureReport().getDetails());
+        assertEquals(expected.hasViolation(), actual.hasViolation());
+        return actual;
+    }
+}
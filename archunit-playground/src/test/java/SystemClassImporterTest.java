@@ -0,0 +1,100 @@
+import agosu.bachelor.archunit.CustomArchitectures;
+import agosu.bachelor.archunit.CycleGranularity;
+import agosu.bachelor.archunit.DependencyGraph;
+import agosu.bachelor.archunit.SharedClasses;
+import com.tngtech.archunit.ArchConfiguration;
+import com.tngtech.archunit.core.domain.JavaClass;
+import com.tngtech.archunit.core.domain.JavaClasses;
+import org.junit.Test;
+
+import java.nio.file.Paths;
+
+import static agosu.bachelor.archunit.CustomArchitectures.functionalArchitecture;
+import static agosu.bachelor.archunit.CustomPredicates.*;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class SystemClassImporterTest {
+
+    private static final String SYSTEM_PATH = "com.transitive";
+
+    @Test
+    public void importsOnlyTheClassesInsideTheSystemRoot() {
+        JavaClasses classes = getArchitecture().importer().importPackages("com");
+
+        assertEquals(3, classes.size());
+        for (JavaClass javaClass : classes) {
+            assertTrue(javaClass.getName().startsWith(SYSTEM_PATH + "."));
+        }
+    }
+
+    @Test
+    public void importsOnlyTheClassesInsideTheSystemRootFromPaths() {
+        JavaClasses classes = getArchitecture().importer().importPaths(Paths.get("target/test-classes/com"));
+
+        assertEquals(3, classes.size());
+        for (JavaClass javaClass : classes) {
+            assertTrue(javaClass.getName().startsWith(SYSTEM_PATH + "."));
+        }
+        assertTrue(getArchitecture().importer().importPackages("com.cycles").isEmpty());
+    }
+
+    @Test
+    public void doesNotResolveTheClassesOutsideTheSystemRoot() {
+        boolean resolving = ArchConfiguration.get().resolveMissingDependenciesFromClassPath();
+        JavaClasses classes = getArchitecture().importer().importPackages();
+
+        assertFalse(classes.get("com.transitive.users.User").getRawSuperclass().get().isFullyImported());
+        assertEquals(resolving, ArchConfiguration.get().resolveMissingDependenciesFromClassPath());
+    }
+
+    @Test
+    public void leavesDependenciesOutsideTheSystemRootOutOfTheDependencyGraph() {
+        JavaClasses classes = getArchitecture().importer().importPackages();
+        DependencyGraph graph = DependencyGraph.of(classes, SYSTEM_PATH);
+
+        assertEquals(3, graph.getClassCount());
+        for (int clazz = 0; clazz < graph.getClassCount(); clazz++) {
+            assertTrue(graph.getClassName(clazz).startsWith(SYSTEM_PATH + "."));
+        }
+        assertEquals(2, graph.getEdgeCount());
+        assertTrue(DependencyGraph.of(classes).getClassCount() > 3);
+    }
+
+    @Test
+    public void evaluatesLikeIgnoringTheDependenciesOutsideTheSystem() {
+        CustomArchitectures.FunctionalArchitecture architecture = getArchitecture().droppingDependenciesLeavingTheSystemRoot();
+        JavaClasses classes = architecture.importer().importPackages();
+        CustomArchitectures.FunctionalArchitecture ignoring = getArchitecture()
+                .ignoreDependency(isInsideThisSystem(SYSTEM_PATH), isOutsideThisSystem(SYSTEM_PATH));
+
+        assertEquals(ignoring.evaluate(SharedClasses.importPackages(SYSTEM_PATH)).getFailureReport().getDetails(),
+                architecture.evaluate(classes).getFailureReport().getDetails());
+        assertEquals(ignoring.evaluate(SharedClasses.importPackages(SYSTEM_PATH)).getFailureReport().getDetails(),
+                architecture.evaluatedInSinglePass().evaluate(classes).getFailureReport().getDetails());
+        assertTrue(architecture.evaluate(classes).hasViolation());
+    }
+
+    @Test
+    public void evaluatesTheImportedClassesLikeAnyOthersUnlessTold() {
+        CustomArchitectures.FunctionalArchitecture architecture = getArchitecture();
+
+        assertEquals(architecture.evaluate(SharedClasses.importPackages(SYSTEM_PATH)).getFailureReport().getDetails(),
+                architecture.evaluate(architecture.importer().importPackages()).getFailureReport().getDetails());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void needsASystemRootToDropTheDependenciesLeavingIt() {
+        functionalArchitecture()
+                .fPackage("users").definedBy("com.transitive.users..")
+                .droppingDependenciesLeavingTheSystemRoot()
+                .evaluate(SharedClasses.importPackages(SYSTEM_PATH));
+    }
+
+    private CustomArchitectures.FunctionalArchitecture getArchitecture() {
+        return TestArchitectures.usersBooksAndEmail(SYSTEM_PATH)
+                .whereFPackage("users").mayOnlyAccessFPackages("books")
+                .whereCyclesDetectedBetween(CycleGranularity.FPACKAGE);
+    }
+}
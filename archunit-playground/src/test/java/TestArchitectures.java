@@ -0,0 +1,51 @@
+import agosu.bachelor.archunit.CustomArchitectures;
+
+import static agosu.bachelor.archunit.CustomArchitectures.functionalArchitecture;
+import static agosu.bachelor.archunit.CustomPredicates.*;
+
+/**
+ * The functional architectures of the example systems the tests evaluate. Every call returns a new architecture, so
+ * tests add their own rules to it.
+ */
+final class TestArchitectures {
+
+    private TestArchitectures() {}
+
+    static CustomArchitectures.FunctionalArchitecture libraryWithoutGroups() {
+        return functionalArchitecture()
+                .systemRoot("com.library")
+                .ignoreDependency(isInsideThisSystem("com.library"), isOutsideThisSystem("com.library"))
+                .fPackage("books").definedBy("com.library.domain.books..")
+                .fPackage("events").definedBy("com.library.domain.events..")
+                .fPackage("users").definedBy("com.library.domain.users..")
+                .fPackage("email").definedBy("com.library.infrastructure.email..")
+                .fPackage("pdf").definedBy("com.library.infrastructure.pdf..");
+    }
+
+    static CustomArchitectures.FunctionalArchitecture library() {
+        return libraryWithoutGroups()
+                .group("com.library.domain")
+                .group("com.library.infrastructure");
+    }
+
+    static CustomArchitectures.FunctionalArchitecture offenders() {
+        return functionalArchitecture()
+                .systemRoot("com.offenders")
+                .ignoreDependency(isInsideThisSystem("com.offenders"), isOutsideThisSystem("com.offenders"))
+                .fPackage("core").definedBy("com.offenders.app.core..")
+                .fPackage("web").definedBy("com.offenders.app.web..");
+    }
+
+    /**
+     * @param systemRoot {@code com.transitive} or {@code com.coupling}, which both have the FPackages users, books and
+     *                   email
+     */
+    static CustomArchitectures.FunctionalArchitecture usersBooksAndEmail(String systemRoot) {
+        return functionalArchitecture()
+                .systemRoot(systemRoot)
+                .ignoreDependency(isInsideThisSystem(systemRoot), isOutsideThisSystem(systemRoot))
+                .fPackage("users").definedBy(systemRoot + ".users..")
+                .fPackage("books").definedBy(systemRoot + ".books..")
+                .fPackage("email").definedBy(systemRoot + ".email..");
+    }
+}
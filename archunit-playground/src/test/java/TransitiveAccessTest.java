@@ -0,0 +1,132 @@
+import agosu.bachelor.archunit.CheckKind;
+import agosu.bachelor.archunit.CountingViolationSink;
+import agosu.bachelor.archunit.CouplingMetric;
+import agosu.bachelor.archunit.CustomArchitectures;
+import agosu.bachelor.archunit.CycleGranularity;
+import agosu.bachelor.archunit.SharedClasses;
+import com.transitive.users.User;
+import com.tngtech.archunit.core.domain.JavaClasses;
+import com.tngtech.archunit.lang.EvaluationResult;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TransitiveAccessTest {
+
+    private static final String SYSTEM_PATH = "com.transitive";
+
+    private static final String VIOLATION = "FPackage 'users' transitively accesses FPackage 'email' via users -> books -> email";
+
+    private final JavaClasses classes = SharedClasses.importPackages(SYSTEM_PATH);
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void reportsTheShortestPathToAForbiddenFPackage() {
+        CustomArchitectures.FunctionalArchitecture architecture = getArchitecture()
+                .whereFPackage("users").mayNotTransitivelyAccessFPackages("email");
+
+        EvaluationResult result = architecture.evaluate(classes);
+
+        assertEquals(singletonList(String.join(System.lineSeparator(),
+                "FPackage 'users' transitively accesses FPackage 'email' via users -> books -> email",
+                "  Dependencies of users on books:",
+                "    - Field <com.transitive.users.User.borrowed> has type <com.transitive.books.Book> in (User.java:0)",
+                "  Dependencies of books on email:",
+                "    - Method <com.transitive.books.Book.remind(com.transitive.email.Email)> has parameter of type <com.transitive.email.Email> in (Book.java:0)")),
+                result.getFailureReport().getDetails());
+        assertEquals(result.getFailureReport().getDetails(),
+                architecture.evaluatedInSinglePass().evaluate(classes).getFailureReport().getDetails());
+    }
+
+    @Test
+    public void reportsEveryFPackageReachingAnFPackageThatMayOnlyBeReachedByOthers() {
+        List<String> details = getArchitecture()
+                .whereFPackage("email").mayOnlyBeTransitivelyAccessedByFPackages("books")
+                .evaluate(classes).getFailureReport().getDetails();
+
+        assertEquals(1, details.size());
+        assertTrue(details.get(0).startsWith("FPackage 'users' transitively accesses FPackage 'email' via users -> books -> email"));
+    }
+
+    @Test
+    public void combinesWithTheDirectRestrictionsOfAnFPackage() {
+        CustomArchitectures.FunctionalArchitecture architecture = getArchitecture()
+                .whereFPackage("users").mayNotTransitivelyAccessFPackages("books", "email");
+
+        assertEquals(asList(
+                "where FPackage 'users' may only access FPackages ['books']",
+                "where FPackage 'users' may not transitively access FPackages ['books', 'email']"),
+                Arrays.stream(architecture.getDescription().split(System.lineSeparator())).filter(line -> line.startsWith("where FPackage 'users'")).collect(Collectors.toList()));
+        assertEquals(2, architecture.evaluate(classes).getFailureReport().getDetails().size());
+        assertFalse(getArchitecture().whereFPackage("email").mayNotTransitivelyAccessFPackages("users").evaluate(classes).hasViolation());
+    }
+
+    @Test
+    public void isCheckedByEveryEvaluation() throws IOException, URISyntaxException {
+        CustomArchitectures.FunctionalArchitecture architecture = getArchitecture()
+                .whereFPackage("users").mayNotTransitivelyAccessFPackages("email");
+        Path classDirectory = copyOfTheClasses();
+        CountingViolationSink sink = new CountingViolationSink();
+
+        architecture.streamViolations(classes, sink);
+
+        assertEquals(1, sink.getCount(CheckKind.TRANSITIVE_ACCESS));
+        assertEquals(singletonList(VIOLATION), firstLines(architecture.evaluateFastScan(classDirectory)));
+        assertEquals(singletonList(VIOLATION),
+                firstLines(architecture.evaluateIncrementally(folder.getRoot().toPath().resolve("architecture.cache"), classDirectory)));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void leavesCouplingThresholdsToTheImportedEvaluations() throws IOException, URISyntaxException {
+        getArchitecture()
+                .whereFPackage("users").shouldHaveCouplingBelow(CouplingMetric.INSTABILITY, 0.5)
+                .evaluateFastScan(copyOfTheClasses());
+    }
+
+    private Path copyOfTheClasses() throws IOException, URISyntaxException {
+        Path classes = Paths.get(User.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+        Path classDirectory = folder.newFolder("classes").toPath();
+        try (Stream<Path> files = Files.walk(classes.resolve("com").resolve("transitive"))) {
+            for (Path file : files.collect(Collectors.toList())) {
+                Path copy = classDirectory.resolve(classes.relativize(file).toString());
+                if (Files.isDirectory(file)) {
+                    Files.createDirectories(copy);
+                } else {
+                    Files.copy(file, copy);
+                }
+            }
+        }
+        return classDirectory;
+    }
+
+    private static List<String> firstLines(EvaluationResult result) {
+        return result.getFailureReport().getDetails().stream()
+                .map(detail -> detail.split(System.lineSeparator())[0])
+                .collect(Collectors.toList());
+    }
+
+    private CustomArchitectures.FunctionalArchitecture getArchitecture() {
+        return TestArchitectures.usersBooksAndEmail(SYSTEM_PATH)
+                .whereFPackage("users").mayOnlyAccessFPackages("books")
+                .whereFPackage("books").mayOnlyAccessFPackages("email")
+                .whereCyclesDetectedBetween(CycleGranularity.FPACKAGE);
+    }
+}
@@ -0,0 +1,81 @@
+import agosu.bachelor.archunit.CustomArchitectures;
+import agosu.bachelor.archunit.SharedClasses;
+import com.tngtech.archunit.core.domain.JavaClasses;
+import com.tngtech.archunit.lang.EvaluationResult;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ViolationReportingTest {
+
+    private final String SYSTEM_PATH = "com.offenders";
+    private final JavaClasses classes = SharedClasses.importPackages(SYSTEM_PATH);
+
+    @Test
+    public void stopsAfterTheGivenNumberOfViolations() {
+        List<String> all = getArchitecture().evaluate(classes).getFailureReport().getDetails();
+        assertTrue(all.size() > 2);
+
+        EvaluationResult stopped = getArchitecture().stoppingAfterViolations(2).evaluate(classes);
+
+        List<String> details = stopped.getFailureReport().getDetails();
+        assertEquals(2, details.size());
+        assertTrue(all.containsAll(details));
+        assertTrue(stopped.getFailureReport().toString().contains("at least 2 times"));
+    }
+
+    @Test
+    public void stopsAtTheFirstViolationInEveryEvaluationMode() {
+        List<String> all = getArchitecture().evaluate(classes).getFailureReport().getDetails();
+
+        for (CustomArchitectures.FunctionalArchitecture architecture : new CustomArchitectures.FunctionalArchitecture[]{
+                getArchitecture().stoppingAtFirstViolation(),
+                getArchitecture().stoppingAtFirstViolation().inParallel(),
+                getArchitecture().stoppingAtFirstViolation().evaluatedInSinglePass()}) {
+            List<String> details = architecture.evaluate(classes).getFailureReport().getDetails();
+            assertEquals(1, details.size());
+            assertTrue(all.containsAll(details));
+        }
+    }
+
+    @Test
+    public void reportsAllViolationsIfTheyAreWithinTheBudget() {
+        EvaluationResult expected = getArchitecture().evaluate(classes);
+        int violations = expected.getFailureReport().getDetails().size();
+
+        EvaluationResult actual = getArchitecture().stoppingAfterViolations(violations + 1).evaluate(classes);
+
+        assertEquals(expected.getFailureReport().toString(), actual.getFailureReport().toString());
+    }
+
+    @Test
+    public void reportsTopOffenders() {
+        EvaluationResult classes = getArchitecture().reportingTopOffendingClasses(1).evaluate(this.classes);
+        EvaluationResult pairs = getArchitecture().reportingTopOffendingFPackagePairs(2).evaluate(this.classes);
+
+        List<String> classDetails = classes.getFailureReport().getDetails();
+        assertEquals(1, classDetails.size());
+        assertTrue(classDetails.get(0).startsWith("com.offenders.app.core.Hub caused 4 violation(s), e.g. "));
+        assertTrue(classes.getFailureReport().toString().contains("(5 times by 2 offenders, the top 1 are reported)"));
+        List<String> pairDetails = pairs.getFailureReport().getDetails();
+        assertEquals(1, pairDetails.size());
+        assertTrue(pairDetails.get(0).startsWith("core -> web caused 5 violation(s), e.g. "));
+    }
+
+    @Test
+    public void reportsTheSameTopOffendersInEveryEvaluationMode() {
+        String expected = getArchitecture().reportingTopOffendingClasses(2).evaluate(classes).getFailureReport().toString();
+
+        assertEquals(expected, getArchitecture().reportingTopOffendingClasses(2).inParallel()
+                .evaluate(classes).getFailureReport().toString());
+        assertEquals(expected, getArchitecture().reportingTopOffendingClasses(2).evaluatedInSinglePass()
+                .evaluate(classes).getFailureReport().toString());
+    }
+
+    private CustomArchitectures.FunctionalArchitecture getArchitecture() {
+        return TestArchitectures.offenders().whereFPackage("core").mayNotAccessAnyFPackage();
+    }
+}
@@ -0,0 +1,111 @@
+import agosu.bachelor.archunit.BinaryViolationSink;
+import agosu.bachelor.archunit.CheckKind;
+import agosu.bachelor.archunit.CountingViolationSink;
+import agosu.bachelor.archunit.CustomArchitectures;
+import agosu.bachelor.archunit.JsonLinesViolationSink;
+import agosu.bachelor.archunit.SharedClasses;
+import agosu.bachelor.archunit.Violation;
+import com.tngtech.archunit.core.domain.JavaClasses;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.stream.Collectors.toList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+public class ViolationSinkTest {
+
+    private final String SYSTEM_PATH = "com.offenders";
+    private final JavaClasses classes = SharedClasses.importPackages(SYSTEM_PATH);
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void streamsTheViolationsOfTheEvaluationAsRecords() {
+        List<String> expected = getArchitecture().evaluatedInSinglePass().evaluate(classes).getFailureReport().getDetails();
+        List<Violation> violations = new ArrayList<>();
+
+        long count = getArchitecture().streamViolations(classes, violations::add);
+
+        assertEquals(expected.size(), count);
+        assertEquals(expected, violations.stream().map(Violation::getMessage).sorted().collect(toList()));
+        Violation field = violations.stream()
+                .filter(violation -> violation.getMessage().startsWith("Field <com.offenders.app.core.Hub.page>"))
+                .findFirst().get();
+        assertEquals(CheckKind.DEPENDENCY_SPECIFICATION, field.getCheck());
+        assertEquals("com.offenders.app.core.Hub", field.getOrigin());
+        assertEquals("com.offenders.app.web.Page", field.getTarget());
+        assertEquals("core", field.getOriginFPackage());
+        assertEquals("web", field.getTargetFPackage());
+        assertNotNull(field.getDependencyKind());
+    }
+
+    @Test
+    public void countsViolationsPerCheck() {
+        CountingViolationSink sink = new CountingViolationSink();
+
+        getArchitecture().fPackage("empty").definedBy("com.offenders.app.empty..").streamViolations(classes, sink);
+
+        assertEquals(6, sink.getCount());
+        assertEquals(5, sink.getCount(CheckKind.DEPENDENCY_SPECIFICATION));
+        assertEquals(1, sink.getCount(CheckKind.EMPTY_FPACKAGE));
+    }
+
+    @Test
+    public void writesJsonLines() throws IOException {
+        Path file = folder.getRoot().toPath().resolve("violations.jsonl");
+
+        try (JsonLinesViolationSink sink = new JsonLinesViolationSink(file)) {
+            getArchitecture().streamViolations(classes, sink);
+        }
+
+        List<String> lines = Files.readAllLines(file, UTF_8);
+        assertEquals(5, lines.size());
+        for (String line : lines) {
+            assertTrue(line.startsWith("{\"check\":\"DEPENDENCY_SPECIFICATION\",\"origin\":\"com.offenders.app.core."));
+            assertTrue(line.contains("\"originFPackage\":\"core\",\"targetFPackage\":\"web\""));
+            assertTrue(line.endsWith("}"));
+        }
+    }
+
+    @Test
+    public void readsBackTheBinaryLog() {
+        Path file = folder.getRoot().toPath().resolve("violations.bin");
+        List<Violation> written = new ArrayList<>();
+
+        try (BinaryViolationSink sink = new BinaryViolationSink(file)) {
+            getArchitecture().streamViolations(classes, violation -> {
+                written.add(violation);
+                sink.accept(violation);
+            });
+        }
+        List<Violation> read = new ArrayList<>();
+        BinaryViolationSink.read(file, read::add);
+
+        assertEquals(written.size(), read.size());
+        for (int i = 0; i < written.size(); i++) {
+            assertEquals(written.get(i).getCheck(), read.get(i).getCheck());
+            assertEquals(written.get(i).getOrigin(), read.get(i).getOrigin());
+            assertEquals(written.get(i).getTarget(), read.get(i).getTarget());
+            assertEquals(written.get(i).getOriginFPackage(), read.get(i).getOriginFPackage());
+            assertEquals(written.get(i).getTargetFPackage(), read.get(i).getTargetFPackage());
+            assertEquals(written.get(i).getDependencyKind(), read.get(i).getDependencyKind());
+            assertEquals(written.get(i).getLineNumber(), read.get(i).getLineNumber());
+            assertEquals(written.get(i).getMessage(), read.get(i).getMessage());
+        }
+    }
+
+    private CustomArchitectures.FunctionalArchitecture getArchitecture() {
+        return TestArchitectures.offenders().whereFPackage("core").mayNotAccessAnyFPackage();
+    }
+}
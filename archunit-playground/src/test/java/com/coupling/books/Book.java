@@ -0,0 +1,10 @@
+package com.coupling.books;
+
+import com.coupling.email.Email;
+
+public class Book {
+
+    public void remind(Email email) {
+    }
+
+}
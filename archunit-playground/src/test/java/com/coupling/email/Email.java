@@ -0,0 +1,4 @@
+package com.coupling.email;
+
+public interface Email {
+}
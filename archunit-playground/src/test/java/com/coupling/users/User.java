@@ -0,0 +1,9 @@
+package com.coupling.users;
+
+import com.coupling.books.Book;
+
+public class User {
+
+    private Book borrowed;
+
+}
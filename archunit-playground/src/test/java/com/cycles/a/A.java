@@ -0,0 +1,9 @@
+package com.cycles.a;
+
+import com.cycles.b.B;
+
+public class A {
+
+    private B b;
+
+}
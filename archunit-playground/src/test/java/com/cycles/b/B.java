@@ -0,0 +1,15 @@
+package com.cycles.b;
+
+import com.cycles.a.A;
+import com.cycles.c.C;
+
+public class B {
+
+    public C c() {
+        return new C();
+    }
+
+    public void use(A a) {
+    }
+
+}
@@ -0,0 +1,6 @@
+package com.cycles.c;
+
+import com.cycles.a.A;
+
+public class C extends A {
+}
@@ -0,0 +1,9 @@
+package com.cycles.d;
+
+import com.cycles.e.E;
+
+public class D {
+
+    private E e;
+
+}
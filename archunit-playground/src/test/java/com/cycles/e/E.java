@@ -0,0 +1,9 @@
+package com.cycles.e;
+
+import com.cycles.d.D;
+
+public class E {
+
+    private D d;
+
+}
@@ -0,0 +1,19 @@
+package com.directions;
+
+import com.directions.sub.Leaf;
+
+public class Root {
+
+    private Leaf first;
+    private Leaf second;
+    private Leaf third;
+    private Leaf fourth;
+    private Leaf fifth;
+    private Leaf sixth;
+    private Leaf seventh;
+    private Leaf eighth;
+    private Leaf ninth;
+    private Leaf tenth;
+    private Leaf eleventh;
+    private Leaf twelfth;
+}
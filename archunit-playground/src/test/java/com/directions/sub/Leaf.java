@@ -0,0 +1,8 @@
+package com.directions.sub;
+
+import com.directions.Root;
+
+public class Leaf {
+
+    private Root root;
+}
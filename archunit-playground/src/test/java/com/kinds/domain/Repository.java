@@ -0,0 +1,4 @@
+package com.kinds.domain;
+
+public interface Repository {
+}
@@ -0,0 +1,8 @@
+package com.kinds.domain;
+
+public class Service {
+
+    public void run() {
+    }
+
+}
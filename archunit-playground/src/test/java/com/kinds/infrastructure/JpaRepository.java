@@ -0,0 +1,6 @@
+package com.kinds.infrastructure;
+
+import com.kinds.domain.Repository;
+
+public class JpaRepository implements Repository {
+}
@@ -0,0 +1,11 @@
+package com.kinds.infrastructure;
+
+import com.kinds.domain.Service;
+
+public class Scheduler {
+
+    public void schedule() {
+        new Service().run();
+    }
+
+}
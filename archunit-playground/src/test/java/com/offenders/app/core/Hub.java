@@ -0,0 +1,15 @@
+package com.offenders.app.core;
+
+import com.offenders.app.web.Page;
+import com.offenders.app.web.Session;
+
+public class Hub {
+
+    private Page page;
+    private Session session;
+
+    public void render(Page page) {
+        page.render();
+    }
+
+}
@@ -0,0 +1,9 @@
+package com.offenders.app.core;
+
+import com.offenders.app.web.Session;
+
+public class Spoke {
+
+    private Session session;
+
+}
@@ -0,0 +1,8 @@
+package com.offenders.app.web;
+
+public class Page {
+
+    public void render() {
+    }
+
+}
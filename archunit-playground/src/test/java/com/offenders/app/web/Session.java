@@ -0,0 +1,5 @@
+package com.offenders.app.web;
+
+public class Session {
+
+}
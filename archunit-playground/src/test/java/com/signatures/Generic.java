@@ -0,0 +1,4 @@
+package com.signatures;
+
+public class Generic<T> extends Base {
+}
@@ -0,0 +1,10 @@
+package com.transitive.books;
+
+import com.transitive.email.Email;
+
+public class Book {
+
+    public void remind(Email email) {
+    }
+
+}
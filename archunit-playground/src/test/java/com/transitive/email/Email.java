@@ -0,0 +1,4 @@
+package com.transitive.email;
+
+public class Email {
+}
@@ -0,0 +1,9 @@
+package com.transitive.users;
+
+import com.transitive.books.Book;
+
+public class User {
+
+    private Book borrowed;
+
+}